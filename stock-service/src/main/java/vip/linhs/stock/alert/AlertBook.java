@@ -0,0 +1,182 @@
+package vip.linhs.stock.alert;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import vip.linhs.stock.alert.AlertType.Metric;
+import vip.linhs.stock.model.po.DailyIndex;
+
+/**
+ * the rules of one symbol, an index per metric
+ */
+class AlertBook {
+
+    private static final int SESSION_MINUTES = 240;
+
+    private final String code;
+    private final AlertIndex[] indexes = new AlertIndex[Metric.values().length];
+    // by rule id, both sides of a move rule
+    private final Map<Long, List<AlertEntry>> entryMap = new HashMap<>();
+    private final Map<Long, Long> fireTimeMap = new HashMap<>();
+    // move rules waiting for the first quote of the day
+    private final List<AlertRule> moveList = new ArrayList<>();
+
+    private double limitRate = 0.1;
+    // average volume per minute of the last days
+    private double minuteVolume = Double.NaN;
+    private boolean started;
+
+    AlertBook(String code) {
+        this.code = code;
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = new AlertIndex();
+        }
+    }
+
+    String getCode() {
+        return code;
+    }
+
+    synchronized int size() {
+        return entryMap.size() + moveList.size();
+    }
+
+    synchronized boolean isVolumeNeeded() {
+        return indexes[Metric.VolumeRatio.ordinal()].size() > 0 && Double.isNaN(minuteVolume);
+    }
+
+    synchronized void setMinuteVolume(double minuteVolume) {
+        this.minuteVolume = minuteVolume;
+    }
+
+    synchronized void setLimitRate(double limitRate) {
+        this.limitRate = limitRate;
+    }
+
+    synchronized void add(AlertRule rule, double hysteresis) {
+        remove(rule.getId());
+        if (rule.getType() == AlertType.Move) {
+            moveList.add(rule);
+            return;
+        }
+        AlertEntry entry = new AlertEntry(rule, rule.getType().isAbove(), rule.getValue(), hysteresis);
+        indexes[rule.getType().getMetric().ordinal()].add(entry);
+        List<AlertEntry> list = new ArrayList<>(1);
+        list.add(entry);
+        entryMap.put(rule.getId(), list);
+    }
+
+    synchronized void remove(long id) {
+        moveList.removeIf(v -> v.getId() == id);
+        List<AlertEntry> list = entryMap.remove(id);
+        if (list != null) {
+            list.forEach(entry -> indexes[entry.getRule().getType().getMetric().ordinal()].remove(entry));
+        }
+        fireTimeMap.remove(id);
+    }
+
+    /**
+     * @param time millis now, the session minutes are taken from it when
+     * the quote has no time
+     * @param coolDown default millis between alerts of a rule
+     */
+    synchronized List<AlertEvent> update(DailyIndex dailyIndex, long time, long coolDown) {
+        double price = dailyIndex.getClosingPrice().doubleValue();
+        double preClose = dailyIndex.getPreClosingPrice().doubleValue();
+        if (price <= 0 || preClose <= 0) {
+            return new ArrayList<>();
+        }
+        double[] values = new double[indexes.length];
+        values[Metric.Price.ordinal()] = price;
+        values[Metric.Change.ordinal()] = price / preClose - 1;
+        double minutes = AlertBook.getSessionMinutes(dailyIndex.getQuoteTime() != null ? dailyIndex.getQuoteTime() : new Date(time));
+        values[Metric.VolumeRatio.ordinal()] = dailyIndex.getTradingVolume() / minutes / minuteVolume;
+        values[Metric.LimitUpGap.ordinal()] = (AlertBook.round(preClose * (1 + limitRate)) - price) / preClose;
+        values[Metric.LimitDownGap.ordinal()] = (price - AlertBook.round(preClose * (1 - limitRate))) / preClose;
+
+        List<AlertEntry> firedList = new ArrayList<>();
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i].size() > 0 || i == Metric.Price.ordinal()) {
+                indexes[i].update(values[i], firedList);
+            }
+        }
+
+        List<AlertEvent> eventList = new ArrayList<>();
+        for (AlertEntry entry : firedList) {
+            AlertRule rule = entry.getRule();
+            if (rule.getType() == AlertType.Move) {
+                // taken again around the price it fired at
+                addMove(rule, price);
+                eventList.add(new AlertEvent(rule, dailyIndex, false));
+                continue;
+            }
+            Long fireTime = fireTimeMap.get(rule.getId());
+            long ruleCoolDown = rule.getCoolDown() != null ? rule.getCoolDown() * 1000L : coolDown;
+            if (fireTime != null && time - fireTime < ruleCoolDown) {
+                continue;
+            }
+            fireTimeMap.put(rule.getId(), time);
+            eventList.add(new AlertEvent(rule, dailyIndex, false));
+        }
+
+        if (!started) {
+            // the day starts from the previous close, the price is told once
+            started = true;
+            for (AlertRule rule : new ArrayList<>(moveList)) {
+                addMove(rule, preClose);
+                eventList.add(new AlertEvent(rule, dailyIndex, true));
+            }
+        }
+        return eventList;
+    }
+
+    synchronized void beginOfDay() {
+        for (AlertIndex index : indexes) {
+            index.reset();
+        }
+        for (List<AlertEntry> list : new ArrayList<>(entryMap.values())) {
+            AlertRule rule = list.get(0).getRule();
+            if (rule.getType() == AlertType.Move) {
+                remove(rule.getId());
+                moveList.add(rule);
+            }
+        }
+        fireTimeMap.clear();
+        minuteVolume = Double.NaN;
+        started = false;
+    }
+
+    private void addMove(AlertRule rule, double reference) {
+        remove(rule.getId());
+        AlertIndex index = indexes[Metric.Price.ordinal()];
+        List<AlertEntry> list = new ArrayList<>(2);
+        list.add(new AlertEntry(rule, true, reference * (1 + rule.getValue()), 0));
+        list.add(new AlertEntry(rule, false, reference * (1 - rule.getValue()), 0));
+        list.forEach(index::add);
+        entryMap.put(rule.getId(), list);
+    }
+
+    /**
+     * trading minutes of the day up to the time, at least one
+     */
+    static double getSessionMinutes(Date date) {
+        if (date == null) {
+            return SESSION_MINUTES;
+        }
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        int minute = calendar.get(Calendar.HOUR_OF_DAY) * 60 + calendar.get(Calendar.MINUTE);
+        int morning = Math.max(0, Math.min(minute, 11 * 60 + 30) - (9 * 60 + 30));
+        int afternoon = Math.max(0, Math.min(minute, 15 * 60) - 13 * 60);
+        return Math.max(1, morning + afternoon);
+    }
+
+    private static double round(double price) {
+        return Math.round(price * 100) / 100.0;
+    }
+
+}
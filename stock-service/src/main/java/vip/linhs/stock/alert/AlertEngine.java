@@ -0,0 +1,289 @@
+package vip.linhs.stock.alert;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.DateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.alibaba.fastjson.JSON;
+
+import vip.linhs.stock.dao.DailyIndexDao;
+import vip.linhs.stock.exception.ServiceException;
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.model.po.StockInfo;
+import vip.linhs.stock.model.po.StockSelected;
+import vip.linhs.stock.service.StockService;
+import vip.linhs.stock.util.StockUtil;
+
+/**
+ * price alerts of the ticker. the rules of a symbol are indexed by level so a
+ * quote only visits the rules it crosses, and the alerts of a pass are sent
+ * in a few messages rather than one per rule. the selected stocks take part
+ * as move rules
+ */
+@Component
+public class AlertEngine {
+
+    private static final int VOLUME_DAYS = 5;
+
+    private final Logger logger = LoggerFactory.getLogger(AlertEngine.class);
+
+    @Value("${alert.rule-file:}")
+    private String ruleFile;
+
+    @Value("${alert.hysteresis:0.005}")
+    private double hysteresis;
+
+    @Value("${alert.cool-down:5m}")
+    private Duration coolDown;
+
+    @Value("${alert.batch-size:20}")
+    private int batchSize;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private DailyIndexDao dailyIndexDao;
+
+    private final Map<String, AlertBook> bookMap = new ConcurrentHashMap<>();
+    private final Map<Long, AlertRule> ruleMap = new ConcurrentHashMap<>();
+    private final AtomicLong ruleId = new AtomicLong();
+    private final ConcurrentLinkedQueue<String> messageQueue = new ConcurrentLinkedQueue<>();
+    private volatile boolean loaded;
+
+    public List<AlertRule> getRuleList() {
+        load();
+        return ruleMap.values().stream().sorted(Comparator.comparing(AlertRule::getCode)
+                .thenComparing(AlertRule::getId)).collect(Collectors.toList());
+    }
+
+    public synchronized AlertRule addRule(AlertRule rule) {
+        load();
+        rule.setId(ruleId.incrementAndGet());
+        put(rule);
+        save();
+        return rule;
+    }
+
+    public synchronized void deleteRule(long id) {
+        load();
+        AlertRule rule = ruleMap.remove(id);
+        if (rule == null) {
+            throw new ServiceException("alert rule not found " + id);
+        }
+        getBook(rule.getCode()).remove(id);
+        save();
+    }
+
+    /**
+     * the selected stocks as move rules by the rate, with the id negated
+     */
+    public synchronized void syncSelected(List<StockSelected> selectList) {
+        load();
+        Set<Long> idSet = new HashSet<>();
+        for (StockSelected stockSelected : selectList) {
+            long id = -stockSelected.getId();
+            idSet.add(id);
+            String code = StockUtil.getFullCode(stockSelected.getCode());
+            double rate = stockSelected.getRate().doubleValue();
+            AlertRule rule = ruleMap.get(id);
+            if (rule != null && rule.getCode().equals(code) && Double.compare(rule.getValue(), rate) == 0) {
+                continue;
+            }
+            if (rule != null) {
+                getBook(rule.getCode()).remove(id);
+            }
+            rule = new AlertRule();
+            rule.setId(id);
+            rule.setCode(code);
+            rule.setType(AlertType.Move);
+            rule.setValue(rate);
+            rule.setDescription(stockSelected.getDescription());
+            put(rule);
+        }
+        List<AlertRule> removedList = ruleMap.values().stream()
+                .filter(v -> v.isSelected() && !idSet.contains(v.getId())).collect(Collectors.toList());
+        for (AlertRule rule : removedList) {
+            ruleMap.remove(rule.getId());
+            getBook(rule.getCode()).remove(rule.getId());
+        }
+    }
+
+    /**
+     * full codes having rules
+     */
+    public List<String> getCodeList() {
+        load();
+        return bookMap.values().stream().filter(v -> v.size() > 0).map(AlertBook::getCode).collect(Collectors.toList());
+    }
+
+    public void onQuote(List<DailyIndex> list) {
+        long time = System.currentTimeMillis();
+        for (DailyIndex dailyIndex : list) {
+            AlertBook book = bookMap.get(dailyIndex.getCode());
+            if (book == null || book.size() == 0) {
+                continue;
+            }
+            if (book.isVolumeNeeded()) {
+                book.setMinuteVolume(getMinuteVolume(dailyIndex.getCode(), dailyIndex.getDate()));
+            }
+            List<AlertEvent> eventList = book.update(dailyIndex, time, coolDown.toMillis());
+            for (AlertEvent event : eventList) {
+                messageQueue.add(format(event));
+            }
+        }
+    }
+
+    /**
+     * alerts since the last call, batch size lines a message
+     */
+    public List<String> drainMessages() {
+        List<String> messageList = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        int count = 0;
+        String line;
+        while ((line = messageQueue.poll()) != null) {
+            if (count == batchSize) {
+                messageList.add(sb.toString());
+                sb.setLength(0);
+                count = 0;
+            }
+            if (count > 0) {
+                sb.append("\n");
+            }
+            sb.append(line);
+            count++;
+        }
+        if (count > 0) {
+            messageList.add(sb.toString());
+        }
+        return messageList;
+    }
+
+    public void beginOfDay() {
+        bookMap.values().forEach(AlertBook::beginOfDay);
+        messageQueue.clear();
+    }
+
+    private String format(AlertEvent event) {
+        AlertRule rule = event.getRule();
+        DailyIndex dailyIndex = event.getDailyIndex();
+        String name = getName(rule.getCode());
+        double price = dailyIndex.getClosingPrice().doubleValue();
+        if (event.isOpening()) {
+            return String.format("%s:当前价格:%.03f", name, price);
+        }
+        double rate = StockUtil.calcIncreaseRate(dailyIndex.getClosingPrice(), dailyIndex.getPreClosingPrice())
+                .movePointRight(2).doubleValue();
+        String body = String.format("%s:当前价格:%.03f, 涨幅%.02f%%", name, price, rate);
+        if (rule.getType() == AlertType.Move) {
+            return body;
+        }
+        body += ", " + rule.getType().format(rule.getValue());
+        if (StringUtils.isNotEmpty(rule.getDescription())) {
+            body += ", " + rule.getDescription();
+        }
+        return body;
+    }
+
+    private String getName(String code) {
+        StockInfo stockInfo = stockService.getStockByFullCode(code);
+        return stockInfo != null ? stockInfo.getName() : code;
+    }
+
+    private double getMinuteVolume(String code, Date date) {
+        Date endDate = DateUtils.truncate(date != null ? date : new Date(), Calendar.DATE);
+        // a couple of weeks back covers the days with holidays
+        List<DailyIndex> list = dailyIndexDao.getDailyIndexListByCode(code, DateUtils.addDays(endDate, -VOLUME_DAYS * 3), endDate);
+        list = list.stream().filter(v -> v.getDate().before(endDate)).sorted(Comparator.comparing(DailyIndex::getDate).reversed())
+                .limit(VOLUME_DAYS).collect(Collectors.toList());
+        if (list.isEmpty()) {
+            // never fires rather than firing on every quote
+            return Double.POSITIVE_INFINITY;
+        }
+        double volume = list.stream().mapToLong(DailyIndex::getTradingVolume).average().orElse(0);
+        return volume / AlertBook.getSessionMinutes(null);
+    }
+
+    private void put(AlertRule rule) {
+        ruleMap.put(rule.getId(), rule);
+        AlertBook book = getBook(rule.getCode());
+        if (rule.getType() == AlertType.LimitUp || rule.getType() == AlertType.LimitDown) {
+            book.setLimitRate(StockUtil.getLimitRate(StringUtils.right(rule.getCode(), 6), getName(rule.getCode())));
+        }
+        book.add(rule, rule.getHysteresis() != null ? rule.getHysteresis() : hysteresis);
+    }
+
+    private AlertBook getBook(String code) {
+        return bookMap.computeIfAbsent(code, AlertBook::new);
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            if (StringUtils.isNotEmpty(ruleFile) && Files.exists(Paths.get(ruleFile))) {
+                try {
+                    String text = new String(Files.readAllBytes(Paths.get(ruleFile)), StandardCharsets.UTF_8);
+                    List<AlertRule> list = JSON.parseArray(text, AlertRule.class);
+                    for (AlertRule rule : list) {
+                        put(rule);
+                        ruleId.set(Math.max(ruleId.get(), rule.getId()));
+                    }
+                    logger.info("load {} alert rules from {}", list.size(), ruleFile);
+                } catch (IOException e) {
+                    throw new ServiceException("load alert rules error " + ruleFile, e);
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    private void save() {
+        if (StringUtils.isEmpty(ruleFile)) {
+            return;
+        }
+        List<AlertRule> list = ruleMap.values().stream().filter(v -> !v.isSelected())
+                .sorted(Comparator.comparing(AlertRule::getId)).collect(Collectors.toList());
+        Path path = Paths.get(ruleFile);
+        Path tmpPath = Paths.get(ruleFile + ".tmp");
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.write(tmpPath, JSON.toJSONString(list, true).getBytes(StandardCharsets.UTF_8));
+            Files.move(tmpPath, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new ServiceException("save alert rules error " + ruleFile, e);
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package vip.linhs.stock.alert;
+
+/**
+ * one side of a rule in an index, fires on crossing the level and is
+ * armed again once the metric is back past the rearm level
+ */
+class AlertEntry {
+
+    private final AlertRule rule;
+    private final boolean above;
+    private final double level;
+    private final double rearmLevel;
+    private boolean armed = true;
+
+    AlertEntry(AlertRule rule, boolean above, double level, double hysteresis) {
+        this.rule = rule;
+        this.above = above;
+        this.level = level;
+        double gap = rule.getType().getMetric().isRelative() ? Math.abs(level) * hysteresis : hysteresis;
+        this.rearmLevel = above ? level - gap : level + gap;
+    }
+
+    AlertRule getRule() {
+        return rule;
+    }
+
+    boolean isAbove() {
+        return above;
+    }
+
+    double getLevel() {
+        return level;
+    }
+
+    double getRearmLevel() {
+        return rearmLevel;
+    }
+
+    boolean isArmed() {
+        return armed;
+    }
+
+    void setArmed(boolean armed) {
+        this.armed = armed;
+    }
+
+    boolean holds(double value) {
+        return above ? value >= level : value <= level;
+    }
+
+}
@@ -0,0 +1,35 @@
+package vip.linhs.stock.alert;
+
+import vip.linhs.stock.model.po.DailyIndex;
+
+/**
+ * a rule fired on a quote
+ */
+class AlertEvent {
+
+    private final AlertRule rule;
+    private final DailyIndex dailyIndex;
+    /**
+     * the first quote of the day of a move rule
+     */
+    private final boolean opening;
+
+    AlertEvent(AlertRule rule, DailyIndex dailyIndex, boolean opening) {
+        this.rule = rule;
+        this.dailyIndex = dailyIndex;
+        this.opening = opening;
+    }
+
+    AlertRule getRule() {
+        return rule;
+    }
+
+    DailyIndex getDailyIndex() {
+        return dailyIndex;
+    }
+
+    boolean isOpening() {
+        return opening;
+    }
+
+}
@@ -0,0 +1,136 @@
+package vip.linhs.stock.alert;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * the rules of one metric of a symbol sorted by level. a move of the metric
+ * from the last value to the new one only visits the levels in between, so
+ * an update costs O(log n + k) for n rules of which k are crossed
+ */
+class AlertIndex {
+
+    private final NavigableMap<Double, List<AlertEntry>> aboveMap = new TreeMap<>();
+    private final NavigableMap<Double, List<AlertEntry>> belowMap = new TreeMap<>();
+    // disarmed entries by rearm level
+    private final NavigableMap<Double, List<AlertEntry>> aboveRearmMap = new TreeMap<>();
+    private final NavigableMap<Double, List<AlertEntry>> belowRearmMap = new TreeMap<>();
+    // added where they already hold, checked on the next update
+    private final List<AlertEntry> pendingList = new ArrayList<>();
+
+    private double last = Double.NaN;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void add(AlertEntry entry) {
+        AlertIndex.put(entry.isAbove() ? aboveMap : belowMap, entry.getLevel(), entry);
+        if (!entry.isArmed()) {
+            AlertIndex.put(entry.isAbove() ? aboveRearmMap : belowRearmMap, entry.getRearmLevel(), entry);
+        } else if (!Double.isNaN(last) && entry.holds(last)) {
+            pendingList.add(entry);
+        }
+        size++;
+    }
+
+    void remove(AlertEntry entry) {
+        if (AlertIndex.delete(entry.isAbove() ? aboveMap : belowMap, entry.getLevel(), entry)) {
+            size--;
+        }
+        AlertIndex.delete(entry.isAbove() ? aboveRearmMap : belowRearmMap, entry.getRearmLevel(), entry);
+        pendingList.remove(entry);
+    }
+
+    /**
+     * @param firedList armed entries crossed are disarmed and added
+     */
+    void update(double value, List<AlertEntry> firedList) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        double last = this.last;
+        this.last = value;
+
+        for (AlertEntry entry : pendingList) {
+            if (entry.holds(value)) {
+                fire(entry, firedList);
+            }
+        }
+        pendingList.clear();
+
+        if (Double.isNaN(last)) {
+            // everything that holds at the first value
+            fire(aboveMap.headMap(value, true), firedList);
+            fire(belowMap.tailMap(value, true), firedList);
+            return;
+        }
+        if (value > last) {
+            fire(aboveMap.subMap(last, false, value, true), firedList);
+            AlertIndex.rearm(belowRearmMap.subMap(last, false, value, true));
+        } else if (value < last) {
+            fire(belowMap.subMap(value, true, last, false), firedList);
+            AlertIndex.rearm(aboveRearmMap.subMap(value, true, last, false));
+        }
+    }
+
+    /**
+     * a new day, the next value is taken as the first
+     */
+    void reset() {
+        last = Double.NaN;
+        pendingList.clear();
+        AlertIndex.rearm(aboveRearmMap);
+        AlertIndex.rearm(belowRearmMap);
+    }
+
+    private void fire(NavigableMap<Double, List<AlertEntry>> crossedMap, List<AlertEntry> firedList) {
+        for (List<AlertEntry> list : crossedMap.values()) {
+            for (AlertEntry entry : list) {
+                fire(entry, firedList);
+            }
+        }
+    }
+
+    private void fire(AlertEntry entry, List<AlertEntry> firedList) {
+        if (!entry.isArmed()) {
+            return;
+        }
+        entry.setArmed(false);
+        AlertIndex.put(entry.isAbove() ? aboveRearmMap : belowRearmMap, entry.getRearmLevel(), entry);
+        firedList.add(entry);
+    }
+
+    private static void rearm(NavigableMap<Double, List<AlertEntry>> rearmMap) {
+        for (List<AlertEntry> list : rearmMap.values()) {
+            list.forEach(entry -> entry.setArmed(true));
+        }
+        rearmMap.clear();
+    }
+
+    private static void put(NavigableMap<Double, List<AlertEntry>> map, double key, AlertEntry entry) {
+        map.computeIfAbsent(key, k -> new ArrayList<>(1)).add(entry);
+    }
+
+    private static boolean delete(NavigableMap<Double, List<AlertEntry>> map, double key, AlertEntry entry) {
+        List<AlertEntry> list = map.get(key);
+        if (list == null) {
+            return false;
+        }
+        for (Iterator<AlertEntry> iterator = list.iterator(); iterator.hasNext();) {
+            if (iterator.next() == entry) {
+                iterator.remove();
+                if (list.isEmpty()) {
+                    map.remove(key);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
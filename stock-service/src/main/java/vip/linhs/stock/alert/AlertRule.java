@@ -0,0 +1,86 @@
+package vip.linhs.stock.alert;
+
+public class AlertRule {
+
+    private long id;
+    /**
+     * full code
+     */
+    private String code;
+    private AlertType type;
+    private double value;
+    /**
+     * how far back the metric has to go before the rule fires again,
+     * the default when null
+     */
+    private Double hysteresis;
+    /**
+     * least seconds between two alerts of the rule, the default when null
+     */
+    private Integer coolDown;
+    private String description;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public AlertType getType() {
+        return type;
+    }
+
+    public void setType(AlertType type) {
+        this.type = type;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public void setValue(double value) {
+        this.value = value;
+    }
+
+    public Double getHysteresis() {
+        return hysteresis;
+    }
+
+    public void setHysteresis(Double hysteresis) {
+        this.hysteresis = hysteresis;
+    }
+
+    public Integer getCoolDown() {
+        return coolDown;
+    }
+
+    public void setCoolDown(Integer coolDown) {
+        this.coolDown = coolDown;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    /**
+     * rules of the selected stocks have negative ids
+     */
+    public boolean isSelected() {
+        return id < 0;
+    }
+
+}
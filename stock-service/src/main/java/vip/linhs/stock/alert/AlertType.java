@@ -0,0 +1,67 @@
+package vip.linhs.stock.alert;
+
+public enum AlertType {
+
+    PriceAbove(Metric.Price, true, "价格上穿%.03f"),
+    PriceBelow(Metric.Price, false, "价格下穿%.03f"),
+    ChangeAbove(Metric.Change, true, "涨幅超过%.02f%%"),
+    ChangeBelow(Metric.Change, false, "涨幅低于%.02f%%"),
+    /**
+     * volume per minute of the day over that of the last days
+     */
+    VolumeSpike(Metric.VolumeRatio, true, "量比超过%.02f"),
+    /**
+     * within value of the previous close from the limit
+     */
+    LimitUp(Metric.LimitUpGap, false, "距涨停%.02f%%以内"),
+    LimitDown(Metric.LimitDownGap, false, "距跌停%.02f%%以内"),
+    /**
+     * moved by value since the last alert, the rule of the selected stocks
+     */
+    Move(Metric.Price, true, "变动超过%.02f%%");
+
+    public enum Metric {
+        Price(true), Change(false), VolumeRatio(true), LimitUpGap(false), LimitDownGap(false);
+
+        /**
+         * hysteresis in a fraction of the level rather than in the unit
+         */
+        private final boolean relative;
+
+        Metric(boolean relative) {
+            this.relative = relative;
+        }
+
+        public boolean isRelative() {
+            return relative;
+        }
+    }
+
+    private final Metric metric;
+    private final boolean above;
+    private final String format;
+
+    AlertType(Metric metric, boolean above, String format) {
+        this.metric = metric;
+        this.above = above;
+        this.format = format;
+    }
+
+    public Metric getMetric() {
+        return metric;
+    }
+
+    public boolean isAbove() {
+        return above;
+    }
+
+    /**
+     * rates are kept as fractions and shown in percent
+     */
+    public String format(double value) {
+        boolean percent = metric == Metric.Change || metric == Metric.LimitUpGap || metric == Metric.LimitDownGap
+                || this == Move;
+        return String.format(format, percent ? value * 100 : value);
+    }
+
+}
@@ -0,0 +1,226 @@
+package vip.linhs.stock.api;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.UnsupportedEncodingException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import vip.linhs.stock.exception.ServiceException;
+
+/**
+ * writes trade requests as form or json bodies, the getters of each request
+ * class are looked up once and kept as method handles
+ *
+ * property names follow java beans like BeanMap did, class, userId and
+ * method are never sent
+ */
+public class TradeRequestEncoder {
+
+    private static final List<String> IgnoreList = Arrays.asList("class", "userId", "method");
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<Property[]> PROPERTIES = new ClassValue<Property[]>() {
+        @Override
+        protected Property[] computeValue(Class<?> type) {
+            return TradeRequestEncoder.introspect(type);
+        }
+    };
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    private static final int MAX_BUFFER_SIZE = 64 * 1024;
+
+    private TradeRequestEncoder() {
+    }
+
+    /**
+     * name=value&amp;..., null is sent as "null" as before
+     */
+    public static String encodeForm(Object request) {
+        StringBuilder sb = TradeRequestEncoder.buffer();
+        TradeRequestEncoder.writeForm(request, sb);
+        return sb.toString();
+    }
+
+    public static void writeForm(Object request, StringBuilder sb) {
+        for (Property property : PROPERTIES.get(request.getClass())) {
+            if (sb.length() > 0) {
+                sb.append('&');
+            }
+            sb.append(property.encodedName).append('=');
+            TradeRequestEncoder.appendUrlEncoded(sb, String.valueOf(property.get(request)));
+        }
+    }
+
+    public static void appendFormParam(StringBuilder sb, String name, String value) {
+        if (sb.length() > 0) {
+            sb.append('&');
+        }
+        TradeRequestEncoder.appendUrlEncoded(sb, name);
+        sb.append('=');
+        TradeRequestEncoder.appendUrlEncoded(sb, value);
+    }
+
+    /**
+     * [{...}, ...], null values are skipped
+     */
+    public static String encodeJsonList(List<?> list) {
+        StringBuilder sb = TradeRequestEncoder.buffer();
+        sb.append('[');
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            TradeRequestEncoder.writeJson(list.get(i), sb);
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+
+    public static void writeJson(Object request, StringBuilder sb) {
+        sb.append('{');
+        boolean first = true;
+        for (Property property : PROPERTIES.get(request.getClass())) {
+            Object value = property.get(request);
+            if (value == null) {
+                continue;
+            }
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            TradeRequestEncoder.appendJsonString(sb, property.name);
+            sb.append(':');
+            if (value instanceof Number || value instanceof Boolean) {
+                sb.append(value);
+            } else {
+                TradeRequestEncoder.appendJsonString(sb, value.toString());
+            }
+        }
+        sb.append('}');
+    }
+
+    private static StringBuilder buffer() {
+        StringBuilder sb = BUFFER.get();
+        if (sb.capacity() > MAX_BUFFER_SIZE) {
+            sb = new StringBuilder(512);
+            BUFFER.set(sb);
+        }
+        sb.setLength(0);
+        return sb;
+    }
+
+    private static void appendUrlEncoded(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+                    || c == '-' || c == '_' || c == '.' || c == '*') {
+                sb.append(c);
+            } else if (c == ' ') {
+                sb.append('+');
+            } else {
+                try {
+                    sb.append(URLEncoder.encode(value.substring(i), "UTF-8"));
+                } catch (UnsupportedEncodingException e) {
+                    throw new IllegalStateException(e);
+                }
+                return;
+            }
+        }
+    }
+
+    private static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static Property[] introspect(Class<?> type) {
+        BeanInfo beanInfo;
+        try {
+            beanInfo = Introspector.getBeanInfo(type);
+        } catch (IntrospectionException e) {
+            throw new ServiceException("introspect " + type.getName() + " error", e);
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        ArrayList<Property> list = new ArrayList<>();
+        for (PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+            Method readMethod = descriptor.getReadMethod();
+            if (readMethod == null || IgnoreList.contains(descriptor.getName())) {
+                continue;
+            }
+            try {
+                readMethod.setAccessible(true);
+                MethodHandle getter = lookup.unreflect(readMethod).asType(GETTER_TYPE);
+                list.add(new Property(descriptor.getName(), getter));
+            } catch (IllegalAccessException e) {
+                throw new ServiceException("access " + readMethod + " error", e);
+            }
+        }
+        list.sort(Comparator.comparing(v -> v.name));
+        return list.toArray(new Property[0]);
+    }
+
+    private static class Property {
+
+        private final String name;
+        private final String encodedName;
+        private final MethodHandle getter;
+
+        Property(String name, MethodHandle getter) {
+            this.name = name;
+            StringBuilder sb = new StringBuilder();
+            TradeRequestEncoder.appendUrlEncoded(sb, name);
+            this.encodedName = sb.toString();
+            this.getter = getter;
+        }
+
+        Object get(Object target) {
+            try {
+                return getter.invokeExact(target);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new ServiceException("read " + name + " error", e);
+            }
+        }
+
+    }
+
+}
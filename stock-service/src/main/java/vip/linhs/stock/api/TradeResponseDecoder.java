@@ -0,0 +1,162 @@
+package vip.linhs.stock.api;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.fastjson2.JSONFactory;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.reader.ObjectReader;
+
+import vip.linhs.stock.api.request.BaseTradeRequest;
+
+/**
+ * decodes trade responses in one pass, Status, Message and Data are bound
+ * straight into the typed response, the readers are built once per type
+ *
+ * the broker answers with capitalized keys (Zqdm, Wtbh, ...), so smart
+ * match is always on
+ */
+public class TradeResponseDecoder {
+
+    private static final Map<Type, ObjectReader<?>> DataListReaderMap = new ConcurrentHashMap<>();
+    private static final Map<Type, ObjectReader<?>> DataObjReaderMap = new ConcurrentHashMap<>();
+    private static final Map<Type, ObjectReader<?>> ObjReaderMap = new ConcurrentHashMap<>();
+
+    private TradeResponseDecoder() {
+    }
+
+    public static class TradeResult<T> {
+        private String Message;
+        private int Status;
+        private T Data;
+
+        public String getMessage() {
+            return Message;
+        }
+
+        public void setMessage(String message) {
+            Message = message;
+        }
+
+        public int getStatus() {
+            return Status;
+        }
+
+        public void setStatus(int status) {
+            Status = status;
+        }
+
+        public T getData() {
+            return Data;
+        }
+
+        public void setData(T data) {
+            Data = data;
+        }
+    }
+
+    /**
+     * @param version one of BaseTradeRequest.VERSION_*
+     */
+    public static <T> TradeResultVo<T> decode(String content, int version, Type responseType) {
+        if (version == BaseTradeRequest.VERSION_MSG) {
+            TradeResultVo<T> resultVo = new TradeResultVo<>();
+            resultVo.setData(Collections.emptyList());
+            resultVo.setStatus(TradeResultVo.STATUS_SUCCESS);
+            resultVo.setMessage(content);
+            return resultVo;
+        }
+        if (version == BaseTradeRequest.VERSION_OBJ) {
+            T t = TradeResponseDecoder.read(content, ObjReaderMap, responseType, null);
+            ArrayList<T> list = new ArrayList<>(1);
+            list.add(t);
+            TradeResultVo<T> resultVo = new TradeResultVo<>();
+            resultVo.setData(list);
+            return resultVo;
+        }
+        if (version == BaseTradeRequest.VERSION_DATA_OBJ) {
+            TradeResult<T> result = TradeResponseDecoder.read(content, DataObjReaderMap, responseType, TradeResult.class);
+            ArrayList<T> list = new ArrayList<>(1);
+            if (TradeResultVo.success(result.getStatus())) {
+                list.add(result.getData());
+            }
+            TradeResultVo<T> resultVo = new TradeResultVo<>();
+            resultVo.setMessage(result.getMessage());
+            resultVo.setStatus(result.getStatus());
+            resultVo.setData(list);
+            return resultVo;
+        }
+
+        TradeResultVo<T> resultVo = TradeResponseDecoder.read(content, DataListReaderMap, responseType, TradeResultVo.class);
+        if (!resultVo.success()) {
+            resultVo.setData(Collections.emptyList());
+        } else if (resultVo.getData() == null) {
+            resultVo.setData(new ArrayList<>());
+        }
+        return resultVo;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R> R read(String content, Map<Type, ObjectReader<?>> readerMap, Type responseType, Class<?> wrapperType) {
+        ObjectReader<?> objectReader = readerMap.computeIfAbsent(responseType, type -> {
+            Type readType = wrapperType == null ? type : new TypeImpl(wrapperType, type);
+            return JSONFactory.getDefaultObjectReaderProvider().getObjectReader(readType);
+        });
+        try (JSONReader jsonReader = JSONReader.of(content)) {
+            jsonReader.getContext().config(JSONReader.Feature.SupportSmartMatch);
+            return (R) objectReader.readObject(jsonReader, 0);
+        }
+    }
+
+    private static class TypeImpl implements ParameterizedType {
+
+        private final Class<?> rawType;
+        private final Type[] actualTypeArguments;
+
+        TypeImpl(Class<?> rawType, Type actualTypeArgument) {
+            this.rawType = rawType;
+            this.actualTypeArguments = new Type[] { actualTypeArgument };
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return actualTypeArguments.clone();
+        }
+
+        @Override
+        public Type getRawType() {
+            return rawType;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return rawType.getDeclaringClass();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ParameterizedType)) {
+                return false;
+            }
+            ParameterizedType that = (ParameterizedType) o;
+            return rawType.equals(that.getRawType()) && Objects.equals(getOwnerType(), that.getOwnerType())
+                    && Arrays.equals(actualTypeArguments, that.getActualTypeArguments());
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(actualTypeArguments) ^ Objects.hashCode(getOwnerType()) ^ rawType.hashCode();
+        }
+
+    }
+
+}
@@ -2,6 +2,11 @@ package vip.linhs.stock.api.request;
 
 public class RevokeRequest extends BaseTradeRequest {
 
+    /**
+     * most orders revoked in one call
+     */
+    public static final int BATCH_SIZE = 20;
+
     private String revokes;
 
     public RevokeRequest(int userId) {
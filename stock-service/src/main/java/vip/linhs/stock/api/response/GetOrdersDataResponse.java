@@ -6,6 +6,8 @@ public class GetOrdersDataResponse extends BaseTradeResponse {
     public static final String YIBAO = "已报";
     public static final String YICHENG = "已成";
     public static final String YICHE = "已撤";
+    public static final String BUCHENG = "部成";
+    public static final String BUCHE = "部撤";
 
     /**
      * 买卖类别-买
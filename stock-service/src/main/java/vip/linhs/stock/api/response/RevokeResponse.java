@@ -2,4 +2,17 @@ package vip.linhs.stock.api.response;
 
 public class RevokeResponse extends BaseTradeResponse {
 
+    /**
+     * only set by the batch revokes
+     */
+    private String Wtbh;
+
+    public String getWtbh() {
+        return Wtbh;
+    }
+
+    public void setWtbh(String wtbh) {
+        Wtbh = wtbh;
+    }
+
 }
@@ -0,0 +1,147 @@
+package vip.linhs.stock.backtest;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.backtest.model.BacktestRequest;
+import vip.linhs.stock.backtest.model.BacktestResult;
+import vip.linhs.stock.backtest.model.Bar;
+import vip.linhs.stock.config.SpringUtil;
+import vip.linhs.stock.dao.DailyIndexDao;
+import vip.linhs.stock.exception.ServiceException;
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.trategy.context.StrategyContextHolder;
+import vip.linhs.stock.trategy.handle.StrategyHandler;
+import vip.linhs.stock.util.StockUtil;
+
+/**
+ * replays bars through a strategy handler against a SimulatedBroker
+ *
+ * for every bar the handler runs at the start of the bar, the bar is
+ * matched, then the handler runs again at the end of the bar to book the
+ * deals and place the follow-up orders, like the ticker does intraday
+ */
+@Component
+public class BacktestEngine {
+
+    private final Logger logger = LoggerFactory.getLogger(BacktestEngine.class);
+
+    @Autowired
+    private DailyIndexDao dailyIndexDao;
+
+    private final ForkJoinPool forkJoinPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    public BacktestResult run(BacktestRequest request) {
+        List<Bar> barList = request.getBarList();
+        SimulatedBroker broker = new SimulatedBroker(request.getInitialCash(), request.getInitialVolume(),
+                request.getCommissionRate(), request.isRecordTrades());
+        BacktestStrategyContext context = new BacktestStrategyContext(broker);
+
+        BacktestResult result = new BacktestResult();
+        result.setTradeRuleVo(request.getTradeRuleVo());
+        if (barList.isEmpty()) {
+            result.setError("no bar");
+            return result;
+        }
+
+        double initialValue = request.getInitialCash() + request.getInitialVolume() * barList.get(0).getOpen();
+        double peak = initialValue;
+        double maxDrawdown = 0;
+
+        StrategyHandler strategyHandler = SpringUtil.getBean(request.getStrategyBeanName(), StrategyHandler.class);
+        StrategyContextHolder.set(context);
+        try {
+            for (int i = 0; i < barList.size(); i++) {
+                Bar bar = barList.get(i);
+                context.setNow(bar.getStart());
+                strategyHandler.handle(request.getTradeRuleVo());
+                broker.match(bar);
+                context.setNow(bar.getEnd());
+                strategyHandler.handle(request.getTradeRuleVo());
+
+                if (i == barList.size() - 1 || !DateUtils.isSameDay(bar.getStart(), barList.get(i + 1).getStart())) {
+                    broker.endOfDay();
+                    double value = broker.getValue();
+                    peak = Math.max(peak, value);
+                    maxDrawdown = Math.max(maxDrawdown, (peak - value) / peak);
+                }
+            }
+        } catch (ServiceException e) {
+            logger.warn("backtest {} error: {}", request.getTradeRuleVo().getId(), e.getMessage());
+            result.setError(e.getMessage());
+        } finally {
+            StrategyContextHolder.clear();
+        }
+
+        double finalValue = broker.getValue();
+        result.setInitialValue(initialValue);
+        result.setFinalValue(finalValue);
+        result.setPnl(finalValue - initialValue);
+        result.setReturnRate(initialValue > 0 ? (finalValue - initialValue) / initialValue : 0);
+        result.setMaxDrawdown(maxDrawdown);
+        result.setTurnover(broker.getTurnover());
+        result.setBuyCount(broker.getBuyCount());
+        result.setSellCount(broker.getSellCount());
+        result.setFinalCash(broker.getCash());
+        result.setFinalVolume(broker.getVolume());
+        if (request.isRecordTrades()) {
+            result.setTradeList(broker.getTradeList());
+        }
+        return result;
+    }
+
+    /**
+     * run in parallel on all cores, results keep the order of the requests
+     */
+    public List<BacktestResult> runAll(List<BacktestRequest> list) {
+        try {
+            return forkJoinPool.submit(() -> list.parallelStream().map(this::run).collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("backtest interrupted", e);
+        } catch (ExecutionException e) {
+            throw new ServiceException("backtest error", e.getCause());
+        }
+    }
+
+    /**
+     * daily bars from daily_index, open 9:30, close 15:00
+     */
+    public List<Bar> getDailyBarList(String stockCode, Date startDate, Date endDate) {
+        String code = StockUtil.getFullCode(stockCode);
+        List<DailyIndex> list = dailyIndexDao.getDailyIndexListByCode(code, startDate, endDate);
+        ArrayList<Bar> barList = new ArrayList<>(list.size());
+        for (DailyIndex dailyIndex : list) {
+            if (dailyIndex.getOpeningPrice() == null || dailyIndex.getOpeningPrice().signum() <= 0) {
+                continue;
+            }
+            Date date = DateUtils.truncate(dailyIndex.getDate(), Calendar.DAY_OF_MONTH);
+            Date start = DateUtils.addMinutes(DateUtils.addHours(date, 9), 30);
+            Date end = DateUtils.addHours(date, 15);
+            barList.add(new Bar(code, start, end,
+                    dailyIndex.getOpeningPrice().doubleValue(), dailyIndex.getHighestPrice().doubleValue(),
+                    dailyIndex.getLowestPrice().doubleValue(), dailyIndex.getClosingPrice().doubleValue(),
+                    dailyIndex.getTradingVolume()));
+        }
+        return barList;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        forkJoinPool.shutdown();
+    }
+
+}
@@ -0,0 +1,153 @@
+package vip.linhs.stock.backtest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.backtest.model.BacktestRequest;
+import vip.linhs.stock.backtest.model.BacktestResult;
+import vip.linhs.stock.backtest.model.Bar;
+import vip.linhs.stock.backtest.model.OptimizeRequest;
+import vip.linhs.stock.backtest.model.ParameterRange;
+import vip.linhs.stock.exception.ServiceException;
+import vip.linhs.stock.model.vo.PageVo;
+import vip.linhs.stock.model.vo.trade.TradeRuleVo;
+import vip.linhs.stock.service.TradeService;
+
+/**
+ * grid search over the parameters of a trade rule, every combination is
+ * backtested over the same bars
+ */
+@Component
+public class BacktestOptimizer {
+
+    private final Logger logger = LoggerFactory.getLogger(BacktestOptimizer.class);
+
+    public static final int MAX_COMBINATION = 100000;
+
+    @Autowired
+    private BacktestEngine backtestEngine;
+
+    @Autowired
+    private TradeService tradeService;
+
+    /**
+     * @return the best results, total is the number of combinations
+     */
+    public PageVo<BacktestResult> optimize(OptimizeRequest request) {
+        TradeRuleVo tradeRuleVo = tradeService.getTradeRuleById(request.getRuleId());
+        if (tradeRuleVo == null) {
+            throw new ServiceException("rule not found: " + request.getRuleId());
+        }
+
+        List<TradeRuleVo> ruleList = getRuleList(tradeRuleVo, request);
+        if (ruleList.isEmpty()) {
+            throw new ServiceException("no valid combination");
+        }
+        if (ruleList.size() > BacktestOptimizer.MAX_COMBINATION) {
+            throw new ServiceException("too many combinations: " + ruleList.size());
+        }
+
+        List<Bar> barList = Collections.unmodifiableList(
+                backtestEngine.getDailyBarList(tradeRuleVo.getStockCode(), request.getStartDate(), request.getEndDate()));
+        if (barList.isEmpty()) {
+            throw new ServiceException("no daily index of " + tradeRuleVo.getStockCode());
+        }
+
+        List<BacktestRequest> requestList = ruleList.stream().map(rule -> {
+            BacktestRequest backtestRequest = new BacktestRequest();
+            backtestRequest.setStrategyBeanName(tradeRuleVo.getStrategyBeanName());
+            backtestRequest.setTradeRuleVo(rule);
+            backtestRequest.setBarList(barList);
+            backtestRequest.setInitialCash(request.getInitialCash());
+            backtestRequest.setInitialVolume(request.getInitialVolume());
+            backtestRequest.setCommissionRate(request.getCommissionRate());
+            return backtestRequest;
+        }).collect(Collectors.toList());
+
+        long start = System.currentTimeMillis();
+        List<BacktestResult> resultList = backtestEngine.runAll(requestList);
+        logger.info("optimize rule {}, {} combinations, {} bars, cost {}ms", request.getRuleId(),
+                requestList.size(), barList.size(), System.currentTimeMillis() - start);
+
+        List<BacktestResult> list = resultList.stream().filter(BacktestResult::success)
+                .sorted(BacktestOptimizer.getComparator(request.getSort()))
+                .limit(Math.max(1, request.getLimit()))
+                .collect(Collectors.toList());
+        return new PageVo<>(list, resultList.size());
+    }
+
+    private List<TradeRuleVo> getRuleList(TradeRuleVo tradeRuleVo, OptimizeRequest request) {
+        // checked on the sizes before a tiny step builds millions of values
+        long count = 1;
+        for (ParameterRange range : Arrays.asList(request.getValue(), request.getVolume(), request.getOpenPrice(),
+                request.getHighestPrice(), request.getLowestPrice())) {
+            long size = range == null || range.isEmpty() ? 1 : range.size();
+            // both at most MAX_COMBINATION, the product fits
+            if (size > BacktestOptimizer.MAX_COMBINATION || count * size > BacktestOptimizer.MAX_COMBINATION) {
+                throw new ServiceException("too many combinations, over " + BacktestOptimizer.MAX_COMBINATION);
+            }
+            count *= size;
+        }
+
+        List<BigDecimal> valueList = BacktestOptimizer.values(request.getValue(), tradeRuleVo.getValue());
+        List<BigDecimal> volumeList = BacktestOptimizer.values(request.getVolume(), BigDecimal.valueOf(tradeRuleVo.getVolume()));
+        List<BigDecimal> openPriceList = BacktestOptimizer.values(request.getOpenPrice(), tradeRuleVo.getOpenPrice());
+        List<BigDecimal> highestPriceList = BacktestOptimizer.values(request.getHighestPrice(), tradeRuleVo.getHighestPrice());
+        List<BigDecimal> lowestPriceList = BacktestOptimizer.values(request.getLowestPrice(), tradeRuleVo.getLowestPrice());
+
+        ArrayList<TradeRuleVo> list = new ArrayList<>((int) count);
+        for (BigDecimal value : valueList) {
+            for (BigDecimal volume : volumeList) {
+                for (BigDecimal openPrice : openPriceList) {
+                    for (BigDecimal highestPrice : highestPriceList) {
+                        for (BigDecimal lowestPrice : lowestPriceList) {
+                            if (value.signum() <= 0 || volume.intValue() <= 0
+                                    || openPrice.compareTo(lowestPrice) < 0 || openPrice.compareTo(highestPrice) > 0) {
+                                continue;
+                            }
+                            TradeRuleVo rule = new TradeRuleVo();
+                            BeanUtils.copyProperties(tradeRuleVo, rule);
+                            rule.setValue(value);
+                            rule.setVolume(volume.intValue());
+                            rule.setOpenPrice(openPrice);
+                            rule.setHighestPrice(highestPrice);
+                            rule.setLowestPrice(lowestPrice);
+                            list.add(rule);
+                        }
+                    }
+                }
+            }
+        }
+        return list;
+    }
+
+    private static List<BigDecimal> values(ParameterRange range, BigDecimal defaultValue) {
+        if (range == null || range.isEmpty()) {
+            return Collections.singletonList(defaultValue);
+        }
+        return range.values();
+    }
+
+    private static Comparator<BacktestResult> getComparator(String sort) {
+        Comparator<BacktestResult> pnl = Comparator.comparingDouble(BacktestResult::getPnl).reversed();
+        if (OptimizeRequest.SORT_DRAWDOWN.equals(sort)) {
+            return Comparator.comparingDouble(BacktestResult::getMaxDrawdown).thenComparing(pnl);
+        }
+        if (OptimizeRequest.SORT_TURNOVER.equals(sort)) {
+            return Comparator.comparingDouble(BacktestResult::getTurnover).reversed().thenComparing(pnl);
+        }
+        return pnl.thenComparingDouble(BacktestResult::getMaxDrawdown);
+    }
+
+}
@@ -0,0 +1,104 @@
+package vip.linhs.stock.backtest;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.time.DateUtils;
+
+import vip.linhs.stock.api.response.GetOrdersDataResponse;
+import vip.linhs.stock.model.po.TradeOrder;
+import vip.linhs.stock.service.TradeApiService;
+import vip.linhs.stock.trategy.context.StrategyContext;
+
+/**
+ * keeps trade orders in memory and tells the time of the simulation
+ */
+public class BacktestStrategyContext implements StrategyContext {
+
+    private final TradeApiService tradeApiService;
+
+    private final List<TradeOrder> tradeOrderList = new ArrayList<>();
+
+    private int orderSequence;
+
+    private Date now;
+
+    public BacktestStrategyContext(SimulatedBroker broker) {
+        this.tradeApiService = new SimulatedTradeApiService(broker, this::now);
+    }
+
+    public void setNow(Date now) {
+        this.now = now;
+    }
+
+    @Override
+    public TradeApiService getTradeApiService() {
+        return tradeApiService;
+    }
+
+    @Override
+    public List<TradeOrder> getLastTradeOrderList(int ruleId, int userId) {
+        long from = DateUtils.addDays(DateUtils.truncate(now, Calendar.DAY_OF_MONTH), -60).getTime();
+        return tradeOrderList.stream()
+                .filter(v -> v.getRuleId() == ruleId && v.getTradeTime().getTime() >= from
+                    && (GetOrdersDataResponse.YIBAO.equals(v.getTradeState()) || GetOrdersDataResponse.YICHENG.equals(v.getTradeState())))
+                .sorted(Comparator.comparing(TradeOrder::getTradeTime).reversed())
+                .limit(60)
+                .map(BacktestStrategyContext::copy)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void saveTradeOrderList(List<TradeOrder> list) {
+        for (TradeOrder tradeOrder : list) {
+            if (tradeOrder.getId() > 0) {
+                tradeOrderList.set(tradeOrder.getId() - 1, BacktestStrategyContext.copy(tradeOrder));
+            } else {
+                TradeOrder saved = BacktestStrategyContext.copy(tradeOrder);
+                saved.setId(++orderSequence);
+                tradeOrderList.add(saved);
+            }
+        }
+    }
+
+    @Override
+    public String getStockName(String stockCode) {
+        return stockCode;
+    }
+
+    @Override
+    public void sendMessage(String message) {
+    }
+
+    @Override
+    public Date now() {
+        return now;
+    }
+
+    @Override
+    public boolean isLive() {
+        return false;
+    }
+
+    private static TradeOrder copy(TradeOrder tradeOrder) {
+        TradeOrder copy = new TradeOrder();
+        copy.setId(tradeOrder.getId());
+        copy.setRuleId(tradeOrder.getRuleId());
+        copy.setStockCode(tradeOrder.getStockCode());
+        copy.setEntrustCode(tradeOrder.getEntrustCode());
+        copy.setDealCode(tradeOrder.getDealCode());
+        copy.setRelatedDealCode(tradeOrder.getRelatedDealCode());
+        copy.setPrice(tradeOrder.getPrice());
+        copy.setVolume(tradeOrder.getVolume());
+        copy.setTradeType(tradeOrder.getTradeType());
+        copy.setTradeState(tradeOrder.getTradeState());
+        copy.setTradeTime(tradeOrder.getTradeTime());
+        copy.setState(tradeOrder.getState());
+        return copy;
+    }
+
+}
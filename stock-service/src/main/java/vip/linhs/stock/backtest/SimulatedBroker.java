@@ -0,0 +1,311 @@
+package vip.linhs.stock.backtest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.time.DateFormatUtils;
+
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.request.SubmitRequest;
+import vip.linhs.stock.api.response.CrGetDealDataResponse;
+import vip.linhs.stock.api.response.GetDealDataResponse;
+import vip.linhs.stock.api.response.GetOrdersDataResponse;
+import vip.linhs.stock.api.response.SubmitResponse;
+import vip.linhs.stock.backtest.model.Bar;
+import vip.linhs.stock.backtest.model.BacktestTrade;
+
+/**
+ * single account, single stock limit order book against bars, not thread
+ * safe, one broker per run
+ *
+ * <ul>
+ * <li>an order placed at or before the start of a bar fills in full when the
+ * bar trades through its price, at the open if the open is already better</li>
+ * <li>orders placed later wait for the next bar</li>
+ * <li>bought shares can be sold from the next day (T+1)</li>
+ * <li>orders still open at the end of the day are revoked</li>
+ * </ul>
+ */
+public class SimulatedBroker {
+
+    private final double commissionRate;
+    private final boolean recordTrades;
+
+    private double cash;
+    private double frozenCash;
+    private int volume;
+    private int availableVolume;
+    private double lastPrice;
+
+    private int entrustSequence;
+    private int dealSequence;
+
+    private final List<SimulatedOrder> orderList = new ArrayList<>();
+
+    private double turnover;
+    private int buyCount;
+    private int sellCount;
+    private final List<BacktestTrade> tradeList = new ArrayList<>();
+
+    public SimulatedBroker(double cash, int volume, double commissionRate, boolean recordTrades) {
+        this.cash = cash;
+        this.volume = volume;
+        this.availableVolume = volume;
+        this.commissionRate = commissionRate;
+        this.recordTrades = recordTrades;
+    }
+
+    public <T extends SubmitResponse> TradeResultVo<T> submit(SubmitRequest request, Date now, Supplier<T> supplier) {
+        double price = request.getPrice();
+        int amount = request.getAmount();
+        if (price <= 0 || amount <= 0) {
+            return SimulatedBroker.fail("委托价格或数量错误");
+        }
+        boolean isBuy = SubmitRequest.B.equals(request.getTradeType());
+        if (isBuy) {
+            double need = price * amount * (1 + commissionRate);
+            if (cash - frozenCash < need) {
+                return SimulatedBroker.fail("可用资金不足");
+            }
+            frozenCash += need;
+        } else {
+            if (availableVolume < amount) {
+                return SimulatedBroker.fail("可用股份不足");
+            }
+            availableVolume -= amount;
+        }
+
+        SimulatedOrder order = new SimulatedOrder();
+        order.entrustCode = String.valueOf(++entrustSequence);
+        order.stockCode = request.getStockCode();
+        order.stockName = request.getZqmc();
+        order.market = request.getMarket();
+        order.tradeType = request.getTradeType();
+        order.price = price;
+        order.amount = amount;
+        order.state = GetOrdersDataResponse.YIBAO;
+        order.time = now;
+        orderList.add(order);
+
+        T response = supplier.get();
+        response.setWtbh(order.entrustCode);
+        return SimulatedBroker.success(response);
+    }
+
+    /**
+     * @param revokes yyyyMMdd_entrustCode, comma separated, none is revoked
+     * if one can not be
+     */
+    public <T> TradeResultVo<T> revoke(String revokes) {
+        List<SimulatedOrder> revokeList = new ArrayList<>();
+        for (String revoke : revokes.split(",")) {
+            String entrustCode = revoke.substring(revoke.indexOf('_') + 1);
+            SimulatedOrder order = getOrder(entrustCode);
+            if (order == null || !GetOrdersDataResponse.YIBAO.equals(order.state) || revokeList.contains(order)) {
+                return SimulatedBroker.fail("委托" + entrustCode + "不可撤单");
+            }
+            revokeList.add(order);
+        }
+        revokeList.forEach(this::cancel);
+        TradeResultVo<T> resultVo = new TradeResultVo<>();
+        resultVo.setStatus(TradeResultVo.STATUS_SUCCESS);
+        resultVo.setMessage("撤单成功");
+        resultVo.setData(new ArrayList<>());
+        return resultVo;
+    }
+
+    public void match(Bar bar) {
+        long start = bar.getStart().getTime();
+        for (SimulatedOrder order : orderList) {
+            if (!GetOrdersDataResponse.YIBAO.equals(order.state) || order.time.getTime() > start) {
+                continue;
+            }
+            if (SubmitRequest.B.equals(order.tradeType)) {
+                if (bar.getLow() <= order.price) {
+                    fill(order, Math.min(order.price, bar.getOpen()), bar.getStart());
+                }
+            } else {
+                if (bar.getHigh() >= order.price) {
+                    fill(order, Math.max(order.price, bar.getOpen()), bar.getStart());
+                }
+            }
+        }
+        lastPrice = bar.getClose();
+    }
+
+    private void fill(SimulatedOrder order, double dealPrice, Date dealTime) {
+        double value = dealPrice * order.amount;
+        double fee = value * commissionRate;
+        if (SubmitRequest.B.equals(order.tradeType)) {
+            frozenCash -= order.price * order.amount * (1 + commissionRate);
+            cash -= value + fee;
+            volume += order.amount;
+            buyCount++;
+        } else {
+            cash += value - fee;
+            volume -= order.amount;
+            sellCount++;
+        }
+        turnover += value;
+        order.state = GetOrdersDataResponse.YICHENG;
+        order.dealCode = String.valueOf(++dealSequence);
+        order.dealPrice = dealPrice;
+        order.dealTime = dealTime;
+        if (recordTrades) {
+            tradeList.add(new BacktestTrade(dealTime, order.tradeType, dealPrice, order.amount));
+        }
+    }
+
+    public void endOfDay() {
+        orderList.stream().filter(v -> GetOrdersDataResponse.YIBAO.equals(v.state)).forEach(this::cancel);
+        orderList.clear();
+        availableVolume = volume;
+    }
+
+    private void cancel(SimulatedOrder order) {
+        if (SubmitRequest.B.equals(order.tradeType)) {
+            frozenCash -= order.price * order.amount * (1 + commissionRate);
+        } else {
+            availableVolume += order.amount;
+        }
+        order.state = GetOrdersDataResponse.YICHE;
+    }
+
+    /**
+     * today's orders
+     */
+    public <T extends GetOrdersDataResponse> List<T> getOrderList(Supplier<T> supplier) {
+        ArrayList<T> list = new ArrayList<>(orderList.size());
+        for (SimulatedOrder order : orderList) {
+            T response = supplier.get();
+            response.setWtbh(order.entrustCode);
+            response.setZqdm(order.stockCode);
+            response.setZqmc(order.stockName);
+            response.setMarket(order.market);
+            response.setMmlb(order.tradeType);
+            response.setWtjg(SimulatedBroker.format(order.price));
+            response.setWtsl(String.valueOf(order.amount));
+            response.setWtzt(order.state);
+            response.setWtsj(DateFormatUtils.format(order.time, "HHmmss"));
+            list.add(response);
+        }
+        return list;
+    }
+
+    /**
+     * today's deals
+     */
+    public <T extends GetDealDataResponse> List<T> getDealList(Supplier<T> supplier) {
+        ArrayList<T> list = new ArrayList<>();
+        for (SimulatedOrder order : orderList) {
+            if (!GetOrdersDataResponse.YICHENG.equals(order.state)) {
+                continue;
+            }
+            T response = supplier.get();
+            response.setWtbh(order.entrustCode);
+            response.setCjbh(order.dealCode);
+            response.setZqdm(order.stockCode);
+            response.setZqmc(order.stockName);
+            response.setMarket(order.market);
+            response.setMmlb(order.tradeType);
+            response.setCjjg(SimulatedBroker.format(order.dealPrice));
+            response.setCjsl(String.valueOf(order.amount));
+            response.setWtsl(String.valueOf(order.amount));
+            response.setCjsj(DateFormatUtils.format(order.dealTime, "HHmmss"));
+            if (response instanceof CrGetDealDataResponse) {
+                ((CrGetDealDataResponse) response).setWtxh(order.entrustCode);
+            }
+            list.add(response);
+        }
+        return list;
+    }
+
+    private SimulatedOrder getOrder(String entrustCode) {
+        for (SimulatedOrder order : orderList) {
+            if (order.entrustCode.equals(entrustCode)) {
+                return order;
+            }
+        }
+        return null;
+    }
+
+    public double getCash() {
+        return cash;
+    }
+
+    public double getAvailableCash() {
+        return cash - frozenCash;
+    }
+
+    public int getVolume() {
+        return volume;
+    }
+
+    public int getAvailableVolume() {
+        return availableVolume;
+    }
+
+    public double getLastPrice() {
+        return lastPrice;
+    }
+
+    public double getValue() {
+        return cash + volume * lastPrice;
+    }
+
+    public double getTurnover() {
+        return turnover;
+    }
+
+    public int getBuyCount() {
+        return buyCount;
+    }
+
+    public int getSellCount() {
+        return sellCount;
+    }
+
+    public List<BacktestTrade> getTradeList() {
+        return tradeList;
+    }
+
+    private static String format(double price) {
+        return BigDecimal.valueOf(price).setScale(3, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static <T> TradeResultVo<T> success(T data) {
+        TradeResultVo<T> resultVo = new TradeResultVo<>();
+        resultVo.setStatus(TradeResultVo.STATUS_SUCCESS);
+        ArrayList<T> list = new ArrayList<>(1);
+        list.add(data);
+        resultVo.setData(list);
+        return resultVo;
+    }
+
+    private static <T> TradeResultVo<T> fail(String message) {
+        TradeResultVo<T> resultVo = new TradeResultVo<>();
+        resultVo.setStatus(-1);
+        resultVo.setMessage(message);
+        return resultVo;
+    }
+
+    private static class SimulatedOrder {
+        private String entrustCode;
+        private String stockCode;
+        private String stockName;
+        private String market;
+        private String tradeType;
+        private double price;
+        private int amount;
+        private String state;
+        private Date time;
+        private String dealCode;
+        private double dealPrice;
+        private Date dealTime;
+    }
+
+}
@@ -0,0 +1,211 @@
+package vip.linhs.stock.backtest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.request.AuthenticationRequest;
+import vip.linhs.stock.api.request.CrGetCanBuyNewStockListV3Request;
+import vip.linhs.stock.api.request.CrGetConvertibleBondListV2Request;
+import vip.linhs.stock.api.request.CrGetDealDataRequest;
+import vip.linhs.stock.api.request.CrGetHisDealDataRequest;
+import vip.linhs.stock.api.request.CrGetHisOrdersDataRequest;
+import vip.linhs.stock.api.request.CrGetOrdersDataRequest;
+import vip.linhs.stock.api.request.CrGetRzrqAssertsRequest;
+import vip.linhs.stock.api.request.CrQueryCollateralRequest;
+import vip.linhs.stock.api.request.CrRevokeRequest;
+import vip.linhs.stock.api.request.CrSubmitBatTradeV2Request;
+import vip.linhs.stock.api.request.CrSubmitRequest;
+import vip.linhs.stock.api.request.GetAssetsRequest;
+import vip.linhs.stock.api.request.GetCanBuyNewStockListV3Request;
+import vip.linhs.stock.api.request.GetConvertibleBondListV2Request;
+import vip.linhs.stock.api.request.GetDealDataRequest;
+import vip.linhs.stock.api.request.GetHisDealDataRequest;
+import vip.linhs.stock.api.request.GetHisOrdersDataRequest;
+import vip.linhs.stock.api.request.GetOrdersDataRequest;
+import vip.linhs.stock.api.request.GetStockListRequest;
+import vip.linhs.stock.api.request.RevokeRequest;
+import vip.linhs.stock.api.request.SubmitBatTradeV2Request;
+import vip.linhs.stock.api.request.SubmitRequest;
+import vip.linhs.stock.api.response.AuthenticationResponse;
+import vip.linhs.stock.api.response.CrGetCanBuyNewStockListV3Response;
+import vip.linhs.stock.api.response.CrGetConvertibleBondListV2Response;
+import vip.linhs.stock.api.response.CrGetDealDataResponse;
+import vip.linhs.stock.api.response.CrGetHisDealDataResponse;
+import vip.linhs.stock.api.response.CrGetHisOrdersDataResponse;
+import vip.linhs.stock.api.response.CrGetOrdersDataResponse;
+import vip.linhs.stock.api.response.CrGetRzrqAssertsResponse;
+import vip.linhs.stock.api.response.CrQueryCollateralResponse;
+import vip.linhs.stock.api.response.CrRevokeResponse;
+import vip.linhs.stock.api.response.CrSubmitBatTradeV2Response;
+import vip.linhs.stock.api.response.CrSubmitResponse;
+import vip.linhs.stock.api.response.GetAssetsResponse;
+import vip.linhs.stock.api.response.GetCanBuyNewStockListV3Response;
+import vip.linhs.stock.api.response.GetConvertibleBondListV2Response;
+import vip.linhs.stock.api.response.GetDealDataResponse;
+import vip.linhs.stock.api.response.GetHisDealDataResponse;
+import vip.linhs.stock.api.response.GetHisOrdersDataResponse;
+import vip.linhs.stock.api.response.GetOrdersDataResponse;
+import vip.linhs.stock.api.response.GetStockListResponse;
+import vip.linhs.stock.api.response.RevokeResponse;
+import vip.linhs.stock.api.response.SubmitBatTradeV2Response;
+import vip.linhs.stock.api.response.SubmitResponse;
+import vip.linhs.stock.exception.ServiceException;
+import vip.linhs.stock.service.TradeApiService;
+
+/**
+ * TradeApiService answered by a SimulatedBroker, normal and credit calls
+ * share the same account
+ */
+public class SimulatedTradeApiService implements TradeApiService {
+
+    private final SimulatedBroker broker;
+    private final Supplier<Date> clock;
+
+    public SimulatedTradeApiService(SimulatedBroker broker, Supplier<Date> clock) {
+        this.broker = broker;
+        this.clock = clock;
+    }
+
+    @Override
+    public TradeResultVo<GetAssetsResponse> getAsserts(GetAssetsRequest request) {
+        GetAssetsResponse response = new GetAssetsResponse();
+        response.setZzc(SimulatedTradeApiService.format(broker.getValue()));
+        response.setKyzj(SimulatedTradeApiService.format(broker.getAvailableCash()));
+        response.setKqzj(SimulatedTradeApiService.format(broker.getAvailableCash()));
+        response.setDjzj(SimulatedTradeApiService.format(broker.getCash() - broker.getAvailableCash()));
+        return SimulatedTradeApiService.success(Collections.singletonList(response));
+    }
+
+    @Override
+    public TradeResultVo<SubmitResponse> submit(SubmitRequest request) {
+        return broker.submit(request, clock.get(), SubmitResponse::new);
+    }
+
+    @Override
+    public TradeResultVo<RevokeResponse> revoke(RevokeRequest request) {
+        return broker.revoke(request.getRevokes());
+    }
+
+    @Override
+    public TradeResultVo<GetStockListResponse> getStockList(GetStockListRequest request) {
+        return SimulatedTradeApiService.success(new ArrayList<>());
+    }
+
+    @Override
+    public TradeResultVo<GetOrdersDataResponse> getOrdersData(GetOrdersDataRequest request) {
+        return SimulatedTradeApiService.success(broker.getOrderList(GetOrdersDataResponse::new));
+    }
+
+    @Override
+    public TradeResultVo<GetDealDataResponse> getDealData(GetDealDataRequest request) {
+        return SimulatedTradeApiService.success(broker.getDealList(GetDealDataResponse::new));
+    }
+
+    @Override
+    public TradeResultVo<AuthenticationResponse> authentication(AuthenticationRequest request) {
+        throw SimulatedTradeApiService.unsupported("authentication");
+    }
+
+    @Override
+    public TradeResultVo<GetHisDealDataResponse> getHisDealData(GetHisDealDataRequest request) {
+        throw SimulatedTradeApiService.unsupported("getHisDealData");
+    }
+
+    @Override
+    public TradeResultVo<GetHisOrdersDataResponse> getHisOrdersData(GetHisOrdersDataRequest request) {
+        throw SimulatedTradeApiService.unsupported("getHisOrdersData");
+    }
+
+    @Override
+    public TradeResultVo<GetCanBuyNewStockListV3Response> getCanBuyNewStockListV3(GetCanBuyNewStockListV3Request request) {
+        return SimulatedTradeApiService.success(new ArrayList<>());
+    }
+
+    @Override
+    public TradeResultVo<GetConvertibleBondListV2Response> getConvertibleBondListV2(GetConvertibleBondListV2Request request) {
+        return SimulatedTradeApiService.success(new ArrayList<>());
+    }
+
+    @Override
+    public TradeResultVo<SubmitBatTradeV2Response> submitBatTradeV2(SubmitBatTradeV2Request request) {
+        throw SimulatedTradeApiService.unsupported("submitBatTradeV2");
+    }
+
+    @Override
+    public TradeResultVo<CrGetRzrqAssertsResponse> crGetRzrqAsserts(CrGetRzrqAssertsRequest request) {
+        throw SimulatedTradeApiService.unsupported("crGetRzrqAsserts");
+    }
+
+    @Override
+    public TradeResultVo<CrQueryCollateralResponse> crQueryCollateral(CrQueryCollateralRequest request) {
+        return SimulatedTradeApiService.success(new ArrayList<>());
+    }
+
+    @Override
+    public TradeResultVo<CrSubmitResponse> crSubmit(CrSubmitRequest request) {
+        return broker.submit(request, clock.get(), CrSubmitResponse::new);
+    }
+
+    @Override
+    public TradeResultVo<CrRevokeResponse> crRevoke(CrRevokeRequest request) {
+        return broker.revoke(request.getRevokes());
+    }
+
+    @Override
+    public TradeResultVo<CrGetOrdersDataResponse> crGetOrdersData(CrGetOrdersDataRequest request) {
+        return SimulatedTradeApiService.success(broker.getOrderList(CrGetOrdersDataResponse::new));
+    }
+
+    @Override
+    public TradeResultVo<CrGetDealDataResponse> crGetDealData(CrGetDealDataRequest request) {
+        return SimulatedTradeApiService.success(broker.getDealList(CrGetDealDataResponse::new));
+    }
+
+    @Override
+    public TradeResultVo<CrGetHisDealDataResponse> crGetHisDealData(CrGetHisDealDataRequest request) {
+        throw SimulatedTradeApiService.unsupported("crGetHisDealData");
+    }
+
+    @Override
+    public TradeResultVo<CrGetHisOrdersDataResponse> crGetHisOrdersData(CrGetHisOrdersDataRequest request) {
+        throw SimulatedTradeApiService.unsupported("crGetHisOrdersData");
+    }
+
+    @Override
+    public TradeResultVo<CrGetCanBuyNewStockListV3Response> crGetCanBuyNewStockListV3(CrGetCanBuyNewStockListV3Request request) {
+        return SimulatedTradeApiService.success(new ArrayList<>());
+    }
+
+    @Override
+    public TradeResultVo<CrGetConvertibleBondListV2Response> crGetConvertibleBondListV2(CrGetConvertibleBondListV2Request request) {
+        return SimulatedTradeApiService.success(new ArrayList<>());
+    }
+
+    @Override
+    public TradeResultVo<CrSubmitBatTradeV2Response> crSubmitBatTradeV2(CrSubmitBatTradeV2Request request) {
+        throw SimulatedTradeApiService.unsupported("crSubmitBatTradeV2");
+    }
+
+    private static <T> TradeResultVo<T> success(List<T> list) {
+        TradeResultVo<T> resultVo = new TradeResultVo<>();
+        resultVo.setStatus(TradeResultVo.STATUS_SUCCESS);
+        resultVo.setCount(list.size());
+        resultVo.setData(list);
+        return resultVo;
+    }
+
+    private static ServiceException unsupported(String method) {
+        return new ServiceException(method + " is not supported in backtest");
+    }
+
+    private static String format(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+}
@@ -0,0 +1,76 @@
+package vip.linhs.stock.backtest.model;
+
+import java.util.List;
+
+import vip.linhs.stock.model.vo.trade.TradeRuleVo;
+
+public class BacktestRequest {
+
+    private String strategyBeanName;
+    private TradeRuleVo tradeRuleVo;
+    /**
+     * sorted by time, shared read-only between runs
+     */
+    private List<Bar> barList;
+    private double initialCash;
+    private int initialVolume;
+    private double commissionRate;
+    private boolean recordTrades;
+
+    public String getStrategyBeanName() {
+        return strategyBeanName;
+    }
+
+    public void setStrategyBeanName(String strategyBeanName) {
+        this.strategyBeanName = strategyBeanName;
+    }
+
+    public TradeRuleVo getTradeRuleVo() {
+        return tradeRuleVo;
+    }
+
+    public void setTradeRuleVo(TradeRuleVo tradeRuleVo) {
+        this.tradeRuleVo = tradeRuleVo;
+    }
+
+    public List<Bar> getBarList() {
+        return barList;
+    }
+
+    public void setBarList(List<Bar> barList) {
+        this.barList = barList;
+    }
+
+    public double getInitialCash() {
+        return initialCash;
+    }
+
+    public void setInitialCash(double initialCash) {
+        this.initialCash = initialCash;
+    }
+
+    public int getInitialVolume() {
+        return initialVolume;
+    }
+
+    public void setInitialVolume(int initialVolume) {
+        this.initialVolume = initialVolume;
+    }
+
+    public double getCommissionRate() {
+        return commissionRate;
+    }
+
+    public void setCommissionRate(double commissionRate) {
+        this.commissionRate = commissionRate;
+    }
+
+    public boolean isRecordTrades() {
+        return recordTrades;
+    }
+
+    public void setRecordTrades(boolean recordTrades) {
+        this.recordTrades = recordTrades;
+    }
+
+}
@@ -0,0 +1,137 @@
+package vip.linhs.stock.backtest.model;
+
+import java.util.List;
+
+import vip.linhs.stock.model.vo.trade.TradeRuleVo;
+
+public class BacktestResult {
+
+    private TradeRuleVo tradeRuleVo;
+    private double initialValue;
+    private double finalValue;
+    private double pnl;
+    private double returnRate;
+    /**
+     * largest drop from a previous peak of the daily value, 0.1 means 10%
+     */
+    private double maxDrawdown;
+    /**
+     * traded value
+     */
+    private double turnover;
+    private int buyCount;
+    private int sellCount;
+    private double finalCash;
+    private int finalVolume;
+    private List<BacktestTrade> tradeList;
+    private String error;
+
+    public TradeRuleVo getTradeRuleVo() {
+        return tradeRuleVo;
+    }
+
+    public void setTradeRuleVo(TradeRuleVo tradeRuleVo) {
+        this.tradeRuleVo = tradeRuleVo;
+    }
+
+    public double getInitialValue() {
+        return initialValue;
+    }
+
+    public void setInitialValue(double initialValue) {
+        this.initialValue = initialValue;
+    }
+
+    public double getFinalValue() {
+        return finalValue;
+    }
+
+    public void setFinalValue(double finalValue) {
+        this.finalValue = finalValue;
+    }
+
+    public double getPnl() {
+        return pnl;
+    }
+
+    public void setPnl(double pnl) {
+        this.pnl = pnl;
+    }
+
+    public double getReturnRate() {
+        return returnRate;
+    }
+
+    public void setReturnRate(double returnRate) {
+        this.returnRate = returnRate;
+    }
+
+    public double getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    public void setMaxDrawdown(double maxDrawdown) {
+        this.maxDrawdown = maxDrawdown;
+    }
+
+    public double getTurnover() {
+        return turnover;
+    }
+
+    public void setTurnover(double turnover) {
+        this.turnover = turnover;
+    }
+
+    public int getBuyCount() {
+        return buyCount;
+    }
+
+    public void setBuyCount(int buyCount) {
+        this.buyCount = buyCount;
+    }
+
+    public int getSellCount() {
+        return sellCount;
+    }
+
+    public void setSellCount(int sellCount) {
+        this.sellCount = sellCount;
+    }
+
+    public double getFinalCash() {
+        return finalCash;
+    }
+
+    public void setFinalCash(double finalCash) {
+        this.finalCash = finalCash;
+    }
+
+    public int getFinalVolume() {
+        return finalVolume;
+    }
+
+    public void setFinalVolume(int finalVolume) {
+        this.finalVolume = finalVolume;
+    }
+
+    public List<BacktestTrade> getTradeList() {
+        return tradeList;
+    }
+
+    public void setTradeList(List<BacktestTrade> tradeList) {
+        this.tradeList = tradeList;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public boolean success() {
+        return error == null;
+    }
+
+}
@@ -0,0 +1,35 @@
+package vip.linhs.stock.backtest.model;
+
+import java.util.Date;
+
+public class BacktestTrade {
+
+    private Date tradeTime;
+    private String tradeType;
+    private double price;
+    private int volume;
+
+    public BacktestTrade(Date tradeTime, String tradeType, double price, int volume) {
+        this.tradeTime = tradeTime;
+        this.tradeType = tradeType;
+        this.price = price;
+        this.volume = volume;
+    }
+
+    public Date getTradeTime() {
+        return tradeTime;
+    }
+
+    public String getTradeType() {
+        return tradeType;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public int getVolume() {
+        return volume;
+    }
+
+}
@@ -0,0 +1,68 @@
+package vip.linhs.stock.backtest.model;
+
+import java.util.Date;
+
+/**
+ * one bar of any period, orders placed at start are matched against it
+ */
+public class Bar {
+
+    private final String code;
+    private final Date start;
+    private final Date end;
+    private final double open;
+    private final double high;
+    private final double low;
+    private final double close;
+    private final long volume;
+
+    public Bar(String code, Date start, Date end, double open, double high, double low, double close, long volume) {
+        this.code = code;
+        this.start = start;
+        this.end = end;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.volume = volume;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Date getStart() {
+        return start;
+    }
+
+    public Date getEnd() {
+        return end;
+    }
+
+    public double getOpen() {
+        return open;
+    }
+
+    public double getHigh() {
+        return high;
+    }
+
+    public double getLow() {
+        return low;
+    }
+
+    public double getClose() {
+        return close;
+    }
+
+    public long getVolume() {
+        return volume;
+    }
+
+    @Override
+    public String toString() {
+        return "Bar [code=" + code + ", start=" + start + ", open=" + open + ", high=" + high + ", low=" + low
+                + ", close=" + close + ", volume=" + volume + "]";
+    }
+
+}
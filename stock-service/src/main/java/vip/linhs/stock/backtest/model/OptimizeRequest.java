@@ -0,0 +1,143 @@
+package vip.linhs.stock.backtest.model;
+
+import java.util.Date;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+public class OptimizeRequest {
+
+    public static final String SORT_PNL = "pnl";
+    public static final String SORT_DRAWDOWN = "drawdown";
+    public static final String SORT_TURNOVER = "turnover";
+
+    private int ruleId;
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private Date startDate;
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private Date endDate;
+    private double initialCash = 100000;
+    private int initialVolume;
+    private double commissionRate = 0.0003;
+
+    /**
+     * an empty range keeps the value of the rule
+     */
+    private ParameterRange value = new ParameterRange();
+    private ParameterRange volume = new ParameterRange();
+    private ParameterRange openPrice = new ParameterRange();
+    private ParameterRange highestPrice = new ParameterRange();
+    private ParameterRange lowestPrice = new ParameterRange();
+
+    /**
+     * @see #SORT_PNL
+     * @see #SORT_DRAWDOWN
+     * @see #SORT_TURNOVER
+     */
+    private String sort = OptimizeRequest.SORT_PNL;
+    private int limit = 50;
+
+    public int getRuleId() {
+        return ruleId;
+    }
+
+    public void setRuleId(int ruleId) {
+        this.ruleId = ruleId;
+    }
+
+    public Date getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(Date startDate) {
+        this.startDate = startDate;
+    }
+
+    public Date getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(Date endDate) {
+        this.endDate = endDate;
+    }
+
+    public double getInitialCash() {
+        return initialCash;
+    }
+
+    public void setInitialCash(double initialCash) {
+        this.initialCash = initialCash;
+    }
+
+    public int getInitialVolume() {
+        return initialVolume;
+    }
+
+    public void setInitialVolume(int initialVolume) {
+        this.initialVolume = initialVolume;
+    }
+
+    public double getCommissionRate() {
+        return commissionRate;
+    }
+
+    public void setCommissionRate(double commissionRate) {
+        this.commissionRate = commissionRate;
+    }
+
+    public ParameterRange getValue() {
+        return value;
+    }
+
+    public void setValue(ParameterRange value) {
+        this.value = value;
+    }
+
+    public ParameterRange getVolume() {
+        return volume;
+    }
+
+    public void setVolume(ParameterRange volume) {
+        this.volume = volume;
+    }
+
+    public ParameterRange getOpenPrice() {
+        return openPrice;
+    }
+
+    public void setOpenPrice(ParameterRange openPrice) {
+        this.openPrice = openPrice;
+    }
+
+    public ParameterRange getHighestPrice() {
+        return highestPrice;
+    }
+
+    public void setHighestPrice(ParameterRange highestPrice) {
+        this.highestPrice = highestPrice;
+    }
+
+    public ParameterRange getLowestPrice() {
+        return lowestPrice;
+    }
+
+    public void setLowestPrice(ParameterRange lowestPrice) {
+        this.lowestPrice = lowestPrice;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+}
@@ -0,0 +1,85 @@
+package vip.linhs.stock.backtest.model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * [from, to] by step, a range without step is the single value from
+ */
+public class ParameterRange {
+
+    private BigDecimal from;
+    private BigDecimal to;
+    private BigDecimal step;
+
+    public ParameterRange() {
+    }
+
+    public ParameterRange(BigDecimal from, BigDecimal to, BigDecimal step) {
+        this.from = from;
+        this.to = to;
+        this.step = step;
+    }
+
+    public BigDecimal getFrom() {
+        return from;
+    }
+
+    public void setFrom(BigDecimal from) {
+        this.from = from;
+    }
+
+    public BigDecimal getTo() {
+        return to;
+    }
+
+    public void setTo(BigDecimal to) {
+        this.to = to;
+    }
+
+    public BigDecimal getStep() {
+        return step;
+    }
+
+    public void setStep(BigDecimal step) {
+        this.step = step;
+    }
+
+    public boolean isEmpty() {
+        return from == null;
+    }
+
+    /**
+     * count of the values, taken without building them
+     */
+    public long size() {
+        if (from == null) {
+            return 0;
+        }
+        if (to == null || step == null || step.signum() <= 0) {
+            return 1;
+        }
+        if (to.compareTo(from) < 0) {
+            return 0;
+        }
+        BigDecimal count = to.subtract(from).divideToIntegralValue(step).add(BigDecimal.ONE);
+        return count.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0 ? Long.MAX_VALUE : count.longValue();
+    }
+
+    public List<BigDecimal> values() {
+        ArrayList<BigDecimal> list = new ArrayList<>();
+        if (from == null) {
+            return list;
+        }
+        if (to == null || step == null || step.signum() <= 0) {
+            list.add(from);
+            return list;
+        }
+        for (BigDecimal value = from; value.compareTo(to) <= 0; value = value.add(step)) {
+            list.add(value);
+        }
+        return list;
+    }
+
+}
@@ -0,0 +1,63 @@
+package vip.linhs.stock.client;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "trade.budget")
+public class TradeBudgetProperties {
+
+    /**
+     * broker calls of an account are taken from its budget
+     */
+    private boolean enabled = true;
+
+    /**
+     * calls per second an account earns back
+     */
+    private double rate = 1;
+
+    /**
+     * calls an account may make at once
+     */
+    private int burst = 20;
+
+    /**
+     * longest a call below the orders waits for the budget, strategy polls
+     * and ui reads are shed past it
+     */
+    private Duration maxWait = Duration.ofSeconds(3);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+}
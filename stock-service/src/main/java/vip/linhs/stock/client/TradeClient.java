@@ -40,6 +40,22 @@ public class TradeClient {
         return content;
     }
 
+    public String sendForm(String url, String body, Map<String, String> header) {
+        String content = HttpUtil.sendPostForm(httpClient, url, body, header);
+        if (content.contains("Object moved")) {
+            throw new UnauthorizedException("unauthorized " + url);
+        }
+        return content;
+    }
+
+    public String sendJson(String url, String json, Map<String, String> header) {
+        String content = HttpUtil.sendPostJsonBody(httpClient, url, json, header);
+        if (content.contains("Object moved")) {
+            throw new UnauthorizedException("unauthorized " + url);
+        }
+        return content;
+    }
+
     public void openSession() {
         ClientWrapper wrapper = new ClientWrapper();
         wrapper.cookieStore = new BasicCookieStore();
@@ -53,6 +69,12 @@ public class TradeClient {
         return HttpUtil.sendPost(clientWrapper.httpClient, url, params, header);
     }
 
+    public String sendFormNewInstance(String url, String body, Map<String, String> header) {
+        ClientWrapper clientWrapper = threadLocal.get();
+        assertOpened(clientWrapper);
+        return HttpUtil.sendPostForm(clientWrapper.httpClient, url, body, header);
+    }
+
     public String getCurrentCookie() {
         ClientWrapper clientWrapper = threadLocal.get();
         assertOpened(clientWrapper);
@@ -0,0 +1,39 @@
+package vip.linhs.stock.client;
+
+/**
+ * classes of the broker calls, a class only takes the budget left above the
+ * share kept for the classes over it
+ */
+public enum TradePriority {
+
+    /**
+     * submits and revokes, never wait and may overdraw the budget
+     */
+    Order(0),
+    /**
+     * polls of the trade tasks
+     */
+    Strategy(0),
+    /**
+     * heartbeat and the other background tasks, late but never shed
+     */
+    Heartbeat(0.25),
+    /**
+     * reads of the web pages
+     */
+    Ui(0.5);
+
+    private final double reserve;
+
+    TradePriority(double reserve) {
+        this.reserve = reserve;
+    }
+
+    /**
+     * share of the burst kept for the classes over it
+     */
+    public double getReserve() {
+        return reserve;
+    }
+
+}
@@ -0,0 +1,155 @@
+package vip.linhs.stock.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.api.TradeRequestEncoder;
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.request.BaseTradeRequest;
+import vip.linhs.stock.api.request.BaseTradeRequest.TradeRequestMethod;
+
+/**
+ * read-through layer of the broker calls. identical reads of a user share
+ * one call in flight and its result for the read ttl, submits and revokes
+ * of the user drop what is kept so they are seen by the next read. failed
+ * results are shared in flight but never kept
+ */
+@Component
+public class TradeReadCache {
+
+    private static final Set<String> READ_METHODS = TradeReadCache.methodSet(TradeRequestMethod.GetAsserts,
+            TradeRequestMethod.GetStockList, TradeRequestMethod.GetOrdersData, TradeRequestMethod.GetDealData,
+            TradeRequestMethod.CrGetRzrqAsserts, TradeRequestMethod.CrQueryCollateral,
+            TradeRequestMethod.CrGetOrdersData, TradeRequestMethod.CrGetDealData);
+
+    private static final Set<String> WRITE_METHODS = TradeReadCache.methodSet(TradeRequestMethod.Submit,
+            TradeRequestMethod.Revoke, TradeRequestMethod.SubmitBatTradeV2, TradeRequestMethod.CrSubmit,
+            TradeRequestMethod.CrRevoke, TradeRequestMethod.CrSubmitBatTradeV2);
+
+    @Value("${trade.read-ttl:2s}")
+    private Duration readTtl;
+
+    private final Map<Integer, Map<String, Entry>> userMap = new ConcurrentHashMap<>();
+
+    public <T> TradeResultVo<T> send(BaseTradeRequest request, Supplier<TradeResultVo<T>> loader) {
+        String method = request.getMethod();
+        if (WRITE_METHODS.contains(method)) {
+            try {
+                return loader.get();
+            } finally {
+                invalidate(request.getUserId());
+            }
+        }
+        if (!READ_METHODS.contains(method) || readTtl.isZero()) {
+            return loader.get();
+        }
+
+        String key = method + "?" + TradeRequestEncoder.encodeForm(request);
+        Map<String, Entry> entryMap = userMap.computeIfAbsent(request.getUserId(), id -> new HashMap<>());
+        Entry entry;
+        boolean owner = false;
+        synchronized (entryMap) {
+            entry = entryMap.get(key);
+            if (entry == null || entry.isExpired(System.currentTimeMillis() - readTtl.toMillis())) {
+                entry = new Entry();
+                entryMap.put(key, entry);
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            TradeResultVo<T> resultVo;
+            try {
+                resultVo = loader.get();
+            } catch (RuntimeException e) {
+                remove(entryMap, key, entry);
+                entry.future.completeExceptionally(e);
+                throw e;
+            }
+            if (!resultVo.success()) {
+                remove(entryMap, key, entry);
+            }
+            entry.time = System.currentTimeMillis();
+            entry.future.complete(resultVo);
+            return TradeReadCache.copy(resultVo);
+        }
+
+        try {
+            @SuppressWarnings("unchecked")
+            TradeResultVo<T> resultVo = (TradeResultVo<T>) entry.future.join();
+            return TradeReadCache.copy(resultVo);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * calls in flight finish for those waiting on them, later reads go to
+     * the broker
+     */
+    public void invalidate(int userId) {
+        Map<String, Entry> entryMap = userMap.get(userId);
+        if (entryMap != null) {
+            synchronized (entryMap) {
+                entryMap.clear();
+            }
+        }
+    }
+
+    private static void remove(Map<String, Entry> entryMap, String key, Entry entry) {
+        synchronized (entryMap) {
+            entryMap.remove(key, entry);
+        }
+    }
+
+    /**
+     * a list of its own for every caller, the responses are shared and read only
+     */
+    private static <T> TradeResultVo<T> copy(TradeResultVo<T> resultVo) {
+        TradeResultVo<T> copy = new TradeResultVo<>();
+        copy.setMessage(resultVo.getMessage());
+        copy.setStatus(resultVo.getStatus());
+        copy.setCount(resultVo.getCount());
+        copy.setErrcode(resultVo.getErrcode());
+        if (resultVo.getData() != null) {
+            copy.setData(new ArrayList<>(resultVo.getData()));
+        }
+        return copy;
+    }
+
+    private static Set<String> methodSet(TradeRequestMethod... methods) {
+        Set<String> set = new HashSet<>();
+        Arrays.stream(methods).forEach(v -> set.add(v.value()));
+        return set;
+    }
+
+    private static class Entry {
+
+        private final CompletableFuture<TradeResultVo<?>> future = new CompletableFuture<>();
+        private volatile long time;
+
+        /**
+         * in flight until the time is set
+         */
+        boolean isExpired(long time) {
+            return this.time != 0 && this.time <= time;
+        }
+
+    }
+
+}
@@ -0,0 +1,168 @@
+package vip.linhs.stock.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.api.request.BaseTradeRequest;
+import vip.linhs.stock.api.request.BaseTradeRequest.TradeRequestMethod;
+import vip.linhs.stock.model.vo.TradeBudgetVo;
+import vip.linhs.stock.scheduled.TaskRuntime;
+import vip.linhs.stock.scheduled.TaskRuntime.TaskGroup;
+
+/**
+ * token bucket of the broker calls per account. orders always go and may
+ * overdraw it, the other classes wait for the budget above the share kept
+ * for the classes over them, strategy polls and ui reads are shed once the
+ * wait would pass the max wait
+ */
+@Component
+public class TradeRequestGovernor {
+
+    private final Logger logger = LoggerFactory.getLogger(TradeRequestGovernor.class);
+
+    private static final Set<String> ORDER_METHODS = new HashSet<>();
+
+    static {
+        Arrays.asList(TradeRequestMethod.Submit, TradeRequestMethod.Revoke, TradeRequestMethod.SubmitBatTradeV2,
+                TradeRequestMethod.CrSubmit, TradeRequestMethod.CrRevoke, TradeRequestMethod.CrSubmitBatTradeV2)
+                .forEach(v -> ORDER_METHODS.add(v.value()));
+    }
+
+    @Autowired
+    private TradeBudgetProperties tradeBudgetProperties;
+
+    private final Map<Integer, Budget> budgetMap = new ConcurrentHashMap<>();
+
+    /**
+     * @return false if the call is shed
+     */
+    public boolean acquire(BaseTradeRequest request) {
+        if (!tradeBudgetProperties.isEnabled()) {
+            return true;
+        }
+        TradePriority priority = TradeRequestGovernor.getPriority(request);
+        boolean acquired = acquire(request.getUserId(), priority);
+        if (!acquired) {
+            logger.warn("trade budget {} shed {} {}", request.getUserId(), priority, request.getMethod());
+        }
+        return acquired;
+    }
+
+    boolean acquire(int userId, TradePriority priority) {
+        double rate = tradeBudgetProperties.getRate();
+        int burst = tradeBudgetProperties.getBurst();
+        Budget budget = budgetMap.computeIfAbsent(userId, id -> new Budget(burst));
+        long deadline = System.nanoTime() + tradeBudgetProperties.getMaxWait().toNanos();
+        boolean delayed = false;
+        while (true) {
+            long wait;
+            synchronized (budget) {
+                long now = System.nanoTime();
+                budget.refill(now, rate, burst);
+                double floor = burst * priority.getReserve();
+                if (priority == TradePriority.Order || budget.tokens - 1 >= floor) {
+                    budget.take(priority, delayed);
+                    return true;
+                }
+                wait = rate > 0 ? (long) Math.ceil((floor + 1 - budget.tokens) / rate * 1e9) : Long.MAX_VALUE;
+                long left = deadline - now;
+                if (priority == TradePriority.Heartbeat) {
+                    // late rather than lost, a failed heartbeat logs the account in again
+                    if (left <= 0) {
+                        budget.take(priority, delayed);
+                        return true;
+                    }
+                    wait = Math.min(wait, left);
+                } else if (wait > left) {
+                    budget.shedCount++;
+                    return false;
+                }
+            }
+            delayed = true;
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                synchronized (budget) {
+                    budget.shedCount++;
+                }
+                return false;
+            }
+        }
+    }
+
+    public List<TradeBudgetVo> getBudgetList() {
+        List<TradeBudgetVo> list = new ArrayList<>();
+        budgetMap.forEach((userId, budget) -> {
+            TradeBudgetVo budgetVo = new TradeBudgetVo();
+            budgetVo.setUserId(userId);
+            budgetVo.setBurst(tradeBudgetProperties.getBurst());
+            synchronized (budget) {
+                budget.refill(System.nanoTime(), tradeBudgetProperties.getRate(), tradeBudgetProperties.getBurst());
+                budgetVo.setTokens(budget.tokens);
+                budgetVo.setOrderCount(budget.grantedCounts[TradePriority.Order.ordinal()]);
+                budgetVo.setStrategyCount(budget.grantedCounts[TradePriority.Strategy.ordinal()]);
+                budgetVo.setHeartbeatCount(budget.grantedCounts[TradePriority.Heartbeat.ordinal()]);
+                budgetVo.setUiCount(budget.grantedCounts[TradePriority.Ui.ordinal()]);
+                budgetVo.setDelayedCount(budget.delayedCount);
+                budgetVo.setShedCount(budget.shedCount);
+            }
+            list.add(budgetVo);
+        });
+        return list;
+    }
+
+    /**
+     * submits and revokes are orders, the other calls take the class of the
+     * task group they run in, calls outside the tasks are from the web pages
+     */
+    static TradePriority getPriority(BaseTradeRequest request) {
+        if (ORDER_METHODS.contains(request.getMethod())) {
+            return TradePriority.Order;
+        }
+        TaskGroup group = TaskRuntime.currentGroup();
+        if (group == null) {
+            return TradePriority.Ui;
+        }
+        return group == TaskGroup.Trade ? TradePriority.Strategy : TradePriority.Heartbeat;
+    }
+
+    private static class Budget {
+
+        private double tokens;
+        private long time = System.nanoTime();
+        private final long[] grantedCounts = new long[TradePriority.values().length];
+        private long delayedCount;
+        private long shedCount;
+
+        private Budget(int burst) {
+            this.tokens = burst;
+        }
+
+        private void refill(long now, double rate, int burst) {
+            tokens = Math.min(burst, tokens + (now - time) / 1e9 * rate);
+            time = now;
+        }
+
+        private void take(TradePriority priority, boolean delayed) {
+            tokens--;
+            grantedCounts[priority.ordinal()]++;
+            if (delayed) {
+                delayedCount++;
+            }
+        }
+
+    }
+
+}
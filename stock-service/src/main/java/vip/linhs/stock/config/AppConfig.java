@@ -1,12 +1,15 @@
 package vip.linhs.stock.config;
 
+import java.util.Collection;
 import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
-import java.util.concurrent.TimeUnit;
 
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
@@ -21,11 +24,24 @@ import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
 
+import vip.linhs.stock.client.TradeBudgetProperties;
+import vip.linhs.stock.config.CaffeineCacheProperties.CacheSpec;
+import vip.linhs.stock.risk.MarginRiskProperties;
+import vip.linhs.stock.risk.PreTradeRiskProperties;
+import vip.linhs.stock.scheduled.OrderPollProperties;
+import vip.linhs.stock.service.CacheReloader;
+import vip.linhs.stock.simulator.SimulatorProperties;
+import vip.linhs.stock.tick.TickProperties;
+import vip.linhs.stock.traffic.TrafficProperties;
 import vip.linhs.stock.web.interceptor.AuthInterceptor;
 
 @Configuration
+@EnableConfigurationProperties({ CaffeineCacheProperties.class, SimulatorProperties.class, TrafficProperties.class,
+        TickProperties.class, MarginRiskProperties.class, PreTradeRiskProperties.class,
+        TradeBudgetProperties.class, OrderPollProperties.class })
 public class AppConfig implements WebMvcConfigurer {
 
     @Override
@@ -75,7 +91,11 @@ public class AppConfig implements WebMvcConfigurer {
         return new RestTemplate(requestFactory);
     }
 
+    /**
+     * replaced by a virtual thread executor when executor.virtual-threads=true
+     */
     @Bean("threadPoolTaskExecutor")
+    @ConditionalOnProperty(prefix = "executor", name = "virtual-threads", havingValue = "false", matchIfMissing = true)
     public ThreadPoolTaskExecutor executorService() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(8);
@@ -89,13 +109,63 @@ public class AppConfig implements WebMvcConfigurer {
     }
 
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(CaffeineCacheProperties cacheProperties,
+            ObjectProvider<CacheReloader> cacheReloaders) {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(20, TimeUnit.HOURS)
-                .initialCapacity(50)
-                .maximumSize(500));
+        cacheManager.setCaffeine(AppConfig.buildCaffeine(cacheProperties.getDefaultSpec()));
+        for (CacheSpec spec : cacheProperties.getSpecs()) {
+            Caffeine<Object, Object> caffeine = AppConfig.buildCaffeine(spec);
+            if (spec.getRefreshAfterWrite() != null) {
+                caffeine.refreshAfterWrite(spec.getRefreshAfterWrite());
+                cacheManager.registerCustomCache(spec.getName(),
+                        caffeine.build(AppConfig.buildCacheLoader(spec.getName(), cacheReloaders)));
+            } else {
+                cacheManager.registerCustomCache(spec.getName(), caffeine.build());
+            }
+        }
         return cacheManager;
     }
 
+    private static Caffeine<Object, Object> buildCaffeine(CacheSpec spec) {
+        Caffeine<Object, Object> caffeine = Caffeine.newBuilder();
+        if (spec.getInitialCapacity() != null) {
+            caffeine.initialCapacity(spec.getInitialCapacity());
+        }
+        if (spec.getMaximumSize() != null) {
+            caffeine.maximumSize(spec.getMaximumSize());
+        } else if (spec.getMaximumWeight() != null) {
+            caffeine.maximumWeight(spec.getMaximumWeight());
+            if (spec.getWeigher() == CaffeineCacheProperties.Weigher.COLLECTION) {
+                caffeine.weigher((key, value) -> value instanceof Collection
+                        ? Math.max(1, ((Collection<?>) value).size()) : 1);
+            } else {
+                caffeine.weigher((key, value) -> 1);
+            }
+        }
+        if (spec.getExpireAfterWrite() != null) {
+            caffeine.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            caffeine.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        if (spec.isRecordStats()) {
+            caffeine.recordStats();
+        }
+        return caffeine;
+    }
+
+    /**
+     * reloaders are looked up on first load, they are cached beans themselves
+     */
+    private static CacheLoader<Object, Object> buildCacheLoader(String name,
+            ObjectProvider<CacheReloader> cacheReloaders) {
+        return key -> {
+            CacheReloader cacheReloader = cacheReloaders.stream()
+                    .filter(r -> r.getReloadCacheNames().contains(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("no reloader for cache " + name));
+            return cacheReloader.reload(name, key);
+        };
+    }
+
 }
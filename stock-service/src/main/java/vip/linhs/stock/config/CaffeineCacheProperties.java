@@ -0,0 +1,138 @@
+package vip.linhs.stock.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "cache")
+public class CaffeineCacheProperties {
+
+    /**
+     * spec of the caches not listed in specs
+     */
+    private CacheSpec defaultSpec = new CacheSpec();
+
+    private List<CacheSpec> specs = new ArrayList<>();
+
+    public CacheSpec getDefaultSpec() {
+        return defaultSpec;
+    }
+
+    public void setDefaultSpec(CacheSpec defaultSpec) {
+        this.defaultSpec = defaultSpec;
+    }
+
+    public List<CacheSpec> getSpecs() {
+        return specs;
+    }
+
+    public void setSpecs(List<CacheSpec> specs) {
+        this.specs = specs;
+    }
+
+    public static class CacheSpec {
+
+        private String name;
+        private Integer initialCapacity;
+        private Long maximumSize;
+        /**
+         * works with weigher, ignored when maximumSize is set
+         */
+        private Long maximumWeight;
+        private Weigher weigher = Weigher.SINGLETON;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+        /**
+         * reload asynchronously by the CacheReloader of this cache
+         */
+        private Duration refreshAfterWrite;
+        private boolean recordStats = true;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getInitialCapacity() {
+            return initialCapacity;
+        }
+
+        public void setInitialCapacity(Integer initialCapacity) {
+            this.initialCapacity = initialCapacity;
+        }
+
+        public Long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(Long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Long getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        public void setMaximumWeight(Long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+
+        public Weigher getWeigher() {
+            return weigher;
+        }
+
+        public void setWeigher(Weigher weigher) {
+            this.weigher = weigher;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+        public Duration getExpireAfterAccess() {
+            return expireAfterAccess;
+        }
+
+        public void setExpireAfterAccess(Duration expireAfterAccess) {
+            this.expireAfterAccess = expireAfterAccess;
+        }
+
+        public Duration getRefreshAfterWrite() {
+            return refreshAfterWrite;
+        }
+
+        public void setRefreshAfterWrite(Duration refreshAfterWrite) {
+            this.refreshAfterWrite = refreshAfterWrite;
+        }
+
+        public boolean isRecordStats() {
+            return recordStats;
+        }
+
+        public void setRecordStats(boolean recordStats) {
+            this.recordStats = recordStats;
+        }
+
+    }
+
+    public enum Weigher {
+        /**
+         * every entry weighs 1
+         */
+        SINGLETON,
+        /**
+         * collection values weigh their size
+         */
+        COLLECTION
+    }
+
+}
@@ -0,0 +1,52 @@
+package vip.linhs.stock.config;
+
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * executor.virtual-threads=true runs the task executor, the scheduler and
+ * undertow request handling on virtual threads, needs a java 21 runtime
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "executor", name = "virtual-threads", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean(name = "threadPoolTaskExecutor", destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        logger.info("virtual thread executor on java {}", System.getProperty("java.version"));
+        return VirtualThreads.newExecutor("stock-");
+    }
+
+    /**
+     * scheduled methods still fire one at a time per method, the pool only
+     * keeps a slow one from holding up the others
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(16);
+        scheduler.setThreadFactory(VirtualThreads.newThreadFactory("scheduling-"));
+        return scheduler;
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<UndertowServletWebServerFactory> virtualThreadUndertowCustomizer() {
+        ConcurrentTaskExecutor executor = new ConcurrentTaskExecutor(VirtualThreads.newExecutor("undertow-"));
+        return factory -> factory.addDeploymentInfoCustomizers(deploymentInfo -> {
+            deploymentInfo.setExecutor(executor);
+            deploymentInfo.setAsyncExecutor(executor);
+        });
+    }
+
+}
@@ -0,0 +1,60 @@
+package vip.linhs.stock.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * java 21 virtual threads looked up by reflection, the build stays on java 8
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = VirtualThreads.findMethod(Thread.class, "ofVirtual");
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return VirtualThreads.OF_VIRTUAL != null;
+    }
+
+    /**
+     * threads named prefix0, prefix1...
+     */
+    public static ThreadFactory newThreadFactory(String prefix) {
+        if (!VirtualThreads.isSupported()) {
+            throw new IllegalStateException("virtual threads need java 21, running on " + System.getProperty("java.version"));
+        }
+        try {
+            Object builder = VirtualThreads.OF_VIRTUAL.invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("create virtual thread factory error", e);
+        }
+    }
+
+    /**
+     * one new virtual thread per task
+     */
+    public static ExecutorService newExecutor(String prefix) {
+        ThreadFactory threadFactory = VirtualThreads.newThreadFactory(prefix);
+        try {
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("create virtual thread executor error", e);
+        }
+    }
+
+    private static Method findMethod(Class<?> clazz, String name) {
+        try {
+            return clazz.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+}
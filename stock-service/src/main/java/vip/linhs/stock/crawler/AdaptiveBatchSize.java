@@ -0,0 +1,43 @@
+package vip.linhs.stock.crawler;
+
+/**
+ * batch size steered by observed latency, grows by a step while responses
+ * are fast, halves on an error or a slow response, thread safe
+ */
+public class AdaptiveBatchSize {
+
+    private final int min;
+    private final int max;
+    private final int step;
+    private final long targetMillis;
+
+    private int size;
+
+    public AdaptiveBatchSize(int min, int max, int initial, int step, long targetMillis) {
+        if (min <= 0 || min > max || initial < min || initial > max) {
+            throw new IllegalArgumentException("batch size " + min + " <= " + initial + " <= " + max);
+        }
+        this.min = min;
+        this.max = max;
+        this.size = initial;
+        this.step = step;
+        this.targetMillis = targetMillis;
+    }
+
+    public synchronized int get() {
+        return size;
+    }
+
+    public synchronized void onSuccess(long elapsedMillis) {
+        if (elapsedMillis > targetMillis * 2) {
+            size = Math.max(min, size / 2);
+        } else if (elapsedMillis < targetMillis) {
+            size = Math.min(max, size + step);
+        }
+    }
+
+    public synchronized void onError() {
+        size = Math.max(min, size / 2);
+    }
+
+}
@@ -0,0 +1,53 @@
+package vip.linhs.stock.crawler;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.parser.DailyIndexParser;
+import vip.linhs.stock.util.HttpUtil;
+
+/**
+ * aigaogao history page, the whole history of a code
+ */
+@Component
+@Order(10)
+public class AigaogaoMarketDataSource implements MarketDataSource {
+
+    @Autowired
+    private CloseableHttpClient httpClient;
+
+    @Autowired
+    private DailyIndexParser dailyIndexParser;
+
+    @Override
+    public String getName() {
+        return "aigaogao";
+    }
+
+    @Override
+    public Set<Capability> getCapabilities() {
+        return Collections.unmodifiableSet(EnumSet.of(Capability.History));
+    }
+
+    @Override
+    public List<DailyIndex> getHistoryDailyIndexs(String code) {
+        String content = getHistoryDailyIndexsString(code);
+        if (content != null) {
+            return dailyIndexParser.parseHistoryDailyIndexList(content);
+        }
+        return Collections.emptyList();
+    }
+
+    public String getHistoryDailyIndexsString(String code) {
+        return HttpUtil.sendGet(httpClient, "http://www.aigaogao.com/tools/history.html?s=" + code, "gbk");
+    }
+
+}
@@ -0,0 +1,125 @@
+package vip.linhs.stock.crawler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.model.po.StockInfo;
+import vip.linhs.stock.parser.StockInfoParser;
+import vip.linhs.stock.parser.StockInfoParser.EmStock;
+import vip.linhs.stock.util.HttpUtil;
+import vip.linhs.stock.util.HttpUtil.ConditionalResponse;
+import vip.linhs.stock.util.StockConsts;
+import vip.linhs.stock.util.StockUtil;
+
+/**
+ * eastmoney clist, the symbol list and a whole market snapshot in one
+ * request, indices are not in it, short code lists go to ulist instead
+ */
+@Component
+@Order(20)
+public class EastmoneyMarketDataSource implements MarketDataSource {
+
+    /**
+     * prices come as integers with f1 decimals, 3 for etfs and bonds
+     */
+    private static final String QUOTE_FIELDS = "f1,f2,f5,f6,f8,f12,f13,f15,f16,f17,f18";
+
+    /**
+     * longer lists take the whole market snapshot
+     */
+    private static final int SNAPSHOT_SIZE = 500;
+
+    private static final int ULIST_SIZE = 100;
+
+    @Autowired
+    private CloseableHttpClient httpClient;
+
+    @Autowired
+    @Qualifier("eastmoneyStockInfoParser")
+    private StockInfoParser stockInfoParser;
+
+    @Override
+    public String getName() {
+        return "eastmoney";
+    }
+
+    @Override
+    public Set<Capability> getCapabilities() {
+        return Collections.unmodifiableSet(EnumSet.of(Capability.StockList, Capability.Quote));
+    }
+
+    @Override
+    public List<StockInfo> getStockList() {
+        List<EmStock> list = getStockList("f12,f13,f14");
+        list.forEach(v -> v.getStockInfo().setAbbreviation(StockUtil.getPinyin(v.getStockInfo().getName())));
+        return list.stream().map(EmStock::getStockInfo).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<DailyIndex> getDailyIndex(List<String> codeList) {
+        Set<String> codeSet = new HashSet<>(codeList);
+        if (codeList.size() > EastmoneyMarketDataSource.SNAPSHOT_SIZE) {
+            return getDailyIndexSnapshot().stream().filter(v -> codeSet.contains(v.getCode())).collect(Collectors.toList());
+        }
+        List<DailyIndex> list = new ArrayList<>(codeList.size());
+        for (int i = 0; i < codeList.size(); i += EastmoneyMarketDataSource.ULIST_SIZE) {
+            List<String> subList = codeList.subList(i, Math.min(i + EastmoneyMarketDataSource.ULIST_SIZE, codeList.size()));
+            String secids = subList.stream().map(EastmoneyMarketDataSource::getSecid).collect(Collectors.joining(","));
+            String content = HttpUtil.sendGet(httpClient, "http://push2.eastmoney.com/api/qt/ulist.np/get?secids=" + secids
+                    + "&fields=" + EastmoneyMarketDataSource.QUOTE_FIELDS);
+            if (content != null) {
+                stockInfoParser.parseStockInfoList(content).stream().map(EmStock::getDailyIndex)
+                        .filter(v -> codeSet.contains(v.getCode())).forEach(list::add);
+            }
+        }
+        return list;
+    }
+
+    public List<DailyIndex> getDailyIndexSnapshot() {
+        List<EmStock> list = getStockList(EastmoneyMarketDataSource.QUOTE_FIELDS);
+        return list.stream().map(EmStock::getDailyIndex).collect(Collectors.toList());
+    }
+
+    /**
+     * sh600000 to 1.600000, sz and bj are market 0
+     */
+    static String getSecid(String fullCode) {
+        String code = fullCode.substring(2);
+        return (fullCode.startsWith(StockConsts.Exchange.SH.getName()) ? "1." : "0.") + code;
+    }
+
+    /**
+     * code, market and name only, conditional on the validators of the
+     * previous response
+     */
+    public ConditionalResponse getStockListResponse(String etag, String lastModified) {
+        return HttpUtil.sendConditionalGet(httpClient, EastmoneyMarketDataSource.getClistUrl("f12,f13,f14"), etag, lastModified);
+    }
+
+    private static String getClistUrl(String fields) {
+        return "http://20.push2.eastmoney.com/api/qt/clist/get?pn=1&pz=10000000&np=1&fid=f3&fields=" + fields + "&fs=m:0+t:6,m:0+t:13,m:0+t:80,m:0+t:81+s:2048,m:1+t:2,m:1+t:23,b:MK0021,b:MK0022,b:MK0023,b:MK0024";
+    }
+
+    private List<EmStock> getStockList(String fields) {
+        String content = HttpUtil.sendGet(httpClient, EastmoneyMarketDataSource.getClistUrl(fields));
+        if (content != null) {
+            List<EmStock> list = stockInfoParser.parseStockInfoList(content);
+            list = list.stream().filter(v -> v.getStockInfo().getExchange() != null).collect(Collectors.toList());
+            return list;
+        }
+        return Collections.emptyList();
+    }
+
+}
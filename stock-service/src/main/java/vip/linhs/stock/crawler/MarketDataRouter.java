@@ -0,0 +1,205 @@
+package vip.linhs.stock.crawler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.crawler.MarketDataSource.Capability;
+import vip.linhs.stock.exception.ServiceException;
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.model.po.StockInfo;
+
+/**
+ * sends each call to the healthiest source with the capability, fires the
+ * next one as a hedge when the first is slower than its own p90, and fails
+ * over down the ranking until one succeeds
+ */
+@Component
+public class MarketDataRouter {
+
+    private final Logger logger = LoggerFactory.getLogger(MarketDataRouter.class);
+
+    private static final long MIN_HEDGE_DELAY = 300;
+    private static final long MAX_HEDGE_DELAY = 5000;
+
+    @Autowired
+    private List<MarketDataSource> sources;
+
+    @Autowired
+    private Executor threadPoolTaskExecutor;
+
+    private final Map<MarketDataSource, SourceHealth> healthMap = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        sources.forEach(source -> healthMap.put(source, new SourceHealth(source.getName())));
+    }
+
+    public List<StockInfo> getStockList() {
+        return call(Capability.StockList, new HashSet<>(), source -> MarketDataRouter.requireNotEmpty(source.getStockList()));
+    }
+
+    /**
+     * codes left out by the winning source are asked from the others once
+     */
+    public List<DailyIndex> getDailyIndex(List<String> codeList) {
+        if (codeList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<MarketDataSource> used = new HashSet<>();
+        List<DailyIndex> list = new ArrayList<>(call(Capability.Quote, used,
+                source -> MarketDataRouter.requireNotEmpty(source.getDailyIndex(codeList))));
+
+        Set<String> found = list.stream().map(DailyIndex::getCode).collect(Collectors.toSet());
+        List<String> missingList = codeList.stream().filter(code -> !found.contains(code)).collect(Collectors.toList());
+        if (!missingList.isEmpty() && hasOtherSource(Capability.Quote, used)) {
+            try {
+                list.addAll(call(Capability.Quote, used, source -> source.getDailyIndex(missingList)));
+            } catch (ServiceException e) {
+                logger.warn("{} codes missing from every source: {}", missingList.size(), e.getMessage());
+            }
+        }
+        return list;
+    }
+
+    public List<DailyIndex> getHistoryDailyIndexs(String code) {
+        return call(Capability.History, new HashSet<>(), source -> source.getHistoryDailyIndexs(code));
+    }
+
+    public List<SourceHealth> getHealthList() {
+        return new ArrayList<>(healthMap.values());
+    }
+
+    /**
+     * @param exclude sources not to ask, the winner is added to it
+     */
+    <T> T call(Capability capability, Set<MarketDataSource> exclude, Function<MarketDataSource, T> function) {
+        List<MarketDataSource> ranked = rank(capability, exclude);
+        if (ranked.isEmpty()) {
+            throw new ServiceException("no market data source for " + capability);
+        }
+
+        BlockingQueue<Attempt<T>> doneQueue = new LinkedBlockingQueue<>();
+        int next = 0;
+        int pending = 0;
+        boolean hedged = false;
+        long hedgeTime = Long.MAX_VALUE;
+        Exception lastError = null;
+        try {
+            while (true) {
+                if (pending == 0) {
+                    if (next == ranked.size()) {
+                        throw new ServiceException("all market data sources failed for " + capability, lastError);
+                    }
+                    MarketDataSource source = ranked.get(next++);
+                    launch(source, function, doneQueue);
+                    pending++;
+                    hedgeTime = !hedged && next < ranked.size()
+                            ? System.currentTimeMillis() + getHedgeDelay(source) : Long.MAX_VALUE;
+                }
+
+                Attempt<T> attempt;
+                if (hedgeTime == Long.MAX_VALUE) {
+                    attempt = doneQueue.take();
+                } else {
+                    attempt = doneQueue.poll(Math.max(0, hedgeTime - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                }
+
+                if (attempt == null) {
+                    MarketDataSource source = ranked.get(next++);
+                    logger.info("{} {} slow, hedge with {}", capability, ranked.get(next - 2).getName(), source.getName());
+                    launch(source, function, doneQueue);
+                    pending++;
+                    hedged = true;
+                    hedgeTime = Long.MAX_VALUE;
+                    continue;
+                }
+
+                pending--;
+                if (attempt.error == null) {
+                    exclude.add(attempt.source);
+                    return attempt.result;
+                }
+                lastError = attempt.error;
+                logger.warn("{} from {} error: {}", capability, attempt.source.getName(), attempt.error.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException(capability + " interrupted");
+        }
+    }
+
+    private <T> void launch(MarketDataSource source, Function<MarketDataSource, T> function, BlockingQueue<Attempt<T>> doneQueue) {
+        SourceHealth health = healthMap.get(source);
+        threadPoolTaskExecutor.execute(() -> {
+            long startTime = System.currentTimeMillis();
+            try {
+                T result = function.apply(source);
+                health.onSuccess(System.currentTimeMillis() - startTime);
+                doneQueue.add(new Attempt<>(source, result, null));
+            } catch (Exception e) {
+                if (health.onError(System.currentTimeMillis())) {
+                    logger.error("market data source tripped: {}", health);
+                }
+                doneQueue.add(new Attempt<>(source, null, e));
+            }
+        });
+    }
+
+    private List<MarketDataSource> rank(Capability capability, Set<MarketDataSource> exclude) {
+        long now = System.currentTimeMillis();
+        // stable sort, the bean order decides ties
+        return sources.stream()
+                .filter(source -> source.supports(capability) && !exclude.contains(source))
+                .sorted(Comparator.<MarketDataSource, Boolean>comparing(source -> healthMap.get(source).isTripped(now))
+                        .thenComparingDouble(source -> healthMap.get(source).getScore()))
+                .collect(Collectors.toList());
+    }
+
+    private boolean hasOtherSource(Capability capability, Set<MarketDataSource> exclude) {
+        return sources.stream().anyMatch(source -> source.supports(capability) && !exclude.contains(source));
+    }
+
+    private long getHedgeDelay(MarketDataSource source) {
+        long p90 = healthMap.get(source).percentile(90);
+        return Math.min(MarketDataRouter.MAX_HEDGE_DELAY, Math.max(MarketDataRouter.MIN_HEDGE_DELAY, p90));
+    }
+
+    private static <T extends List<?>> T requireNotEmpty(T list) {
+        if (list == null || list.isEmpty()) {
+            throw new ServiceException("empty result");
+        }
+        return list;
+    }
+
+    private static class Attempt<T> {
+        private final MarketDataSource source;
+        private final T result;
+        private final Exception error;
+
+        private Attempt(MarketDataSource source, T result, Exception error) {
+            this.source = source;
+            this.result = result;
+            this.error = error;
+        }
+    }
+
+}
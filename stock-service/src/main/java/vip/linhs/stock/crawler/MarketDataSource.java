@@ -0,0 +1,57 @@
+package vip.linhs.stock.crawler;
+
+import java.util.List;
+import java.util.Set;
+
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.model.po.StockInfo;
+
+/**
+ * one market data provider, {@link MarketDataRouter} picks among the beans
+ * by capability and health, the bean order is the preference when nothing
+ * is known yet
+ *
+ * the router only calls a method when {@link #supports(Capability)} is true
+ * for it, the defaults throw for sources that do not declare it
+ */
+public interface MarketDataSource {
+
+    enum Capability {
+        StockList, Quote, History
+    }
+
+    String getName();
+
+    Set<Capability> getCapabilities();
+
+    default boolean supports(Capability capability) {
+        return getCapabilities().contains(capability);
+    }
+
+    /**
+     * {@link Capability#StockList}
+     */
+    default List<StockInfo> getStockList() {
+        throw new UnsupportedOperationException(getName() + " has no stock list");
+    }
+
+    /**
+     * {@link Capability#Quote}
+     *
+     * @param codeList full codes, sh600000, a source may leave out codes it
+     * does not cover
+     */
+    default List<DailyIndex> getDailyIndex(List<String> codeList) {
+        throw new UnsupportedOperationException(getName() + " has no quote");
+    }
+
+    /**
+     * {@link Capability#History}
+     *
+     * @param code plain code, 600000, sorted by date
+     */
+    default List<DailyIndex> getHistoryDailyIndexs(String code) {
+        throw new UnsupportedOperationException(getName() + " has no history");
+    }
+
+}
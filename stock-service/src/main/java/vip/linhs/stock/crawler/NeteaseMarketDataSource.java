@@ -0,0 +1,67 @@
+package vip.linhs.stock.crawler;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.parser.DailyIndexParser;
+import vip.linhs.stock.util.HttpUtil;
+
+/**
+ * 163 history pages, one season per request, as a fallback only the last
+ * SEASON_COUNT seasons are fetched
+ */
+@Component
+@Order(20)
+public class NeteaseMarketDataSource implements MarketDataSource {
+
+    private static final int SEASON_COUNT = 4;
+
+    @Autowired
+    private CloseableHttpClient httpClient;
+
+    @Autowired
+    private DailyIndexParser dailyIndexParser;
+
+    @Override
+    public String getName() {
+        return "163";
+    }
+
+    @Override
+    public Set<Capability> getCapabilities() {
+        return Collections.unmodifiableSet(EnumSet.of(Capability.History));
+    }
+
+    @Override
+    public List<DailyIndex> getHistoryDailyIndexs(String code) {
+        LocalDate date = LocalDate.now();
+        int year = date.getYear();
+        int season = (date.getMonthValue() - 1) / 3 + 1;
+        List<DailyIndex> list = new ArrayList<>();
+        for (int i = 0; i < NeteaseMarketDataSource.SEASON_COUNT; i++) {
+            list.addAll(dailyIndexParser.parse163HistoryDailyIndexList(getHistoryDailyIndexsString(code, year, season)));
+            if (--season == 0) {
+                season = 4;
+                year--;
+            }
+        }
+        list.sort(Comparator.comparing(DailyIndex::getDate));
+        return list;
+    }
+
+    public String getHistoryDailyIndexsString(String code, int year, int season) {
+        return HttpUtil.sendGet(httpClient, String.format("https://quotes.money.163.com/trade/lsjysj_%s.html?year=%d&season=%d", code, year, season));
+    }
+
+}
@@ -0,0 +1,39 @@
+package vip.linhs.stock.crawler;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.model.po.DailyIndex;
+
+/**
+ * hq.sinajs.cn quotes, stocks and indices
+ */
+@Component
+@Order(10)
+public class SinaMarketDataSource implements MarketDataSource {
+
+    @Autowired
+    private SinaQuoteFetcher sinaQuoteFetcher;
+
+    @Override
+    public String getName() {
+        return "sina";
+    }
+
+    @Override
+    public Set<Capability> getCapabilities() {
+        return Collections.unmodifiableSet(EnumSet.of(Capability.Quote));
+    }
+
+    @Override
+    public List<DailyIndex> getDailyIndex(List<String> codeList) {
+        return sinaQuoteFetcher.fetch(codeList);
+    }
+
+}
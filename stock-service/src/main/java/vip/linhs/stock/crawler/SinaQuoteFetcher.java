@@ -0,0 +1,189 @@
+package vip.linhs.stock.crawler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.exception.ServiceException;
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.parser.DailyIndexParser;
+import vip.linhs.stock.util.HttpUtil;
+
+/**
+ * sina quotes for any number of codes, split into url length safe batches
+ * fetched in parallel, a failed batch is retried once in two halves
+ *
+ * the caller drains batches itself with HOST_CONCURRENCY - 1 helpers from an
+ * own pool, callers are often threadPoolTaskExecutor tasks themselves and
+ * would starve it waiting for their helpers. the HOST_CONCURRENCY limit on
+ * requests in flight is static, so it holds across concurrent calls and
+ * instances
+ */
+@Component
+public class SinaQuoteFetcher {
+
+    private final Logger logger = LoggerFactory.getLogger(SinaQuoteFetcher.class);
+
+    private static final String URL = "https://hq.sinajs.cn/list=";
+
+    private static final int MAX_URL_LENGTH = 8000;
+
+    private static final int HOST_CONCURRENCY = 8;
+
+    private static final Semaphore HOST_PERMITS = new Semaphore(SinaQuoteFetcher.HOST_CONCURRENCY);
+
+    private static final Map<String, String> HEADER;
+
+    static {
+        HashMap<String, String> header = new HashMap<>();
+        header.put("Referer", "https://finance.sina.com.cn/");
+        HEADER = Collections.unmodifiableMap(header);
+    }
+
+    private final AdaptiveBatchSize batchSize = new AdaptiveBatchSize(50, 800, 400, 50, 800);
+
+    @Autowired
+    private CloseableHttpClient httpClient;
+
+    @Autowired
+    private DailyIndexParser dailyIndexParser;
+
+    private ExecutorService executorService;
+
+    @PostConstruct
+    public void init() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("sina-quote-");
+        threadFactory.setDaemon(true);
+        executorService = Executors.newFixedThreadPool(SinaQuoteFetcher.HOST_CONCURRENCY - 1, threadFactory);
+    }
+
+    @PreDestroy
+    public void close() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * @param codeList full codes, sh600000
+     * @return quotes of the batches that succeeded
+     */
+    public List<DailyIndex> fetch(List<String> codeList) {
+        if (codeList.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Queue<Batch> queue = new ConcurrentLinkedQueue<>();
+        for (List<String> list : SinaQuoteFetcher.split(codeList, batchSize.get())) {
+            queue.add(new Batch(list, 0));
+        }
+
+        List<DailyIndex> result = Collections.synchronizedList(new ArrayList<>(codeList.size()));
+        AtomicInteger failed = new AtomicInteger();
+        int workers = Math.min(SinaQuoteFetcher.HOST_CONCURRENCY, queue.size());
+        CountDownLatch countDownLatch = new CountDownLatch(workers - 1);
+        for (int i = 1; i < workers; i++) {
+            executorService.execute(() -> {
+                try {
+                    drain(queue, result, failed);
+                } finally {
+                    countDownLatch.countDown();
+                }
+            });
+        }
+        drain(queue, result, failed);
+        try {
+            countDownLatch.await();
+        } catch (InterruptedException e) {
+            queue.clear();
+            Thread.currentThread().interrupt();
+            throw new ServiceException("fetch sina quotes interrupted");
+        }
+
+        if (failed.get() > 0) {
+            logger.error("fetch sina quotes, {} of {} codes failed", failed.get(), codeList.size());
+        }
+        return result;
+    }
+
+    private void drain(Queue<Batch> queue, List<DailyIndex> result, AtomicInteger failed) {
+        Batch batch;
+        while ((batch = queue.poll()) != null) {
+            try {
+                SinaQuoteFetcher.HOST_PERMITS.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.addAndGet(batch.codeList.size());
+                return;
+            }
+            long startTime = System.currentTimeMillis();
+            try {
+                byte[] content = HttpUtil.sendGetBytes(httpClient, SinaQuoteFetcher.URL + String.join(",", batch.codeList),
+                        SinaQuoteFetcher.HEADER, "gbk");
+                batchSize.onSuccess(System.currentTimeMillis() - startTime);
+                result.addAll(dailyIndexParser.parseDailyIndexList(content));
+            } catch (Exception e) {
+                batchSize.onError();
+                int size = batch.codeList.size();
+                if (batch.attempt == 0 && size > 1) {
+                    logger.warn("fetch sina quotes of {} codes error, retry in halves: {}", size, e.getMessage());
+                    queue.add(new Batch(batch.codeList.subList(0, size / 2), 1));
+                    queue.add(new Batch(batch.codeList.subList(size / 2, size), 1));
+                } else {
+                    logger.error("fetch sina quotes of {} codes error", size, e);
+                    failed.addAndGet(size);
+                }
+            } finally {
+                SinaQuoteFetcher.HOST_PERMITS.release();
+            }
+        }
+    }
+
+    /**
+     * at most size codes per batch and never longer than MAX_URL_LENGTH
+     */
+    static List<List<String>> split(List<String> codeList, int size) {
+        List<List<String>> batches = new ArrayList<>();
+        int from = 0;
+        int length = SinaQuoteFetcher.URL.length();
+        for (int i = 0; i < codeList.size(); i++) {
+            int codeLength = codeList.get(i).length() + (i > from ? 1 : 0);
+            if (i > from && (i - from == size || length + codeLength > SinaQuoteFetcher.MAX_URL_LENGTH)) {
+                batches.add(codeList.subList(from, i));
+                from = i;
+                length = SinaQuoteFetcher.URL.length();
+                codeLength = codeList.get(i).length();
+            }
+            length += codeLength;
+        }
+        batches.add(codeList.subList(from, codeList.size()));
+        return batches;
+    }
+
+    private static class Batch {
+        private final List<String> codeList;
+        private final int attempt;
+
+        private Batch(List<String> codeList, int attempt) {
+            this.codeList = codeList;
+            this.attempt = attempt;
+        }
+    }
+
+}
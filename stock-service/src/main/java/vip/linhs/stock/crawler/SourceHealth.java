@@ -0,0 +1,90 @@
+package vip.linhs.stock.crawler;
+
+import java.util.Arrays;
+
+/**
+ * latency window and decaying error rate of one source, a source failing
+ * more than half the time is tripped and ranked last for COOLDOWN_MILLIS
+ */
+public class SourceHealth {
+
+    private static final int WINDOW = 64;
+    private static final int MIN_SAMPLES = 5;
+    private static final long DEFAULT_LATENCY = 1000;
+    private static final double ALPHA = 0.2;
+    private static final double TRIP_ERROR_RATE = 0.5;
+    private static final long COOLDOWN_MILLIS = 30000;
+
+    private final String name;
+
+    private final long[] latencies = new long[SourceHealth.WINDOW];
+    private int count;
+    private int index;
+
+    private long calls;
+    private double errorRate;
+    private long trippedUntil;
+
+    public SourceHealth(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized void onSuccess(long elapsedMillis) {
+        latencies[index] = elapsedMillis;
+        index = (index + 1) % SourceHealth.WINDOW;
+        count = Math.min(count + 1, SourceHealth.WINDOW);
+        calls++;
+        errorRate *= 1 - SourceHealth.ALPHA;
+    }
+
+    /**
+     * @return true if this error tripped the source
+     */
+    public synchronized boolean onError(long now) {
+        calls++;
+        errorRate = errorRate * (1 - SourceHealth.ALPHA) + SourceHealth.ALPHA;
+        if (calls >= SourceHealth.MIN_SAMPLES && errorRate > SourceHealth.TRIP_ERROR_RATE && trippedUntil <= now) {
+            trippedUntil = now + SourceHealth.COOLDOWN_MILLIS;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized boolean isTripped(long now) {
+        return trippedUntil > now;
+    }
+
+    /**
+     * nearest rank over the window, DEFAULT_LATENCY until MIN_SAMPLES
+     */
+    public synchronized long percentile(double p) {
+        if (count < SourceHealth.MIN_SAMPLES) {
+            return SourceHealth.DEFAULT_LATENCY;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100 * count);
+        return sorted[Math.max(0, Math.min(count, rank) - 1)];
+    }
+
+    public synchronized double getErrorRate() {
+        return errorRate;
+    }
+
+    /**
+     * lower is better, p90 latency inflated by the error rate
+     */
+    public double getScore() {
+        return percentile(90) * (1 + 4 * getErrorRate());
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s p50=%dms p90=%dms errorRate=%.2f calls=%d", name, percentile(50), percentile(90), errorRate, calls);
+    }
+
+}
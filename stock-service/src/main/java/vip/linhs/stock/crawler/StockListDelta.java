@@ -0,0 +1,56 @@
+package vip.linhs.stock.crawler;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.StopWatch;
+
+import vip.linhs.stock.model.po.StockInfo;
+
+/**
+ * rows of the symbol list that differ from the last committed refresh,
+ * commit it with {@link StockListRefresher#commit(StockListDelta)} once
+ * they are saved
+ */
+public class StockListDelta {
+
+    private final StopWatch stopWatch;
+
+    boolean notModified;
+    int total;
+    List<StockInfo> changedList = Collections.emptyList();
+    Map<String, Integer> hashMap;
+    String etag;
+    String lastModified;
+
+    StockListDelta(StopWatch stopWatch) {
+        this.stopWatch = stopWatch;
+    }
+
+    /**
+     * the upstream answered 304
+     */
+    public boolean isNotModified() {
+        return notModified;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * new or changed rows with abbreviation set
+     */
+    public List<StockInfo> getChangedList() {
+        return changedList;
+    }
+
+    /**
+     * fetch, parse and hash stages, callers may add their own
+     */
+    public StopWatch getStopWatch() {
+        return stopWatch;
+    }
+
+}
@@ -0,0 +1,113 @@
+package vip.linhs.stock.crawler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StopWatch;
+
+import vip.linhs.stock.exception.ServiceException;
+import vip.linhs.stock.model.po.StockInfo;
+import vip.linhs.stock.parser.impl.EastmoneyStockInfoParserImpl;
+import vip.linhs.stock.parser.impl.EastmoneyStockInfoParserImpl.StockResultDiffVo;
+import vip.linhs.stock.util.HttpUtil.ConditionalResponse;
+import vip.linhs.stock.util.StockUtil;
+
+/**
+ * symbol list refresh that only builds StockInfo for rows whose code,
+ * exchange or name changed since the last committed run, the first run
+ * compares against the stocks already saved
+ */
+@Component
+public class StockListRefresher {
+
+    @Autowired
+    private EastmoneyMarketDataSource eastmoneyMarketDataSource;
+
+    @Autowired
+    private EastmoneyStockInfoParserImpl eastmoneyStockInfoParser;
+
+    private volatile Map<String, Integer> hashMap;
+    private volatile String etag;
+    private volatile String lastModified;
+
+    /**
+     * @param savedList stocks in the database, only read on the first run
+     */
+    public synchronized StockListDelta fetchDelta(List<StockInfo> savedList) {
+        StopWatch stopWatch = new StopWatch("update of stock");
+        StockListDelta delta = new StockListDelta(stopWatch);
+
+        stopWatch.start("fetch");
+        Map<String, Integer> previousMap = hashMap;
+        ConditionalResponse response = eastmoneyMarketDataSource.getStockListResponse(
+                previousMap != null ? etag : null, previousMap != null ? lastModified : null);
+        stopWatch.stop();
+        if (response.isNotModified()) {
+            delta.notModified = true;
+            delta.hashMap = previousMap;
+            delta.etag = etag;
+            delta.lastModified = lastModified;
+            return delta;
+        }
+        if (response.getStatus() != 200 || response.getContent() == null) {
+            throw new ServiceException("stock list status " + response.getStatus());
+        }
+
+        stopWatch.start("parse");
+        List<StockResultDiffVo> rowList = eastmoneyStockInfoParser.parseDiffList(response.getContent());
+        stopWatch.stop();
+
+        stopWatch.start("hash");
+        if (previousMap == null) {
+            previousMap = new HashMap<>(savedList.size() * 4 / 3 + 1);
+            for (StockInfo stockInfo : savedList) {
+                previousMap.put(stockInfo.getFullCode(),
+                        StockListRefresher.hash(stockInfo.getCode(), stockInfo.getExchange(), stockInfo.getName()));
+            }
+        }
+        Map<String, Integer> currentMap = new HashMap<>(rowList.size() * 4 / 3 + 1);
+        List<StockInfo> changedList = new ArrayList<>();
+        for (StockResultDiffVo row : rowList) {
+            String exchange = EastmoneyStockInfoParserImpl.getExchange(row);
+            if (exchange == null) {
+                continue;
+            }
+            String fullCode = exchange + row.getF12();
+            int hash = StockListRefresher.hash(row.getF12(), exchange, row.getF14());
+            currentMap.put(fullCode, hash);
+            Integer previousHash = previousMap.get(fullCode);
+            if (previousHash == null || previousHash != hash) {
+                StockInfo stockInfo = eastmoneyStockInfoParser.toStockInfo(row);
+                stockInfo.setAbbreviation(StockUtil.getPinyin(stockInfo.getName()));
+                changedList.add(stockInfo);
+            }
+        }
+        stopWatch.stop();
+
+        delta.total = currentMap.size();
+        delta.changedList = changedList;
+        delta.hashMap = currentMap;
+        delta.etag = response.getEtag();
+        delta.lastModified = response.getLastModified();
+        return delta;
+    }
+
+    /**
+     * the next fetch compares against this delta
+     */
+    public synchronized void commit(StockListDelta delta) {
+        hashMap = delta.hashMap;
+        etag = delta.etag;
+        lastModified = delta.lastModified;
+    }
+
+    private static int hash(String code, String exchange, String name) {
+        return Objects.hash(code, exchange, name);
+    }
+
+}
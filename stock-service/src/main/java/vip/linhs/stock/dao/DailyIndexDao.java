@@ -2,6 +2,7 @@ package vip.linhs.stock.dao;
 
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import vip.linhs.stock.model.po.DailyIndex;
 import vip.linhs.stock.model.vo.DailyIndexVo;
@@ -16,4 +17,15 @@ public interface DailyIndexDao {
 
     List<DailyIndex> getDailyIndexListByDate(Date date);
 
+    /**
+     * [startDate, endDate], order by date
+     */
+    List<DailyIndex> getDailyIndexListByCode(String code, Date startDate, Date endDate);
+
+    /**
+     * [startDate, endDate] of every code, order by code, date, streamed row
+     * by row instead of held in a list
+     */
+    void forEachDailyIndex(Date startDate, Date endDate, Consumer<DailyIndex> consumer);
+
 }
@@ -13,4 +13,6 @@ public interface HolidayCalendarDao {
 
     HolidayCalendar getByDate(Date date);
 
+    List<HolidayCalendar> getAll();
+
 }
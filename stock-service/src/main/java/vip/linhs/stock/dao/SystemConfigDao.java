@@ -10,4 +10,9 @@ public interface SystemConfigDao {
 
     List<SystemConfig> getAll();
 
+    /**
+     * changes whenever a row is added, removed or modified
+     */
+    String getVersion();
+
 }
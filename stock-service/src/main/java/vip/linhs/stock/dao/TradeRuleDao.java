@@ -10,4 +10,6 @@ public interface TradeRuleDao {
 
     void updateState(int state, int id);
 
+    TradeRule getById(int id);
+
 }
@@ -1,10 +1,12 @@
 package vip.linhs.stock.dao.impl;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.StatementCreatorUtils;
@@ -82,4 +84,46 @@ public class DailyIndexDaoImpl extends BaseDao implements DailyIndexDao {
         return list;
     }
 
+    @Override
+    public List<DailyIndex> getDailyIndexListByCode(String code, Date startDate, Date endDate) {
+        String sql = "select"
+            + " id, code, date, pre_closing_price as preClosingPrice,"
+            + " closing_price as closingPrice, lowest_price as lowestPrice,"
+            + " highest_price as highestPrice, opening_price as openingPrice,"
+            + " trading_value as tradingValue, trading_volume as tradingVolume,"
+            + " rurnover_rate as rurnoverRate"
+            + " from daily_index where code = ? and date >= ? and date <= ? order by date";
+        return jdbcTemplate.query(sql, BeanPropertyRowMapper.newInstance(DailyIndex.class),
+                code, new java.sql.Date(startDate.getTime()), new java.sql.Date(endDate.getTime()));
+    }
+
+    @Override
+    public void forEachDailyIndex(Date startDate, Date endDate, Consumer<DailyIndex> consumer) {
+        String sql = "select"
+            + " code, date, closing_price, lowest_price, highest_price, opening_price,"
+            + " trading_value, trading_volume, pre_closing_price, rurnover_rate"
+            + " from daily_index where date >= ? and date <= ? order by code, date";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // mysql streams the rows only with this fetch size
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setDate(1, new java.sql.Date(startDate.getTime()));
+            ps.setDate(2, new java.sql.Date(endDate.getTime()));
+            return ps;
+        }, rs -> {
+            DailyIndex dailyIndex = new DailyIndex();
+            dailyIndex.setCode(rs.getString(1));
+            dailyIndex.setDate(rs.getDate(2));
+            dailyIndex.setClosingPrice(rs.getBigDecimal(3));
+            dailyIndex.setLowestPrice(rs.getBigDecimal(4));
+            dailyIndex.setHighestPrice(rs.getBigDecimal(5));
+            dailyIndex.setOpeningPrice(rs.getBigDecimal(6));
+            dailyIndex.setTradingValue(rs.getBigDecimal(7));
+            dailyIndex.setTradingVolume(rs.getLong(8));
+            dailyIndex.setPreClosingPrice(rs.getBigDecimal(9));
+            dailyIndex.setRurnoverRate(rs.getBigDecimal(10));
+            consumer.accept(dailyIndex);
+        });
+    }
+
 }
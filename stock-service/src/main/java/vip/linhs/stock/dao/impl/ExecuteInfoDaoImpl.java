@@ -37,15 +37,15 @@ public class ExecuteInfoDaoImpl extends BaseDao implements ExecuteInfoDao {
 
     @Override
     public void update(ExecuteInfo executeInfo) {
-        String sql = "update execute_info set start_time = ?, complete_time = ?, message = ? where id = ?";
+        String sql = "update execute_info set start_time = ?, complete_time = ?, message = ?, lag = ? where id = ?";
         jdbcTemplate.update(sql, executeInfo.getStartTime(), executeInfo.getCompleteTime(), executeInfo.getMessage(),
-                executeInfo.getId());
+                executeInfo.getLag(), executeInfo.getId());
     }
 
     @Override
     public PageVo<TaskVo> get(PageParam pageParam) {
         SqlCondition dataSqlCondition = new SqlCondition(
-                "select e.id, t.name, e.state, t.description, e.start_time as startTime, e.complete_time as completeTime from execute_info e, task t where e.task_id = t.id",
+                "select e.id, t.name, e.state, t.description, e.start_time as startTime, e.complete_time as completeTime, e.lag from execute_info e, task t where e.task_id = t.id",
                 pageParam.getCondition());
 
         Integer totalRecords = jdbcTemplate.queryForObject(dataSqlCondition.getCountSql(), Integer.class,
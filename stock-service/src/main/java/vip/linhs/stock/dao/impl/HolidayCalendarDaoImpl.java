@@ -46,4 +46,10 @@ public class HolidayCalendarDaoImpl extends BaseDao implements HolidayCalendarDa
         return list.isEmpty() ? null : list.get(0);
     }
 
+    @Override
+    public List<HolidayCalendar> getAll() {
+        return jdbcTemplate.query("select id, date from holiday_calendar order by date",
+                BeanPropertyRowMapper.newInstance(HolidayCalendar.class));
+    }
+
 }
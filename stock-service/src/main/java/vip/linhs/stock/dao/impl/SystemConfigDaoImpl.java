@@ -26,4 +26,11 @@ public class SystemConfigDaoImpl extends BaseDao implements SystemConfigDao {
         return jdbcTemplate.query(SQL_SELECT_BASE_COLUMNS, BeanPropertyRowMapper.newInstance(SystemConfig.class));
     }
 
+    @Override
+    public String getVersion() {
+        return jdbcTemplate.queryForObject(
+                "select concat(count(*), '-', ifnull(max(update_time), ''), '-', ifnull(sum(crc32(concat_ws(',', name, value1, value2, value3, state))), 0)) from system_config",
+                String.class);
+    }
+
 }
@@ -39,4 +39,11 @@ public class TradeRuleDaoImpl extends BaseDao implements TradeRuleDao {
         jdbcTemplate.update("update trade_rule set state = ? where id = ?", state, id);
     }
 
+    @Override
+    public TradeRule getById(int id) {
+        List<TradeRule> list = jdbcTemplate.query(TradeRuleDaoImpl.SELECT_SQL + " and id = ?",
+                BeanPropertyRowMapper.newInstance(TradeRule.class), id);
+        return list.isEmpty() ? null : list.get(0);
+    }
+
 }
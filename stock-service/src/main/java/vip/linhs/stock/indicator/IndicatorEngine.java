@@ -0,0 +1,242 @@
+package vip.linhs.stock.indicator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.dao.DailyIndexDao;
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.model.vo.IndicatorVo;
+
+/**
+ * indicators of every symbol over daily bars and of the polled symbols over
+ * one minute bars built from quotes. the daily side is loaded from
+ * daily_index once, in parallel across symbols, then moves one bar a day
+ */
+@Component
+public class IndicatorEngine {
+
+    private final Logger logger = LoggerFactory.getLogger(IndicatorEngine.class);
+
+    // about 250 trading days, enough for MA60 and a settled EMA26
+    private static final int HISTORY_DAYS = 370;
+
+    @Autowired
+    private DailyIndexDao dailyIndexDao;
+
+    private volatile Map<String, IndicatorState> dailyMap;
+    private final Map<String, IntradaySeries> intradayMap = new ConcurrentHashMap<>();
+
+    /**
+     * daily indicators of the symbol, loads the history on first use
+     */
+    public IndicatorVo getDaily(String code) {
+        IndicatorState state = getDailyMap().get(code);
+        return state != null ? state.toVo(code) : null;
+    }
+
+    public IndicatorVo getIntraday(String code) {
+        IntradaySeries series = intradayMap.get(code);
+        return series != null ? series.state.toVo(code) : null;
+    }
+
+    /**
+     * new daily bars, those not newer than the last one of the symbol are
+     * skipped so a repeated import does not count twice
+     */
+    public void onDailyIndex(List<DailyIndex> list) {
+        Map<String, IndicatorState> map = getDailyMap();
+        for (DailyIndex dailyIndex : list) {
+            if (!IndicatorEngine.isValid(dailyIndex)) {
+                continue;
+            }
+            long time = DateUtils.truncate(dailyIndex.getDate(), Calendar.DATE).getTime();
+            IndicatorState state = map.computeIfAbsent(dailyIndex.getCode(), k -> IndicatorState.newDaily());
+            synchronized (state) {
+                if (state.getCount() > 0 && time <= state.getTime()) {
+                    continue;
+                }
+                state.update(time, dailyIndex.getHighestPrice().doubleValue(), dailyIndex.getLowestPrice().doubleValue(),
+                        dailyIndex.getClosingPrice().doubleValue(), dailyIndex.getTradingVolume(),
+                        dailyIndex.getTradingValue().doubleValue());
+            }
+        }
+    }
+
+    /**
+     * intraday quotes with the day's running volume and value, a minute bar
+     * is closed by the first quote of the next minute, bars follow the quote
+     * time or else the wall clock, the date is only the trading day
+     */
+    public void onQuote(List<DailyIndex> list) {
+        long now = System.currentTimeMillis();
+        for (DailyIndex dailyIndex : list) {
+            if (dailyIndex.getClosingPrice() == null || dailyIndex.getClosingPrice().signum() <= 0) {
+                continue;
+            }
+            IntradaySeries series = intradayMap.computeIfAbsent(dailyIndex.getCode(), k -> new IntradaySeries());
+            double value = dailyIndex.getTradingValue() != null ? dailyIndex.getTradingValue().doubleValue() : 0;
+            long time = dailyIndex.getQuoteTime() != null ? dailyIndex.getQuoteTime().getTime() : now;
+            synchronized (series) {
+                series.onQuote(time, dailyIndex.getClosingPrice().doubleValue(),
+                        dailyIndex.getTradingVolume(), value);
+            }
+        }
+    }
+
+    /**
+     * loads the daily history again and replaces the daily indicators
+     */
+    public synchronized void initialize() {
+        long startTime = System.currentTimeMillis();
+        Date endDate = new Date();
+        Date startDate = DateUtils.addDays(endDate, -IndicatorEngine.HISTORY_DAYS);
+
+        List<BarColumns> columnsList = new ArrayList<>();
+        BarColumns[] current = { null };
+        dailyIndexDao.forEachDailyIndex(startDate, endDate, dailyIndex -> {
+            if (!IndicatorEngine.isValid(dailyIndex)) {
+                return;
+            }
+            if (current[0] == null || !current[0].code.equals(dailyIndex.getCode())) {
+                current[0] = new BarColumns(dailyIndex.getCode());
+                columnsList.add(current[0]);
+            }
+            current[0].add(dailyIndex);
+        });
+        long loadTime = System.currentTimeMillis();
+
+        Map<String, IndicatorState> map = new ConcurrentHashMap<>(columnsList.size() * 4 / 3 + 1);
+        columnsList.parallelStream().forEach(columns -> map.put(columns.code, columns.replay()));
+        dailyMap = map;
+        logger.info("indicators of {} symbols, load {}ms, compute {}ms", map.size(),
+                loadTime - startTime, System.currentTimeMillis() - loadTime);
+    }
+
+    private Map<String, IndicatorState> getDailyMap() {
+        Map<String, IndicatorState> map = dailyMap;
+        if (map == null) {
+            synchronized (this) {
+                if (dailyMap == null) {
+                    initialize();
+                }
+                map = dailyMap;
+            }
+        }
+        return map;
+    }
+
+    private static boolean isValid(DailyIndex dailyIndex) {
+        return dailyIndex.getDate() != null && dailyIndex.getClosingPrice() != null
+                && dailyIndex.getClosingPrice().signum() > 0
+                && dailyIndex.getHighestPrice() != null && dailyIndex.getLowestPrice() != null
+                && dailyIndex.getTradingValue() != null;
+    }
+
+    /**
+     * daily bars of one symbol as primitive columns, replayed into a state
+     */
+    private static class BarColumns {
+
+        private final String code;
+        private int size;
+        private long[] times = new long[256];
+        private double[] highs = new double[256];
+        private double[] lows = new double[256];
+        private double[] closes = new double[256];
+        private long[] volumes = new long[256];
+        private double[] values = new double[256];
+
+        private BarColumns(String code) {
+            this.code = code;
+        }
+
+        private void add(DailyIndex dailyIndex) {
+            if (size == times.length) {
+                int length = size * 2;
+                times = Arrays.copyOf(times, length);
+                highs = Arrays.copyOf(highs, length);
+                lows = Arrays.copyOf(lows, length);
+                closes = Arrays.copyOf(closes, length);
+                volumes = Arrays.copyOf(volumes, length);
+                values = Arrays.copyOf(values, length);
+            }
+            times[size] = dailyIndex.getDate().getTime();
+            highs[size] = dailyIndex.getHighestPrice().doubleValue();
+            lows[size] = dailyIndex.getLowestPrice().doubleValue();
+            closes[size] = dailyIndex.getClosingPrice().doubleValue();
+            volumes[size] = dailyIndex.getTradingVolume();
+            values[size] = dailyIndex.getTradingValue().doubleValue();
+            size++;
+        }
+
+        private IndicatorState replay() {
+            IndicatorState state = IndicatorState.newDaily();
+            for (int i = 0; i < size; i++) {
+                state.update(times[i], highs[i], lows[i], closes[i], volumes[i], values[i]);
+            }
+            return state;
+        }
+
+    }
+
+    /**
+     * the minute bar being built and the state of the closed ones
+     */
+    private static class IntradaySeries {
+
+        private final IndicatorState state = IndicatorState.newIntraday();
+
+        private long minute = -1;
+        private long day = -1;
+        private double high;
+        private double low;
+        private double close;
+        private long startVolume;
+        private double startValue;
+        private long lastVolume;
+        private double lastValue;
+
+        private void onQuote(long time, double price, long volume, double value) {
+            long quoteMinute = time / DateUtils.MILLIS_PER_MINUTE;
+            if (quoteMinute < minute) {
+                return;
+            }
+            if (quoteMinute != minute) {
+                long quoteDay = DateUtils.truncate(new Date(time), Calendar.DATE).getTime();
+                if (minute >= 0) {
+                    state.update(minute * DateUtils.MILLIS_PER_MINUTE, high, low, close,
+                            lastVolume - startVolume, lastValue - startValue);
+                }
+                if (quoteDay != day) {
+                    state.resetSession();
+                    day = quoteDay;
+                    lastVolume = 0;
+                    lastValue = 0;
+                }
+                minute = quoteMinute;
+                high = price;
+                low = price;
+                startVolume = lastVolume;
+                startValue = lastValue;
+            }
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            close = price;
+            lastVolume = volume;
+            lastValue = value;
+        }
+
+    }
+
+}
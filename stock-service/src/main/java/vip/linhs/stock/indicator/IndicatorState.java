@@ -0,0 +1,195 @@
+package vip.linhs.stock.indicator;
+
+import vip.linhs.stock.model.vo.IndicatorVo;
+
+/**
+ * running state of the indicators of one bar series, every update is O(1).
+ * MA 5/10/20/60, EMA 12/26, MACD 12/26/9 with the bar as 2 * (dif - dea),
+ * RSI 14 and ATR 14 with wilder smoothing, Bollinger 20/2 and VWAP over the
+ * last 20 bars or over the session
+ */
+public class IndicatorState {
+
+    static final int[] MA_PERIODS = { 5, 10, 20, 60 };
+
+    private static final int CLOSE_RING_SIZE = 64;
+    private static final int EMA_SHORT = 12;
+    private static final int EMA_LONG = 26;
+    private static final int MACD_SIGNAL = 9;
+    private static final int WILDER_PERIOD = 14;
+    private static final int BOLL_PERIOD = 20;
+    private static final int BOLL_INDEX = 2;
+    private static final double BOLL_WIDTH = 2;
+    private static final int VWAP_RING_SIZE = 32;
+    private static final int VWAP_PERIOD = 20;
+
+    /**
+     * 0 when the vwap runs over the session until {@link #resetSession()}
+     */
+    private final int vwapPeriod;
+
+    private long count;
+    private long time;
+
+    private final double[] closes = new double[IndicatorState.CLOSE_RING_SIZE];
+    private final double[] maSums = new double[IndicatorState.MA_PERIODS.length];
+    private double bollSquareSum;
+
+    private double emaShort;
+    private double emaLong;
+    private double dea;
+
+    private double prevClose;
+    private double gainSum;
+    private double lossSum;
+    private double trSum;
+
+    private final double[] values = new double[IndicatorState.VWAP_RING_SIZE];
+    private final double[] volumes = new double[IndicatorState.VWAP_RING_SIZE];
+    private long vwapCount;
+    private double valueSum;
+    private double volumeSum;
+
+    private IndicatorState(int vwapPeriod) {
+        this.vwapPeriod = vwapPeriod;
+    }
+
+    /**
+     * daily bars, vwap of the last 20
+     */
+    public static IndicatorState newDaily() {
+        return new IndicatorState(IndicatorState.VWAP_PERIOD);
+    }
+
+    /**
+     * intraday bars, vwap of the session
+     */
+    public static IndicatorState newIntraday() {
+        return new IndicatorState(0);
+    }
+
+    public synchronized long getTime() {
+        return time;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * @param value traded amount of the bar, the vwap divides it by volume
+     */
+    public synchronized void update(long time, double high, double low, double close, long volume, double value) {
+        int index = (int) (count & (IndicatorState.CLOSE_RING_SIZE - 1));
+        for (int i = 0; i < IndicatorState.MA_PERIODS.length; i++) {
+            int period = IndicatorState.MA_PERIODS[i];
+            maSums[i] += close;
+            if (count >= period) {
+                maSums[i] -= closes[(int) ((count - period) & (IndicatorState.CLOSE_RING_SIZE - 1))];
+            }
+        }
+        bollSquareSum += close * close;
+        if (count >= IndicatorState.BOLL_PERIOD) {
+            double old = closes[(int) ((count - IndicatorState.BOLL_PERIOD) & (IndicatorState.CLOSE_RING_SIZE - 1))];
+            bollSquareSum -= old * old;
+        }
+        closes[index] = close;
+
+        double tr = high - low;
+        if (count == 0) {
+            emaShort = close;
+            emaLong = close;
+            dea = 0;
+        } else {
+            emaShort += (close - emaShort) * 2 / (IndicatorState.EMA_SHORT + 1);
+            emaLong += (close - emaLong) * 2 / (IndicatorState.EMA_LONG + 1);
+            dea += (emaShort - emaLong - dea) * 2 / (IndicatorState.MACD_SIGNAL + 1);
+
+            double change = close - prevClose;
+            double gain = Math.max(change, 0);
+            double loss = Math.max(-change, 0);
+            tr = Math.max(tr, Math.max(Math.abs(high - prevClose), Math.abs(low - prevClose)));
+            // sums until the period is filled, wilder averages times the period after
+            if (count <= IndicatorState.WILDER_PERIOD) {
+                gainSum += gain;
+                lossSum += loss;
+            } else {
+                gainSum += gain - gainSum / IndicatorState.WILDER_PERIOD;
+                lossSum += loss - lossSum / IndicatorState.WILDER_PERIOD;
+            }
+        }
+        if (count < IndicatorState.WILDER_PERIOD) {
+            trSum += tr;
+        } else {
+            trSum += tr - trSum / IndicatorState.WILDER_PERIOD;
+        }
+        prevClose = close;
+
+        int vwapIndex = (int) (vwapCount & (IndicatorState.VWAP_RING_SIZE - 1));
+        valueSum += value;
+        volumeSum += volume;
+        if (vwapPeriod > 0 && vwapCount >= vwapPeriod) {
+            int oldIndex = (int) ((vwapCount - vwapPeriod) & (IndicatorState.VWAP_RING_SIZE - 1));
+            valueSum -= values[oldIndex];
+            volumeSum -= volumes[oldIndex];
+        }
+        values[vwapIndex] = value;
+        volumes[vwapIndex] = volume;
+        vwapCount++;
+
+        count++;
+        this.time = time;
+    }
+
+    /**
+     * starts the session vwap over
+     */
+    public synchronized void resetSession() {
+        vwapCount = 0;
+        valueSum = 0;
+        volumeSum = 0;
+    }
+
+    public synchronized IndicatorVo toVo(String code) {
+        IndicatorVo vo = new IndicatorVo();
+        vo.setCode(code);
+        vo.setTime(time);
+        vo.setCount(count);
+        vo.setMa5(ma(0));
+        vo.setMa10(ma(1));
+        vo.setMa20(ma(2));
+        vo.setMa60(ma(3));
+        if (count > 0) {
+            double dif = emaShort - emaLong;
+            vo.setEma12(emaShort);
+            vo.setEma26(emaLong);
+            vo.setDif(dif);
+            vo.setDea(dea);
+            vo.setMacd(2 * (dif - dea));
+        }
+        if (count > IndicatorState.WILDER_PERIOD) {
+            vo.setRsi(lossSum == 0 ? 100 : 100 - 100 / (1 + gainSum / lossSum));
+        }
+        if (count >= IndicatorState.WILDER_PERIOD) {
+            vo.setAtr(trSum / IndicatorState.WILDER_PERIOD);
+        }
+        Double mid = ma(IndicatorState.BOLL_INDEX);
+        if (mid != null) {
+            double variance = Math.max(0, bollSquareSum / IndicatorState.BOLL_PERIOD - mid * mid);
+            double width = IndicatorState.BOLL_WIDTH * Math.sqrt(variance);
+            vo.setBollUpper(mid + width);
+            vo.setBollMid(mid);
+            vo.setBollLower(mid - width);
+        }
+        if (volumeSum > 0) {
+            vo.setVwap(valueSum / volumeSum);
+        }
+        return vo;
+    }
+
+    private Double ma(int i) {
+        int period = IndicatorState.MA_PERIODS[i];
+        return count >= period ? maSums[i] / period : null;
+    }
+
+}
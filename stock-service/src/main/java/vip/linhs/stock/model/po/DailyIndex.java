@@ -17,6 +17,10 @@ public class DailyIndex extends BaseModel {
     private long tradingVolume;
     private BigDecimal tradingValue;
     private BigDecimal rurnoverRate;
+    /**
+     * time of a live quote, not stored, null when the source has none
+     */
+    private Date quoteTime;
 
     public String getCode() {
         return code;
@@ -98,4 +102,12 @@ public class DailyIndex extends BaseModel {
         this.rurnoverRate = rurnoverRate;
     }
 
+    public Date getQuoteTime() {
+        return quoteTime;
+    }
+
+    public void setQuoteTime(Date quoteTime) {
+        this.quoteTime = quoteTime;
+    }
+
 }
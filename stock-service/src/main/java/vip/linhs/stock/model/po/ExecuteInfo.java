@@ -13,6 +13,7 @@ public class ExecuteInfo extends BaseModel {
     private boolean isManual;
     private int state;
     private String message;
+    private long lag;
 
     public int getTaskId() {
         return taskId;
@@ -70,11 +71,22 @@ public class ExecuteInfo extends BaseModel {
         this.message = message;
     }
 
+    /**
+     * milliseconds between the trigger and the start of the run
+     */
+    public long getLag() {
+        return lag;
+    }
+
+    public void setLag(long lag) {
+        this.lag = lag;
+    }
+
     @Override
     public String toString() {
         return "ExecuteInfo [taskId=" + taskId + ", startTime=" + startTime + ", completeTime=" + completeTime
                 + ", paramsStr=" + paramsStr + ", isManual=" + isManual + ", state=" + state + ", message=" + message
-                + "]";
+                + ", lag=" + lag + "]";
     }
 
 }
@@ -3,8 +3,17 @@ package vip.linhs.stock.model.vo;
 public class CacheVo {
 
     private String name;
-    private String value;
-    private String key;
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+    private long loadSuccessCount;
+    private long loadFailureCount;
+    /**
+     * nanoseconds
+     */
+    private double averageLoadPenalty;
 
     public String getName() {
         return name;
@@ -14,20 +23,68 @@ public class CacheVo {
         this.name = name;
     }
 
-    public String getValue() {
-        return value;
+    public long getSize() {
+        return size;
     }
 
-    public void setValue(String value) {
-        this.value = value;
+    public void setSize(long size) {
+        this.size = size;
     }
 
-    public String getKey() {
-        return key;
+    public long getHitCount() {
+        return hitCount;
     }
 
-    public void setKey(String key) {
-        this.key = key;
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public void setHitRate(double hitRate) {
+        this.hitRate = hitRate;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public void setEvictionCount(long evictionCount) {
+        this.evictionCount = evictionCount;
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    public void setLoadSuccessCount(long loadSuccessCount) {
+        this.loadSuccessCount = loadSuccessCount;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    public void setLoadFailureCount(long loadFailureCount) {
+        this.loadFailureCount = loadFailureCount;
+    }
+
+    public double getAverageLoadPenalty() {
+        return averageLoadPenalty;
+    }
+
+    public void setAverageLoadPenalty(double averageLoadPenalty) {
+        this.averageLoadPenalty = averageLoadPenalty;
     }
 
 }
@@ -0,0 +1,174 @@
+package vip.linhs.stock.model.vo;
+
+/**
+ * latest indicator values of a symbol, null until enough bars are in
+ */
+public class IndicatorVo {
+
+    private String code;
+    /**
+     * time of the last bar
+     */
+    private long time;
+    private long count;
+    private Double ma5;
+    private Double ma10;
+    private Double ma20;
+    private Double ma60;
+    private Double ema12;
+    private Double ema26;
+    private Double dif;
+    private Double dea;
+    private Double macd;
+    private Double rsi;
+    private Double atr;
+    private Double bollUpper;
+    private Double bollMid;
+    private Double bollLower;
+    private Double vwap;
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public Double getMa5() {
+        return ma5;
+    }
+
+    public void setMa5(Double ma5) {
+        this.ma5 = ma5;
+    }
+
+    public Double getMa10() {
+        return ma10;
+    }
+
+    public void setMa10(Double ma10) {
+        this.ma10 = ma10;
+    }
+
+    public Double getMa20() {
+        return ma20;
+    }
+
+    public void setMa20(Double ma20) {
+        this.ma20 = ma20;
+    }
+
+    public Double getMa60() {
+        return ma60;
+    }
+
+    public void setMa60(Double ma60) {
+        this.ma60 = ma60;
+    }
+
+    public Double getEma12() {
+        return ema12;
+    }
+
+    public void setEma12(Double ema12) {
+        this.ema12 = ema12;
+    }
+
+    public Double getEma26() {
+        return ema26;
+    }
+
+    public void setEma26(Double ema26) {
+        this.ema26 = ema26;
+    }
+
+    public Double getDif() {
+        return dif;
+    }
+
+    public void setDif(Double dif) {
+        this.dif = dif;
+    }
+
+    public Double getDea() {
+        return dea;
+    }
+
+    public void setDea(Double dea) {
+        this.dea = dea;
+    }
+
+    public Double getMacd() {
+        return macd;
+    }
+
+    public void setMacd(Double macd) {
+        this.macd = macd;
+    }
+
+    public Double getRsi() {
+        return rsi;
+    }
+
+    public void setRsi(Double rsi) {
+        this.rsi = rsi;
+    }
+
+    public Double getAtr() {
+        return atr;
+    }
+
+    public void setAtr(Double atr) {
+        this.atr = atr;
+    }
+
+    public Double getBollUpper() {
+        return bollUpper;
+    }
+
+    public void setBollUpper(Double bollUpper) {
+        this.bollUpper = bollUpper;
+    }
+
+    public Double getBollMid() {
+        return bollMid;
+    }
+
+    public void setBollMid(Double bollMid) {
+        this.bollMid = bollMid;
+    }
+
+    public Double getBollLower() {
+        return bollLower;
+    }
+
+    public void setBollLower(Double bollLower) {
+        this.bollLower = bollLower;
+    }
+
+    public Double getVwap() {
+        return vwap;
+    }
+
+    public void setVwap(Double vwap) {
+        this.vwap = vwap;
+    }
+
+}
@@ -0,0 +1,83 @@
+package vip.linhs.stock.model.vo;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import vip.linhs.stock.model.po.SystemConfig;
+import vip.linhs.stock.util.StockConsts;
+
+/**
+ * immutable view of the valid rows of system_config
+ */
+public class SystemConfigSnapshot {
+
+    public static final SystemConfigSnapshot EMPTY = new SystemConfigSnapshot(Collections.emptyList(), "");
+
+    private final Map<String, SystemConfig> configMap;
+    private final String version;
+
+    public SystemConfigSnapshot(List<SystemConfig> list, String version) {
+        Map<String, SystemConfig> map = new LinkedHashMap<>();
+        for (SystemConfig systemConfig : list) {
+            if (systemConfig.getState() == StockConsts.TradeState.Valid.value()) {
+                map.putIfAbsent(systemConfig.getName(), systemConfig);
+            }
+        }
+        this.configMap = Collections.unmodifiableMap(map);
+        this.version = version;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public SystemConfig get(String name) {
+        return configMap.get(name);
+    }
+
+    public String getString(String name) {
+        SystemConfig systemConfig = configMap.get(name);
+        return systemConfig == null ? null : systemConfig.getValue1();
+    }
+
+    /**
+     * value1 equals "1"
+     */
+    public boolean getBoolean(String name) {
+        return "1".equals(getString(name));
+    }
+
+    public int getInt(String name, int defaultValue) {
+        String value = getString(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public Set<String> getChangedNames(SystemConfigSnapshot other) {
+        Set<String> names = new HashSet<>(configMap.keySet());
+        names.addAll(other.configMap.keySet());
+        names.removeIf(name -> SystemConfigSnapshot.isSame(configMap.get(name), other.configMap.get(name)));
+        return names;
+    }
+
+    private static boolean isSame(SystemConfig a, SystemConfig b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return Objects.equals(a.getValue1(), b.getValue1())
+                && Objects.equals(a.getValue2(), b.getValue2())
+                && Objects.equals(a.getValue3(), b.getValue3());
+    }
+
+}
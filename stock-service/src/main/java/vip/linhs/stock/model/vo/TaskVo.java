@@ -10,6 +10,7 @@ public class TaskVo {
     private String description;
     private Date startTime;
     private Date completeTime;
+    private long lag;
 
     public int getId() {
         return id;
@@ -59,4 +60,12 @@ public class TaskVo {
         this.completeTime = completeTime;
     }
 
+    public long getLag() {
+        return lag;
+    }
+
+    public void setLag(long lag) {
+        this.lag = lag;
+    }
+
 }
@@ -0,0 +1,93 @@
+package vip.linhs.stock.model.vo;
+
+public class TradeBudgetVo {
+
+    private int userId;
+    /**
+     * left now, below zero once orders overdraw it
+     */
+    private double tokens;
+    private int burst;
+    /**
+     * calls granted per class
+     */
+    private long orderCount;
+    private long strategyCount;
+    private long heartbeatCount;
+    private long uiCount;
+    private long delayedCount;
+    private long shedCount;
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public double getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(double tokens) {
+        this.tokens = tokens;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public long getStrategyCount() {
+        return strategyCount;
+    }
+
+    public void setStrategyCount(long strategyCount) {
+        this.strategyCount = strategyCount;
+    }
+
+    public long getHeartbeatCount() {
+        return heartbeatCount;
+    }
+
+    public void setHeartbeatCount(long heartbeatCount) {
+        this.heartbeatCount = heartbeatCount;
+    }
+
+    public long getUiCount() {
+        return uiCount;
+    }
+
+    public void setUiCount(long uiCount) {
+        this.uiCount = uiCount;
+    }
+
+    public long getDelayedCount() {
+        return delayedCount;
+    }
+
+    public void setDelayedCount(long delayedCount) {
+        this.delayedCount = delayedCount;
+    }
+
+    public long getShedCount() {
+        return shedCount;
+    }
+
+    public void setShedCount(long shedCount) {
+        this.shedCount = shedCount;
+    }
+
+}
@@ -0,0 +1,86 @@
+package vip.linhs.stock.model.vo.trade;
+
+import java.util.Date;
+
+public class MarginRiskVo {
+
+    private int tradeUserId;
+    private String level;
+    /**
+     * maintenance ratio marked to the latest quotes, null without debt
+     */
+    private Double ratio;
+    /**
+     * maintenance ratio of the broker at the last poll
+     */
+    private String brokerRatio;
+    private double assets;
+    private double debt;
+    private Date pollTime;
+    private boolean buyPaused;
+
+    public int getTradeUserId() {
+        return tradeUserId;
+    }
+
+    public void setTradeUserId(int tradeUserId) {
+        this.tradeUserId = tradeUserId;
+    }
+
+    public String getLevel() {
+        return level;
+    }
+
+    public void setLevel(String level) {
+        this.level = level;
+    }
+
+    public Double getRatio() {
+        return ratio;
+    }
+
+    public void setRatio(Double ratio) {
+        this.ratio = ratio;
+    }
+
+    public String getBrokerRatio() {
+        return brokerRatio;
+    }
+
+    public void setBrokerRatio(String brokerRatio) {
+        this.brokerRatio = brokerRatio;
+    }
+
+    public double getAssets() {
+        return assets;
+    }
+
+    public void setAssets(double assets) {
+        this.assets = assets;
+    }
+
+    public double getDebt() {
+        return debt;
+    }
+
+    public void setDebt(double debt) {
+        this.debt = debt;
+    }
+
+    public Date getPollTime() {
+        return pollTime;
+    }
+
+    public void setPollTime(Date pollTime) {
+        this.pollTime = pollTime;
+    }
+
+    public boolean isBuyPaused() {
+        return buyPaused;
+    }
+
+    public void setBuyPaused(boolean buyPaused) {
+        this.buyPaused = buyPaused;
+    }
+
+}
@@ -1,8 +1,10 @@
 package vip.linhs.stock.parser;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
@@ -19,6 +21,11 @@ import vip.linhs.stock.util.DecimalUtil;
 @Component
 public class DailyIndexParser {
 
+    /**
+     * fields up to the time, the 32nd
+     */
+    private static final int SINA_FIELD_COUNT = 32;
+
     public List<DailyIndex> parseDailyIndexList(String content) {
         String[] str = content.split("\n");
         ArrayList<DailyIndex> list = new ArrayList<>();
@@ -34,6 +41,143 @@ public class DailyIndexParser {
         return list;
     }
 
+    /**
+     * same as {@link #parseDailyIndexList(String)} straight from the gbk
+     * response, the name is the only non ascii field and is skipped, gbk
+     * trail bytes never collide with , " or newline
+     */
+    public List<DailyIndex> parseDailyIndexList(byte[] content) {
+        ArrayList<DailyIndex> list = new ArrayList<>();
+        int[] fieldEnds = new int[DailyIndexParser.SINA_FIELD_COUNT];
+        char[] buf = new char[32];
+        long lastDateKey = -1;
+        long lastDateTime = 0;
+        int pos = 0;
+        while (pos < content.length) {
+            int end = DailyIndexParser.indexOf(content, (byte) '\n', pos, content.length);
+            if (end < 0) {
+                end = content.length;
+            }
+            int eq = DailyIndexParser.indexOf(content, (byte) '=', pos, end);
+            // skip the name, then split the rest of the quoted value
+            int start = eq < 0 ? -1 : DailyIndexParser.indexOf(content, (byte) ',', eq, end);
+            int count = 0;
+            if (start > 0) {
+                int p = start;
+                fieldEnds[count++] = p;
+                while (count < DailyIndexParser.SINA_FIELD_COUNT) {
+                    p++;
+                    while (p < end && content[p] != ',' && content[p] != '"') {
+                        p++;
+                    }
+                    if (p >= end) {
+                        break;
+                    }
+                    fieldEnds[count++] = p;
+                    if (content[p] == '"') {
+                        break;
+                    }
+                }
+            }
+            if (count == DailyIndexParser.SINA_FIELD_COUNT) {
+                int codeStart = eq;
+                while (codeStart > pos && content[codeStart - 1] != '_') {
+                    codeStart--;
+                }
+                DailyIndex dailyIndex = new DailyIndex();
+                dailyIndex.setCode(new String(content, codeStart, eq - codeStart, StandardCharsets.US_ASCII));
+                dailyIndex.setOpeningPrice(DailyIndexParser.decimalField(content, fieldEnds, 1, buf));
+                dailyIndex.setPreClosingPrice(DailyIndexParser.decimalField(content, fieldEnds, 2, buf));
+                dailyIndex.setClosingPrice(DailyIndexParser.decimalField(content, fieldEnds, 3, buf));
+                dailyIndex.setHighestPrice(DailyIndexParser.decimalField(content, fieldEnds, 4, buf));
+                dailyIndex.setLowestPrice(DailyIndexParser.decimalField(content, fieldEnds, 5, buf));
+                dailyIndex.setTradingVolume(DailyIndexParser.longField(content, fieldEnds, 8));
+                dailyIndex.setTradingValue(DailyIndexParser.decimalField(content, fieldEnds, 9, buf));
+                dailyIndex.setRurnoverRate(BigDecimal.ZERO);
+
+                int dateStart = fieldEnds[29] + 1;
+                int dateEnd = fieldEnds[30];
+                if (dateEnd - dateStart != 10 || content[dateStart + 4] != '-' || content[dateStart + 7] != '-') {
+                    throw new IllegalArgumentException("bad date " + new String(content, dateStart, dateEnd - dateStart, StandardCharsets.US_ASCII));
+                }
+                int year = DailyIndexParser.digits(content, dateStart, dateStart + 4);
+                int month = DailyIndexParser.digits(content, dateStart + 5, dateStart + 7);
+                int day = DailyIndexParser.digits(content, dateStart + 8, dateEnd);
+                long dateKey = year * 10000L + month * 100 + day;
+                if (dateKey != lastDateKey) {
+                    Calendar calendar = Calendar.getInstance();
+                    calendar.clear();
+                    calendar.set(year, month - 1, day);
+                    lastDateKey = dateKey;
+                    lastDateTime = calendar.getTimeInMillis();
+                }
+                dailyIndex.setDate(new Date(lastDateTime));
+
+                int timeStart = fieldEnds[30] + 1;
+                int timeEnd = fieldEnds[31];
+                if (timeEnd - timeStart == 8 && content[timeStart + 2] == ':' && content[timeStart + 5] == ':') {
+                    int hour = DailyIndexParser.digits(content, timeStart, timeStart + 2);
+                    int minute = DailyIndexParser.digits(content, timeStart + 3, timeStart + 5);
+                    int second = DailyIndexParser.digits(content, timeStart + 6, timeEnd);
+                    dailyIndex.setQuoteTime(new Date(lastDateTime + ((hour * 60L + minute) * 60 + second) * 1000));
+                }
+                list.add(dailyIndex);
+            }
+            pos = end + 1;
+        }
+        return list;
+    }
+
+    private static BigDecimal decimalField(byte[] content, int[] fieldEnds, int index, char[] buf) {
+        int start = fieldEnds[index - 1] + 1;
+        int len = fieldEnds[index] - start;
+        if (len > buf.length) {
+            buf = new char[len];
+        }
+        for (int i = 0; i < len; i++) {
+            buf[i] = (char) content[start + i];
+        }
+        return new BigDecimal(buf, 0, len);
+    }
+
+    private static long longField(byte[] content, int[] fieldEnds, int index) {
+        int start = fieldEnds[index - 1] + 1;
+        int end = fieldEnds[index];
+        if (start == end) {
+            throw new NumberFormatException("empty field " + index);
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = content[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.parseLong(new String(content, start, end - start, StandardCharsets.US_ASCII));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int digits(byte[] content, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = content[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("bad digit at " + i);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int indexOf(byte[] content, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (content[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /*
      * 0：新晨科技, 股票名字; 1：27.55″, 今日开盘价; 2：27.25″, 昨日收盘价; 3：26.91″, 当前价格; 4：27.55″,
      * 今日最高价; 5：26.20″, 今日最低价; 6：26.91″, 竞买价, 即“买一报价; 7：26.92″, 竞卖价, 即“卖一报价;
@@ -53,8 +197,12 @@ public class DailyIndexParser {
         long tradingVolume = Long.parseLong(strs[8]);
         BigDecimal tradingValue = new BigDecimal(strs[9]);
         Date date;
+        Date quoteTime = null;
         try {
             date = DateUtils.parseDate(strs[30], "yyyy-MM-dd" );
+            if (strs.length > 31) {
+                quoteTime = DateUtils.parseDate(strs[30] + " " + strs[31], "yyyy-MM-dd HH:mm:ss");
+            }
         } catch (ParseException e) {
             throw new IllegalArgumentException(e);
         }
@@ -69,6 +217,7 @@ public class DailyIndexParser {
         dailyIndex.setTradingValue(tradingValue);
         dailyIndex.setRurnoverRate(BigDecimal.ZERO);
         dailyIndex.setDate(date);
+        dailyIndex.setQuoteTime(quoteTime);
 
         return dailyIndex;
     }
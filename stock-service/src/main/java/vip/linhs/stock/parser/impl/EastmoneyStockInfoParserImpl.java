@@ -22,6 +22,13 @@ public class EastmoneyStockInfoParserImpl implements StockInfoParser {
 
     @Override
     public List<EmStock> parseStockInfoList(String content) {
+        return parseDiffList(content).stream().map(this::toEmStock).collect(Collectors.toList());
+    }
+
+    /**
+     * raw rows, no StockInfo built yet
+     */
+    public List<StockResultDiffVo> parseDiffList(String content) {
         char[] chArr = content.toCharArray();
         char[] newCharArr = new char[chArr.length];
         int i = 0;
@@ -38,38 +45,51 @@ public class EastmoneyStockInfoParserImpl implements StockInfoParser {
         }
 
         StockResultVo stockResultVo = JSON.parseObject(new String(newCharArr, 0, i), StockResultVo.class);
+        return stockResultVo.getData().getDiff();
+    }
+
+    public static String getExchange(StockResultDiffVo v) {
+        return v.getF13() == 0 ? StockUtil.getExchange(v.getF12()) : StockConsts.Exchange.SH.getName();
+    }
+
+    // {"f12":"000718","f13":0,"f14":"苏宁环球"}
+    public StockInfo toStockInfo(StockResultDiffVo v) {
+        String code = v.getF12();
+        StockInfo stockInfo = new StockInfo();
+        String exchange = EastmoneyStockInfoParserImpl.getExchange(v);
+        int type = StockUtil.getStockType(exchange, code);
+        stockInfo.setExchange(exchange);
+        stockInfo.setName(v.getF14());
+        stockInfo.setCode(code);
+        stockInfo.setExchange(exchange);
+        stockInfo.setType(type);
+        return stockInfo;
+    }
 
-        // {"f12":"000718","f13":0,"f14":"苏宁环球"}
-        return stockResultVo.getData().getDiff().stream().map(v -> {
-            String code = v.getF12();
-            EmStock emStock = new EmStock();
-
-            StockInfo stockInfo = new StockInfo();
-            String exchange = v.getF13() == 0 ? StockUtil.getExchange(code) : StockConsts.Exchange.SH.getName();
-            int type = StockUtil.getStockType(exchange, code);
-            stockInfo.setExchange(exchange);
-            stockInfo.setName(v.getF14());
-            stockInfo.setCode(code);
-            stockInfo.setExchange(exchange);
-            stockInfo.setType(type);
-
-            DailyIndex dailyIndex = new DailyIndex();
-            dailyIndex.setDate(new Date());
-            dailyIndex.setCode(stockInfo.getFullCode());
-            dailyIndex.setClosingPrice(BigDecimal.valueOf(v.getF2()).movePointLeft(2));
-            dailyIndex.setTradingVolume(v.getF5() * 100);
-            dailyIndex.setTradingValue(BigDecimal.valueOf(v.getF6()));
-            dailyIndex.setRurnoverRate(BigDecimal.valueOf(v.getF8()).movePointLeft(2));
-            dailyIndex.setHighestPrice(BigDecimal.valueOf(v.getF15()).movePointLeft(2));
-            dailyIndex.setLowestPrice(BigDecimal.valueOf(v.getF16()).movePointLeft(2));
-            dailyIndex.setOpeningPrice(BigDecimal.valueOf(v.getF17()).movePointLeft(2));
-            dailyIndex.setPreClosingPrice(BigDecimal.valueOf(v.getF18()).movePointLeft(2));
-
-            emStock.setStockInfo(stockInfo);
-            emStock.setDailyIndex(dailyIndex);
-
-            return emStock;
-        }).collect(Collectors.toList());
+    public EmStock toEmStock(StockResultDiffVo v) {
+        EmStock emStock = new EmStock();
+        StockInfo stockInfo = toStockInfo(v);
+
+        DailyIndex dailyIndex = new DailyIndex();
+        Date now = new Date();
+        dailyIndex.setDate(now);
+        dailyIndex.setQuoteTime(now);
+        dailyIndex.setCode(stockInfo.getFullCode());
+        // f1 is the number of price decimals, absent only if not asked for
+        int scale = v.getF1() > 0 ? v.getF1() : 2;
+        dailyIndex.setClosingPrice(BigDecimal.valueOf(v.getF2()).movePointLeft(scale));
+        dailyIndex.setTradingVolume(v.getF5() * 100);
+        dailyIndex.setTradingValue(BigDecimal.valueOf(v.getF6()));
+        dailyIndex.setRurnoverRate(BigDecimal.valueOf(v.getF8()).movePointLeft(2));
+        dailyIndex.setHighestPrice(BigDecimal.valueOf(v.getF15()).movePointLeft(scale));
+        dailyIndex.setLowestPrice(BigDecimal.valueOf(v.getF16()).movePointLeft(scale));
+        dailyIndex.setOpeningPrice(BigDecimal.valueOf(v.getF17()).movePointLeft(scale));
+        dailyIndex.setPreClosingPrice(BigDecimal.valueOf(v.getF18()).movePointLeft(scale));
+
+        emStock.setStockInfo(stockInfo);
+        emStock.setDailyIndex(dailyIndex);
+
+        return emStock;
     }
 
     public static class StockResultVo {
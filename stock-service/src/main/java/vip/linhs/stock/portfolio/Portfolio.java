@@ -0,0 +1,185 @@
+package vip.linhs.stock.portfolio;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import vip.linhs.stock.api.response.GetDealDataResponse;
+
+/**
+ * positions of one account, the totals are kept up to date on every deal
+ * and quote instead of summed on read
+ */
+public class Portfolio {
+
+    private final int tradeUserId;
+    private final boolean cr;
+
+    // by full code
+    private final Map<String, PortfolioPosition> positionMap = new LinkedHashMap<>();
+    private final Set<String> dealCodeSet = new HashSet<>();
+
+    private double marketValue;
+    private double cost;
+    private double realizedProfit;
+    private long reconcileTime;
+
+    Portfolio(int tradeUserId, boolean cr) {
+        this.tradeUserId = tradeUserId;
+        this.cr = cr;
+    }
+
+    public int getTradeUserId() {
+        return tradeUserId;
+    }
+
+    public boolean isCr() {
+        return cr;
+    }
+
+    public synchronized double getMarketValue() {
+        return marketValue;
+    }
+
+    public synchronized double getCost() {
+        return cost;
+    }
+
+    public synchronized double getUnrealizedProfit() {
+        return marketValue - cost;
+    }
+
+    /**
+     * profit of the volume sold since the start of the day
+     */
+    public synchronized double getRealizedProfit() {
+        return realizedProfit;
+    }
+
+    /**
+     * millis the positions were last taken from the broker, zero before
+     */
+    public synchronized long getReconcileTime() {
+        return reconcileTime;
+    }
+
+    /**
+     * volume that can be sold now, orders submitted since the reconcile
+     * time are not taken off
+     */
+    public synchronized int getAvailableVolume(String fullCode) {
+        PortfolioPosition position = positionMap.get(fullCode);
+        return position != null ? position.getAvailableVolume() : 0;
+    }
+
+    synchronized boolean isHeld(String fullCode) {
+        return positionMap.containsKey(fullCode);
+    }
+
+    synchronized List<String> getCodeList() {
+        return new ArrayList<>(positionMap.keySet());
+    }
+
+    synchronized List<PortfolioPosition> getPositionList() {
+        List<PortfolioPosition> list = new ArrayList<>(positionMap.size());
+        for (PortfolioPosition position : positionMap.values()) {
+            PortfolioPosition copy = new PortfolioPosition(position.getStockCode(), position.getFullCode(), position.getStockName());
+            copy.set(position.getVolume(), position.getAvailableVolume(), position.getCost());
+            copy.mark(position.getLastPrice(), position.getPreClosePrice());
+            list.add(copy);
+        }
+        return list;
+    }
+
+    /**
+     * replaces the positions with those of the broker, the deals listed are
+     * taken as included in them
+     */
+    synchronized void reconcile(List<PortfolioPosition> positionList, Collection<String> dealCodeList, long time) {
+        Map<String, PortfolioPosition> previousMap = new LinkedHashMap<>(positionMap);
+        positionMap.clear();
+        marketValue = 0;
+        cost = 0;
+        for (PortfolioPosition position : positionList) {
+            PortfolioPosition previous = previousMap.get(position.getFullCode());
+            if (previous != null && previous.getPreClosePrice() > 0) {
+                position.mark(position.getLastPrice() > 0 ? position.getLastPrice() : previous.getLastPrice(),
+                        previous.getPreClosePrice());
+            }
+            positionMap.put(position.getFullCode(), position);
+            marketValue += position.getMarketValue();
+            cost += position.getCost();
+        }
+        dealCodeSet.addAll(dealCodeList);
+        reconcileTime = time;
+    }
+
+    /**
+     * @return false if the deal was seen before
+     */
+    synchronized boolean onDeal(GetDealDataResponse deal, String fullCode) {
+        if (!dealCodeSet.add(deal.getCjbh())) {
+            return false;
+        }
+        double price = Double.parseDouble(deal.getCjjg());
+        int volume = Integer.parseInt(deal.getCjsl());
+        PortfolioPosition position = positionMap.get(fullCode);
+        if (GetDealDataResponse.B.equals(deal.getMmlb())) {
+            if (position == null) {
+                position = new PortfolioPosition(deal.getZqdm(), fullCode, deal.getZqmc());
+                position.mark(price, 0);
+                positionMap.put(fullCode, position);
+            }
+            remove(position);
+            position.buy(volume, price * volume);
+            add(position);
+        } else if (GetDealDataResponse.S.equals(deal.getMmlb())) {
+            if (position == null || position.getVolume() < volume) {
+                // the positions lag behind the deals, take them from the broker again
+                reconcileTime = 0;
+                if (position == null) {
+                    return true;
+                }
+                volume = position.getVolume();
+            }
+            remove(position);
+            realizedProfit += position.sell(volume, price);
+            if (position.getVolume() == 0) {
+                positionMap.remove(fullCode);
+            } else {
+                add(position);
+            }
+        }
+        return true;
+    }
+
+    synchronized void mark(String fullCode, double price, double preClosePrice) {
+        PortfolioPosition position = positionMap.get(fullCode);
+        if (position == null || price <= 0) {
+            return;
+        }
+        marketValue += (price - position.getLastPrice()) * position.getVolume();
+        position.mark(price, preClosePrice);
+    }
+
+    synchronized void beginOfDay() {
+        positionMap.values().forEach(PortfolioPosition::settle);
+        dealCodeSet.clear();
+        realizedProfit = 0;
+    }
+
+    private void remove(PortfolioPosition position) {
+        marketValue -= position.getMarketValue();
+        cost -= position.getCost();
+    }
+
+    private void add(PortfolioPosition position) {
+        marketValue += position.getMarketValue();
+        cost += position.getCost();
+    }
+
+}
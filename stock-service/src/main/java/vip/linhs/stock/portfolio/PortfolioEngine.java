@@ -0,0 +1,243 @@
+package vip.linhs.stock.portfolio;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.request.CrGetDealDataRequest;
+import vip.linhs.stock.api.request.CrQueryCollateralRequest;
+import vip.linhs.stock.api.request.GetDealDataRequest;
+import vip.linhs.stock.api.request.GetStockListRequest;
+import vip.linhs.stock.api.response.CrGetDealDataResponse;
+import vip.linhs.stock.api.response.CrQueryCollateralResponse;
+import vip.linhs.stock.api.response.GetDealDataResponse;
+import vip.linhs.stock.api.response.GetStockListResponse;
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.model.po.StockInfo;
+import vip.linhs.stock.model.po.StockSelected;
+import vip.linhs.stock.model.vo.trade.StockVo;
+import vip.linhs.stock.service.StockService;
+import vip.linhs.stock.service.SystemConfigService;
+import vip.linhs.stock.service.TradeApiService;
+import vip.linhs.stock.service.TradeService;
+import vip.linhs.stock.util.StockUtil;
+
+/**
+ * live positions and profit of every account, moved by the deals and marked
+ * to market by the quotes of the ticker, taken from the broker again on a
+ * reconcile interval. reads never go to the broker once an account is loaded
+ */
+@Component
+public class PortfolioEngine {
+
+    private final Logger logger = LoggerFactory.getLogger(PortfolioEngine.class);
+
+    @Value("${portfolio.reconcile-interval:5m}")
+    private Duration reconcileInterval;
+
+    @Autowired
+    private TradeApiService tradeApiService;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private SystemConfigService systemConfigService;
+
+    private final Map<Integer, Portfolio> portfolioMap = new ConcurrentHashMap<>();
+    private final Map<Integer, Portfolio> crPortfolioMap = new ConcurrentHashMap<>();
+
+    // latest quote by full code
+    private final Map<String, DailyIndex> quoteMap = new ConcurrentHashMap<>();
+
+    /**
+     * loads the account from the broker on first use
+     */
+    public Portfolio getPortfolio(int tradeUserId, boolean cr) {
+        Map<Integer, Portfolio> map = cr ? crPortfolioMap : portfolioMap;
+        Portfolio portfolio = map.computeIfAbsent(tradeUserId, id -> new Portfolio(id, cr));
+        if (portfolio.getReconcileTime() == 0) {
+            reconcile(portfolio);
+        }
+        return portfolio;
+    }
+
+    public void reconcileIfStale(int tradeUserId) {
+        long time = System.currentTimeMillis() - reconcileInterval.toMillis();
+        for (boolean cr : systemConfigService.isCr() ? new boolean[] { false, true } : new boolean[] { false }) {
+            Portfolio portfolio = (cr ? crPortfolioMap : portfolioMap).computeIfAbsent(tradeUserId, id -> new Portfolio(id, cr));
+            if (portfolio.getReconcileTime() < time) {
+                reconcile(portfolio);
+            }
+        }
+    }
+
+    public void onDeal(int tradeUserId, boolean cr, List<? extends GetDealDataResponse> dealList) {
+        Portfolio portfolio = (cr ? crPortfolioMap : portfolioMap).get(tradeUserId);
+        if (portfolio == null || portfolio.getReconcileTime() == 0) {
+            // deals so far are part of the positions when it is loaded
+            return;
+        }
+        for (GetDealDataResponse deal : dealList) {
+            String fullCode = StockUtil.getFullCode(deal.getZqdm());
+            if (portfolio.onDeal(deal, fullCode)) {
+                DailyIndex quote = quoteMap.get(fullCode);
+                if (quote != null) {
+                    portfolio.mark(fullCode, quote.getClosingPrice().doubleValue(), quote.getPreClosingPrice().doubleValue());
+                }
+            }
+        }
+    }
+
+    public void onQuote(List<DailyIndex> dailyIndexList) {
+        for (DailyIndex dailyIndex : dailyIndexList) {
+            if (dailyIndex.getClosingPrice() == null || dailyIndex.getPreClosingPrice() == null) {
+                continue;
+            }
+            quoteMap.put(dailyIndex.getCode(), dailyIndex);
+            double price = dailyIndex.getClosingPrice().doubleValue();
+            double preClosePrice = dailyIndex.getPreClosingPrice().doubleValue();
+            Stream.concat(portfolioMap.values().stream(), crPortfolioMap.values().stream())
+                    .forEach(portfolio -> portfolio.mark(dailyIndex.getCode(), price, preClosePrice));
+        }
+    }
+
+    public DailyIndex getQuote(String fullCode) {
+        return quoteMap.get(fullCode);
+    }
+
+    /**
+     * full codes held in any account, to be polled by the ticker
+     */
+    public List<String> getCodeList() {
+        return Stream.concat(portfolioMap.values().stream(), crPortfolioMap.values().stream())
+                .flatMap(portfolio -> portfolio.getCodeList().stream()).distinct().collect(Collectors.toList());
+    }
+
+    public void beginOfDay() {
+        Stream.concat(portfolioMap.values().stream(), crPortfolioMap.values().stream()).forEach(Portfolio::beginOfDay);
+        quoteMap.clear();
+    }
+
+    public List<StockVo> getStockList(int tradeUserId, boolean cr) {
+        return getPortfolio(tradeUserId, cr).getPositionList().stream().map(position -> {
+            StockVo stockVo = newStockVo(position.getStockCode(), position.getStockName());
+            stockVo.setTotalVolume(position.getVolume());
+            stockVo.setAvailableVolume(position.getAvailableVolume());
+            stockVo.setPrice(PortfolioEngine.toDecimal(position.getLastPrice(), 3));
+            stockVo.setCostPrice(PortfolioEngine.toDecimal(position.getCostPrice(), 3));
+            stockVo.setProfit(PortfolioEngine.toDecimal(position.getMarketValue() - position.getCost(), 2));
+            stockVo.setRate(PortfolioEngine.toRate(position.getLastPrice(), position.getPreClosePrice()));
+            return stockVo;
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * selected stocks priced from the quotes of the ticker, those not polled
+     * yet are fetched
+     */
+    public List<StockVo> getStockListBySelected(List<StockSelected> selectList) {
+        List<StockVo> list = new ArrayList<>(selectList.size());
+        List<StockSelected> missingList = new ArrayList<>();
+        for (StockSelected stockSelected : selectList) {
+            DailyIndex quote = quoteMap.get(StockUtil.getFullCode(stockSelected.getCode()));
+            if (quote == null) {
+                missingList.add(stockSelected);
+                continue;
+            }
+            StockVo stockVo = newStockVo(stockSelected.getCode(), null);
+            stockVo.setPrice(quote.getClosingPrice());
+            stockVo.setRate(PortfolioEngine.toRate(quote.getClosingPrice().doubleValue(), quote.getPreClosingPrice().doubleValue()));
+            stockVo.setCostPrice(BigDecimal.ZERO);
+            stockVo.setProfit(BigDecimal.ZERO);
+            list.add(stockVo);
+        }
+        if (!missingList.isEmpty()) {
+            list.addAll(tradeService.getTradeStockListBySelected(missingList));
+        }
+        return list;
+    }
+
+    private void reconcile(Portfolio portfolio) {
+        int tradeUserId = portfolio.getTradeUserId();
+        List<PortfolioPosition> positionList;
+        List<String> dealCodeList;
+        // deals listed after the positions count as included, one in between shows up at the next reconcile
+        if (portfolio.isCr()) {
+            TradeResultVo<CrQueryCollateralResponse> response = tradeApiService.crQueryCollateral(new CrQueryCollateralRequest(tradeUserId));
+            if (!response.success()) {
+                logger.error("portfolio {} cr reconcile error {}", tradeUserId, response.getMessage());
+                return;
+            }
+            positionList = response.getData().stream().map(v -> newPosition(v.getZqdm(), v.getZqmc(), v.getZqsl(),
+                    v.getGfky(), v.getCbjg(), v.getZxjg())).collect(Collectors.toList());
+            TradeResultVo<CrGetDealDataResponse> dealData = tradeApiService.crGetDealData(new CrGetDealDataRequest(tradeUserId));
+            dealCodeList = dealData.success() ? dealData.getData().stream().map(GetDealDataResponse::getCjbh).collect(Collectors.toList())
+                    : Collections.emptyList();
+        } else {
+            TradeResultVo<GetStockListResponse> response = tradeApiService.getStockList(new GetStockListRequest(tradeUserId));
+            if (!response.success()) {
+                logger.error("portfolio {} reconcile error {}", tradeUserId, response.getMessage());
+                return;
+            }
+            positionList = response.getData().stream().map(v -> newPosition(v.getZqdm(), v.getZqmc(), v.getZqsl(),
+                    v.getKysl(), v.getCbjg(), v.getZxjg())).collect(Collectors.toList());
+            TradeResultVo<GetDealDataResponse> dealData = tradeApiService.getDealData(new GetDealDataRequest(tradeUserId));
+            dealCodeList = dealData.success() ? dealData.getData().stream().map(GetDealDataResponse::getCjbh).collect(Collectors.toList())
+                    : Collections.emptyList();
+        }
+        positionList = positionList.stream().filter(v -> v.getVolume() > 0).collect(Collectors.toList());
+        for (PortfolioPosition position : positionList) {
+            DailyIndex quote = quoteMap.get(position.getFullCode());
+            if (quote != null) {
+                position.mark(quote.getClosingPrice().doubleValue(), quote.getPreClosingPrice().doubleValue());
+            }
+        }
+        portfolio.reconcile(positionList, dealCodeList, System.currentTimeMillis());
+    }
+
+    private PortfolioPosition newPosition(String stockCode, String stockName, String volume, String availableVolume,
+            String costPrice, String lastPrice) {
+        PortfolioPosition position = new PortfolioPosition(stockCode, StockUtil.getFullCode(stockCode), stockName);
+        int totalVolume = Integer.parseInt(volume);
+        position.set(totalVolume, Integer.parseInt(availableVolume), Double.parseDouble(costPrice) * totalVolume);
+        position.mark(Double.parseDouble(lastPrice), 0);
+        return position;
+    }
+
+    private StockVo newStockVo(String stockCode, String name) {
+        StockInfo stockInfo = stockService.getStockByFullCode(StockUtil.getFullCode(stockCode));
+        StockVo stockVo = new StockVo();
+        stockVo.setStockCode(stockCode);
+        stockVo.setName(name != null ? name : stockInfo.getName());
+        stockVo.setAbbreviation(stockInfo.getAbbreviation());
+        stockVo.setExchange(stockInfo.getExchange());
+        return stockVo;
+    }
+
+    private static BigDecimal toDecimal(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal toRate(double price, double preClosePrice) {
+        return preClosePrice > 0 ? PortfolioEngine.toDecimal(price / preClosePrice - 1, 6) : BigDecimal.ZERO;
+    }
+
+}
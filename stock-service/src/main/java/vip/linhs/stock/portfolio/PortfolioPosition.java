@@ -0,0 +1,100 @@
+package vip.linhs.stock.portfolio;
+
+class PortfolioPosition {
+
+    private final String stockCode;
+    private final String fullCode;
+    private final String stockName;
+
+    private int volume;
+    private int availableVolume;
+    /**
+     * total cost of the volume held
+     */
+    private double cost;
+    private double lastPrice;
+    private double preClosePrice;
+
+    PortfolioPosition(String stockCode, String fullCode, String stockName) {
+        this.stockCode = stockCode;
+        this.fullCode = fullCode;
+        this.stockName = stockName;
+    }
+
+    String getStockCode() {
+        return stockCode;
+    }
+
+    String getFullCode() {
+        return fullCode;
+    }
+
+    String getStockName() {
+        return stockName;
+    }
+
+    int getVolume() {
+        return volume;
+    }
+
+    int getAvailableVolume() {
+        return availableVolume;
+    }
+
+    double getCost() {
+        return cost;
+    }
+
+    double getCostPrice() {
+        return volume == 0 ? 0 : cost / volume;
+    }
+
+    double getLastPrice() {
+        return lastPrice;
+    }
+
+    double getPreClosePrice() {
+        return preClosePrice;
+    }
+
+    double getMarketValue() {
+        return volume * lastPrice;
+    }
+
+    void set(int volume, int availableVolume, double cost) {
+        this.volume = volume;
+        this.availableVolume = availableVolume;
+        this.cost = cost;
+    }
+
+    void mark(double lastPrice, double preClosePrice) {
+        this.lastPrice = lastPrice;
+        if (preClosePrice > 0) {
+            this.preClosePrice = preClosePrice;
+        }
+    }
+
+    /**
+     * T+1, the volume bought is not available today
+     */
+    void buy(int amount, double value) {
+        volume += amount;
+        cost += value;
+    }
+
+    /**
+     * @return profit of the amount sold against the average cost
+     */
+    double sell(int amount, double price) {
+        double costPrice = getCostPrice();
+        volume -= amount;
+        availableVolume = Math.max(0, availableVolume - amount);
+        cost = volume == 0 ? 0 : cost - costPrice * amount;
+        return (price - costPrice) * amount;
+    }
+
+    void settle() {
+        availableVolume = volume;
+    }
+
+}
@@ -0,0 +1,97 @@
+package vip.linhs.stock.risk;
+
+/**
+ * the credit assets of the last poll and the collateral value they were
+ * taken at, later quotes move the assets by the change of that value
+ */
+class MarginAccount {
+
+    private final int tradeUserId;
+
+    private double assets;
+    private double debt;
+    private double marketValue;
+    private double cost;
+    private String brokerRatio;
+    private long pollTime;
+    private long nextPollTime;
+
+    private double ratio = Double.POSITIVE_INFINITY;
+    private MarginRiskMonitor.Level level = MarginRiskMonitor.Level.Normal;
+
+    MarginAccount(int tradeUserId) {
+        this.tradeUserId = tradeUserId;
+    }
+
+    int getTradeUserId() {
+        return tradeUserId;
+    }
+
+    void poll(double assets, double debt, String brokerRatio, double marketValue, double cost, long pollTime) {
+        this.assets = assets;
+        this.debt = debt;
+        this.brokerRatio = brokerRatio;
+        this.marketValue = marketValue;
+        this.cost = cost;
+        this.pollTime = pollTime;
+    }
+
+    /**
+     * @param marketValue collateral value now
+     */
+    double calcRatio(double marketValue) {
+        if (debt <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return (assets + marketValue - this.marketValue) / debt;
+    }
+
+    double getAssets() {
+        return assets;
+    }
+
+    double getDebt() {
+        return debt;
+    }
+
+    double getCost() {
+        return cost;
+    }
+
+    void setCost(double cost) {
+        this.cost = cost;
+    }
+
+    String getBrokerRatio() {
+        return brokerRatio;
+    }
+
+    long getPollTime() {
+        return pollTime;
+    }
+
+    long getNextPollTime() {
+        return nextPollTime;
+    }
+
+    void setNextPollTime(long nextPollTime) {
+        this.nextPollTime = nextPollTime;
+    }
+
+    double getRatio() {
+        return ratio;
+    }
+
+    void setRatio(double ratio) {
+        this.ratio = ratio;
+    }
+
+    MarginRiskMonitor.Level getLevel() {
+        return level;
+    }
+
+    void setLevel(MarginRiskMonitor.Level level) {
+        this.level = level;
+    }
+
+}
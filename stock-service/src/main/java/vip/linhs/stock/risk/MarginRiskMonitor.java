@@ -0,0 +1,189 @@
+package vip.linhs.stock.risk;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.request.CrGetRzrqAssertsRequest;
+import vip.linhs.stock.api.response.CrGetRzrqAssertsResponse;
+import vip.linhs.stock.model.po.TradeUser;
+import vip.linhs.stock.model.vo.trade.MarginRiskVo;
+import vip.linhs.stock.portfolio.Portfolio;
+import vip.linhs.stock.portfolio.PortfolioEngine;
+import vip.linhs.stock.service.MessageService;
+import vip.linhs.stock.service.SystemConfigService;
+import vip.linhs.stock.service.TradeApiService;
+import vip.linhs.stock.service.TradeService;
+import vip.linhs.stock.util.DecimalUtil;
+
+/**
+ * watches the maintenance ratio of the credit accounts. the broker is polled
+ * for the assets and debt, more often as the ratio gets near the warn tier
+ * or after a deal, and in between the ratio is marked to the quotes through
+ * the credit portfolio
+ */
+@Component
+public class MarginRiskMonitor {
+
+    private final Logger logger = LoggerFactory.getLogger(MarginRiskMonitor.class);
+
+    // a tier is left once the ratio is this much above it
+    private static final double HYSTERESIS = 0.02;
+
+    public enum Level {
+        Normal, Warn, Alert, Close
+    }
+
+    @Autowired
+    private MarginRiskProperties marginRiskProperties;
+
+    @Autowired
+    private TradeApiService tradeApiService;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private PortfolioEngine portfolioEngine;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private SystemConfigService systemConfigService;
+
+    private final Map<Integer, MarginAccount> accountMap = new ConcurrentHashMap<>();
+
+    /**
+     * run by the ticker after the quotes are marked
+     */
+    public void check() {
+        if (!systemConfigService.isCr()) {
+            return;
+        }
+        for (TradeUser tradeUser : tradeService.getTradeUserList()) {
+            try {
+                check(tradeUser.getId(), System.currentTimeMillis());
+            } catch (Exception e) {
+                logger.error("margin risk {} error", tradeUser.getId(), e);
+            }
+        }
+    }
+
+    public boolean isBuyPaused(int tradeUserId) {
+        MarginAccount account = accountMap.get(tradeUserId);
+        return marginRiskProperties.isPauseBuy() && account != null && account.getLevel().compareTo(Level.Alert) >= 0;
+    }
+
+    public MarginRiskVo getMarginRisk(int tradeUserId) {
+        MarginAccount account = accountMap.get(tradeUserId);
+        if (account == null) {
+            account = check(tradeUserId, System.currentTimeMillis());
+        }
+        MarginRiskVo vo = new MarginRiskVo();
+        vo.setTradeUserId(tradeUserId);
+        synchronized (account) {
+            vo.setLevel(account.getLevel().name());
+            vo.setRatio(Double.isInfinite(account.getRatio()) ? null : account.getRatio());
+            vo.setBrokerRatio(account.getBrokerRatio());
+            vo.setAssets(account.getAssets());
+            vo.setDebt(account.getDebt());
+            vo.setPollTime(account.getPollTime() > 0 ? new Date(account.getPollTime()) : null);
+        }
+        vo.setBuyPaused(isBuyPaused(tradeUserId));
+        return vo;
+    }
+
+    MarginAccount check(int tradeUserId, long now) {
+        MarginAccount account = accountMap.computeIfAbsent(tradeUserId, MarginAccount::new);
+        Portfolio portfolio = portfolioEngine.getPortfolio(tradeUserId, true);
+        synchronized (account) {
+            boolean polled = true;
+            // a deal moves the debt as well, which only the broker knows
+            if (now >= account.getNextPollTime() || portfolio.getCost() != account.getCost()) {
+                polled = poll(account, portfolio, now);
+                if (!polled && account.getPollTime() == 0) {
+                    return account;
+                }
+            }
+
+            double ratio = account.calcRatio(portfolio.getMarketValue());
+            account.setRatio(ratio);
+            if (polled) {
+                account.setNextPollTime(account.getPollTime() + getInterval(ratio));
+            }
+
+            Level level = getLevel(ratio, account.getLevel());
+            if (level != account.getLevel()) {
+                String body = String.format("margin %s: user %d, maintenance ratio %.2f%%, debt %.2f, broker ratio %s",
+                        level.name().toLowerCase(), tradeUserId, ratio * 100, account.getDebt(), account.getBrokerRatio());
+                logger.warn(body);
+                if (level.compareTo(account.getLevel()) > 0 || level == Level.Normal) {
+                    messageService.send(body);
+                }
+                account.setLevel(level);
+            }
+        }
+        return account;
+    }
+
+    private boolean poll(MarginAccount account, Portfolio portfolio, long now) {
+        TradeResultVo<CrGetRzrqAssertsResponse> resultVo = tradeApiService.crGetRzrqAsserts(new CrGetRzrqAssertsRequest(account.getTradeUserId()));
+        if (!resultVo.success() || resultVo.getData().isEmpty()) {
+            logger.error("margin risk {} poll error {}", account.getTradeUserId(), resultVo.getMessage());
+            account.setNextPollTime(now + marginRiskProperties.getMinInterval().toMillis());
+            account.setCost(portfolio.getCost());
+            return false;
+        }
+        CrGetRzrqAssertsResponse response = resultVo.getData().get(0);
+        account.poll(MarginRiskMonitor.toDouble(response.getZzc()), MarginRiskMonitor.toDouble(response.getZfz()),
+                response.getWcdbbl(), portfolio.getMarketValue(), portfolio.getCost(), now);
+        return true;
+    }
+
+    long getInterval(double ratio) {
+        long min = marginRiskProperties.getMinInterval().toMillis();
+        long max = marginRiskProperties.getMaxInterval().toMillis();
+        double warnRatio = marginRiskProperties.getWarnRatio();
+        // full stretch a quarter above the warn ratio
+        double distance = (ratio - warnRatio) / (warnRatio * 0.25);
+        distance = Math.max(0, Math.min(1, distance));
+        return min + Math.round((max - min) * distance);
+    }
+
+    /**
+     * worse tiers are taken at once, better ones past the hysteresis
+     */
+    Level getLevel(double ratio, Level current) {
+        Level level = toLevel(ratio, 1);
+        if (level.compareTo(current) >= 0) {
+            return level;
+        }
+        Level recovered = toLevel(ratio, 1 + HYSTERESIS);
+        return recovered.compareTo(current) < 0 ? recovered : current;
+    }
+
+    private Level toLevel(double ratio, double factor) {
+        if (ratio < marginRiskProperties.getCloseRatio() * factor) {
+            return Level.Close;
+        }
+        if (ratio < marginRiskProperties.getAlertRatio() * factor) {
+            return Level.Alert;
+        }
+        if (ratio < marginRiskProperties.getWarnRatio() * factor) {
+            return Level.Warn;
+        }
+        return Level.Normal;
+    }
+
+    private static double toDouble(String value) {
+        return value == null || value.trim().isEmpty() ? 0 : DecimalUtil.fromStr(value).doubleValue();
+    }
+
+}
@@ -0,0 +1,77 @@
+package vip.linhs.stock.risk;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "risk.margin")
+public class MarginRiskProperties {
+
+    /**
+     * maintenance ratios of the alert tiers, assets over debt
+     */
+    private double warnRatio = 1.6;
+    private double alertRatio = 1.5;
+    private double closeRatio = 1.3;
+
+    /**
+     * financed buys of the credit grid rules are held back from the alert tier
+     */
+    private boolean pauseBuy;
+
+    /**
+     * credit assets are polled at the min interval at the warn ratio and
+     * below, stretched up to the max interval as the ratio moves away
+     */
+    private Duration minInterval = Duration.ofMinutes(1);
+    private Duration maxInterval = Duration.ofMinutes(10);
+
+    public double getWarnRatio() {
+        return warnRatio;
+    }
+
+    public void setWarnRatio(double warnRatio) {
+        this.warnRatio = warnRatio;
+    }
+
+    public double getAlertRatio() {
+        return alertRatio;
+    }
+
+    public void setAlertRatio(double alertRatio) {
+        this.alertRatio = alertRatio;
+    }
+
+    public double getCloseRatio() {
+        return closeRatio;
+    }
+
+    public void setCloseRatio(double closeRatio) {
+        this.closeRatio = closeRatio;
+    }
+
+    public boolean isPauseBuy() {
+        return pauseBuy;
+    }
+
+    public void setPauseBuy(boolean pauseBuy) {
+        this.pauseBuy = pauseBuy;
+    }
+
+    public Duration getMinInterval() {
+        return minInterval;
+    }
+
+    public void setMinInterval(Duration minInterval) {
+        this.minInterval = minInterval;
+    }
+
+    public Duration getMaxInterval() {
+        return maxInterval;
+    }
+
+    public void setMaxInterval(Duration maxInterval) {
+        this.maxInterval = maxInterval;
+    }
+
+}
@@ -0,0 +1,115 @@
+package vip.linhs.stock.risk;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import vip.linhs.stock.api.request.SubmitRequest;
+
+/**
+ * cash of the last poll and the orders submitted since, which the broker
+ * figures only include once they are polled again
+ */
+class PreTradeAccount {
+
+    private double cash = Double.NaN;
+    private long cashTime;
+
+    // by entrust code
+    private final Map<String, Order> orderMap = new LinkedHashMap<>();
+
+    synchronized double getCash() {
+        return cash;
+    }
+
+    synchronized long getCashTime() {
+        return cashTime;
+    }
+
+    synchronized void setCash(double cash, long cashTime) {
+        this.cash = cash;
+        this.cashTime = cashTime;
+    }
+
+    synchronized void addOrder(String entrustCode, String fullCode, String tradeType, int amount, double price, long time) {
+        orderMap.put(entrustCode, new Order(fullCode, tradeType, amount, price, time));
+    }
+
+    synchronized void removeOrder(String entrustCode) {
+        orderMap.remove(entrustCode);
+    }
+
+    synchronized void onDeal(String entrustCode, String dealCode, int volume) {
+        Order order = orderMap.get(entrustCode);
+        if (order != null && order.dealCodeSet.add(dealCode)) {
+            order.dealt += volume;
+            if (order.dealt >= order.amount) {
+                orderMap.remove(entrustCode);
+            }
+        }
+    }
+
+    /**
+     * volume of the sells submitted since the positions were taken and not
+     * dealt, those of the same millis are counted to be safe
+     */
+    synchronized int getReservedVolume(String fullCode, long since) {
+        int volume = 0;
+        for (Order order : orderMap.values()) {
+            if (order.time >= since && SubmitRequest.S.equals(order.tradeType) && order.fullCode.equals(fullCode)) {
+                volume += order.amount - order.dealt;
+            }
+        }
+        return volume;
+    }
+
+    synchronized double getReservedCash() {
+        double value = 0;
+        for (Order order : orderMap.values()) {
+            if (order.time >= cashTime && SubmitRequest.B.equals(order.tradeType)) {
+                value += (order.amount - order.dealt) * order.price;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * drops the orders the broker figures taken since the time include
+     */
+    synchronized void prune(long time) {
+        for (Iterator<Order> iterator = orderMap.values().iterator(); iterator.hasNext();) {
+            if (iterator.next().time < time) {
+                iterator.remove();
+            }
+        }
+    }
+
+    synchronized void clear() {
+        orderMap.clear();
+        cash = Double.NaN;
+        cashTime = 0;
+    }
+
+    private static class Order {
+
+        private final String fullCode;
+        private final String tradeType;
+        private final int amount;
+        private final double price;
+        private final long time;
+        private final Set<String> dealCodeSet = new HashSet<>();
+        private int dealt;
+
+        Order(String fullCode, String tradeType, int amount, double price, long time) {
+            this.fullCode = fullCode;
+            this.tradeType = tradeType;
+            this.amount = amount;
+            this.price = price;
+            this.time = time;
+        }
+
+    }
+
+}
@@ -0,0 +1,194 @@
+package vip.linhs.stock.risk;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.request.GetAssetsRequest;
+import vip.linhs.stock.api.request.SubmitRequest;
+import vip.linhs.stock.api.response.GetAssetsResponse;
+import vip.linhs.stock.api.response.GetDealDataResponse;
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.model.po.StockInfo;
+import vip.linhs.stock.portfolio.Portfolio;
+import vip.linhs.stock.portfolio.PortfolioEngine;
+import vip.linhs.stock.service.StockService;
+import vip.linhs.stock.service.TradeApiService;
+import vip.linhs.stock.util.StockUtil;
+
+/**
+ * checks and normalizes orders against the price band, tick and lot of the
+ * day and the volume and cash at hand before they go to the broker, so the
+ * orders it would reject cost no round trip. the table is taken from the
+ * previous close of the ticker quotes, symbols not quoted yet are checked
+ * for tick and lot only
+ */
+@Component
+public class PreTradeRiskEngine {
+
+    private final Logger logger = LoggerFactory.getLogger(PreTradeRiskEngine.class);
+
+    @Autowired
+    private PreTradeRiskProperties preTradeRiskProperties;
+
+    @Autowired
+    private PortfolioEngine portfolioEngine;
+
+    @Autowired
+    private TradeApiService tradeApiService;
+
+    @Autowired
+    private StockService stockService;
+
+    // by full code
+    private final Map<String, TradeLimit> limitMap = new ConcurrentHashMap<>();
+    private final Map<Integer, PreTradeAccount> accountMap = new ConcurrentHashMap<>();
+    private final Map<Integer, PreTradeAccount> crAccountMap = new ConcurrentHashMap<>();
+
+    /**
+     * the price taken to the tick and the amount to whole lots in place
+     *
+     * @return the reason the order is rejected, null if it passes
+     */
+    public String check(SubmitRequest request, boolean cr) {
+        if (!preTradeRiskProperties.isEnabled()) {
+            return null;
+        }
+        boolean buy = SubmitRequest.B.equals(request.getTradeType());
+        if (!buy && !SubmitRequest.S.equals(request.getTradeType())) {
+            return "trade type invalid " + request.getTradeType();
+        }
+        String code = request.getStockCode();
+        String fullCode = StockUtil.getFullCode(code);
+        TradeLimit limit = limitMap.get(fullCode);
+        if (limit == null) {
+            limit = new TradeLimit(code, null, 0);
+        }
+
+        long ticks = limit.toTicks(request.getPrice(), buy);
+        if (ticks <= 0) {
+            return String.format("price %.03f invalid", request.getPrice());
+        }
+        if (limit.hasBand() && ticks > limit.getLimitUp()) {
+            return String.format("price %.03f above limit up %.03f", request.getPrice(), limit.toPrice(limit.getLimitUp()));
+        }
+        if (limit.hasBand() && ticks < limit.getLimitDown()) {
+            return String.format("price %.03f below limit down %.03f", request.getPrice(), limit.toPrice(limit.getLimitDown()));
+        }
+        double price = limit.toPrice(ticks);
+
+        int amount;
+        if (buy) {
+            amount = limit.toLots(request.getAmount());
+            if (amount == 0) {
+                return String.format("amount %d under lot %d", request.getAmount(), limit.getMinAmount());
+            }
+            // financed buys of credit accounts are left to the margin checks,
+            // the others pass until the cash is polled
+            if (!cr) {
+                PreTradeAccount account = getAccount(request.getUserId(), false);
+                double cash = account.getCash() - account.getReservedCash();
+                if (cash < price * amount) {
+                    return String.format("cash %.02f not enough for %.02f", cash, price * amount);
+                }
+            }
+        } else {
+            Portfolio portfolio = portfolioEngine.getPortfolio(request.getUserId(), cr);
+            if (portfolio.getReconcileTime() == 0) {
+                // positions not loaded, the broker decides
+                amount = request.getAmount();
+            } else {
+                int available = portfolio.getAvailableVolume(fullCode)
+                        - getAccount(request.getUserId(), cr).getReservedVolume(fullCode, portfolio.getReconcileTime());
+                if (request.getAmount() > available) {
+                    return String.format("amount %d above available %d", request.getAmount(), Math.max(0, available));
+                }
+                // odd lots only go all at once
+                amount = request.getAmount() == available ? available : limit.toLots(request.getAmount());
+            }
+            if (amount == 0) {
+                return String.format("amount %d under lot %d", request.getAmount(), limit.getMinAmount());
+            }
+        }
+
+        request.setPrice(price);
+        request.setAmount(amount);
+        return null;
+    }
+
+    /**
+     * reserves the volume or cash of an order the broker took
+     */
+    public void onSubmitted(SubmitRequest request, boolean cr, String entrustCode) {
+        getAccount(request.getUserId(), cr).addOrder(entrustCode, StockUtil.getFullCode(request.getStockCode()),
+                request.getTradeType(), request.getAmount(), request.getPrice(), System.currentTimeMillis());
+    }
+
+    public void onRevoked(int tradeUserId, boolean cr, String entrustCode) {
+        getAccount(tradeUserId, cr).removeOrder(entrustCode);
+    }
+
+    public void onDeal(int tradeUserId, boolean cr, List<? extends GetDealDataResponse> dealList) {
+        PreTradeAccount account = getAccount(tradeUserId, cr);
+        for (GetDealDataResponse deal : dealList) {
+            account.onDeal(deal.getWtbh(), deal.getCjbh(), Integer.parseInt(deal.getCjsl()));
+        }
+    }
+
+    /**
+     * the previous close of a symbol makes its band for the day
+     */
+    public void onQuote(List<DailyIndex> dailyIndexList) {
+        for (DailyIndex dailyIndex : dailyIndexList) {
+            if (dailyIndex.getPreClosingPrice() == null) {
+                continue;
+            }
+            double preClosePrice = dailyIndex.getPreClosingPrice().doubleValue();
+            TradeLimit limit = limitMap.get(dailyIndex.getCode());
+            if (preClosePrice > 0 && (limit == null || Double.compare(limit.getPreClosePrice(), preClosePrice) != 0)) {
+                StockInfo stockInfo = stockService.getStockByFullCode(dailyIndex.getCode());
+                String code = dailyIndex.getCode().substring(dailyIndex.getCode().length() - 6);
+                limitMap.put(dailyIndex.getCode(), new TradeLimit(code, stockInfo != null ? stockInfo.getName() : null, preClosePrice));
+            }
+        }
+    }
+
+    /**
+     * takes the cash of the normal account from the broker once stale
+     */
+    public void refresh(int tradeUserId) {
+        PreTradeAccount account = getAccount(tradeUserId, false);
+        long time = System.currentTimeMillis();
+        if (account.getCashTime() < time - preTradeRiskProperties.getCashInterval().toMillis()) {
+            TradeResultVo<GetAssetsResponse> resultVo = tradeApiService.getAsserts(new GetAssetsRequest(tradeUserId));
+            if (resultVo.success()) {
+                account.setCash(Double.parseDouble(resultVo.getData().get(0).getKyzj()), time);
+            } else {
+                logger.error("pre trade {} get assets error {}", tradeUserId, resultVo.getMessage());
+            }
+        }
+        // orders both the positions and the cash were taken after are in the broker figures
+        account.prune(Math.min(account.getCashTime(), portfolioEngine.getPortfolio(tradeUserId, false).getReconcileTime()));
+        PreTradeAccount crAccount = crAccountMap.get(tradeUserId);
+        if (crAccount != null) {
+            crAccount.prune(portfolioEngine.getPortfolio(tradeUserId, true).getReconcileTime());
+        }
+    }
+
+    public void beginOfDay() {
+        limitMap.clear();
+        accountMap.values().forEach(PreTradeAccount::clear);
+        crAccountMap.values().forEach(PreTradeAccount::clear);
+    }
+
+    private PreTradeAccount getAccount(int tradeUserId, boolean cr) {
+        return (cr ? crAccountMap : accountMap).computeIfAbsent(tradeUserId, id -> new PreTradeAccount());
+    }
+
+}
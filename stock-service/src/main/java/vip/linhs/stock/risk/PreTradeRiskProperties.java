@@ -0,0 +1,38 @@
+package vip.linhs.stock.risk;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "risk.pre-trade")
+public class PreTradeRiskProperties {
+
+    /**
+     * orders are checked and normalized locally before they are submitted
+     */
+    private boolean enabled = true;
+
+    /**
+     * the available cash of the normal accounts is taken from the broker on
+     * the trade ticker at this interval, orders in between are reserved
+     * against it
+     */
+    private Duration cashInterval = Duration.ofMinutes(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getCashInterval() {
+        return cashInterval;
+    }
+
+    public void setCashInterval(Duration cashInterval) {
+        this.cashInterval = cashInterval;
+    }
+
+}
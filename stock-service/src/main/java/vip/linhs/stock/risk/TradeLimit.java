@@ -0,0 +1,101 @@
+package vip.linhs.stock.risk;
+
+import vip.linhs.stock.util.StockConsts.StockType;
+import vip.linhs.stock.util.StockUtil;
+
+/**
+ * price band, tick and lot of a symbol for the day, prices are kept in ticks
+ */
+class TradeLimit {
+
+    private static final double EPSILON = 1e-6;
+
+    private final int scale;
+    private final int lot;
+    private final int minAmount;
+    private final double preClosePrice;
+    // no band when zero
+    private final long limitUp;
+    private final long limitDown;
+
+    /**
+     * @param preClosePrice zero when not known yet
+     */
+    TradeLimit(String code, String name, double preClosePrice) {
+        int type = TradeLimit.getStockType(code);
+        boolean star = code.startsWith("688") || code.startsWith("689");
+        this.scale = type == StockType.ETF.value() || type == StockType.CB.value() ? 1000 : 100;
+        // star market shares go by one from 200 up
+        this.lot = type == StockType.CB.value() ? 10 : star ? 1 : 100;
+        this.minAmount = star ? 200 : lot;
+        this.preClosePrice = preClosePrice;
+
+        double rate = type == StockType.CB.value() ? 0.2 : type == StockType.ETF.value() ? 0.1 : StockUtil.getLimitRate(code, name);
+        // new listings trade without a band for their first days
+        boolean unlimited = name != null && (name.startsWith("N") || name.startsWith("C") && rate > 0.1);
+        if (preClosePrice > 0 && !unlimited) {
+            this.limitUp = Math.round(preClosePrice * (1 + rate) * scale + EPSILON);
+            this.limitDown = Math.round(preClosePrice * (1 - rate) * scale + EPSILON);
+        } else {
+            this.limitUp = 0;
+            this.limitDown = 0;
+        }
+    }
+
+    int getScale() {
+        return scale;
+    }
+
+    int getLot() {
+        return lot;
+    }
+
+    int getMinAmount() {
+        return minAmount;
+    }
+
+    double getPreClosePrice() {
+        return preClosePrice;
+    }
+
+    boolean hasBand() {
+        return limitUp > 0;
+    }
+
+    long getLimitUp() {
+        return limitUp;
+    }
+
+    long getLimitDown() {
+        return limitDown;
+    }
+
+    /**
+     * buys are taken down to the tick and sells up, never worse than asked
+     */
+    long toTicks(double price, boolean buy) {
+        double ticks = price * scale;
+        return buy ? (long) Math.floor(ticks + EPSILON) : (long) Math.ceil(ticks - EPSILON);
+    }
+
+    double toPrice(long ticks) {
+        return (double) ticks / scale;
+    }
+
+    /**
+     * the amount taken down to whole lots, zero when under the minimum
+     */
+    int toLots(int amount) {
+        int lots = amount - amount % lot;
+        return lots >= minAmount ? lots : 0;
+    }
+
+    private static int getStockType(String code) {
+        try {
+            return StockUtil.getStockType(null, code);
+        } catch (RuntimeException e) {
+            return StockType.A.value();
+        }
+    }
+
+}
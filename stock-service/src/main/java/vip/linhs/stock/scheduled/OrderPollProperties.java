@@ -0,0 +1,36 @@
+package vip.linhs.stock.scheduled;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "trade.poll")
+public class OrderPollProperties {
+
+    /**
+     * interval of an account with orders reported or partly dealt
+     */
+    private Duration fastInterval = Duration.ofSeconds(2);
+
+    /**
+     * a flat account backs off doubling the interval up to it
+     */
+    private Duration slowInterval = Duration.ofSeconds(15);
+
+    public Duration getFastInterval() {
+        return fastInterval;
+    }
+
+    public void setFastInterval(Duration fastInterval) {
+        this.fastInterval = fastInterval;
+    }
+
+    public Duration getSlowInterval() {
+        return slowInterval;
+    }
+
+    public void setSlowInterval(Duration slowInterval) {
+        this.slowInterval = slowInterval;
+    }
+
+}
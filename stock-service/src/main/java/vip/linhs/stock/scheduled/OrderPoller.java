@@ -0,0 +1,125 @@
+package vip.linhs.stock.scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.request.CrGetOrdersDataRequest;
+import vip.linhs.stock.api.request.GetOrdersDataRequest;
+import vip.linhs.stock.api.response.GetOrdersDataResponse;
+import vip.linhs.stock.service.SystemConfigService;
+import vip.linhs.stock.service.TradeApiService;
+
+/**
+ * when the trade ticker of an account is due. an account with orders still
+ * open at the broker is polled at the fast interval, a flat one backs off to
+ * the slow interval, a submit brings it back to fast
+ */
+@Component
+public class OrderPoller {
+
+    @Autowired
+    private OrderPollProperties orderPollProperties;
+
+    @Autowired
+    private TradeApiService tradeApiService;
+
+    @Autowired
+    private SystemConfigService systemConfigService;
+
+    private final Map<Integer, PollState> stateMap = new ConcurrentHashMap<>();
+
+    /**
+     * accounts not polled yet are due
+     */
+    public boolean hasDue(long time) {
+        return stateMap.isEmpty() || stateMap.values().stream().anyMatch(v -> v.due <= time);
+    }
+
+    /**
+     * @return true if the account is due, it is not again until the run
+     * takes its orders or the interval passes
+     */
+    public boolean take(int tradeUserId, long time) {
+        PollState state = getState(tradeUserId);
+        synchronized (state) {
+            if (state.due > time) {
+                return false;
+            }
+            state.due = time + state.interval;
+            return true;
+        }
+    }
+
+    /**
+     * takes the open orders after the run, the strategies read the same
+     * lists just before so they come from the read cache
+     *
+     * @return count of open orders, -1 if they could not be read
+     */
+    public int poll(int tradeUserId) {
+        TradeResultVo<? extends GetOrdersDataResponse> resultVo = tradeApiService.getOrdersData(new GetOrdersDataRequest(tradeUserId));
+        if (!resultVo.success()) {
+            return -1;
+        }
+        int count = OrderPoller.countOpen(resultVo);
+        if (systemConfigService.isCr()) {
+            resultVo = tradeApiService.crGetOrdersData(new CrGetOrdersDataRequest(tradeUserId));
+            if (!resultVo.success()) {
+                return -1;
+            }
+            count += OrderPoller.countOpen(resultVo);
+        }
+        onOrders(tradeUserId, count, System.currentTimeMillis());
+        return count;
+    }
+
+    void onOrders(int tradeUserId, int openCount, long time) {
+        long fast = orderPollProperties.getFastInterval().toMillis();
+        PollState state = getState(tradeUserId);
+        synchronized (state) {
+            state.interval = openCount > 0 ? fast : Math.min(Math.max(state.interval * 2, fast), orderPollProperties.getSlowInterval().toMillis());
+            state.due = time + state.interval;
+        }
+    }
+
+    /**
+     * an order was submitted
+     */
+    public void wake(int tradeUserId) {
+        long fast = orderPollProperties.getFastInterval().toMillis();
+        PollState state = getState(tradeUserId);
+        synchronized (state) {
+            state.interval = fast;
+            state.due = Math.min(state.due, System.currentTimeMillis() + fast);
+        }
+    }
+
+    public void beginOfDay() {
+        stateMap.clear();
+    }
+
+    private PollState getState(int tradeUserId) {
+        return stateMap.computeIfAbsent(tradeUserId, id -> new PollState(orderPollProperties.getFastInterval().toMillis()));
+    }
+
+    private static int countOpen(TradeResultVo<? extends GetOrdersDataResponse> resultVo) {
+        return (int) resultVo.getData().stream().filter(v -> GetOrdersDataResponse.WEIBAO.equals(v.getWtzt())
+                || GetOrdersDataResponse.YIBAO.equals(v.getWtzt()) || GetOrdersDataResponse.BUCHENG.equals(v.getWtzt())).count();
+    }
+
+    private static class PollState {
+
+        private long interval;
+        private volatile long due;
+
+        private PollState(long interval) {
+            this.interval = interval;
+        }
+
+    }
+
+}
@@ -8,7 +8,6 @@ import org.apache.commons.lang3.time.DateUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import vip.linhs.stock.api.TradeResultVo;
@@ -18,9 +17,14 @@ import vip.linhs.stock.exception.UnauthorizedException;
 import vip.linhs.stock.model.po.ExecuteInfo;
 import vip.linhs.stock.model.po.Task;
 import vip.linhs.stock.service.HolidayCalendarService;
+import vip.linhs.stock.service.SystemConfigService;
 import vip.linhs.stock.service.TaskService;
 import vip.linhs.stock.service.TradeApiService;
 
+/**
+ * task bodies, run synchronously, {@link ScheduledTriggers} fires them on
+ * the {@link TaskRuntime}
+ */
 @Component
 public class ScheduledTasks {
 
@@ -35,10 +39,12 @@ public class ScheduledTasks {
     @Autowired
     private TradeApiService tradeApiService;
 
+    @Autowired
+    private SystemConfigService systemConfigService;
+
     /**
      * begin of year
      */
-    @Scheduled(cron = "0 0 0 1 1 ?")
     public void runBeginOfYear() {
         try {
             List<ExecuteInfo> list = taskService.getPendingTaskListById(Task.BeginOfYear.getId());
@@ -51,7 +57,6 @@ public class ScheduledTasks {
     /**
      * begin of day
      */
-    @Scheduled(cron = "0 0 6 ? * MON-FRI")
     public void runBeginOfDay() {
         if (isNotBusinessDate()) {
             return;
@@ -68,7 +73,6 @@ public class ScheduledTasks {
     /**
      * update of stock
      */
-    @Scheduled(cron = "0 0 9 ? * MON-FRI")
     public void runUpdateOfStock() {
         if (isNotBusinessDate()) {
             return;
@@ -85,7 +89,6 @@ public class ScheduledTasks {
     /**
      * update of daily index
      */
-    @Scheduled(cron = "0 0 17,18,19 ? * MON-FRI")
     public void runUpdateOfDailyIndex() {
         if (isNotBusinessDate()) {
             return;
@@ -102,24 +105,38 @@ public class ScheduledTasks {
     /**
      * ticker
      */
-    @Scheduled(cron = "0,15,30,45 * 9,10,11,13,14 ? * MON-FRI")
     public void runTicker() {
         if (isNotBusinessTime()) {
              return;
         }
 
         try {
-            List<ExecuteInfo> list = taskService.getPendingTaskListById(Task.Ticker.getId(), Task.TradeTicker.getId());
+            List<ExecuteInfo> list = taskService.getPendingTaskListById(Task.Ticker.getId());
             executeTask(list);
         } catch (Exception e) {
             logger.error("task runTicker error", e);
         }
     }
 
+    /**
+     * trade ticker
+     */
+    public void runTradeTicker() {
+        if (isNotBusinessTime()) {
+            return;
+        }
+
+        try {
+            List<ExecuteInfo> list = taskService.getPendingTaskListById(Task.TradeTicker.getId());
+            executeTask(list);
+        } catch (Exception e) {
+            logger.error("task runTradeTicker error", e);
+        }
+    }
+
     /**
      * apply new stock
      */
-    @Scheduled(cron = "0 1 10,14 ? * MON-FRI")
     public void applyNewStock() {
         if (isNotBusinessTime()) {
             return;
@@ -133,7 +150,6 @@ public class ScheduledTasks {
         }
     }
 
-    @Scheduled(cron = "0 10,30,50 8-20 ? * MON-FRI")
     public void heartbeat() {
         if (isNotBusinessDate()) {
             return;
@@ -163,6 +179,17 @@ public class ScheduledTasks {
         }
     }
 
+    /**
+     * refresh system config
+     */
+    public void refreshSystemConfig() {
+        try {
+            systemConfigService.refreshIfChanged();
+        } catch (Exception e) {
+            logger.error("task refreshSystemConfig error", e);
+        }
+    }
+
     private boolean isNotBusinessTime() {
         return isNotBusinessDate() || !holidayCalendarService.isBusinessTime(new Date());
     }
@@ -173,6 +200,7 @@ public class ScheduledTasks {
 
     private void executeTask(List<ExecuteInfo> list) {
         for (ExecuteInfo executeInfo : list) {
+            executeInfo.setLag(TaskRuntime.currentLag());
             taskService.executeTask(executeInfo);
         }
     }
@@ -0,0 +1,103 @@
+package vip.linhs.stock.scheduled;
+
+import java.time.Duration;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.scheduled.TaskRuntime.TaskGroup;
+import vip.linhs.stock.service.HolidayCalendarService;
+import vip.linhs.stock.tick.TickStore;
+
+/**
+ * cron triggers, each only hands its task to the runtime so the scheduler
+ * thread never waits on a slow run
+ */
+@Component
+public class ScheduledTriggers {
+
+    @Autowired
+    private TaskRuntime taskRuntime;
+
+    @Autowired
+    private ScheduledTasks scheduledTasks;
+
+    @Autowired
+    private TickStore tickStore;
+
+    @Autowired
+    private OrderPoller orderPoller;
+
+    @Autowired
+    private HolidayCalendarService holidayCalendarService;
+
+    @Scheduled(cron = "0 0 0 1 1 ?")
+    public void runBeginOfYear() {
+        taskRuntime.submit(TaskGroup.Daily, "runBeginOfYear", Duration.ofMinutes(10), scheduledTasks::runBeginOfYear);
+    }
+
+    @Scheduled(cron = "0 0 6 ? * MON-FRI")
+    public void runBeginOfDay() {
+        taskRuntime.submit(TaskGroup.Daily, "runBeginOfDay", Duration.ofMinutes(10), scheduledTasks::runBeginOfDay);
+    }
+
+    @Scheduled(cron = "0 0 9 ? * MON-FRI")
+    public void runUpdateOfStock() {
+        taskRuntime.submit(TaskGroup.Daily, "runUpdateOfStock", Duration.ofMinutes(30), scheduledTasks::runUpdateOfStock);
+    }
+
+    @Scheduled(cron = "0 0 17,18,19 ? * MON-FRI")
+    public void runUpdateOfDailyIndex() {
+        taskRuntime.submit(TaskGroup.Daily, "runUpdateOfDailyIndex", Duration.ofMinutes(50), scheduledTasks::runUpdateOfDailyIndex);
+    }
+
+    /**
+     * a tick must end before the next one is due
+     */
+    @Scheduled(cron = "0,15,30,45 * 9,10,11,13,14 ? * MON-FRI")
+    public void runTicker() {
+        taskRuntime.submit(TaskGroup.Trade, "runTicker", Duration.ofSeconds(14), scheduledTasks::runTicker);
+    }
+
+    /**
+     * checked every second, runs once an account is due by its open orders.
+     * outside the session a run returns without taking any account, so the
+     * accounts stay due and it is not submitted at all
+     */
+    @Scheduled(cron = "* * 9,10,11,13,14 ? * MON-FRI")
+    public void runTradeTicker() {
+        Date now = new Date();
+        if (!holidayCalendarService.isBusinessDate(now) || !holidayCalendarService.isBusinessTime(now)) {
+            return;
+        }
+        if (orderPoller.hasDue(now.getTime())) {
+            taskRuntime.submit(TaskGroup.Trade, "runTradeTicker", Duration.ofSeconds(14), scheduledTasks::runTradeTicker);
+        }
+    }
+
+    @Scheduled(cron = "0 5 15 ? * MON-FRI")
+    public void spillTicks() {
+        taskRuntime.submit(TaskGroup.Daily, "spillTicks", Duration.ofMinutes(5), tickStore::spill);
+    }
+
+    @Scheduled(cron = "0 1 10,14 ? * MON-FRI")
+    public void applyNewStock() {
+        taskRuntime.submit(TaskGroup.Trade, "applyNewStock", Duration.ofMinutes(2), scheduledTasks::applyNewStock);
+    }
+
+    /**
+     * own pool, auto login stays reachable while trading is stuck
+     */
+    @Scheduled(cron = "0 10,30,50 8-20 ? * MON-FRI")
+    public void heartbeat() {
+        taskRuntime.submit(TaskGroup.Session, "heartbeat", Duration.ofMinutes(5), scheduledTasks::heartbeat);
+    }
+
+    @Scheduled(fixedDelay = 10000)
+    public void refreshSystemConfig() {
+        taskRuntime.submit(TaskGroup.Config, "refreshSystemConfig", Duration.ofSeconds(30), scheduledTasks::refreshSystemConfig);
+    }
+
+}
@@ -0,0 +1,192 @@
+package vip.linhs.stock.scheduled;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * runs scheduled jobs off the scheduler thread, one pool per group so a slow
+ * daily job never holds up trading or the heartbeat
+ *
+ * a job is skipped while its previous run is still queued or running, and
+ * interrupted once it passes its deadline
+ */
+@Component
+public class TaskRuntime {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskRuntime.class);
+
+    private static final ThreadLocal<Long> SCHEDULED_TIME = new ThreadLocal<>();
+    private static final ThreadLocal<TaskGroup> GROUP = new ThreadLocal<>();
+
+    private static final int STATE_NEW = 0;
+    private static final int STATE_RUNNING = 1;
+    private static final int STATE_DONE = 2;
+
+    public enum TaskGroup {
+        Trade(2), Session(1), Daily(1), Config(1);
+
+        private final int poolSize;
+
+        TaskGroup(int poolSize) {
+            this.poolSize = poolSize;
+        }
+    }
+
+    private final Map<TaskGroup, ExecutorService> executorMap = new EnumMap<>(TaskGroup.class);
+
+    private final Map<String, Job> runningMap = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService watchdog;
+
+    @PostConstruct
+    public void init() {
+        for (TaskGroup group : TaskGroup.values()) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("task-" + group.name().toLowerCase() + "-");
+            threadFactory.setDaemon(true);
+            executorMap.put(group, new ThreadPoolExecutor(group.poolSize, group.poolSize, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), threadFactory));
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("task-watchdog-");
+        threadFactory.setDaemon(true);
+        ScheduledThreadPoolExecutor scheduledExecutor = new ScheduledThreadPoolExecutor(1, threadFactory);
+        scheduledExecutor.setRemoveOnCancelPolicy(true);
+        watchdog = scheduledExecutor;
+    }
+
+    @PreDestroy
+    public void close() {
+        executorMap.values().forEach(ExecutorService::shutdownNow);
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * @return false if the previous run of name has not finished
+     */
+    public boolean submit(TaskGroup group, String name, Duration deadline, Runnable runnable) {
+        Job job = new Job(group, name, System.currentTimeMillis(), runnable);
+        Job running = runningMap.putIfAbsent(name, job);
+        if (running != null) {
+            TaskRuntime.logger.warn("task {} skipped, previous run started {}ms ago is still {}", name,
+                    job.scheduledTime - running.scheduledTime,
+                    running.isQueued() ? "queued" : "running");
+            return false;
+        }
+        job.deadlineFuture = watchdog.schedule(job::onDeadline, deadline.toMillis(), TimeUnit.MILLISECONDS);
+        executorMap.get(group).execute(job);
+        return true;
+    }
+
+    /**
+     * milliseconds between the trigger and the start of the current job,
+     * 0 outside the runtime
+     */
+    public static long currentLag() {
+        Long scheduledTime = TaskRuntime.SCHEDULED_TIME.get();
+        return scheduledTime == null ? 0 : System.currentTimeMillis() - scheduledTime;
+    }
+
+    /**
+     * group of the current job, null outside the runtime
+     */
+    public static TaskGroup currentGroup() {
+        return TaskRuntime.GROUP.get();
+    }
+
+    private class Job implements Runnable {
+
+        private final TaskGroup group;
+        private final String name;
+        private final long scheduledTime;
+        private final Runnable runnable;
+
+        private int state = TaskRuntime.STATE_NEW;
+        private Thread thread;
+        private volatile ScheduledFuture<?> deadlineFuture;
+
+        private Job(TaskGroup group, String name, long scheduledTime, Runnable runnable) {
+            this.group = group;
+            this.name = name;
+            this.scheduledTime = scheduledTime;
+            this.runnable = runnable;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (state != TaskRuntime.STATE_NEW) {
+                    return;
+                }
+                state = TaskRuntime.STATE_RUNNING;
+                thread = Thread.currentThread();
+            }
+            TaskRuntime.SCHEDULED_TIME.set(scheduledTime);
+            TaskRuntime.GROUP.set(group);
+            long lag = System.currentTimeMillis() - scheduledTime;
+            if (lag > 1000) {
+                TaskRuntime.logger.warn("task {} started {}ms late", name, lag);
+            }
+            try {
+                runnable.run();
+            } catch (Exception e) {
+                TaskRuntime.logger.error("task {} error", name, e);
+            } finally {
+                TaskRuntime.SCHEDULED_TIME.remove();
+                TaskRuntime.GROUP.remove();
+                finish();
+                // no interrupt can arrive after finish, clear one that hit just before
+                Thread.interrupted();
+            }
+        }
+
+        private synchronized boolean isQueued() {
+            return state == TaskRuntime.STATE_NEW;
+        }
+
+        private void onDeadline() {
+            synchronized (this) {
+                if (state == TaskRuntime.STATE_RUNNING) {
+                    TaskRuntime.logger.error("task {} passed its deadline, interrupting {}", name, thread.getName());
+                    thread.interrupt();
+                    return;
+                }
+                if (state == TaskRuntime.STATE_DONE) {
+                    return;
+                }
+                state = TaskRuntime.STATE_DONE;
+            }
+            TaskRuntime.logger.error("task {} dropped, still queued at its deadline", name);
+            runningMap.remove(name, this);
+        }
+
+        private void finish() {
+            synchronized (this) {
+                state = TaskRuntime.STATE_DONE;
+                thread = null;
+            }
+            ScheduledFuture<?> future = deadlineFuture;
+            if (future != null) {
+                future.cancel(false);
+            }
+            runningMap.remove(name, this);
+        }
+
+    }
+
+}
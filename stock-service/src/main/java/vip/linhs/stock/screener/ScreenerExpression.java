@@ -0,0 +1,580 @@
+package vip.linhs.stock.screener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import vip.linhs.stock.exception.ServiceException;
+
+/**
+ * a screener expression compiled into column nodes, each node runs one
+ * loop over a range of symbols. grammar:
+ *
+ * <pre>
+ * query   := [or] ['order' 'by' sum ['asc' | 'desc']] ['limit' int]
+ * or      := and ('or' and)*
+ * and     := not ('and' not)*
+ * not     := 'not' not | compare
+ * compare := sum [('&gt;' | '&gt;=' | '&lt;' | '&lt;=' | '=' | '!=') sum]
+ *          | sum 'rank' ('top' | 'bottom') int
+ * sum     := product (('+' | '-') product)*
+ * product := unary (('*' | '/') unary)*
+ * unary   := '-' unary | number ['%'] | field ['[' int ']'] | '(' or ')'
+ * </pre>
+ *
+ * e.g. turnover &gt; 5% and close &gt; ma20 and amount rank top 100 order by change desc limit 50.
+ * a rank is taken over the whole market, not only the symbols passing the
+ * rest of the filter. compile one per run, rank nodes keep their threshold
+ */
+public class ScreenerExpression {
+
+    private final Node where;
+    private final Node orderBy;
+    private final boolean desc;
+    private final int limit;
+
+    private ScreenerExpression(Node where, Node orderBy, boolean desc, int limit) {
+        this.where = where;
+        this.orderBy = orderBy;
+        this.desc = desc;
+        this.limit = limit;
+    }
+
+    /**
+     * @param defaultOrderBy order when the expression has none, descending
+     */
+    public static ScreenerExpression compile(String expression, ScreenerField defaultOrderBy, int defaultLimit) {
+        Parser parser = new Parser(expression);
+        Node where = null;
+        if (!parser.peekKeyword("order") && !parser.peekKeyword("limit") && !parser.atEnd()) {
+            where = parser.parseOr();
+            parser.requirePredicate(where, true);
+        }
+        Node orderBy = new ColumnNode(defaultOrderBy, 0);
+        boolean desc = true;
+        if (parser.acceptKeyword("order")) {
+            parser.expectKeyword("by");
+            orderBy = parser.parseSum();
+            parser.requirePredicate(orderBy, false);
+            if (parser.acceptKeyword("asc")) {
+                desc = false;
+            } else {
+                parser.acceptKeyword("desc");
+            }
+        }
+        int limit = defaultLimit;
+        if (parser.acceptKeyword("limit")) {
+            limit = parser.parseInt();
+        }
+        if (!parser.atEnd()) {
+            throw parser.error("unexpected");
+        }
+        return new ScreenerExpression(where, orderBy, desc, limit);
+    }
+
+    public boolean isDesc() {
+        return desc;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * computes what the nodes need of the whole table, before any eval
+     */
+    public void prepare(ScreenerTable table) {
+        if (where != null) {
+            where.prepare(table);
+        }
+        orderBy.prepare(table);
+    }
+
+    /**
+     * 1 where the symbol passes, 0 where not, for [from, to) into out[0, to - from)
+     */
+    public void evalWhere(ScreenerTable table, int from, int to, double[] out) {
+        if (where == null) {
+            Arrays.fill(out, 0, to - from, 1);
+        } else {
+            where.eval(table, from, to, out);
+        }
+    }
+
+    public void evalOrderBy(ScreenerTable table, int from, int to, double[] out) {
+        orderBy.eval(table, from, to, out);
+    }
+
+    private interface Node {
+
+        boolean isPredicate();
+
+        default void prepare(ScreenerTable table) {
+        }
+
+        void eval(ScreenerTable table, int from, int to, double[] out);
+
+    }
+
+    private static class ConstantNode implements Node {
+
+        private final double value;
+
+        private ConstantNode(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean isPredicate() {
+            return false;
+        }
+
+        @Override
+        public void eval(ScreenerTable table, int from, int to, double[] out) {
+            Arrays.fill(out, 0, to - from, value);
+        }
+
+    }
+
+    private static class ColumnNode implements Node {
+
+        private final ScreenerField field;
+        private final int offset;
+
+        private ColumnNode(ScreenerField field, int offset) {
+            this.field = field;
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean isPredicate() {
+            return false;
+        }
+
+        @Override
+        public void prepare(ScreenerTable table) {
+            if (offset >= table.getDays()) {
+                throw new ServiceException(field.getName() + "[" + offset + "] is beyond the " + table.getDays() + " days kept");
+            }
+        }
+
+        @Override
+        public void eval(ScreenerTable table, int from, int to, double[] out) {
+            System.arraycopy(table.column(field, offset), from, out, 0, to - from);
+        }
+
+    }
+
+    private static class NegateNode implements Node {
+
+        private final Node operand;
+
+        private NegateNode(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean isPredicate() {
+            return false;
+        }
+
+        @Override
+        public void prepare(ScreenerTable table) {
+            operand.prepare(table);
+        }
+
+        @Override
+        public void eval(ScreenerTable table, int from, int to, double[] out) {
+            operand.eval(table, from, to, out);
+            for (int i = 0, n = to - from; i < n; i++) {
+                out[i] = -out[i];
+            }
+        }
+
+    }
+
+    private static class NotNode implements Node {
+
+        private final Node operand;
+
+        private NotNode(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean isPredicate() {
+            return true;
+        }
+
+        @Override
+        public void prepare(ScreenerTable table) {
+            operand.prepare(table);
+        }
+
+        @Override
+        public void eval(ScreenerTable table, int from, int to, double[] out) {
+            operand.eval(table, from, to, out);
+            for (int i = 0, n = to - from; i < n; i++) {
+                out[i] = out[i] != 0 ? 0 : 1;
+            }
+        }
+
+    }
+
+    private static class BinaryNode implements Node {
+
+        private final String operator;
+        private final Node left;
+        private final Node right;
+
+        private BinaryNode(String operator, Node left, Node right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean isPredicate() {
+            return !"+".equals(operator) && !"-".equals(operator) && !"*".equals(operator) && !"/".equals(operator);
+        }
+
+        @Override
+        public void prepare(ScreenerTable table) {
+            left.prepare(table);
+            right.prepare(table);
+        }
+
+        @Override
+        public void eval(ScreenerTable table, int from, int to, double[] out) {
+            int n = to - from;
+            double[] r = new double[n];
+            left.eval(table, from, to, out);
+            right.eval(table, from, to, r);
+            // one loop per operator, NaN compares false
+            switch (operator) {
+            case "+":
+                for (int i = 0; i < n; i++) {
+                    out[i] += r[i];
+                }
+                break;
+            case "-":
+                for (int i = 0; i < n; i++) {
+                    out[i] -= r[i];
+                }
+                break;
+            case "*":
+                for (int i = 0; i < n; i++) {
+                    out[i] *= r[i];
+                }
+                break;
+            case "/":
+                for (int i = 0; i < n; i++) {
+                    out[i] /= r[i];
+                }
+                break;
+            case ">":
+                for (int i = 0; i < n; i++) {
+                    out[i] = out[i] > r[i] ? 1 : 0;
+                }
+                break;
+            case ">=":
+                for (int i = 0; i < n; i++) {
+                    out[i] = out[i] >= r[i] ? 1 : 0;
+                }
+                break;
+            case "<":
+                for (int i = 0; i < n; i++) {
+                    out[i] = out[i] < r[i] ? 1 : 0;
+                }
+                break;
+            case "<=":
+                for (int i = 0; i < n; i++) {
+                    out[i] = out[i] <= r[i] ? 1 : 0;
+                }
+                break;
+            case "=":
+                for (int i = 0; i < n; i++) {
+                    out[i] = out[i] == r[i] ? 1 : 0;
+                }
+                break;
+            case "!=":
+                for (int i = 0; i < n; i++) {
+                    out[i] = out[i] != r[i] && !Double.isNaN(out[i]) && !Double.isNaN(r[i]) ? 1 : 0;
+                }
+                break;
+            case "and":
+                for (int i = 0; i < n; i++) {
+                    out[i] = out[i] != 0 && r[i] != 0 ? 1 : 0;
+                }
+                break;
+            case "or":
+                for (int i = 0; i < n; i++) {
+                    out[i] = out[i] != 0 || r[i] != 0 ? 1 : 0;
+                }
+                break;
+            default:
+                throw new IllegalStateException(operator);
+            }
+        }
+
+    }
+
+    private static class RankNode implements Node {
+
+        private final Node operand;
+        private final boolean top;
+        private final int count;
+        private double threshold;
+
+        private RankNode(Node operand, boolean top, int count) {
+            this.operand = operand;
+            this.top = top;
+            this.count = count;
+        }
+
+        @Override
+        public boolean isPredicate() {
+            return true;
+        }
+
+        @Override
+        public void prepare(ScreenerTable table) {
+            operand.prepare(table);
+            double[] values = new double[table.size()];
+            operand.eval(table, 0, values.length, values);
+            int n = 0;
+            for (double value : values) {
+                if (!Double.isNaN(value)) {
+                    values[n++] = value;
+                }
+            }
+            if (n == 0 || count <= 0) {
+                threshold = Double.NaN;
+                return;
+            }
+            Arrays.sort(values, 0, n);
+            // ties at the threshold all pass
+            threshold = top ? values[Math.max(0, n - count)] : values[Math.min(n, count) - 1];
+        }
+
+        @Override
+        public void eval(ScreenerTable table, int from, int to, double[] out) {
+            operand.eval(table, from, to, out);
+            for (int i = 0, n = to - from; i < n; i++) {
+                out[i] = (top ? out[i] >= threshold : out[i] <= threshold) ? 1 : 0;
+            }
+        }
+
+    }
+
+    private static class Parser {
+
+        private final String expression;
+        private final List<String> tokenList = new ArrayList<>();
+        private final List<Integer> positionList = new ArrayList<>();
+        private int index;
+
+        private Parser(String expression) {
+            this.expression = expression;
+            int i = 0;
+            int length = expression.length();
+            while (i < length) {
+                char ch = expression.charAt(i);
+                if (Character.isWhitespace(ch)) {
+                    i++;
+                    continue;
+                }
+                int start = i;
+                if (Character.isLetter(ch)) {
+                    while (i < length && Character.isLetterOrDigit(expression.charAt(i))) {
+                        i++;
+                    }
+                } else if (Character.isDigit(ch) || ch == '.') {
+                    while (i < length && (Character.isDigit(expression.charAt(i)) || expression.charAt(i) == '.')) {
+                        i++;
+                    }
+                } else if ((ch == '>' || ch == '<' || ch == '!' || ch == '=') && i + 1 < length && expression.charAt(i + 1) == '=') {
+                    i += 2;
+                } else if ("><=+-*/()[]%".indexOf(ch) >= 0) {
+                    i++;
+                } else {
+                    throw new ServiceException("screener expression: unexpected '" + ch + "' at " + i);
+                }
+                String token = expression.substring(start, i);
+                tokenList.add("==".equals(token) ? "=" : token.toLowerCase(Locale.ROOT));
+                positionList.add(start);
+            }
+        }
+
+        private Node parseOr() {
+            Node node = parseAnd();
+            while (acceptKeyword("or")) {
+                node = binary("or", node, parseAnd());
+            }
+            return node;
+        }
+
+        private Node parseAnd() {
+            Node node = parseNot();
+            while (acceptKeyword("and")) {
+                node = binary("and", node, parseNot());
+            }
+            return node;
+        }
+
+        private Node parseNot() {
+            if (acceptKeyword("not")) {
+                Node operand = parseNot();
+                requirePredicate(operand, true);
+                return new NotNode(operand);
+            }
+            return parseCompare();
+        }
+
+        private Node parseCompare() {
+            Node left = parseSum();
+            String token = peek();
+            if (">".equals(token) || ">=".equals(token) || "<".equals(token) || "<=".equals(token)
+                    || "=".equals(token) || "!=".equals(token)) {
+                index++;
+                return binary(token, left, parseSum());
+            }
+            if (acceptKeyword("rank")) {
+                requirePredicate(left, false);
+                boolean top;
+                if (acceptKeyword("top")) {
+                    top = true;
+                } else {
+                    expectKeyword("bottom");
+                    top = false;
+                }
+                return new RankNode(left, top, parseInt());
+            }
+            return left;
+        }
+
+        private Node parseSum() {
+            Node node = parseProduct();
+            while ("+".equals(peek()) || "-".equals(peek())) {
+                String operator = tokenList.get(index++);
+                node = binary(operator, node, parseProduct());
+            }
+            return node;
+        }
+
+        private Node parseProduct() {
+            Node node = parseUnary();
+            while ("*".equals(peek()) || "/".equals(peek())) {
+                String operator = tokenList.get(index++);
+                node = binary(operator, node, parseUnary());
+            }
+            return node;
+        }
+
+        private Node parseUnary() {
+            String token = peek();
+            if (token == null) {
+                throw error("unexpected end");
+            }
+            if ("-".equals(token)) {
+                index++;
+                Node operand = parseUnary();
+                requirePredicate(operand, false);
+                return new NegateNode(operand);
+            }
+            if ("(".equals(token)) {
+                index++;
+                Node node = parseOr();
+                expectKeyword(")");
+                return node;
+            }
+            if (Character.isDigit(token.charAt(0)) || token.charAt(0) == '.') {
+                double value;
+                try {
+                    value = Double.parseDouble(token);
+                } catch (NumberFormatException e) {
+                    throw error("bad number");
+                }
+                index++;
+                if ("%".equals(peek())) {
+                    index++;
+                    value /= 100;
+                }
+                return new ConstantNode(value);
+            }
+            ScreenerField field = Character.isLetter(token.charAt(0)) ? ScreenerField.of(token) : null;
+            if (field == null) {
+                throw error("unknown field");
+            }
+            index++;
+            int offset = 0;
+            if ("[".equals(peek())) {
+                if (!field.isBar()) {
+                    throw error("only bar fields take a day offset");
+                }
+                index++;
+                offset = parseInt();
+                expectKeyword("]");
+            }
+            return new ColumnNode(field, offset);
+        }
+
+        private int parseInt() {
+            String token = peek();
+            try {
+                int value = Integer.parseInt(token);
+                index++;
+                return value;
+            } catch (NumberFormatException | NullPointerException e) {
+                throw error("integer expected");
+            }
+        }
+
+        private Node binary(String operator, Node left, Node right) {
+            boolean logical = "and".equals(operator) || "or".equals(operator);
+            requirePredicate(left, logical);
+            requirePredicate(right, logical);
+            return new BinaryNode(operator, left, right);
+        }
+
+        private void requirePredicate(Node node, boolean predicate) {
+            if (node.isPredicate() != predicate) {
+                throw error(predicate ? "condition expected" : "value expected");
+            }
+        }
+
+        private String peek() {
+            return index < tokenList.size() ? tokenList.get(index) : null;
+        }
+
+        private boolean atEnd() {
+            return index == tokenList.size();
+        }
+
+        private boolean peekKeyword(String keyword) {
+            return keyword.equals(peek());
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            if (peekKeyword(keyword)) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expectKeyword(String keyword) {
+            if (!acceptKeyword(keyword)) {
+                throw error("'" + keyword + "' expected");
+            }
+        }
+
+        private ServiceException error(String message) {
+            int position = atEnd() ? expression.length() : positionList.get(index);
+            return new ServiceException("screener expression: " + message + " at " + position);
+        }
+
+    }
+
+}
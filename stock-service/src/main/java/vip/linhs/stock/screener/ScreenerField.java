@@ -0,0 +1,61 @@
+package vip.linhs.stock.screener;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * names usable in a screener expression, bar fields take a day offset
+ * like close[1], rates are fractions so turnover > 5% reads as 0.05, rsi
+ * stays 0 to 100
+ */
+public enum ScreenerField {
+
+    Open(true), High(true), Low(true), Close(true), PreClose(true),
+    Volume(true), Amount(true), Turnover(true), Change(true),
+
+    Ma5(false), Ma10(false), Ma20(false), Ma60(false), Ema12(false), Ema26(false),
+    Dif(false), Dea(false), Macd(false), Rsi(false), Atr(false),
+    BollUpper(false), BollMid(false), BollLower(false), Vwap(false);
+
+    private static final Map<String, ScreenerField> NAME_MAP = Arrays.stream(ScreenerField.values())
+            .collect(Collectors.toMap(ScreenerField::getName, Function.identity()));
+
+    private final boolean bar;
+
+    ScreenerField(boolean bar) {
+        this.bar = bar;
+    }
+
+    public String getName() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * kept for each of the last days, the others only for the latest one
+     */
+    public boolean isBar() {
+        return bar;
+    }
+
+    /**
+     * ordinal among the bar fields or among the indicator fields
+     */
+    int getIndex() {
+        return bar ? ordinal() : ordinal() - ScreenerField.Change.ordinal() - 1;
+    }
+
+    static int getBarCount() {
+        return ScreenerField.Change.ordinal() + 1;
+    }
+
+    static int getIndicatorCount() {
+        return ScreenerField.values().length - ScreenerField.getBarCount();
+    }
+
+    public static ScreenerField of(String name) {
+        return ScreenerField.NAME_MAP.get(name.toLowerCase());
+    }
+
+}
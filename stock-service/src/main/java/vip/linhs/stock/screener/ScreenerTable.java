@@ -0,0 +1,184 @@
+package vip.linhs.stock.screener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.model.vo.IndicatorVo;
+
+/**
+ * the market of the latest trading day as primitive columns, one slot per
+ * symbol in every column, NaN where a value is missing. never changed after
+ * it is built
+ */
+public class ScreenerTable {
+
+    private final long date;
+    private final int days;
+    private final String[] codes;
+
+    // [field][day][symbol], day 0 is the latest
+    private final double[][][] bars;
+    // [field][symbol]
+    private final double[][] indicators;
+
+    private ScreenerTable(long date, int days, String[] codes, double[][][] bars, double[][] indicators) {
+        this.date = date;
+        this.days = days;
+        this.codes = codes;
+        this.bars = bars;
+        this.indicators = indicators;
+    }
+
+    public long getDate() {
+        return date;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    public String getCode(int i) {
+        return codes[i];
+    }
+
+    /**
+     * @param offset days back from the latest, bar fields only
+     */
+    double[] column(ScreenerField field, int offset) {
+        return field.isBar() ? bars[field.getIndex()][offset] : indicators[field.getIndex()];
+    }
+
+    public double get(ScreenerField field, int i) {
+        return column(field, 0)[i];
+    }
+
+    /**
+     * collects the bars of one symbol after another, symbols whose last bar
+     * is older than the newest date seen are dropped at build
+     */
+    public static class Builder {
+
+        private final int days;
+        private final List<String> codeList = new ArrayList<>();
+        private final List<double[][]> barList = new ArrayList<>();
+        private final List<Long> dateList = new ArrayList<>();
+
+        private String code;
+        private double[][] ring;
+        private long lastDate;
+        private int count;
+
+        public Builder(int days) {
+            this.days = days;
+        }
+
+        /**
+         * bars of a symbol in date order, next symbol after the last one
+         */
+        public void add(DailyIndex dailyIndex) {
+            if (!dailyIndex.getCode().equals(code)) {
+                flush();
+                code = dailyIndex.getCode();
+                ring = new double[days][];
+                count = 0;
+            }
+            ring[count % days] = Builder.toRow(dailyIndex);
+            lastDate = dailyIndex.getDate().getTime();
+            count++;
+        }
+
+        /**
+         * indicators of the symbols, matched by code
+         */
+        public ScreenerTable build(Function<String, IndicatorVo> indicatorFunction) {
+            flush();
+            long date = dateList.stream().mapToLong(Long::longValue).max().orElse(0);
+            int[] keep = new int[codeList.size()];
+            int size = 0;
+            for (int i = 0; i < codeList.size(); i++) {
+                if (dateList.get(i) == date) {
+                    keep[size++] = i;
+                }
+            }
+
+            String[] codes = new String[size];
+            double[][][] bars = new double[ScreenerField.getBarCount()][days][size];
+            double[][] indicators = new double[ScreenerField.getIndicatorCount()][size];
+            for (double[][] byDay : bars) {
+                for (double[] column : byDay) {
+                    Arrays.fill(column, Double.NaN);
+                }
+            }
+            for (int s = 0; s < size; s++) {
+                int i = keep[s];
+                codes[s] = codeList.get(i);
+                double[][] rows = barList.get(i);
+                for (int day = 0; day < rows.length; day++) {
+                    for (int f = 0; f < rows[day].length; f++) {
+                        bars[f][day][s] = rows[day][f];
+                    }
+                }
+                Builder.fillIndicators(indicators, s, indicatorFunction.apply(codes[s]));
+            }
+            return new ScreenerTable(date, days, codes, bars, indicators);
+        }
+
+        private void flush() {
+            if (code == null) {
+                return;
+            }
+            // newest first
+            int n = Math.min(count, days);
+            double[][] rows = new double[n][];
+            for (int day = 0; day < n; day++) {
+                rows[day] = ring[(count - 1 - day) % days];
+            }
+            codeList.add(code);
+            barList.add(rows);
+            dateList.add(lastDate);
+            code = null;
+        }
+
+        private static double[] toRow(DailyIndex dailyIndex) {
+            double[] row = new double[ScreenerField.getBarCount()];
+            double close = Builder.toDouble(dailyIndex.getClosingPrice());
+            double preClose = Builder.toDouble(dailyIndex.getPreClosingPrice());
+            row[ScreenerField.Open.getIndex()] = Builder.toDouble(dailyIndex.getOpeningPrice());
+            row[ScreenerField.High.getIndex()] = Builder.toDouble(dailyIndex.getHighestPrice());
+            row[ScreenerField.Low.getIndex()] = Builder.toDouble(dailyIndex.getLowestPrice());
+            row[ScreenerField.Close.getIndex()] = close;
+            row[ScreenerField.PreClose.getIndex()] = preClose;
+            row[ScreenerField.Volume.getIndex()] = dailyIndex.getTradingVolume();
+            row[ScreenerField.Amount.getIndex()] = Builder.toDouble(dailyIndex.getTradingValue());
+            // rurnover_rate is stored in percent
+            row[ScreenerField.Turnover.getIndex()] = Builder.toDouble(dailyIndex.getRurnoverRate()) / 100;
+            row[ScreenerField.Change.getIndex()] = preClose > 0 ? close / preClose - 1 : Double.NaN;
+            return row;
+        }
+
+        private static void fillIndicators(double[][] indicators, int s, IndicatorVo vo) {
+            Double[] values = vo == null ? new Double[ScreenerField.getIndicatorCount()] : new Double[] {
+                vo.getMa5(), vo.getMa10(), vo.getMa20(), vo.getMa60(), vo.getEma12(), vo.getEma26(),
+                vo.getDif(), vo.getDea(), vo.getMacd(), vo.getRsi(), vo.getAtr(),
+                vo.getBollUpper(), vo.getBollMid(), vo.getBollLower(), vo.getVwap()
+            };
+            for (int f = 0; f < values.length; f++) {
+                indicators[f][s] = values[f] != null ? values[f] : Double.NaN;
+            }
+        }
+
+        private static double toDouble(BigDecimal value) {
+            return value != null ? value.doubleValue() : Double.NaN;
+        }
+
+    }
+
+}
@@ -0,0 +1,145 @@
+package vip.linhs.stock.screener;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.dao.DailyIndexDao;
+import vip.linhs.stock.indicator.IndicatorEngine;
+import vip.linhs.stock.model.po.StockInfo;
+import vip.linhs.stock.model.vo.PageVo;
+import vip.linhs.stock.model.vo.ScreenerVo;
+import vip.linhs.stock.service.StockService;
+
+/**
+ * screens the whole market in memory, the table of the latest trading day
+ * is rebuilt after the daily import and every query runs over its columns,
+ * split across cores for a large market
+ */
+@Component
+public class StockScreener {
+
+    private final Logger logger = LoggerFactory.getLogger(StockScreener.class);
+
+    private static final int CHUNK_SIZE = 1024;
+    private static final int DEFAULT_LIMIT = 100;
+
+    @Value("${screener.days:20}")
+    private int days;
+
+    @Autowired
+    private DailyIndexDao dailyIndexDao;
+
+    @Autowired
+    private IndicatorEngine indicatorEngine;
+
+    @Autowired
+    private StockService stockService;
+
+    private volatile ScreenerTable table;
+
+    /**
+     * loads the last days of bars and the indicators into a new table
+     */
+    public synchronized void refresh() {
+        long startTime = System.currentTimeMillis();
+        Date endDate = new Date();
+        // calendar days enough for the trading days kept over holidays
+        Date startDate = DateUtils.addDays(endDate, -(days * 2 + 15));
+        ScreenerTable.Builder builder = new ScreenerTable.Builder(days);
+        dailyIndexDao.forEachDailyIndex(startDate, endDate, builder::add);
+        table = builder.build(indicatorEngine::getDaily);
+        logger.info("screener table of {} symbols, {} days, {}ms", table.size(), days, System.currentTimeMillis() - startTime);
+    }
+
+    public PageVo<ScreenerVo> screen(String expression) {
+        ScreenerTable table = getTable();
+        long startTime = System.nanoTime();
+        ScreenerExpression screenerExpression = ScreenerExpression.compile(expression != null ? expression : "",
+                ScreenerField.Amount, StockScreener.DEFAULT_LIMIT);
+        screenerExpression.prepare(table);
+
+        int size = table.size();
+        double[] pass = new double[size];
+        double[] value = new double[size];
+        int chunks = (size + StockScreener.CHUNK_SIZE - 1) / StockScreener.CHUNK_SIZE;
+        IntStream range = IntStream.range(0, chunks);
+        (chunks > 1 ? range.parallel() : range).forEach(chunk -> {
+            int from = chunk * StockScreener.CHUNK_SIZE;
+            int to = Math.min(size, from + StockScreener.CHUNK_SIZE);
+            double[] out = new double[to - from];
+            screenerExpression.evalWhere(table, from, to, out);
+            System.arraycopy(out, 0, pass, from, to - from);
+            screenerExpression.evalOrderBy(table, from, to, out);
+            System.arraycopy(out, 0, value, from, to - from);
+        });
+
+        int count = 0;
+        int[] matched = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (pass[i] != 0) {
+                matched[count++] = i;
+            }
+        }
+        boolean desc = screenerExpression.isDesc();
+        List<Integer> indexList = IntStream.of(matched).limit(count).boxed()
+                .sorted((a, b) -> StockScreener.compare(value[a], value[b], desc))
+                .limit(Math.max(0, screenerExpression.getLimit()))
+                .collect(Collectors.toList());
+
+        Map<String, String> nameMap = stockService.getAll().stream()
+                .collect(Collectors.toMap(StockInfo::getFullCode, StockInfo::getName, (a, b) -> a));
+        List<ScreenerVo> list = new ArrayList<>(indexList.size());
+        for (int i : indexList) {
+            ScreenerVo vo = new ScreenerVo();
+            vo.setCode(table.getCode(i));
+            vo.setName(nameMap.get(table.getCode(i)));
+            vo.setClose(StockScreener.toValue(table.get(ScreenerField.Close, i)));
+            vo.setChange(StockScreener.toValue(table.get(ScreenerField.Change, i)));
+            vo.setTurnover(StockScreener.toValue(table.get(ScreenerField.Turnover, i)));
+            vo.setAmount(StockScreener.toValue(table.get(ScreenerField.Amount, i)));
+            vo.setValue(StockScreener.toValue(value[i]));
+            list.add(vo);
+        }
+        PageVo<ScreenerVo> pageVo = new PageVo<>(list, count);
+        pageVo.putExtraData("date", new Date(table.getDate()));
+        pageVo.putExtraData("micros", (System.nanoTime() - startTime) / 1000);
+        return pageVo;
+    }
+
+    ScreenerTable getTable() {
+        ScreenerTable current = table;
+        if (current == null) {
+            synchronized (this) {
+                if (table == null) {
+                    refresh();
+                }
+                current = table;
+            }
+        }
+        return current;
+    }
+
+    // NaN last either way
+    private static int compare(double a, double b, boolean desc) {
+        if (Double.isNaN(a) || Double.isNaN(b)) {
+            return Boolean.compare(Double.isNaN(a), Double.isNaN(b));
+        }
+        return desc ? Double.compare(b, a) : Double.compare(a, b);
+    }
+
+    private static Double toValue(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+}
@@ -2,15 +2,13 @@ package vip.linhs.stock.service;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
 
-import com.alibaba.fastjson2.JSON;
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
 import vip.linhs.stock.model.vo.CacheVo;
 
@@ -26,23 +24,25 @@ public class CacheClient {
             org.springframework.cache.Cache cache = cacheManager.getCache(name);
             Object nativeCache = cache.getNativeCache();
             if (nativeCache instanceof Cache) {
-                @SuppressWarnings("unchecked")
-                Cache<Object, Object> caffeineCache = (Cache<Object, Object>) nativeCache;
-                list.addAll(getList(name, caffeineCache));
+                list.add(getStats(name, (Cache<?, ?>) nativeCache));
             }
         }
         return list;
     }
 
-    private List<CacheVo> getList(String name, Cache<Object, Object> cache) {
-        ConcurrentMap<Object, Object> cacheMap = cache.asMap();
-        return cacheMap.entrySet().stream().map(e -> {
-            CacheVo map = new CacheVo();
-            map.setKey(e.getKey().toString());
-            map.setName(name);
-            map.setValue(JSON.toJSONString(e.getValue()));
-            return map;
-        }).collect(Collectors.toList());
+    private CacheVo getStats(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        CacheVo cacheVo = new CacheVo();
+        cacheVo.setName(name);
+        cacheVo.setSize(cache.estimatedSize());
+        cacheVo.setHitCount(stats.hitCount());
+        cacheVo.setMissCount(stats.missCount());
+        cacheVo.setHitRate(stats.hitRate());
+        cacheVo.setEvictionCount(stats.evictionCount());
+        cacheVo.setLoadSuccessCount(stats.loadSuccessCount());
+        cacheVo.setLoadFailureCount(stats.loadFailureCount());
+        cacheVo.setAverageLoadPenalty(stats.averageLoadPenalty());
+        return cacheVo;
     }
 
     public void remove(String name, String key) {
@@ -52,4 +52,11 @@ public class CacheClient {
         }
     }
 
+    public void clear(String name) {
+        org.springframework.cache.Cache cache = cacheManager.getCache(name);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
 }
@@ -0,0 +1,15 @@
+package vip.linhs.stock.service;
+
+import java.util.List;
+
+/**
+ * recompute the value of a refresh-after-write cache, must return the same
+ * value as the cached method, null means not cacheable
+ */
+public interface CacheReloader {
+
+    List<String> getReloadCacheNames();
+
+    Object reload(String cacheName, Object key);
+
+}
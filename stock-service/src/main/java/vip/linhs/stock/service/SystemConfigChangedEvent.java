@@ -0,0 +1,44 @@
+package vip.linhs.stock.service;
+
+import java.util.Set;
+
+import org.springframework.context.ApplicationEvent;
+
+import vip.linhs.stock.model.vo.SystemConfigSnapshot;
+
+/**
+ * published after a new system config snapshot has been installed
+ */
+public class SystemConfigChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient SystemConfigSnapshot oldSnapshot;
+    private final transient SystemConfigSnapshot newSnapshot;
+    private final Set<String> changedNames;
+
+    public SystemConfigChangedEvent(Object source, SystemConfigSnapshot oldSnapshot,
+            SystemConfigSnapshot newSnapshot) {
+        super(source);
+        this.oldSnapshot = oldSnapshot;
+        this.newSnapshot = newSnapshot;
+        this.changedNames = newSnapshot.getChangedNames(oldSnapshot);
+    }
+
+    public SystemConfigSnapshot getOldSnapshot() {
+        return oldSnapshot;
+    }
+
+    public SystemConfigSnapshot getNewSnapshot() {
+        return newSnapshot;
+    }
+
+    public Set<String> getChangedNames() {
+        return changedNames;
+    }
+
+    public boolean isChanged(String name) {
+        return changedNames.contains(name);
+    }
+
+}
@@ -3,6 +3,7 @@ package vip.linhs.stock.service;
 import java.util.List;
 
 import vip.linhs.stock.model.po.SystemConfig;
+import vip.linhs.stock.model.vo.SystemConfigSnapshot;
 
 public interface SystemConfigService {
 
@@ -14,4 +15,13 @@ public interface SystemConfigService {
 
     List<SystemConfig> getAll();
 
+    SystemConfigSnapshot getSnapshot();
+
+    /**
+     * reload when the version of system_config changed
+     */
+    boolean refreshIfChanged();
+
+    void refresh();
+
 }
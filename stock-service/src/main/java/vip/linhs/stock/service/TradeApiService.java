@@ -1,5 +1,8 @@
 package vip.linhs.stock.service;
 
+import java.util.Date;
+import java.util.List;
+
 import vip.linhs.stock.api.TradeResultVo;
 import vip.linhs.stock.api.request.AuthenticationRequest;
 import vip.linhs.stock.api.request.CrGetCanBuyNewStockListV3Request;
@@ -47,6 +50,7 @@ import vip.linhs.stock.api.response.GetStockListResponse;
 import vip.linhs.stock.api.response.RevokeResponse;
 import vip.linhs.stock.api.response.SubmitBatTradeV2Response;
 import vip.linhs.stock.api.response.SubmitResponse;
+import vip.linhs.stock.util.TradeUtil;
 
 public interface TradeApiService {
 
@@ -65,6 +69,17 @@ public interface TradeApiService {
      */
     TradeResultVo<RevokeResponse> revoke(RevokeRequest request);
 
+    /**
+     * 批量撤单, 返回重新查询委托确认已撤的委托
+     */
+    default TradeResultVo<RevokeResponse> revokeBatch(int userId, Date date, List<String> entrustCodeList) {
+        return TradeUtil.revokeBatch(date, entrustCodeList, revokes -> {
+            RevokeRequest request = new RevokeRequest(userId);
+            request.setRevokes(revokes);
+            return revoke(request);
+        }, () -> getOrdersData(new GetOrdersDataRequest(userId)));
+    }
+
     /**
      * 我的持仓
      */
@@ -130,6 +145,17 @@ public interface TradeApiService {
      */
     TradeResultVo<CrRevokeResponse> crRevoke(CrRevokeRequest request);
 
+    /**
+     * 信用批量撤单, 返回重新查询委托确认已撤的委托
+     */
+    default TradeResultVo<RevokeResponse> crRevokeBatch(int userId, Date date, List<String> entrustCodeList) {
+        return TradeUtil.revokeBatch(date, entrustCodeList, revokes -> {
+            CrRevokeRequest request = new CrRevokeRequest(userId);
+            request.setRevokes(revokes);
+            return crRevoke(request);
+        }, () -> crGetOrdersData(new CrGetOrdersDataRequest(userId)));
+    }
+
     /**
      * 信用当日委托
      */
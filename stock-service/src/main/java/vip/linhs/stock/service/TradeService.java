@@ -41,6 +41,8 @@ public interface TradeService {
 
     PageVo<TradeRuleVo> getTradeRuleList(PageParam pageParam);
 
+    TradeRuleVo getTradeRuleById(int id);
+
     void changeTradeRuleState(int state, int id);
 
     List<TradeOrder> getLastTradeOrderListByRuleId(int ruleId, int userId);
@@ -0,0 +1,54 @@
+package vip.linhs.stock.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 交易日历, answered from memory, {@link #reload()} after holiday_calendar
+ * changes
+ */
+public interface TradingCalendar {
+
+    void reload();
+
+    boolean isBusinessDate(Date date);
+
+    boolean isBusinessDate(LocalDate date);
+
+    boolean isBusinessTime(Date date);
+
+    /**
+     * 9:30-11:30, 13:00-15:00
+     */
+    boolean isBusinessTime(LocalTime time);
+
+    boolean isTradingSession(Date date);
+
+    /**
+     * first trading day after date
+     */
+    LocalDate nextTradingDay(LocalDate date);
+
+    /**
+     * last trading day before date
+     */
+    LocalDate previousTradingDay(LocalDate date);
+
+    /**
+     * move days trading days from date, date itself is never counted
+     */
+    LocalDate addTradingDays(LocalDate date, int days);
+
+    /**
+     * number of trading days in [start, end]
+     */
+    int countTradingDays(LocalDate start, LocalDate end);
+
+    /**
+     * trading days in [start, end]
+     */
+    List<LocalDate> getTradingDays(LocalDate start, LocalDate end);
+
+}
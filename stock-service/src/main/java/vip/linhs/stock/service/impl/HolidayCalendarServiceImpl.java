@@ -9,10 +9,10 @@ import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.time.DateUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 import org.springframework.web.client.RestTemplate;
 
@@ -20,7 +20,7 @@ import vip.linhs.stock.dao.HolidayCalendarDao;
 import vip.linhs.stock.model.po.HolidayCalendar;
 import vip.linhs.stock.service.HolidayCalendarService;
 import vip.linhs.stock.service.SystemConfigService;
-import vip.linhs.stock.util.StockConsts;
+import vip.linhs.stock.service.TradingCalendar;
 
 @Service
 public class HolidayCalendarServiceImpl implements HolidayCalendarService {
@@ -34,7 +34,9 @@ public class HolidayCalendarServiceImpl implements HolidayCalendarService {
     @Autowired
     private SystemConfigService systemConfigService;
 
-    @CacheEvict(value = StockConsts.CACHE_KEY_DATA_BUSINESS_DATE)
+    @Autowired
+    private TradingCalendar tradingCalendar;
+
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void updateCurrentYear() {
@@ -59,9 +61,25 @@ public class HolidayCalendarServiceImpl implements HolidayCalendarService {
 
         holidayCalendarDao.deleteByYear(year);
         holidayCalendarDao.save(list);
+        reloadAfterCommit();
+    }
+
+    /**
+     * reloading inside the transaction would read the old holidays
+     */
+    private void reloadAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            tradingCalendar.reload();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tradingCalendar.reload();
+            }
+        });
     }
 
-    @Cacheable(value = StockConsts.CACHE_KEY_DATA_BUSINESS_DATE, key = "#date.getDate().toString()")
     @Override
     public boolean isBusinessDate(Date date) {
         boolean isMock = systemConfigService.isMock();
@@ -72,14 +90,7 @@ public class HolidayCalendarServiceImpl implements HolidayCalendarService {
         if (date == null) {
             date = new Date();
         }
-
-        Calendar c = Calendar.getInstance();
-        c.setTime(date);
-        int day = c.get(Calendar.DAY_OF_WEEK);
-        if (day == Calendar.SATURDAY || day == Calendar.SUNDAY) {
-            return false;
-        }
-        return holidayCalendarDao.getByDate(date) == null;
+        return tradingCalendar.isBusinessDate(date);
     }
 
     @Override
@@ -92,16 +103,7 @@ public class HolidayCalendarServiceImpl implements HolidayCalendarService {
         if (date == null) {
             date = new Date();
         }
-
-        Calendar c = Calendar.getInstance();
-        c.setTime(date);
-        int hour = c.get(Calendar.HOUR_OF_DAY);
-        if (hour < 9 || hour == 12 || hour > 14) {
-            return false;
-        }
-
-        int minute = c.get(Calendar.MINUTE);
-        return !(hour == 9 && minute < 30 || hour == 11 && minute >= 30);
+        return tradingCalendar.isBusinessTime(date);
     }
 
 }
@@ -1,24 +1,43 @@
 package vip.linhs.stock.service.impl;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import vip.linhs.stock.dao.SystemConfigDao;
 import vip.linhs.stock.model.po.SystemConfig;
+import vip.linhs.stock.model.vo.SystemConfigSnapshot;
+import vip.linhs.stock.service.SystemConfigChangedEvent;
 import vip.linhs.stock.service.SystemConfigService;
 
 @Service
 public class SystemConfigServiceImpl implements SystemConfigService {
 
+    private final Logger logger = LoggerFactory.getLogger(SystemConfigServiceImpl.class);
+
     @Autowired
     private SystemConfigDao systemConfigDao;
 
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private final AtomicReference<SystemConfigSnapshot> snapshot = new AtomicReference<>(SystemConfigSnapshot.EMPTY);
+
+    @PostConstruct
+    public void init() {
+        snapshot.set(load());
+    }
+
     @Override
     public boolean isMock() {
-        List<SystemConfig> list = systemConfigDao.getByName("trade_mock");
-        return !list.isEmpty() && list.get(0).getValue1().equals("1");
+        return snapshot.get().getBoolean("trade_mock");
     }
 
     @Override
@@ -26,18 +45,45 @@ public class SystemConfigServiceImpl implements SystemConfigService {
         return systemConfigDao.getAll();
     }
 
-
     @Override
     public boolean isCr() {
-        List<SystemConfig> list = systemConfigDao.getByName("trade_cr");
-        return !list.isEmpty() && list.get(0).getValue1().equals("1");
+        return snapshot.get().getBoolean("trade_cr");
     }
 
     @Override
     public boolean isApplyNewConvertibleBond() {
-        List<SystemConfig> list = systemConfigDao.getByName("apply_new_convertible_bond");
-        return !list.isEmpty() && list.get(0).getValue1().equals("1");
+        return snapshot.get().getBoolean("apply_new_convertible_bond");
+    }
+
+    @Override
+    public SystemConfigSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    @Override
+    public boolean refreshIfChanged() {
+        String version = systemConfigDao.getVersion();
+        if (version.equals(snapshot.get().getVersion())) {
+            return false;
+        }
+        refresh();
+        return true;
     }
 
+    @Override
+    public synchronized void refresh() {
+        SystemConfigSnapshot newSnapshot = load();
+        SystemConfigSnapshot oldSnapshot = snapshot.getAndSet(newSnapshot);
+        SystemConfigChangedEvent event = new SystemConfigChangedEvent(this, oldSnapshot, newSnapshot);
+        if (!event.getChangedNames().isEmpty()) {
+            logger.info("system config changed {}", event.getChangedNames());
+            applicationEventPublisher.publishEvent(event);
+        }
+    }
+
+    private SystemConfigSnapshot load() {
+        String version = systemConfigDao.getVersion();
+        return new SystemConfigSnapshot(systemConfigDao.getAll(), version);
+    }
 
 }
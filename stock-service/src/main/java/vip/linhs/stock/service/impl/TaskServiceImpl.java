@@ -2,11 +2,13 @@ package vip.linhs.stock.service.impl;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.time.DateFormatUtils;
 import org.apache.commons.lang3.time.DateUtils;
@@ -16,6 +18,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import vip.linhs.stock.alert.AlertEngine;
 import vip.linhs.stock.api.TradeResultVo;
 import vip.linhs.stock.api.request.AuthenticationRequest;
 import vip.linhs.stock.api.request.BaseTradeRequest;
@@ -45,12 +48,14 @@ import vip.linhs.stock.api.response.GetDealDataResponse;
 import vip.linhs.stock.api.response.GetOrdersDataResponse;
 import vip.linhs.stock.api.response.SubmitBatTradeV2Response;
 import vip.linhs.stock.config.SpringUtil;
+import vip.linhs.stock.crawler.StockListDelta;
+import vip.linhs.stock.crawler.StockListRefresher;
 import vip.linhs.stock.dao.ExecuteInfoDao;
+import vip.linhs.stock.indicator.IndicatorEngine;
 import vip.linhs.stock.model.po.DailyIndex;
 import vip.linhs.stock.model.po.ExecuteInfo;
 import vip.linhs.stock.model.po.StockInfo;
 import vip.linhs.stock.model.po.StockLog;
-import vip.linhs.stock.model.po.StockSelected;
 import vip.linhs.stock.model.po.Task;
 import vip.linhs.stock.model.po.TradeDeal;
 import vip.linhs.stock.model.po.TradeMethod;
@@ -59,6 +64,11 @@ import vip.linhs.stock.model.vo.PageParam;
 import vip.linhs.stock.model.vo.PageVo;
 import vip.linhs.stock.model.vo.TaskVo;
 import vip.linhs.stock.model.vo.trade.TradeRuleVo;
+import vip.linhs.stock.portfolio.PortfolioEngine;
+import vip.linhs.stock.risk.MarginRiskMonitor;
+import vip.linhs.stock.risk.PreTradeRiskEngine;
+import vip.linhs.stock.scheduled.OrderPoller;
+import vip.linhs.stock.screener.StockScreener;
 import vip.linhs.stock.service.HolidayCalendarService;
 import vip.linhs.stock.service.MessageService;
 import vip.linhs.stock.service.OcrService;
@@ -69,6 +79,7 @@ import vip.linhs.stock.service.SystemConfigService;
 import vip.linhs.stock.service.TaskService;
 import vip.linhs.stock.service.TradeApiService;
 import vip.linhs.stock.service.TradeService;
+import vip.linhs.stock.tick.TickStore;
 import vip.linhs.stock.trategy.handle.StrategyHandler;
 import vip.linhs.stock.util.DecimalUtil;
 import vip.linhs.stock.util.StockConsts;
@@ -80,8 +91,6 @@ public class TaskServiceImpl implements TaskService {
 
     private final Logger logger = LoggerFactory.getLogger(TaskServiceImpl.class);
 
-    private final Map<String, BigDecimal> lastPriceMap = new HashMap<>();
-
     @Value("${ocr.service}")
     private String ocrServiceName;
 
@@ -97,6 +106,33 @@ public class TaskServiceImpl implements TaskService {
     @Autowired
     private StockService stockService;
 
+    @Autowired
+    private StockListRefresher stockListRefresher;
+
+    @Autowired
+    private TickStore tickStore;
+
+    @Autowired
+    private IndicatorEngine indicatorEngine;
+
+    @Autowired
+    private StockScreener stockScreener;
+
+    @Autowired
+    private PortfolioEngine portfolioEngine;
+
+    @Autowired
+    private MarginRiskMonitor marginRiskMonitor;
+
+    @Autowired
+    private PreTradeRiskEngine preTradeRiskEngine;
+
+    @Autowired
+    private AlertEngine alertEngine;
+
+    @Autowired
+    private OrderPoller orderPoller;
+
     @Autowired
     private MessageService messageServicve;
 
@@ -112,8 +148,6 @@ public class TaskServiceImpl implements TaskService {
     @Autowired
     private SystemConfigService systemConfigService;
 
-    private static final boolean CrawIndexFromSina = false;
-
     @Override
     public List<ExecuteInfo> getTaskListById(int... id) {
         return executeInfoDao.getByTaskIdAndState(id, null);
@@ -136,7 +170,10 @@ public class TaskServiceImpl implements TaskService {
                 holidayCalendarService.updateCurrentYear();
                 break;
             case BeginOfDay:
-                lastPriceMap.clear();
+                alertEngine.beginOfDay();
+                portfolioEngine.beginOfDay();
+                preTradeRiskEngine.beginOfDay();
+                orderPoller.beginOfDay();
                 break;
             case UpdateOfStock:
                 runUpdateOfStock();
@@ -202,7 +239,22 @@ public class TaskServiceImpl implements TaskService {
 
     private void runUpdateOfStock() {
         List<StockInfo> list = stockService.getAll().stream().filter(v -> !v.isIndex()).collect(Collectors.toList());
-        Map<String, List<StockInfo>> dbStockMap = list.stream().collect(Collectors.groupingBy(StockInfo::getCode));
+
+        StockListDelta delta = null;
+        List<StockInfo> crawlerList;
+        try {
+            delta = stockListRefresher.fetchDelta(list);
+            if (delta.isNotModified()) {
+                logger.info("stock list not modified");
+                return;
+            }
+            crawlerList = delta.getChangedList();
+        } catch (Exception e) {
+            logger.warn("stock list delta error, fall back to full list: {}", e.getMessage());
+            crawlerList = stockCrawlerService.getStockList();
+        }
+
+        Map<String, StockInfo> dbStockMap = list.stream().collect(Collectors.toMap(StockInfo::getCode, v -> v, (a, b) -> a));
 
         ArrayList<StockInfo> needAddedList = new ArrayList<>();
         ArrayList<StockInfo> needUpdatedList = new ArrayList<>();
@@ -210,18 +262,16 @@ public class TaskServiceImpl implements TaskService {
 
         final Date date = new Date();
 
-        List<StockInfo> crawlerList = stockCrawlerService.getStockList();
         for (StockInfo stockInfo : crawlerList) {
             StockConsts.StockLogType stocLogType = null;
-            List<StockInfo> stockGroupList = dbStockMap.get(stockInfo.getCode());
+            StockInfo stockInfoInDb = dbStockMap.get(stockInfo.getCode());
             String oldValue = null;
             String newValue = null;
-            if (stockGroupList == null) {
+            if (stockInfoInDb == null) {
                 stocLogType = StockConsts.StockLogType.New;
                 oldValue = "";
                 newValue = stockInfo.getName();
             } else {
-                StockInfo stockInfoInDb = stockGroupList.get(0);
                 if (!stockInfo.getName().equals(stockInfoInDb.getName())
                         && StockUtil.isOriName(stockInfo.getName())) {
                     stocLogType = StockConsts.StockLogType.Rename;
@@ -242,7 +292,17 @@ public class TaskServiceImpl implements TaskService {
             }
         }
 
-        stockService.update(needAddedList, needUpdatedList, stockLogList);
+        if (!stockLogList.isEmpty()) {
+            stockService.update(needAddedList, needUpdatedList, stockLogList);
+        }
+
+        if (delta != null) {
+            stockListRefresher.commit(delta);
+            String stages = Arrays.stream(delta.getStopWatch().getTaskInfo())
+                    .map(v -> v.getTaskName() + " " + v.getTimeMillis() + "ms").collect(Collectors.joining(", "));
+            logger.info("stock list {} rows, {} changed, {} added, {} renamed, {}", delta.getTotal(),
+                    crawlerList.size(), needAddedList.size(), needUpdatedList.size(), stages);
+        }
     }
 
     private void runUpdateOfDailyIndex() {
@@ -256,39 +316,37 @@ public class TaskServiceImpl implements TaskService {
         List<String> codeList = dailyIndexList.stream().map(DailyIndex::getCode).collect(Collectors.toList());
         list = list.stream().filter(v -> !codeList.contains(v.getFullCode())).collect(Collectors.toList());
 
-        if (CrawIndexFromSina) {
-            crawDailyIndexFromSina(list);
-        } else {
-            crawDailyIndexFromSina(list.stream().filter(StockInfo::isIndex).collect(Collectors.toList()));
-            crawDailyIndexFromEastMoney(list);
-        }
-    }
+        List<DailyIndex> crawlerList = filterInvalid(crawDailyIndex(list));
+        stockService.saveDailyIndex(crawlerList);
 
-    private void crawDailyIndexFromEastMoney(List<StockInfo> list) {
-        List<DailyIndex> dailyIndexList = stockCrawlerService.getDailyIndexFromEastMoney();
-        dailyIndexList = dailyIndexList.stream().filter(d -> list.stream().anyMatch(s -> d.getCode().equals(s.getFullCode()))).collect(Collectors.toList());
-        stockService.saveDailyIndex(filterInvalid(dailyIndexList));
+        long startTime = System.currentTimeMillis();
+        indicatorEngine.onDailyIndex(crawlerList);
+        logger.info("indicators of {} daily bars in {}ms", crawlerList.size(), System.currentTimeMillis() - startTime);
+        stockScreener.refresh();
     }
 
-    private void crawDailyIndexFromSina(List<StockInfo> list) {
-        final int tCount = 500;
-        ArrayList<String> stockCodeList = new ArrayList<>(tCount);
-        for (StockInfo stockInfo : list) {
-            stockCodeList.add(stockInfo.getFullCode());
-            if (stockCodeList.size() == tCount) {
-                saveDailyIndex(stockCodeList);
-                stockCodeList.clear();
+    /**
+     * stocks from the eastmoney snapshot, it carries the turnover rate sina
+     * quotes lack, indices and whatever the snapshot misses from the router
+     */
+    private List<DailyIndex> crawDailyIndex(List<StockInfo> list) {
+        Set<String> stockCodeSet = list.stream().filter(v -> !v.isIndex()).map(StockInfo::getFullCode).collect(Collectors.toSet());
+        List<DailyIndex> dailyIndexList = new ArrayList<>(list.size());
+        if (!stockCodeSet.isEmpty()) {
+            try {
+                stockCrawlerService.getDailyIndexFromEastMoney().stream()
+                        .filter(v -> stockCodeSet.contains(v.getCode())).forEach(dailyIndexList::add);
+            } catch (Exception e) {
+                logger.warn("daily index snapshot from eastmoney error: {}", e.getMessage());
             }
         }
 
-        if (!stockCodeList.isEmpty()) {
-            saveDailyIndex(stockCodeList);
+        Set<String> found = dailyIndexList.stream().map(DailyIndex::getCode).collect(Collectors.toSet());
+        List<String> restList = list.stream().map(StockInfo::getFullCode).filter(code -> !found.contains(code)).collect(Collectors.toList());
+        if (!restList.isEmpty()) {
+            dailyIndexList.addAll(stockCrawlerService.getDailyIndex(restList));
         }
-    }
-
-    private void saveDailyIndex(ArrayList<String> stockCodeList) {
-        List<DailyIndex> dailyIndexList = stockCrawlerService.getDailyIndex(stockCodeList);
-        stockService.saveDailyIndex(filterInvalid(dailyIndexList));
+        return dailyIndexList;
     }
 
     private List<DailyIndex> filterInvalid(List<DailyIndex> dailyIndexList) {
@@ -302,48 +360,48 @@ public class TaskServiceImpl implements TaskService {
     }
 
     private void runTicker() {
-        List<StockSelected> selectList = stockSelectedService.getList();
-        List<String> codeList = selectList.stream().map(v -> StockUtil.getFullCode(v.getCode())).collect(Collectors.toList());
-        List<DailyIndex> dailyIndexList = stockCrawlerService.getDailyIndex(codeList);
-
-        StringBuilder sb = new StringBuilder();
-        for (StockSelected stockSelected : selectList) {
-            String code = stockSelected.getCode();
-            DailyIndex dailyIndex = dailyIndexList.stream().filter(d -> d.getCode().contains(stockSelected.getCode())).findAny().orElse(null);
-            if (dailyIndex == null) {
-                continue;
-            }
-            if (lastPriceMap.containsKey(code)) {
-                BigDecimal lastPrice = lastPriceMap.get(code);
-                double rate = Math.abs(StockUtil.calcIncreaseRate(dailyIndex.getClosingPrice(), lastPrice).doubleValue());
-                if (Double.compare(rate, stockSelected.getRate().doubleValue()) >= 0) {
-                    lastPriceMap.put(code, dailyIndex.getClosingPrice());
-                    String name = stockService.getStockByFullCode(StockUtil.getFullCode(code)).getName();
-                    String body = String.format("%s:当前价格:%.03f, 涨幅%.02f%%", name,
-                        dailyIndex.getClosingPrice().doubleValue(),
-                        StockUtil.calcIncreaseRate(dailyIndex.getClosingPrice(),
-                                dailyIndex.getPreClosingPrice()).movePointRight(2).doubleValue());
-                    sb.append(body + "\n");
-                }
-            } else {
-                lastPriceMap.put(code, dailyIndex.getPreClosingPrice());
-                String name = stockService.getStockByFullCode(StockUtil.getFullCode(code)).getName();
-                String body = String.format("%s:当前价格:%.03f", name, dailyIndex.getClosingPrice().doubleValue());
-                sb.append(body + "\n");
-            }
-        }
+        alertEngine.syncSelected(stockSelectedService.getList());
+        List<String> codeList = alertEngine.getCodeList();
+        List<String> tradedCodeList = Stream.concat(getTradedCodeList().stream(), portfolioEngine.getCodeList().stream())
+                .distinct().collect(Collectors.toList());
+        tickStore.subscribe("selected", codeList);
+        tickStore.subscribe("traded", tradedCodeList);
+        // traded symbols are polled along so their ticks get recorded
+        List<String> quoteCodeList = Stream.concat(codeList.stream(), tradedCodeList.stream()).distinct().collect(Collectors.toList());
+        List<DailyIndex> dailyIndexList = stockCrawlerService.getDailyIndex(quoteCodeList);
+        indicatorEngine.onQuote(dailyIndexList);
+        portfolioEngine.onQuote(dailyIndexList);
+        preTradeRiskEngine.onQuote(dailyIndexList);
+        marginRiskMonitor.check();
+        alertEngine.onQuote(dailyIndexList);
+        alertEngine.drainMessages().forEach(messageServicve::send);
+    }
 
-        if (sb.length() > 0) {
-            sb.setLength(sb.length() - 1);
-            messageServicve.send(sb.toString());
-        }
+    private List<String> getTradedCodeList() {
+        PageParam pageParam = new PageParam();
+        pageParam.setStart(0);
+        pageParam.setLength(Integer.MAX_VALUE);
+        PageVo<TradeRuleVo> pageVo = tradeService.getTradeRuleList(pageParam);
+        return pageVo.getData().stream().filter(TradeRuleVo::isValid)
+                .map(v -> StockUtil.getFullCode(v.getStockCode())).distinct().collect(Collectors.toList());
     }
 
+    /**
+     * only the accounts due by their open orders, taken all at once so the
+     * trigger finds none due while the run is on
+     */
     private void runTradeTicker() {
-        List<TradeUser> userList = tradeService.getTradeUserList();
+        long time = System.currentTimeMillis();
+        List<TradeUser> userList = tradeService.getTradeUserList().stream()
+                .filter(v -> orderPoller.take(v.getId(), time)).collect(Collectors.toList());
         for (TradeUser tradeUser : userList) {
             runStrategy(tradeUser.getId());
             runDealNotice(tradeUser.getId());
+            portfolioEngine.reconcileIfStale(tradeUser.getId());
+            preTradeRiskEngine.refresh(tradeUser.getId());
+            if (orderPoller.poll(tradeUser.getId()) < 0) {
+                logger.error("runTradeTicker {} get orders error", tradeUser.getId());
+            }
         }
     }
 
@@ -364,7 +422,7 @@ public class TaskServiceImpl implements TaskService {
         PageVo<TradeRuleVo> pageVo = tradeService.getTradeRuleList(pageParam);
 
         pageVo.getData().forEach(v -> {
-            if (v.isValid()) {
+            if (v.isValid() && v.getUserId() == userId) {
                 String beanName = v.getStrategyBeanName();
                 StrategyHandler strategyHandler = SpringUtil.getBean(beanName, StrategyHandler.class);
                 try {
@@ -376,61 +434,66 @@ public class TaskServiceImpl implements TaskService {
         });
     }
 
-    private void runDealNotice(int i) {
-        List<TradeUser> userList = tradeService.getTradeUserList();
+    private void runDealNotice(int tradeUserId) {
         StringBuilder sb = new StringBuilder();
 
-        for (TradeUser tradeUser : userList) {
-            ArrayList<GetDealDataResponse> list = new ArrayList<>();
+        ArrayList<GetDealDataResponse> list = new ArrayList<>();
 
-            TradeResultVo<GetDealDataResponse> dealData = tradeApiService.getDealData(new GetDealDataRequest(tradeUser.getId()));
-            if (!dealData.success()) {
-                logger.error("runDealNotice error {}", dealData.getMessage());
-                return;
-            }
+        TradeResultVo<GetDealDataResponse> dealData = tradeApiService.getDealData(new GetDealDataRequest(tradeUserId));
+        if (!dealData.success()) {
+            logger.error("runDealNotice error {}", dealData.getMessage());
+            return;
+        }
 
-            TradeResultVo<CrGetDealDataResponse> crDealData = tradeApiService.crGetDealData(new CrGetDealDataRequest(tradeUser.getId()));
-            if (!dealData.success()) {
-                logger.error("runDealNotice error {}", dealData.getMessage());
-                return;
-            }
+        TradeResultVo<CrGetDealDataResponse> crDealData = tradeApiService.crGetDealData(new CrGetDealDataRequest(tradeUserId));
+        if (!dealData.success()) {
+            logger.error("runDealNotice error {}", dealData.getMessage());
+            return;
+        }
 
-            list.addAll(TradeUtil.mergeDealList(dealData.getData()));
-            list.addAll(TradeUtil.mergeDealList(crDealData.getData()));
+        // every partial deal moves the positions, merged ones are only for the notice
+        portfolioEngine.onDeal(tradeUserId, false, dealData.getData());
+        preTradeRiskEngine.onDeal(tradeUserId, false, dealData.getData());
+        if (crDealData.success()) {
+            portfolioEngine.onDeal(tradeUserId, true, crDealData.getData());
+            preTradeRiskEngine.onDeal(tradeUserId, true, crDealData.getData());
+        }
 
-            List<TradeDeal> tradeDealList = tradeService.getTradeDealListByDate(new Date());
-            List<String> dealCodeList = tradeDealList.stream().map(TradeDeal::getDealCode).collect(Collectors.toList());
+        list.addAll(TradeUtil.mergeDealList(dealData.getData()));
+        list.addAll(TradeUtil.mergeDealList(crDealData.getData()));
 
-            List<TradeDeal> needNotifyList = list.stream().filter(v -> !dealCodeList.contains(v.getCjbh())).map(v -> {
-                TradeDeal tradeDeal = new TradeDeal();
-                tradeDeal.setDealCode(v.getCjbh());
-                tradeDeal.setPrice(new BigDecimal(v.getCjjg()));
-                tradeDeal.setStockCode(v.getZqdm());
+        List<TradeDeal> tradeDealList = tradeService.getTradeDealListByDate(new Date());
+        List<String> dealCodeList = tradeDealList.stream().map(TradeDeal::getDealCode).collect(Collectors.toList());
 
-                Date tradeTime = new Date();
-                tradeTime = DateUtils.setHours(tradeTime, Integer.valueOf(v.getCjsj().substring(0, 2)));
-                tradeTime = DateUtils.setMinutes(tradeTime, Integer.valueOf(v.getCjsj().substring(2, 4)));
-                tradeTime = DateUtils.setSeconds(tradeTime, Integer.valueOf(v.getCjsj().substring(4, 6)));
+        List<TradeDeal> needNotifyList = list.stream().filter(v -> !dealCodeList.contains(v.getCjbh())).map(v -> {
+            TradeDeal tradeDeal = new TradeDeal();
+            tradeDeal.setDealCode(v.getCjbh());
+            tradeDeal.setPrice(new BigDecimal(v.getCjjg()));
+            tradeDeal.setStockCode(v.getZqdm());
 
-                tradeDeal.setTradeTime(tradeTime);
-                tradeDeal.setTradeType(v.getMmlb());
-                tradeDeal.setVolume(Integer.parseInt(v.getCjsl()));
+            Date tradeTime = new Date();
+            tradeTime = DateUtils.setHours(tradeTime, Integer.valueOf(v.getCjsj().substring(0, 2)));
+            tradeTime = DateUtils.setMinutes(tradeTime, Integer.valueOf(v.getCjsj().substring(2, 4)));
+            tradeTime = DateUtils.setSeconds(tradeTime, Integer.valueOf(v.getCjsj().substring(4, 6)));
 
-                if (v instanceof CrGetDealDataResponse) {
-                    CrGetDealDataResponse deal = (CrGetDealDataResponse) v;
-                    tradeDeal.setCrTradeType(deal.getXyjylx());
-                } else {
-                    tradeDeal.setCrTradeType("");
-                }
+            tradeDeal.setTradeTime(tradeTime);
+            tradeDeal.setTradeType(v.getMmlb());
+            tradeDeal.setVolume(Integer.parseInt(v.getCjsl()));
+
+            if (v instanceof CrGetDealDataResponse) {
+                CrGetDealDataResponse deal = (CrGetDealDataResponse) v;
+                tradeDeal.setCrTradeType(deal.getXyjylx());
+            } else {
+                tradeDeal.setCrTradeType("");
+            }
 
-                sb.append(String.format("%s deal %s %s %s %s %s\n",
-                        tradeDeal.getCrTradeType().length() > 0 ? "cr" : "normal", v.getFormatDealTime(), v.getZqmc(), v.getMmlb(), v.getCjjg(), v.getCjsl()));
+            sb.append(String.format("%s deal %s %s %s %s %s\n",
+                    tradeDeal.getCrTradeType().length() > 0 ? "cr" : "normal", v.getFormatDealTime(), v.getZqmc(), v.getMmlb(), v.getCjjg(), v.getCjsl()));
 
-                return tradeDeal;
-            }).collect(Collectors.toList());
+            return tradeDeal;
+        }).collect(Collectors.toList());
 
-            tradeService.saveTradeDealList(needNotifyList);
-        }
+        tradeService.saveTradeDealList(needNotifyList);
 
         if (sb.length() > 0) {
             sb.setLength(sb.length() - 1);
@@ -1,22 +1,18 @@
 package vip.linhs.stock.service.impl;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-import org.apache.commons.beanutils.BeanMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.TypeReference;
 
+import vip.linhs.stock.api.TradeRequestEncoder;
+import vip.linhs.stock.api.TradeResponseDecoder;
 import vip.linhs.stock.api.TradeResultVo;
 import vip.linhs.stock.api.request.AuthenticationRequest;
 import vip.linhs.stock.api.request.BaseTradeListRequest;
@@ -24,6 +20,8 @@ import vip.linhs.stock.api.request.BaseTradeRequest;
 import vip.linhs.stock.api.response.AuthenticationResponse;
 import vip.linhs.stock.api.response.BaseTradeResponse;
 import vip.linhs.stock.client.TradeClient;
+import vip.linhs.stock.client.TradeReadCache;
+import vip.linhs.stock.client.TradeRequestGovernor;
 import vip.linhs.stock.model.po.TradeMethod;
 import vip.linhs.stock.model.po.TradeUser;
 import vip.linhs.stock.service.AbstractTradeApiService;
@@ -35,162 +33,48 @@ public class TradeApiServiceImpl extends AbstractTradeApiService {
 
     private final Logger logger = LoggerFactory.getLogger(TradeApiServiceImpl.class);
 
-    private static final List<String> IgnoreList = Arrays.asList("class", "userId", "method");
-
-    public static class TradeResult<T> {
-        private String Message;
-        private int Status;
-        private T Data;
-
-        public String getMessage() {
-            return Message;
-        }
-
-        public void setMessage(String message) {
-            Message = message;
-        }
-
-        public int getStatus() {
-            return Status;
-        }
-
-        public void setStatus(int status) {
-            Status = status;
-        }
-
-        public T getData() {
-            return Data;
-        }
-
-        public void setData(T data) {
-            Data = data;
-        }
-    }
-
-    private final ResponseParser dataObjReponseParser = new ResponseParser() {
-        @Override
-        public <T> TradeResultVo<T> parse(String content, TypeReference<T> responseType) {
-            TradeResultVo<T> resultVo = new TradeResultVo<>();
-            ArrayList<T> newList = new ArrayList<>();
-
-            TradeResult<T> result = JSON.parseObject(content, new TypeReference<TradeResult<T>>() {});
-            if (TradeResultVo.success(result.getStatus())) {
-                String text = JSON.toJSONString(result.Data);
-                T t = JSON.parseObject(text, responseType);
-                newList.add(t);
-            } else {
-                resultVo.setData(Collections.emptyList());
-            }
-
-            resultVo.setMessage(result.getMessage());
-            resultVo.setStatus(result.getStatus());
-            resultVo.setData(newList);
-            return resultVo;
-        }
-
-        @Override
-        public int version() {
-            return BaseTradeRequest.VERSION_DATA_OBJ;
-        }
-
-    };
-
-    private final ResponseParser msgResponseParser = new ResponseParser() {
-        @Override
-        public <T> TradeResultVo<T> parse(String content, TypeReference<T> responseType) {
-            TradeResultVo<T> resultVo = new TradeResultVo<>();
-            resultVo.setData(Collections.emptyList());
-            resultVo.setStatus(TradeResultVo.STATUS_SUCCESS);
-            resultVo.setMessage(content);
-            return resultVo;
-        }
-
-        @Override
-        public int version() {
-            return BaseTradeRequest.VERSION_MSG;
-        }
-    };
-
-    private final ResponseParser objReponseParser = new ResponseParser() {
-        @Override
-        public <T> TradeResultVo<T> parse(String content, TypeReference<T> responseType) {
-            T t = JSON.parseObject(content, responseType);
-            ArrayList<T> newList = new ArrayList<>();
-            newList.add(t);
-
-            TradeResultVo<T> resultVo = new TradeResultVo<>();
-            resultVo.setData(newList);
-
-            return resultVo;
-        }
-
-        @Override
-        public int version() {
-            return BaseTradeRequest.VERSION_OBJ;
-        }
-    };
-
-    private final ResponseParser dataListReponseParser = new ResponseParser() {
-        @Override
-        public <T> TradeResultVo<T> parse(String content, TypeReference<T> responseType) {
-            TradeResultVo<T> resultVo = JSON.parseObject(content, new TypeReference<TradeResultVo<T>>() {});
-            if (resultVo.success()) {
-                List<T> list = resultVo.getData();
-                ArrayList<T> newList = new ArrayList<>();
-                if (list != null) {
-                    list.forEach(d -> {
-                        String text = JSON.toJSONString(d);
-                        T t = JSON.parseObject(text, responseType);
-                        newList.add(t);
-                    });
-                }
-                resultVo.setData(newList);
-            } else {
-                resultVo.setData(Collections.emptyList());
-            }
-            return resultVo;
-        }
-
-        @Override
-        public int version() {
-            return BaseTradeRequest.VERSION_DATA_LIST;
-        }
-    };
-
     @Autowired
     private TradeService tradeService;
 
     @Autowired
     private TradeClient tradeClient;
 
+    @Autowired
+    private TradeReadCache tradeReadCache;
+
+    @Autowired
+    private TradeRequestGovernor tradeRequestGovernor;
+
     @Override
     public <T extends BaseTradeResponse> TradeResultVo<T> send(BaseTradeRequest request, TypeReference<T> responseType) {
-        ResponseParser responseParse = getResponseParser(request);
+        return tradeReadCache.send(request, () -> {
+            if (!tradeRequestGovernor.acquire(request)) {
+                TradeResultVo<T> resultVo = new TradeResultVo<>();
+                resultVo.setStatus(-1);
+                resultVo.setMessage("trade request budget exhausted");
+                return resultVo;
+            }
+            return sendToBroker(request, responseType);
+        });
+    }
 
+    private <T extends BaseTradeResponse> TradeResultVo<T> sendToBroker(BaseTradeRequest request, TypeReference<T> responseType) {
         String url = getUrl(request);
         logger.debug("trade {} url: {}", request.getMethod(), url);
         Map<String, String> header = getHeader(request);
 
-        List<Map<String, Object>> paramList = null;
-        Map<String, Object> params = null;
-
-        boolean isSendList = request instanceof BaseTradeListRequest;
-        if (isSendList) {
-            paramList = ((BaseTradeListRequest) request).getList().stream().map(this::getParams).collect(Collectors.toList());
-            logger.debug("trade {} request: {}", request.getMethod(), paramList);
-        } else {
-            params = getParams(request);
-            logger.debug("trade {} request: {}", request.getMethod(), params);
-        }
-
         String content;
-        if (isSendList) {
-            content = tradeClient.sendListJson(url, paramList, header);
+        if (request instanceof BaseTradeListRequest) {
+            String json = TradeRequestEncoder.encodeJsonList(((BaseTradeListRequest) request).getList());
+            logger.debug("trade {} request: {}", request.getMethod(), json);
+            content = tradeClient.sendJson(url, json, header);
         } else {
-            content = tradeClient.send(url, params, header);
+            String body = TradeRequestEncoder.encodeForm(request);
+            logger.debug("trade {} request: {}", request.getMethod(), body);
+            content = tradeClient.sendForm(url, body, header);
         }
         logger.debug("trade {} response: {}", request.getMethod(), content);
-        return responseParse.parse(content, responseType);
+        return TradeResponseDecoder.decode(content, request.responseVersion(), responseType.getType());
     }
 
     @Override
@@ -201,12 +85,13 @@ public class TradeApiServiceImpl extends AbstractTradeApiService {
         request.setPassword(encodePassword(request.getPassword()));
 
         Map<String, String> header = getHeader(request);
-        Map<String, Object> params = getParams(request);
-        params.put("userId", tradeUser.getAccountId());
+        StringBuilder body = new StringBuilder();
+        TradeRequestEncoder.writeForm(request, body);
+        TradeRequestEncoder.appendFormParam(body, "userId", tradeUser.getAccountId());
         try {
             tradeClient.openSession();
-            String content = tradeClient.sendNewInstance(tradeMethod.getUrl(), params, header);
-            TradeResultVo<AuthenticationResponse> resultVo = dataListReponseParser.parse(content, new TypeReference<AuthenticationResponse>() {});
+            String content = tradeClient.sendFormNewInstance(tradeMethod.getUrl(), body.toString(), header);
+            TradeResultVo<AuthenticationResponse> resultVo = TradeResponseDecoder.decode(content, BaseTradeRequest.VERSION_DATA_LIST, AuthenticationResponse.class);
             if (resultVo.success()) {
                 TradeMethod authCheckTradeMethod = tradeService.getTradeMethodByName(BaseTradeRequest.TradeRequestMethod.AuthenticationCheck.value());
                 AuthenticationResponse response = new AuthenticationResponse();
@@ -240,27 +125,6 @@ public class TradeApiServiceImpl extends AbstractTradeApiService {
         return content.substring(inputBegin, inputEnd);
     }
 
-    private ResponseParser getResponseParser(BaseTradeRequest request) {
-        if (request.responseVersion() == dataObjReponseParser.version()) {
-            return dataObjReponseParser;
-        }
-        if (request.responseVersion() == msgResponseParser.version()) {
-            return msgResponseParser;
-        }
-        if (request.responseVersion() == objReponseParser.version()) {
-            return objReponseParser;
-        }
-        return dataListReponseParser ;
-    }
-
-    private Map<String, Object> getParams(Object request) {
-        Map<Object, Object> beanMap = new BeanMap(request);
-        HashMap<String, Object> params = new HashMap<>();
-        beanMap.entrySet().stream().filter(entry -> !TradeApiServiceImpl.IgnoreList.contains(String.valueOf(entry.getKey())))
-                .forEach(entry -> params.put(String.valueOf(entry.getKey()), entry.getValue()));
-        return params;
-    }
-
     private String getUrl(BaseTradeRequest request) {
         TradeMethod tradeMethod = tradeService.getTradeMethodByName(request.getMethod());
         TradeUser tradeUser = tradeService.getTradeUserById(request.getUserId());
@@ -279,9 +143,4 @@ public class TradeApiServiceImpl extends AbstractTradeApiService {
         return header;
     }
 
-    private interface ResponseParser {
-        <T> TradeResultVo<T> parse(String content, TypeReference<T> responseType);
-        int version();
-    }
-
 }
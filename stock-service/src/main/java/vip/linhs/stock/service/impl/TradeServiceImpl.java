@@ -22,6 +22,7 @@ import vip.linhs.stock.model.vo.trade.DealVo;
 import vip.linhs.stock.model.vo.trade.OrderVo;
 import vip.linhs.stock.model.vo.trade.StockVo;
 import vip.linhs.stock.model.vo.trade.TradeRuleVo;
+import vip.linhs.stock.service.CacheReloader;
 import vip.linhs.stock.service.StockCrawlerService;
 import vip.linhs.stock.service.StockService;
 import vip.linhs.stock.service.TradeService;
@@ -30,13 +31,14 @@ import vip.linhs.stock.util.StockConsts;
 import vip.linhs.stock.util.StockUtil;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
-public class TradeServiceImpl implements TradeService {
+public class TradeServiceImpl implements TradeService, CacheReloader {
 
     @Autowired
     private TradeMethodDao tradeMethodDao;
@@ -77,12 +79,30 @@ public class TradeServiceImpl implements TradeService {
     @Cacheable(value = StockConsts.CACHE_KEY_TRADE_USER, key = "#id.toString()", unless="#result == null")
     @Override
     public TradeUser getTradeUserById(int id) {
+        return loadTradeUser(id);
+    }
+
+    private TradeUser loadTradeUser(int id) {
         TradeUser tradeUser = tradeUserDao.getById(id);
         if (tradeUser != null && "资金账号".equals(tradeUser.getAccountId()))
             return null;
         return tradeUser;
     }
 
+    @Override
+    public List<String> getReloadCacheNames() {
+        return Arrays.asList(StockConsts.CACHE_KEY_TRADE_USER, StockConsts.CACHE_KEY_TRADE_USER_LIST);
+    }
+
+    @Override
+    public Object reload(String cacheName, Object key) {
+        if (StockConsts.CACHE_KEY_TRADE_USER.equals(cacheName)) {
+            return loadTradeUser(Integer.parseInt(key.toString()));
+        }
+        List<TradeUser> list = tradeUserDao.getList();
+        return list.isEmpty() ? null : list;
+    }
+
     @CacheEvict(value = StockConsts.CACHE_KEY_TRADE_USER, key = "#tradeUser.id.toString()")
     @Override
     public void updateTradeUser(TradeUser tradeUser) {
@@ -234,21 +254,33 @@ public class TradeServiceImpl implements TradeService {
         List<TradeStrategy> strategyList = tradeStrategyDao.getAll();
         List<TradeRule> list = pageVo.getData();
 
-        List<TradeRuleVo> tradeConfigVoList = list.stream().map(tradeRule -> {
-            TradeRuleVo tradeRuleVo = new TradeRuleVo();
-            BeanUtils.copyProperties(tradeRule, tradeRuleVo);
+        List<TradeRuleVo> tradeConfigVoList = list.stream().map(tradeRule -> buildTradeRuleVo(tradeRule, strategyList))
+                .collect(Collectors.toList());
+        return new PageVo<>(tradeConfigVoList, pageVo.getTotalRecords());
+    }
 
-            String stockName = stockService.getStockByFullCode(StockUtil.getFullCode(tradeRuleVo.getStockCode())).getName();
-            TradeStrategy tradeStrategy = strategyList.stream().filter(v -> v.getId() == tradeRuleVo.getStrategyId()).findAny().orElse(null);
-            String strategyName = tradeStrategy.getName();
-            String strategyBeanName = tradeStrategy.getBeanName();
+    @Override
+    public TradeRuleVo getTradeRuleById(int id) {
+        TradeRule tradeRule = tradeRuleDao.getById(id);
+        if (tradeRule == null) {
+            return null;
+        }
+        return buildTradeRuleVo(tradeRule, tradeStrategyDao.getAll());
+    }
 
-            tradeRuleVo.setStockName(stockName);
-            tradeRuleVo.setStrategyName(strategyName);
-            tradeRuleVo.setStrategyBeanName(strategyBeanName);
-            return tradeRuleVo;
-        }).collect(Collectors.toList());
-        return new PageVo<>(tradeConfigVoList, pageVo.getTotalRecords());
+    private TradeRuleVo buildTradeRuleVo(TradeRule tradeRule, List<TradeStrategy> strategyList) {
+        TradeRuleVo tradeRuleVo = new TradeRuleVo();
+        BeanUtils.copyProperties(tradeRule, tradeRuleVo);
+
+        String stockName = stockService.getStockByFullCode(StockUtil.getFullCode(tradeRuleVo.getStockCode())).getName();
+        TradeStrategy tradeStrategy = strategyList.stream().filter(v -> v.getId() == tradeRuleVo.getStrategyId()).findAny().orElse(null);
+        String strategyName = tradeStrategy.getName();
+        String strategyBeanName = tradeStrategy.getBeanName();
+
+        tradeRuleVo.setStockName(stockName);
+        tradeRuleVo.setStrategyName(strategyName);
+        tradeRuleVo.setStrategyBeanName(strategyBeanName);
+        return tradeRuleVo;
     }
 
     @Override
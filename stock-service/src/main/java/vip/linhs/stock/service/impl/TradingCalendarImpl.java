@@ -0,0 +1,252 @@
+package vip.linhs.stock.service.impl;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import vip.linhs.stock.dao.HolidayCalendarDao;
+import vip.linhs.stock.model.po.HolidayCalendar;
+import vip.linhs.stock.service.TradingCalendar;
+
+/**
+ * holiday_calendar is loaded into a per-year bitmap so that no lookup
+ * touches the database, years without holiday data are weekdays only
+ */
+@Service
+public class TradingCalendarImpl implements TradingCalendar {
+
+    private final Logger logger = LoggerFactory.getLogger(TradingCalendarImpl.class);
+
+    private static final LocalTime MORNING_OPEN = LocalTime.of(9, 30);
+    private static final LocalTime MORNING_CLOSE = LocalTime.of(11, 30);
+    private static final LocalTime AFTERNOON_OPEN = LocalTime.of(13, 0);
+    private static final LocalTime AFTERNOON_CLOSE = LocalTime.of(15, 0);
+
+    @Autowired
+    private HolidayCalendarDao holidayCalendarDao;
+
+    private final ZoneId zoneId = ZoneId.systemDefault();
+
+    private volatile Map<Integer, YearCalendar> years = Collections.emptyMap();
+
+    private final Map<Integer, YearCalendar> weekdayYears = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    @Override
+    public void reload() {
+        List<HolidayCalendar> list = holidayCalendarDao.getAll();
+        Map<Integer, List<LocalDate>> holidays = new HashMap<>();
+        for (HolidayCalendar holidayCalendar : list) {
+            LocalDate date = toLocalDate(holidayCalendar.getDate());
+            holidays.computeIfAbsent(date.getYear(), k -> new ArrayList<>()).add(date);
+        }
+        Map<Integer, YearCalendar> map = new HashMap<>();
+        holidays.forEach((year, dates) -> map.put(year, new YearCalendar(year, dates)));
+        years = map;
+        logger.info("trading calendar loaded, years {}", map.keySet());
+    }
+
+    @Override
+    public boolean isBusinessDate(Date date) {
+        return isBusinessDate(toLocalDate(date));
+    }
+
+    @Override
+    public boolean isBusinessDate(LocalDate date) {
+        return getYear(date.getYear()).isBusinessDay(date.getDayOfYear() - 1);
+    }
+
+    @Override
+    public boolean isBusinessTime(Date date) {
+        return isBusinessTime(date.toInstant().atZone(zoneId).toLocalTime());
+    }
+
+    @Override
+    public boolean isBusinessTime(LocalTime time) {
+        return !time.isBefore(MORNING_OPEN) && time.isBefore(MORNING_CLOSE)
+                || !time.isBefore(AFTERNOON_OPEN) && time.isBefore(AFTERNOON_CLOSE);
+    }
+
+    @Override
+    public boolean isTradingSession(Date date) {
+        LocalDateTime dateTime = date.toInstant().atZone(zoneId).toLocalDateTime();
+        return isBusinessDate(dateTime.toLocalDate()) && isBusinessTime(dateTime.toLocalTime());
+    }
+
+    @Override
+    public LocalDate nextTradingDay(LocalDate date) {
+        return addTradingDays(date, 1);
+    }
+
+    @Override
+    public LocalDate previousTradingDay(LocalDate date) {
+        return addTradingDays(date, -1);
+    }
+
+    @Override
+    public LocalDate addTradingDays(LocalDate date, int days) {
+        if (days == 0) {
+            return date;
+        }
+        int year = date.getYear();
+        int index = date.getDayOfYear() - 1;
+        int remaining = Math.abs(days);
+        if (days > 0) {
+            while (true) {
+                YearCalendar yearCalendar = getYear(year);
+                int rank = yearCalendar.rank(index + 1) + remaining;
+                if (rank <= yearCalendar.count()) {
+                    return yearCalendar.dateOf(yearCalendar.select(rank));
+                }
+                remaining = rank - yearCalendar.count();
+                year++;
+                index = -1;
+            }
+        }
+        while (true) {
+            YearCalendar yearCalendar = getYear(year);
+            int rank = yearCalendar.rank(index) - remaining + 1;
+            if (rank >= 1) {
+                return yearCalendar.dateOf(yearCalendar.select(rank));
+            }
+            remaining = 1 - rank;
+            year--;
+            index = getYear(year).length();
+        }
+    }
+
+    @Override
+    public int countTradingDays(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            return 0;
+        }
+        int count = 0;
+        for (int year = start.getYear(); year <= end.getYear(); year++) {
+            YearCalendar yearCalendar = getYear(year);
+            int from = year == start.getYear() ? start.getDayOfYear() - 1 : 0;
+            int to = year == end.getYear() ? end.getDayOfYear() : yearCalendar.length();
+            count += yearCalendar.rank(to) - yearCalendar.rank(from);
+        }
+        return count;
+    }
+
+    @Override
+    public List<LocalDate> getTradingDays(LocalDate start, LocalDate end) {
+        List<LocalDate> list = new ArrayList<>(countTradingDays(start, end));
+        for (int year = start.getYear(); year <= end.getYear(); year++) {
+            YearCalendar yearCalendar = getYear(year);
+            int from = year == start.getYear() ? start.getDayOfYear() - 1 : 0;
+            int to = year == end.getYear() ? end.getDayOfYear() : yearCalendar.length();
+            for (int i = yearCalendar.nextBusinessDay(from); i >= 0 && i < to; i = yearCalendar.nextBusinessDay(i + 1)) {
+                list.add(yearCalendar.dateOf(i));
+            }
+        }
+        return list;
+    }
+
+    private YearCalendar getYear(int year) {
+        YearCalendar yearCalendar = years.get(year);
+        if (yearCalendar != null) {
+            return yearCalendar;
+        }
+        return weekdayYears.computeIfAbsent(year, k -> new YearCalendar(k, Collections.emptyList()));
+    }
+
+    private LocalDate toLocalDate(Date date) {
+        if (date instanceof java.sql.Date) {
+            return ((java.sql.Date) date).toLocalDate();
+        }
+        return date.toInstant().atZone(zoneId).toLocalDate();
+    }
+
+    private static class YearCalendar {
+
+        private final int year;
+        private final int length;
+        private final BitSet businessDays;
+        /**
+         * ranks[i] is the number of business days before day index i
+         */
+        private final int[] ranks;
+
+        YearCalendar(int year, List<LocalDate> holidays) {
+            this.year = year;
+            LocalDate first = LocalDate.of(year, 1, 1);
+            this.length = first.lengthOfYear();
+            this.businessDays = new BitSet(length);
+            for (int i = 0; i < length; i++) {
+                DayOfWeek dayOfWeek = first.plusDays(i).getDayOfWeek();
+                if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY) {
+                    businessDays.set(i);
+                }
+            }
+            for (LocalDate holiday : holidays) {
+                businessDays.clear(holiday.getDayOfYear() - 1);
+            }
+            this.ranks = new int[length + 1];
+            for (int i = 0; i < length; i++) {
+                ranks[i + 1] = ranks[i] + (businessDays.get(i) ? 1 : 0);
+            }
+        }
+
+        boolean isBusinessDay(int index) {
+            return businessDays.get(index);
+        }
+
+        int length() {
+            return length;
+        }
+
+        int count() {
+            return ranks[length];
+        }
+
+        int rank(int index) {
+            return ranks[Math.max(0, Math.min(index, length))];
+        }
+
+        /**
+         * index of the rank-th business day, rank starts from 1
+         */
+        int select(int rank) {
+            int low = 0;
+            int high = length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ranks[mid + 1] < rank) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int nextBusinessDay(int index) {
+            return businessDays.nextSetBit(index);
+        }
+
+        LocalDate dateOf(int index) {
+            return LocalDate.ofYearDay(year, index + 1);
+        }
+
+    }
+
+}
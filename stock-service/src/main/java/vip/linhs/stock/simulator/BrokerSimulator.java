@@ -0,0 +1,300 @@
+package vip.linhs.stock.simulator;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.request.SubmitBatTradeV2Request.SubmitData;
+import vip.linhs.stock.api.request.SubmitRequest;
+import vip.linhs.stock.api.response.GetOrdersDataResponse;
+import vip.linhs.stock.api.response.SubmitResponse;
+
+/**
+ * in-process broker for any number of accounts and stocks, thread safe
+ *
+ * orders are matched per stock by an OrderBook, quotes come from a
+ * QuoteSource on every tick, orders still open at the end of the day are
+ * revoked and bought shares can be sold from the next day (T+1)
+ */
+public class BrokerSimulator {
+
+    private static final int HISTORY_DAYS = 30;
+
+    private final double initialCash;
+    private final double commissionRate;
+    private final QuoteSource quoteSource;
+    private final Clock clock;
+
+    private final Map<Integer, SimulatorAccount> accountMap = new HashMap<>();
+    private final Map<String, OrderBook> bookMap = new HashMap<>();
+
+    private LocalDate today;
+    private long entrustSequence;
+    private long dealSequence;
+
+    private final OrderBook.FillListener fillListener = this::fill;
+
+    public BrokerSimulator(double initialCash, double commissionRate, QuoteSource quoteSource, Clock clock) {
+        this.initialCash = initialCash;
+        this.commissionRate = commissionRate;
+        this.quoteSource = quoteSource;
+        this.clock = clock;
+        this.today = LocalDate.now(clock);
+    }
+
+    public synchronized <T extends SubmitResponse> TradeResultVo<T> submit(int userId, SubmitRequest request, String stockName, String creditType, Supplier<T> supplier) {
+        checkDate();
+        double price = request.getPrice();
+        int amount = request.getAmount();
+        if (price <= 0 || amount <= 0) {
+            return BrokerSimulator.fail("委托价格或数量错误");
+        }
+        boolean isBuy = SubmitRequest.B.equals(request.getTradeType());
+        if (isBuy && amount % 100 != 0) {
+            return BrokerSimulator.fail("买入数量必须为100的整数倍");
+        }
+
+        SimulatorAccount account = getAccount(userId);
+        SimulatorPosition position = account.getPositionMap().get(request.getStockCode());
+        if (isBuy) {
+            double need = price * amount * (1 + commissionRate);
+            if (account.getAvailableCash() < need) {
+                return BrokerSimulator.fail("可用资金不足");
+            }
+            account.addFrozenCash(need);
+        } else {
+            if (position == null || position.getAvailableVolume() < amount) {
+                return BrokerSimulator.fail("可用股份不足");
+            }
+            position.freeze(amount);
+        }
+        if (position == null) {
+            position = new SimulatorPosition(request.getStockCode(), stockName, request.getMarket());
+            account.getPositionMap().put(request.getStockCode(), position);
+        }
+
+        SimulatorOrder order = newOrder(userId, request.getStockCode(), stockName, request.getMarket(),
+                request.getTradeType(), price, amount, creditType, false);
+        account.getOrderList().add(order);
+        bookMap.computeIfAbsent(order.getStockCode(), k -> new OrderBook(price)).add(order, fillListener);
+
+        T response = supplier.get();
+        response.setWtbh(order.getEntrustCode());
+        return BrokerSimulator.success(response);
+    }
+
+    /**
+     * new stock and bond applications, accepted and never matched
+     */
+    public synchronized <T> TradeResultVo<T> apply(int userId, List<? extends SubmitData> list, String creditType) {
+        checkDate();
+        SimulatorAccount account = getAccount(userId);
+        for (SubmitData submitData : list) {
+            SimulatorOrder order = newOrder(userId, submitData.getStockCode(), submitData.getStockName(), submitData.getMarket(),
+                    submitData.getTradeType(), Double.parseDouble(submitData.getPrice()), submitData.getAmount(), creditType, true);
+            account.getOrderList().add(order);
+        }
+        TradeResultVo<T> resultVo = new TradeResultVo<>();
+        resultVo.setStatus(TradeResultVo.STATUS_SUCCESS);
+        resultVo.setMessage("申购成功" + list.size() + "笔");
+        resultVo.setData(new ArrayList<>());
+        return resultVo;
+    }
+
+    /**
+     * @param revokes yyyyMMdd_entrustCode, comma separated, none is revoked
+     * if one can not be
+     */
+    public synchronized <T> TradeResultVo<T> revoke(int userId, String revokes) {
+        checkDate();
+        SimulatorAccount account = getAccount(userId);
+        List<SimulatorOrder> orderList = new ArrayList<>();
+        for (String revoke : revokes.split(",")) {
+            String entrustCode = revoke.substring(revoke.indexOf('_') + 1);
+            SimulatorOrder order = account.getOrderList().stream()
+                    .filter(v -> v.getEntrustCode().equals(entrustCode) && today.equals(v.getDate()))
+                    .findAny().orElse(null);
+            if (order == null || order.isApply() || !BrokerSimulator.isOpen(order) || orderList.contains(order)) {
+                return BrokerSimulator.fail("委托" + entrustCode + "不可撤单");
+            }
+            orderList.add(order);
+        }
+        for (SimulatorOrder order : orderList) {
+            bookMap.get(order.getStockCode()).remove(order);
+            cancel(account, order);
+        }
+        TradeResultVo<T> resultVo = new TradeResultVo<>();
+        resultVo.setStatus(TradeResultVo.STATUS_SUCCESS);
+        resultVo.setMessage("撤单成功");
+        resultVo.setData(new ArrayList<>());
+        return resultVo;
+    }
+
+    /**
+     * pull the next quote of every stock with a book
+     */
+    public synchronized void tick() {
+        checkDate();
+        bookMap.forEach((stockCode, book) -> {
+            Quote quote = quoteSource.next(stockCode, book.getLastPrice());
+            if (quote != null) {
+                book.onQuote(quote, fillListener);
+            }
+        });
+    }
+
+    public synchronized void onQuote(Quote quote) {
+        checkDate();
+        bookMap.computeIfAbsent(quote.getStockCode(), k -> new OrderBook(quote.getPrice())).onQuote(quote, fillListener);
+    }
+
+    /**
+     * orders of the days in [from, to], copies
+     */
+    synchronized List<SimulatorOrder> getOrderList(int userId, LocalDate from, LocalDate to) {
+        checkDate();
+        List<SimulatorOrder> list = new ArrayList<>();
+        for (SimulatorOrder order : getAccount(userId).getOrderList()) {
+            if (!order.getDate().isBefore(from) && !order.getDate().isAfter(to)) {
+                list.add(order.copy());
+            }
+        }
+        return list;
+    }
+
+    /**
+     * deals of the days in [from, to], the orders are copies
+     */
+    synchronized List<SimulatorDeal> getDealList(int userId, LocalDate from, LocalDate to) {
+        checkDate();
+        List<SimulatorDeal> list = new ArrayList<>();
+        for (SimulatorDeal deal : getAccount(userId).getDealList()) {
+            if (!deal.getDate().isBefore(from) && !deal.getDate().isAfter(to)) {
+                list.add(new SimulatorDeal(deal.getDealCode(), deal.getOrder().copy(), deal.getPrice(), deal.getAmount(), deal.getDate(), deal.getTime()));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * cash and positions valued at the last price, no orders
+     */
+    synchronized SimulatorAccount getAccountSnapshot(int userId) {
+        checkDate();
+        SimulatorAccount account = getAccount(userId);
+        SimulatorAccount snapshot = new SimulatorAccount(account.getCash());
+        snapshot.addFrozenCash(account.getFrozenCash());
+        account.getPositionMap().forEach((stockCode, position) -> {
+            if (position.getVolume() > 0) {
+                OrderBook book = bookMap.get(stockCode);
+                double lastPrice = book != null ? book.getLastPrice() : position.getCostPrice();
+                snapshot.getPositionMap().put(stockCode, position.copy(lastPrice));
+            }
+        });
+        return snapshot;
+    }
+
+    public synchronized LocalDate getToday() {
+        checkDate();
+        return today;
+    }
+
+    private SimulatorOrder newOrder(int userId, String stockCode, String stockName, String market, String tradeType,
+            double price, int amount, String creditType, boolean apply) {
+        long sequence = ++entrustSequence;
+        SimulatorOrder order = new SimulatorOrder(userId, String.valueOf(sequence), sequence, stockCode, stockName, market,
+                tradeType, price, amount, today, Date.from(clock.instant()), creditType, apply);
+        order.setState(GetOrdersDataResponse.YIBAO);
+        return order;
+    }
+
+    private void fill(SimulatorOrder order, double price, int amount) {
+        SimulatorAccount account = getAccount(order.getUserId());
+        SimulatorPosition position = account.getPositionMap().get(order.getStockCode());
+        double value = price * amount;
+        double fee = value * commissionRate;
+        if (SubmitRequest.B.equals(order.getTradeType())) {
+            account.addFrozenCash(-order.getPrice() * amount * (1 + commissionRate));
+            account.addCash(-value - fee);
+            position.buy(amount, value + fee);
+        } else {
+            account.addCash(value - fee);
+            position.sell(amount, value - fee);
+        }
+        order.addDeal(price, amount);
+        order.setState(order.getOpenAmount() == 0 ? GetOrdersDataResponse.YICHENG : GetOrdersDataResponse.BUCHENG);
+        account.getDealList().add(new SimulatorDeal(String.valueOf(++dealSequence), order, price, amount, today, Date.from(clock.instant())));
+    }
+
+    private void cancel(SimulatorAccount account, SimulatorOrder order) {
+        int openAmount = order.getOpenAmount();
+        if (SubmitRequest.B.equals(order.getTradeType())) {
+            account.addFrozenCash(-order.getPrice() * openAmount * (1 + commissionRate));
+        } else {
+            account.getPositionMap().get(order.getStockCode()).unfreeze(openAmount);
+        }
+        order.setState(order.getDealAmount() > 0 ? GetOrdersDataResponse.BUCHE : GetOrdersDataResponse.YICHE);
+    }
+
+    /**
+     * end of day, revoke open orders, settle positions, forget old history
+     */
+    private void checkDate() {
+        LocalDate now = LocalDate.now(clock);
+        if (now.equals(today)) {
+            return;
+        }
+        LocalDate expireDate = now.minusDays(BrokerSimulator.HISTORY_DAYS);
+        for (SimulatorAccount account : accountMap.values()) {
+            for (SimulatorOrder order : account.getOrderList()) {
+                if (!order.isApply() && BrokerSimulator.isOpen(order)) {
+                    cancel(account, order);
+                }
+            }
+            for (Iterator<SimulatorPosition> iterator = account.getPositionMap().values().iterator(); iterator.hasNext();) {
+                SimulatorPosition position = iterator.next();
+                position.settle();
+                if (position.getVolume() == 0) {
+                    iterator.remove();
+                }
+            }
+            account.getOrderList().removeIf(v -> v.getDate().isBefore(expireDate));
+            account.getDealList().removeIf(v -> v.getDate().isBefore(expireDate));
+        }
+        bookMap.values().forEach(OrderBook::clear);
+        today = now;
+    }
+
+    private SimulatorAccount getAccount(int userId) {
+        return accountMap.computeIfAbsent(userId, k -> new SimulatorAccount(initialCash));
+    }
+
+    private static boolean isOpen(SimulatorOrder order) {
+        return GetOrdersDataResponse.YIBAO.equals(order.getState()) || GetOrdersDataResponse.BUCHENG.equals(order.getState());
+    }
+
+    private static <T> TradeResultVo<T> success(T data) {
+        TradeResultVo<T> resultVo = new TradeResultVo<>();
+        resultVo.setStatus(TradeResultVo.STATUS_SUCCESS);
+        ArrayList<T> list = new ArrayList<>(1);
+        list.add(data);
+        resultVo.setData(list);
+        return resultVo;
+    }
+
+    static <T> TradeResultVo<T> fail(String message) {
+        TradeResultVo<T> resultVo = new TradeResultVo<>();
+        resultVo.setStatus(-1);
+        resultVo.setMessage(message);
+        resultVo.setData(new ArrayList<>());
+        return resultVo;
+    }
+
+}
@@ -0,0 +1,92 @@
+package vip.linhs.stock.simulator;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+import vip.linhs.stock.api.request.SubmitRequest;
+
+/**
+ * limit order book of one stock, price-time priority
+ *
+ * an incoming order first trades against the other side at the resting
+ * price, the rest waits in the book and trades against quotes at the quote
+ * price until the quote volume is used up
+ */
+class OrderBook {
+
+    interface FillListener {
+        void onFill(SimulatorOrder order, double price, int amount);
+    }
+
+    private static final Comparator<SimulatorOrder> BID_ORDER = Comparator.comparingDouble(SimulatorOrder::getPrice).reversed()
+            .thenComparingLong(SimulatorOrder::getSequence);
+
+    private static final Comparator<SimulatorOrder> ASK_ORDER = Comparator.comparingDouble(SimulatorOrder::getPrice)
+            .thenComparingLong(SimulatorOrder::getSequence);
+
+    private final PriorityQueue<SimulatorOrder> bids = new PriorityQueue<>(BID_ORDER);
+    private final PriorityQueue<SimulatorOrder> asks = new PriorityQueue<>(ASK_ORDER);
+
+    private double lastPrice;
+
+    OrderBook(double lastPrice) {
+        this.lastPrice = lastPrice;
+    }
+
+    void add(SimulatorOrder order, FillListener listener) {
+        boolean isBuy = SubmitRequest.B.equals(order.getTradeType());
+        PriorityQueue<SimulatorOrder> other = isBuy ? asks : bids;
+        while (order.getOpenAmount() > 0 && !other.isEmpty()) {
+            SimulatorOrder resting = other.peek();
+            if (isBuy ? resting.getPrice() > order.getPrice() : resting.getPrice() < order.getPrice()) {
+                break;
+            }
+            int amount = Math.min(order.getOpenAmount(), resting.getOpenAmount());
+            listener.onFill(resting, resting.getPrice(), amount);
+            listener.onFill(order, resting.getPrice(), amount);
+            lastPrice = resting.getPrice();
+            if (resting.getOpenAmount() == 0) {
+                other.poll();
+            }
+        }
+        if (order.getOpenAmount() > 0) {
+            (isBuy ? bids : asks).add(order);
+        }
+    }
+
+    void onQuote(Quote quote, FillListener listener) {
+        long remaining = quote.getVolume();
+        while (remaining > 0 && !bids.isEmpty() && bids.peek().getPrice() >= quote.getPrice()) {
+            remaining -= fill(bids, quote, remaining, listener);
+        }
+        remaining = quote.getVolume();
+        while (remaining > 0 && !asks.isEmpty() && asks.peek().getPrice() <= quote.getPrice()) {
+            remaining -= fill(asks, quote, remaining, listener);
+        }
+        lastPrice = quote.getPrice();
+    }
+
+    private int fill(PriorityQueue<SimulatorOrder> queue, Quote quote, long remaining, FillListener listener) {
+        SimulatorOrder order = queue.peek();
+        int amount = (int) Math.min(order.getOpenAmount(), remaining);
+        listener.onFill(order, quote.getPrice(), amount);
+        if (order.getOpenAmount() == 0) {
+            queue.poll();
+        }
+        return amount;
+    }
+
+    boolean remove(SimulatorOrder order) {
+        return bids.remove(order) || asks.remove(order);
+    }
+
+    void clear() {
+        bids.clear();
+        asks.clear();
+    }
+
+    double getLastPrice() {
+        return lastPrice;
+    }
+
+}
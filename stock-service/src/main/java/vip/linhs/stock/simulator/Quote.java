@@ -0,0 +1,35 @@
+package vip.linhs.stock.simulator;
+
+/**
+ * a market trade, resting orders at or better than price fill up to volume
+ */
+public class Quote {
+
+    private final String stockCode;
+    private final double price;
+    private final long volume;
+
+    public Quote(String stockCode, double price, long volume) {
+        this.stockCode = stockCode;
+        this.price = price;
+        this.volume = volume;
+    }
+
+    public String getStockCode() {
+        return stockCode;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public long getVolume() {
+        return volume;
+    }
+
+    @Override
+    public String toString() {
+        return "Quote [stockCode=" + stockCode + ", price=" + price + ", volume=" + volume + "]";
+    }
+
+}
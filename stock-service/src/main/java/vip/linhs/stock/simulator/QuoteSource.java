@@ -0,0 +1,11 @@
+package vip.linhs.stock.simulator;
+
+public interface QuoteSource {
+
+    /**
+     * @param lastPrice last traded price, or the first order price
+     * @return the next quote, null if there is none for the stock
+     */
+    Quote next(String stockCode, double lastPrice);
+
+}
@@ -0,0 +1,55 @@
+package vip.linhs.stock.simulator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import vip.linhs.stock.exception.ServiceException;
+
+/**
+ * replays recorded quotes of each stock in a loop, a line is
+ * stockCode,price,volume, blank lines and lines starting with # are skipped
+ */
+public class RecordedQuoteSource implements QuoteSource {
+
+    private final Map<String, List<Quote>> quoteMap = new HashMap<>();
+    private final Map<String, Integer> cursorMap = new HashMap<>();
+
+    public RecordedQuoteSource(Path path) {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ServiceException("read quote file " + path + " error", e);
+        }
+        for (String line : lines) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length < 3) {
+                throw new ServiceException("invalid quote line: " + line);
+            }
+            Quote quote = new Quote(fields[0].trim(), Double.parseDouble(fields[1].trim()), Long.parseLong(fields[2].trim()));
+            quoteMap.computeIfAbsent(quote.getStockCode(), k -> new ArrayList<>()).add(quote);
+        }
+    }
+
+    @Override
+    public synchronized Quote next(String stockCode, double lastPrice) {
+        List<Quote> list = quoteMap.get(stockCode);
+        if (list == null) {
+            return null;
+        }
+        int cursor = cursorMap.getOrDefault(stockCode, 0);
+        cursorMap.put(stockCode, (cursor + 1) % list.size());
+        return list.get(cursor);
+    }
+
+}
@@ -0,0 +1,56 @@
+package vip.linhs.stock.simulator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * normal and credit calls of a user share one account, credit is treated as
+ * a collateral account without financing
+ */
+class SimulatorAccount {
+
+    private double cash;
+    private double frozenCash;
+    private final Map<String, SimulatorPosition> positionMap = new LinkedHashMap<>();
+    private final List<SimulatorOrder> orderList = new ArrayList<>();
+    private final List<SimulatorDeal> dealList = new ArrayList<>();
+
+    SimulatorAccount(double cash) {
+        this.cash = cash;
+    }
+
+    double getCash() {
+        return cash;
+    }
+
+    double getFrozenCash() {
+        return frozenCash;
+    }
+
+    double getAvailableCash() {
+        return cash - frozenCash;
+    }
+
+    void addCash(double value) {
+        cash += value;
+    }
+
+    void addFrozenCash(double value) {
+        frozenCash += value;
+    }
+
+    Map<String, SimulatorPosition> getPositionMap() {
+        return positionMap;
+    }
+
+    List<SimulatorOrder> getOrderList() {
+        return orderList;
+    }
+
+    List<SimulatorDeal> getDealList() {
+        return dealList;
+    }
+
+}
@@ -0,0 +1,48 @@
+package vip.linhs.stock.simulator;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+class SimulatorDeal {
+
+    private final String dealCode;
+    private final SimulatorOrder order;
+    private final double price;
+    private final int amount;
+    private final LocalDate date;
+    private final Date time;
+
+    SimulatorDeal(String dealCode, SimulatorOrder order, double price, int amount, LocalDate date, Date time) {
+        this.dealCode = dealCode;
+        this.order = order;
+        this.price = price;
+        this.amount = amount;
+        this.date = date;
+        this.time = time;
+    }
+
+    String getDealCode() {
+        return dealCode;
+    }
+
+    SimulatorOrder getOrder() {
+        return order;
+    }
+
+    double getPrice() {
+        return price;
+    }
+
+    int getAmount() {
+        return amount;
+    }
+
+    LocalDate getDate() {
+        return date;
+    }
+
+    Date getTime() {
+        return time;
+    }
+
+}
@@ -0,0 +1,138 @@
+package vip.linhs.stock.simulator;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+class SimulatorOrder {
+
+    private final int userId;
+    private final String entrustCode;
+    private final long sequence;
+    private final String stockCode;
+    private final String stockName;
+    private final String market;
+    private final String tradeType;
+    private final double price;
+    private final int amount;
+    private final LocalDate date;
+    private final Date time;
+    /**
+     * 信用交易类型, null for normal orders
+     */
+    private final String creditType;
+    /**
+     * new stock or bond application, never matched
+     */
+    private final boolean apply;
+
+    private int dealAmount;
+    private double dealValue;
+    private String state;
+
+    SimulatorOrder(int userId, String entrustCode, long sequence, String stockCode, String stockName, String market,
+            String tradeType, double price, int amount, LocalDate date, Date time, String creditType, boolean apply) {
+        this.userId = userId;
+        this.entrustCode = entrustCode;
+        this.sequence = sequence;
+        this.stockCode = stockCode;
+        this.stockName = stockName;
+        this.market = market;
+        this.tradeType = tradeType;
+        this.price = price;
+        this.amount = amount;
+        this.date = date;
+        this.time = time;
+        this.creditType = creditType;
+        this.apply = apply;
+    }
+
+    SimulatorOrder copy() {
+        SimulatorOrder order = new SimulatorOrder(userId, entrustCode, sequence, stockCode, stockName, market,
+                tradeType, price, amount, date, time, creditType, apply);
+        order.dealAmount = dealAmount;
+        order.dealValue = dealValue;
+        order.state = state;
+        return order;
+    }
+
+    int getUserId() {
+        return userId;
+    }
+
+    String getEntrustCode() {
+        return entrustCode;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    String getStockCode() {
+        return stockCode;
+    }
+
+    String getStockName() {
+        return stockName;
+    }
+
+    String getMarket() {
+        return market;
+    }
+
+    String getTradeType() {
+        return tradeType;
+    }
+
+    double getPrice() {
+        return price;
+    }
+
+    int getAmount() {
+        return amount;
+    }
+
+    int getOpenAmount() {
+        return amount - dealAmount;
+    }
+
+    LocalDate getDate() {
+        return date;
+    }
+
+    Date getTime() {
+        return time;
+    }
+
+    String getCreditType() {
+        return creditType;
+    }
+
+    boolean isApply() {
+        return apply;
+    }
+
+    int getDealAmount() {
+        return dealAmount;
+    }
+
+    /**
+     * average price of the deals, 0 before the first
+     */
+    double getDealPrice() {
+        return dealAmount == 0 ? 0 : dealValue / dealAmount;
+    }
+
+    void addDeal(double price, int amount) {
+        dealAmount += amount;
+        dealValue += price * amount;
+    }
+
+    String getState() {
+        return state;
+    }
+
+    void setState(String state) {
+        this.state = state;
+    }
+
+}
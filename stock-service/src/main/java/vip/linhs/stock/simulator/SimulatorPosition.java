@@ -0,0 +1,96 @@
+package vip.linhs.stock.simulator;
+
+class SimulatorPosition {
+
+    private final String stockCode;
+    private final String stockName;
+    private final String market;
+
+    private int volume;
+    private int availableVolume;
+    /**
+     * total cost of the volume held, fees included
+     */
+    private double cost;
+    private double lastPrice;
+
+    SimulatorPosition(String stockCode, String stockName, String market) {
+        this.stockCode = stockCode;
+        this.stockName = stockName;
+        this.market = market;
+    }
+
+    SimulatorPosition copy(double lastPrice) {
+        SimulatorPosition position = new SimulatorPosition(stockCode, stockName, market);
+        position.volume = volume;
+        position.availableVolume = availableVolume;
+        position.cost = cost;
+        position.lastPrice = lastPrice;
+        return position;
+    }
+
+    String getStockCode() {
+        return stockCode;
+    }
+
+    String getStockName() {
+        return stockName;
+    }
+
+    String getMarket() {
+        return market;
+    }
+
+    int getVolume() {
+        return volume;
+    }
+
+    int getAvailableVolume() {
+        return availableVolume;
+    }
+
+    double getCost() {
+        return cost;
+    }
+
+    double getCostPrice() {
+        return volume == 0 ? 0 : cost / volume;
+    }
+
+    double getLastPrice() {
+        return lastPrice;
+    }
+
+    double getMarketValue() {
+        return volume * lastPrice;
+    }
+
+    void buy(int amount, double value) {
+        volume += amount;
+        cost += value;
+    }
+
+    void sell(int amount, double value) {
+        volume -= amount;
+        cost -= value;
+    }
+
+    void freeze(int amount) {
+        availableVolume -= amount;
+    }
+
+    void unfreeze(int amount) {
+        availableVolume += amount;
+    }
+
+    /**
+     * T+1, everything held is available on the next day
+     */
+    void settle() {
+        availableVolume = volume;
+        if (volume == 0) {
+            cost = 0;
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+package vip.linhs.stock.simulator;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "simulator")
+public class SimulatorProperties {
+
+    /**
+     * answer all trade api calls from the local simulator instead of the broker
+     */
+    private boolean enabled = false;
+
+    /**
+     * cash of every account when first used
+     */
+    private double initialCash = 1000000;
+
+    private double commissionRate = 0.0003;
+
+    /**
+     * random delay of every call
+     */
+    private Duration latencyMin = Duration.ZERO;
+    private Duration latencyMax = Duration.ZERO;
+
+    /**
+     * share of calls answered with a failed status
+     */
+    private double errorRate = 0;
+
+    /**
+     * share of calls failing with UnauthorizedException, like an expired cookie
+     */
+    private double unauthorizedRate = 0;
+
+    private Duration quoteInterval = Duration.ofSeconds(1);
+
+    /**
+     * recorded quotes, one stockCode,price,volume per line, replayed in a
+     * loop, synthetic quotes are used when not set
+     */
+    private String quoteFile;
+
+    /**
+     * standard deviation of the synthetic price change per quote
+     */
+    private double volatility = 0.002;
+
+    /**
+     * average volume of a synthetic quote
+     */
+    private long quoteVolume = 10000;
+
+    /**
+     * synthetic new stocks offered to the batch apply calls
+     */
+    private int newStockCount = 1;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getInitialCash() {
+        return initialCash;
+    }
+
+    public void setInitialCash(double initialCash) {
+        this.initialCash = initialCash;
+    }
+
+    public double getCommissionRate() {
+        return commissionRate;
+    }
+
+    public void setCommissionRate(double commissionRate) {
+        this.commissionRate = commissionRate;
+    }
+
+    public Duration getLatencyMin() {
+        return latencyMin;
+    }
+
+    public void setLatencyMin(Duration latencyMin) {
+        this.latencyMin = latencyMin;
+    }
+
+    public Duration getLatencyMax() {
+        return latencyMax;
+    }
+
+    public void setLatencyMax(Duration latencyMax) {
+        this.latencyMax = latencyMax;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public double getUnauthorizedRate() {
+        return unauthorizedRate;
+    }
+
+    public void setUnauthorizedRate(double unauthorizedRate) {
+        this.unauthorizedRate = unauthorizedRate;
+    }
+
+    public Duration getQuoteInterval() {
+        return quoteInterval;
+    }
+
+    public void setQuoteInterval(Duration quoteInterval) {
+        this.quoteInterval = quoteInterval;
+    }
+
+    public String getQuoteFile() {
+        return quoteFile;
+    }
+
+    public void setQuoteFile(String quoteFile) {
+        this.quoteFile = quoteFile;
+    }
+
+    public double getVolatility() {
+        return volatility;
+    }
+
+    public void setVolatility(double volatility) {
+        this.volatility = volatility;
+    }
+
+    public long getQuoteVolume() {
+        return quoteVolume;
+    }
+
+    public void setQuoteVolume(long quoteVolume) {
+        this.quoteVolume = quoteVolume;
+    }
+
+    public int getNewStockCount() {
+        return newStockCount;
+    }
+
+    public void setNewStockCount(int newStockCount) {
+        this.newStockCount = newStockCount;
+    }
+
+}
@@ -0,0 +1,500 @@
+package vip.linhs.stock.simulator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.time.DateFormatUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.request.AuthenticationRequest;
+import vip.linhs.stock.api.request.CrGetCanBuyNewStockListV3Request;
+import vip.linhs.stock.api.request.CrGetConvertibleBondListV2Request;
+import vip.linhs.stock.api.request.CrGetDealDataRequest;
+import vip.linhs.stock.api.request.CrGetHisDealDataRequest;
+import vip.linhs.stock.api.request.CrGetHisOrdersDataRequest;
+import vip.linhs.stock.api.request.CrGetOrdersDataRequest;
+import vip.linhs.stock.api.request.CrGetRzrqAssertsRequest;
+import vip.linhs.stock.api.request.CrQueryCollateralRequest;
+import vip.linhs.stock.api.request.CrRevokeRequest;
+import vip.linhs.stock.api.request.CrSubmitBatTradeV2Request;
+import vip.linhs.stock.api.request.CrSubmitRequest;
+import vip.linhs.stock.api.request.GetAssetsRequest;
+import vip.linhs.stock.api.request.GetCanBuyNewStockListV3Request;
+import vip.linhs.stock.api.request.GetConvertibleBondListV2Request;
+import vip.linhs.stock.api.request.GetDealDataRequest;
+import vip.linhs.stock.api.request.GetHisDealDataRequest;
+import vip.linhs.stock.api.request.GetHisOrdersDataRequest;
+import vip.linhs.stock.api.request.GetOrdersDataRequest;
+import vip.linhs.stock.api.request.GetStockListRequest;
+import vip.linhs.stock.api.request.RevokeRequest;
+import vip.linhs.stock.api.request.SubmitBatTradeV2Request;
+import vip.linhs.stock.api.request.SubmitRequest;
+import vip.linhs.stock.api.response.AuthenticationResponse;
+import vip.linhs.stock.api.response.CrGetCanBuyNewStockListV3Response;
+import vip.linhs.stock.api.response.CrGetConvertibleBondListV2Response;
+import vip.linhs.stock.api.response.CrGetDealDataResponse;
+import vip.linhs.stock.api.response.CrGetHisDealDataResponse;
+import vip.linhs.stock.api.response.CrGetHisOrdersDataResponse;
+import vip.linhs.stock.api.response.CrGetOrdersDataResponse;
+import vip.linhs.stock.api.response.CrGetRzrqAssertsResponse;
+import vip.linhs.stock.api.response.CrQueryCollateralResponse;
+import vip.linhs.stock.api.response.CrRevokeResponse;
+import vip.linhs.stock.api.response.CrSubmitBatTradeV2Response;
+import vip.linhs.stock.api.response.CrSubmitResponse;
+import vip.linhs.stock.api.response.GetAssetsResponse;
+import vip.linhs.stock.api.response.GetCanBuyNewStockListV3Response;
+import vip.linhs.stock.api.response.GetConvertibleBondListV2Response;
+import vip.linhs.stock.api.response.GetDealDataResponse;
+import vip.linhs.stock.api.response.GetHisDealDataResponse;
+import vip.linhs.stock.api.response.GetHisOrdersDataResponse;
+import vip.linhs.stock.api.response.GetOrdersDataResponse;
+import vip.linhs.stock.api.response.GetStockListResponse;
+import vip.linhs.stock.api.response.RevokeResponse;
+import vip.linhs.stock.api.response.SubmitBatTradeV2Response;
+import vip.linhs.stock.api.response.SubmitResponse;
+import vip.linhs.stock.exception.UnauthorizedException;
+import vip.linhs.stock.service.TradeApiService;
+
+/**
+ * TradeApiService answered by a BrokerSimulator, enabled by
+ * simulator.enabled=true, every call can be delayed or failed at random
+ * to test the callers without a network
+ */
+@Service
+@Primary
+@ConditionalOnProperty(prefix = "simulator", name = "enabled", havingValue = "true")
+public class SimulatorTradeApiService implements TradeApiService {
+
+    private final Logger logger = LoggerFactory.getLogger(SimulatorTradeApiService.class);
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TRADE_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Autowired
+    private SimulatorProperties simulatorProperties;
+
+    private BrokerSimulator brokerSimulator;
+
+    private ScheduledExecutorService quoteExecutor;
+
+    @PostConstruct
+    public void init() {
+        QuoteSource quoteSource;
+        if (simulatorProperties.getQuoteFile() != null) {
+            quoteSource = new RecordedQuoteSource(Paths.get(simulatorProperties.getQuoteFile()));
+        } else {
+            quoteSource = new SyntheticQuoteSource(simulatorProperties.getVolatility(), simulatorProperties.getQuoteVolume(), System.nanoTime());
+        }
+        brokerSimulator = new BrokerSimulator(simulatorProperties.getInitialCash(), simulatorProperties.getCommissionRate(),
+                quoteSource, Clock.systemDefaultZone());
+
+        long interval = simulatorProperties.getQuoteInterval().toMillis();
+        quoteExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "simulator-quote");
+            thread.setDaemon(true);
+            return thread;
+        });
+        quoteExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                brokerSimulator.tick();
+            } catch (Exception e) {
+                logger.error("simulator tick error", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        logger.warn("trade api simulator enabled, quote source {}", quoteSource.getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        quoteExecutor.shutdownNow();
+    }
+
+    public BrokerSimulator getBrokerSimulator() {
+        return brokerSimulator;
+    }
+
+    @Override
+    public TradeResultVo<GetAssetsResponse> getAsserts(GetAssetsRequest request) {
+        return call(request.getMethod(), () -> {
+            SimulatorAccount account = brokerSimulator.getAccountSnapshot(request.getUserId());
+            GetAssetsResponse response = new GetAssetsResponse();
+            response.setZzc(format(account.getCash() + getMarketValue(account), 2));
+            response.setKyzj(format(account.getAvailableCash(), 2));
+            response.setKqzj(format(account.getAvailableCash(), 2));
+            response.setDjzj(format(account.getFrozenCash(), 2));
+            return success(Collections.singletonList(response));
+        });
+    }
+
+    @Override
+    public TradeResultVo<SubmitResponse> submit(SubmitRequest request) {
+        return call(request.getMethod(), () -> brokerSimulator.submit(request.getUserId(), request, request.getZqmc(), null, SubmitResponse::new));
+    }
+
+    @Override
+    public TradeResultVo<RevokeResponse> revoke(RevokeRequest request) {
+        return call(request.getMethod(), () -> brokerSimulator.revoke(request.getUserId(), request.getRevokes()));
+    }
+
+    @Override
+    public TradeResultVo<GetStockListResponse> getStockList(GetStockListRequest request) {
+        return call(request.getMethod(), () -> {
+            SimulatorAccount account = brokerSimulator.getAccountSnapshot(request.getUserId());
+            List<GetStockListResponse> list = new ArrayList<>();
+            for (SimulatorPosition position : account.getPositionMap().values()) {
+                GetStockListResponse response = new GetStockListResponse();
+                response.setZqdm(position.getStockCode());
+                response.setZqmc(position.getStockName());
+                response.setZqsl(String.valueOf(position.getVolume()));
+                response.setKysl(String.valueOf(position.getAvailableVolume()));
+                response.setZxjg(format(position.getLastPrice(), 3));
+                response.setCbjg(format(position.getCostPrice(), 3));
+                response.setLjyk(format(position.getMarketValue() - position.getCost(), 2));
+                list.add(response);
+            }
+            return success(list);
+        });
+    }
+
+    @Override
+    public TradeResultVo<GetOrdersDataResponse> getOrdersData(GetOrdersDataRequest request) {
+        return call(request.getMethod(), () -> {
+            LocalDate today = brokerSimulator.getToday();
+            return success(toOrderList(brokerSimulator.getOrderList(request.getUserId(), today, today), GetOrdersDataResponse::new));
+        });
+    }
+
+    @Override
+    public TradeResultVo<GetDealDataResponse> getDealData(GetDealDataRequest request) {
+        return call(request.getMethod(), () -> {
+            LocalDate today = brokerSimulator.getToday();
+            return success(toDealList(brokerSimulator.getDealList(request.getUserId(), today, today), GetDealDataResponse::new));
+        });
+    }
+
+    @Override
+    public TradeResultVo<AuthenticationResponse> authentication(AuthenticationRequest request) {
+        return call(request.getMethod(), () -> {
+            AuthenticationResponse response = new AuthenticationResponse();
+            response.setCookie("simulator=" + request.getUserId());
+            response.setValidateKey(UUID.randomUUID().toString());
+            return success(Collections.singletonList(response));
+        });
+    }
+
+    @Override
+    public TradeResultVo<GetHisDealDataResponse> getHisDealData(GetHisDealDataRequest request) {
+        return call(request.getMethod(), () -> success(toDealList(brokerSimulator.getDealList(request.getUserId(),
+                parseDate(request.getSt()), getHistoryEndDate(request.getEt())), GetHisDealDataResponse::new)));
+    }
+
+    @Override
+    public TradeResultVo<GetHisOrdersDataResponse> getHisOrdersData(GetHisOrdersDataRequest request) {
+        return call(request.getMethod(), () -> success(toOrderList(brokerSimulator.getOrderList(request.getUserId(),
+                parseDate(request.getSt()), getHistoryEndDate(request.getEt())), GetHisOrdersDataResponse::new)));
+    }
+
+    @Override
+    public TradeResultVo<GetCanBuyNewStockListV3Response> getCanBuyNewStockListV3(GetCanBuyNewStockListV3Request request) {
+        return call(request.getMethod(), () -> {
+            GetCanBuyNewStockListV3Response response = new GetCanBuyNewStockListV3Response();
+            List<GetCanBuyNewStockListV3Response.NewQuotaInfo> quotaList = new ArrayList<>();
+            List<GetCanBuyNewStockListV3Response.NewStock> newStockList = new ArrayList<>();
+            for (String market : new String[] { "HA", "SA" }) {
+                GetCanBuyNewStockListV3Response.NewQuotaInfo quota = new GetCanBuyNewStockListV3Response.NewQuotaInfo();
+                quota.setMarket(market);
+                quota.setKsgsz("10000");
+                quota.setKcbsged("10000");
+                quotaList.add(quota);
+            }
+            for (int i = 0; i < simulatorProperties.getNewStockCount(); i++) {
+                GetCanBuyNewStockListV3Response.NewStock newStock = new GetCanBuyNewStockListV3Response.NewStock();
+                fillNewStock(i, newStock::setMarket, newStock::setZqdm, newStock::setSgdm, newStock::setZqmc, newStock::setFxj, newStock::setKsgsx);
+                newStockList.add(newStock);
+            }
+            response.setNewQuota(quotaList);
+            response.setNewStockList(newStockList);
+            return success(Collections.singletonList(response));
+        });
+    }
+
+    @Override
+    public TradeResultVo<GetConvertibleBondListV2Response> getConvertibleBondListV2(GetConvertibleBondListV2Request request) {
+        return call(request.getMethod(), () -> success(new ArrayList<>()));
+    }
+
+    @Override
+    public TradeResultVo<SubmitBatTradeV2Response> submitBatTradeV2(SubmitBatTradeV2Request request) {
+        return call(request.getMethod(), () -> brokerSimulator.apply(request.getUserId(), request.getList(), null));
+    }
+
+    @Override
+    public TradeResultVo<CrGetRzrqAssertsResponse> crGetRzrqAsserts(CrGetRzrqAssertsRequest request) {
+        return call(request.getMethod(), () -> {
+            SimulatorAccount account = brokerSimulator.getAccountSnapshot(request.getUserId());
+            double marketValue = getMarketValue(account);
+            CrGetRzrqAssertsResponse response = new CrGetRzrqAssertsResponse();
+            response.setBz("RMB");
+            response.setZzc(format(account.getCash() + marketValue, 2));
+            response.setJzc(format(account.getCash() + marketValue, 2));
+            response.setZsz(format(marketValue, 2));
+            response.setZjye(format(account.getCash(), 2));
+            response.setKqzj(format(account.getAvailableCash(), 2));
+            response.setZfz("0.00");
+            return success(Collections.singletonList(response));
+        });
+    }
+
+    @Override
+    public TradeResultVo<CrQueryCollateralResponse> crQueryCollateral(CrQueryCollateralRequest request) {
+        return call(request.getMethod(), () -> {
+            SimulatorAccount account = brokerSimulator.getAccountSnapshot(request.getUserId());
+            List<CrQueryCollateralResponse> list = new ArrayList<>();
+            for (SimulatorPosition position : account.getPositionMap().values()) {
+                CrQueryCollateralResponse response = new CrQueryCollateralResponse();
+                response.setZqdm(position.getStockCode());
+                response.setZqmc(position.getStockName());
+                response.setMarket(position.getMarket());
+                response.setZqsl(String.valueOf(position.getVolume()));
+                response.setGfye(String.valueOf(position.getVolume()));
+                response.setGfky(String.valueOf(position.getAvailableVolume()));
+                response.setZxjg(format(position.getLastPrice(), 3));
+                response.setCbjg(format(position.getCostPrice(), 3));
+                response.setSz(format(position.getMarketValue(), 2));
+                response.setYk(format(position.getMarketValue() - position.getCost(), 2));
+                list.add(response);
+            }
+            return success(list);
+        });
+    }
+
+    @Override
+    public TradeResultVo<CrSubmitResponse> crSubmit(CrSubmitRequest request) {
+        return call(request.getMethod(), () -> brokerSimulator.submit(request.getUserId(), request, request.getStockName(), request.getXyjylx(), CrSubmitResponse::new));
+    }
+
+    @Override
+    public TradeResultVo<CrRevokeResponse> crRevoke(CrRevokeRequest request) {
+        return call(request.getMethod(), () -> brokerSimulator.revoke(request.getUserId(), request.getRevokes()));
+    }
+
+    @Override
+    public TradeResultVo<CrGetOrdersDataResponse> crGetOrdersData(CrGetOrdersDataRequest request) {
+        return call(request.getMethod(), () -> {
+            LocalDate today = brokerSimulator.getToday();
+            return success(toOrderList(brokerSimulator.getOrderList(request.getUserId(), today, today), CrGetOrdersDataResponse::new));
+        });
+    }
+
+    @Override
+    public TradeResultVo<CrGetDealDataResponse> crGetDealData(CrGetDealDataRequest request) {
+        return call(request.getMethod(), () -> {
+            LocalDate today = brokerSimulator.getToday();
+            return success(toDealList(brokerSimulator.getDealList(request.getUserId(), today, today), CrGetDealDataResponse::new));
+        });
+    }
+
+    @Override
+    public TradeResultVo<CrGetHisDealDataResponse> crGetHisDealData(CrGetHisDealDataRequest request) {
+        return call(request.getMethod(), () -> success(toDealList(brokerSimulator.getDealList(request.getUserId(),
+                parseDate(request.getSt()), getHistoryEndDate(request.getEt())), CrGetHisDealDataResponse::new)));
+    }
+
+    @Override
+    public TradeResultVo<CrGetHisOrdersDataResponse> crGetHisOrdersData(CrGetHisOrdersDataRequest request) {
+        return call(request.getMethod(), () -> {
+            List<SimulatorOrder> orderList = brokerSimulator.getOrderList(request.getUserId(),
+                    parseDate(request.getSt()), getHistoryEndDate(request.getEt()));
+            List<CrGetHisOrdersDataResponse> list = new ArrayList<>(orderList.size());
+            for (SimulatorOrder order : orderList) {
+                CrGetHisOrdersDataResponse response = new CrGetHisOrdersDataResponse();
+                response.setWtbh(order.getEntrustCode());
+                response.setWtxh(order.getEntrustCode());
+                response.setZqdm(order.getStockCode());
+                response.setZqmc(order.getStockName());
+                response.setMarket(order.getMarket());
+                response.setMmlb(order.getTradeType());
+                response.setXyjylx(order.getCreditType());
+                response.setWtsl(String.valueOf(order.getAmount()));
+                response.setCjsl(String.valueOf(order.getDealAmount()));
+                response.setCjjg(format(order.getDealPrice(), 3));
+                list.add(response);
+            }
+            return success(list);
+        });
+    }
+
+    @Override
+    public TradeResultVo<CrGetCanBuyNewStockListV3Response> crGetCanBuyNewStockListV3(CrGetCanBuyNewStockListV3Request request) {
+        return call(request.getMethod(), () -> {
+            CrGetCanBuyNewStockListV3Response response = new CrGetCanBuyNewStockListV3Response();
+            List<CrGetCanBuyNewStockListV3Response.NewQuotaInfo> quotaList = new ArrayList<>();
+            List<CrGetCanBuyNewStockListV3Response.NewStock> newStockList = new ArrayList<>();
+            for (String market : new String[] { "HA", "SA" }) {
+                CrGetCanBuyNewStockListV3Response.NewQuotaInfo quota = new CrGetCanBuyNewStockListV3Response.NewQuotaInfo();
+                quota.setMarket(market);
+                quota.setCustQuota("10000");
+                quota.setKcCustQuota("10000");
+                quotaList.add(quota);
+            }
+            for (int i = 0; i < simulatorProperties.getNewStockCount(); i++) {
+                CrGetCanBuyNewStockListV3Response.NewStock newStock = new CrGetCanBuyNewStockListV3Response.NewStock();
+                fillNewStock(i, newStock::setMarket, newStock::setZqdm, newStock::setSgdm, newStock::setZqmc, newStock::setFxj, newStock::setKsgsx);
+                newStockList.add(newStock);
+            }
+            response.setNewQuota(quotaList);
+            response.setNewStockList(newStockList);
+            return success(Collections.singletonList(response));
+        });
+    }
+
+    @Override
+    public TradeResultVo<CrGetConvertibleBondListV2Response> crGetConvertibleBondListV2(CrGetConvertibleBondListV2Request request) {
+        return call(request.getMethod(), () -> success(new ArrayList<>()));
+    }
+
+    @Override
+    public TradeResultVo<CrSubmitBatTradeV2Response> crSubmitBatTradeV2(CrSubmitBatTradeV2Request request) {
+        return call(request.getMethod(), () -> brokerSimulator.apply(request.getUserId(), request.getList(),
+                CrSubmitRequest.xyjylx_db_b));
+    }
+
+    private <T> TradeResultVo<T> call(String method, Supplier<TradeResultVo<T>> supplier) {
+        long min = simulatorProperties.getLatencyMin().toMillis();
+        long max = simulatorProperties.getLatencyMax().toMillis();
+        if (max > 0) {
+            try {
+                Thread.sleep(max > min ? ThreadLocalRandom.current().nextLong(min, max + 1) : max);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        double random = ThreadLocalRandom.current().nextDouble();
+        if (random < simulatorProperties.getUnauthorizedRate()) {
+            throw new UnauthorizedException("unauthorized " + method);
+        }
+        if (random < simulatorProperties.getUnauthorizedRate() + simulatorProperties.getErrorRate()) {
+            return BrokerSimulator.fail("模拟错误 " + method);
+        }
+        return supplier.get();
+    }
+
+    private static <T extends GetOrdersDataResponse> List<T> toOrderList(List<SimulatorOrder> orderList, Supplier<T> supplier) {
+        List<T> list = new ArrayList<>(orderList.size());
+        for (SimulatorOrder order : orderList) {
+            T response = supplier.get();
+            response.setWtbh(order.getEntrustCode());
+            response.setZqdm(order.getStockCode());
+            response.setZqmc(order.getStockName());
+            response.setMarket(order.getMarket());
+            response.setMmlb(order.getTradeType());
+            response.setWtjg(format(order.getPrice(), 3));
+            response.setWtsl(String.valueOf(order.getAmount()));
+            response.setWtzt(order.getState());
+            response.setWtsj(DateFormatUtils.format(order.getTime(), "HHmmss"));
+            if (response instanceof GetHisOrdersDataResponse) {
+                ((GetHisOrdersDataResponse) response).setWtrq(order.getDate().format(TRADE_DATE_FORMATTER));
+            }
+            if (response instanceof CrGetOrdersDataResponse) {
+                ((CrGetOrdersDataResponse) response).setXyjylx(order.getCreditType());
+            }
+            list.add(response);
+        }
+        return list;
+    }
+
+    private static <T extends GetDealDataResponse> List<T> toDealList(List<SimulatorDeal> dealList, Supplier<T> supplier) {
+        List<T> list = new ArrayList<>(dealList.size());
+        for (SimulatorDeal deal : dealList) {
+            SimulatorOrder order = deal.getOrder();
+            T response = supplier.get();
+            response.setWtbh(order.getEntrustCode());
+            response.setCjbh(deal.getDealCode());
+            response.setZqdm(order.getStockCode());
+            response.setZqmc(order.getStockName());
+            response.setMarket(order.getMarket());
+            response.setMmlb(order.getTradeType());
+            response.setCjjg(format(deal.getPrice(), 3));
+            response.setCjsl(String.valueOf(deal.getAmount()));
+            response.setWtsl(String.valueOf(order.getAmount()));
+            response.setCjsj(DateFormatUtils.format(deal.getTime(), "HHmmss"));
+            if (response instanceof GetHisDealDataResponse) {
+                ((GetHisDealDataResponse) response).setCjrq(deal.getDate().format(TRADE_DATE_FORMATTER));
+                ((GetHisDealDataResponse) response).setCjxh(deal.getDealCode());
+            }
+            if (response instanceof CrGetDealDataResponse) {
+                ((CrGetDealDataResponse) response).setWtxh(order.getEntrustCode());
+                ((CrGetDealDataResponse) response).setXyjylx(order.getCreditType());
+            }
+            if (response instanceof CrGetHisDealDataResponse) {
+                ((CrGetHisDealDataResponse) response).setCjrq(deal.getDate().format(TRADE_DATE_FORMATTER));
+            }
+            list.add(response);
+        }
+        return list;
+    }
+
+    private static void fillNewStock(int index, Consumer<String> market, Consumer<String> zqdm, Consumer<String> sgdm,
+            Consumer<String> zqmc, Consumer<String> fxj, Consumer<String> ksgsx) {
+        String code = String.format("7870%02d", index);
+        market.accept("HA");
+        zqdm.accept(code);
+        sgdm.accept(code);
+        zqmc.accept("模拟新股" + index);
+        fxj.accept("10.00");
+        ksgsx.accept("10000");
+    }
+
+    private LocalDate parseDate(String date) {
+        return LocalDate.parse(date, DATE_FORMATTER);
+    }
+
+    /**
+     * history never includes today
+     */
+    private LocalDate getHistoryEndDate(String date) {
+        LocalDate yesterday = brokerSimulator.getToday().minusDays(1);
+        LocalDate endDate = parseDate(date);
+        return endDate.isAfter(yesterday) ? yesterday : endDate;
+    }
+
+    private static double getMarketValue(SimulatorAccount account) {
+        return account.getPositionMap().values().stream().mapToDouble(SimulatorPosition::getMarketValue).sum();
+    }
+
+    private static String format(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static <T> TradeResultVo<T> success(List<T> list) {
+        TradeResultVo<T> resultVo = new TradeResultVo<>();
+        resultVo.setStatus(TradeResultVo.STATUS_SUCCESS);
+        resultVo.setCount(list.size());
+        resultVo.setData(list);
+        return resultVo;
+    }
+
+}
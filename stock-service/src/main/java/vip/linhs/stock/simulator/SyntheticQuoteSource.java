@@ -0,0 +1,28 @@
+package vip.linhs.stock.simulator;
+
+import java.util.Random;
+
+/**
+ * geometric random walk around the last price, rounded to the tick
+ */
+public class SyntheticQuoteSource implements QuoteSource {
+
+    private final Random random;
+    private final double volatility;
+    private final long volume;
+
+    public SyntheticQuoteSource(double volatility, long volume, long seed) {
+        this.random = new Random(seed);
+        this.volatility = volatility;
+        this.volume = volume;
+    }
+
+    @Override
+    public Quote next(String stockCode, double lastPrice) {
+        double price = lastPrice * Math.exp(volatility * random.nextGaussian());
+        price = Math.max(0.01, Math.round(price * 100) / 100.0);
+        long quoteVolume = Math.max(100, (long) (volume * (0.5 + random.nextDouble())) / 100 * 100);
+        return new Quote(stockCode, price, quoteVolume);
+    }
+
+}
@@ -0,0 +1,61 @@
+package vip.linhs.stock.tick;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * load-load and store-store fences looked up by reflection, VarHandle on
+ * java 9 and later, sun.misc.Unsafe on java 8
+ */
+final class Fences {
+
+    private static final MethodHandle LOAD_FENCE;
+    private static final MethodHandle STORE_FENCE;
+
+    static {
+        MethodHandle loadFence;
+        MethodHandle storeFence;
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodType type = MethodType.methodType(void.class);
+        try {
+            Class<?> varHandleClass = Class.forName("java.lang.invoke.VarHandle");
+            loadFence = lookup.findStatic(varHandleClass, "loadLoadFence", type);
+            storeFence = lookup.findStatic(varHandleClass, "storeStoreFence", type);
+        } catch (ReflectiveOperationException e) {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                Object unsafe = field.get(null);
+                loadFence = lookup.findVirtual(unsafeClass, "loadFence", type).bindTo(unsafe);
+                storeFence = lookup.findVirtual(unsafeClass, "storeFence", type).bindTo(unsafe);
+            } catch (ReflectiveOperationException ex) {
+                throw new ExceptionInInitializerError(ex);
+            }
+        }
+        LOAD_FENCE = loadFence;
+        STORE_FENCE = storeFence;
+    }
+
+    private Fences() {
+    }
+
+    static void loadFence() {
+        try {
+            Fences.LOAD_FENCE.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void storeFence() {
+        try {
+            Fences.STORE_FENCE.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
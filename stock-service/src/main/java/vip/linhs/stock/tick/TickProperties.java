@@ -0,0 +1,47 @@
+package vip.linhs.stock.tick;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "tick")
+public class TickProperties {
+
+    /**
+     * ticks held per symbol, 40 bytes each off heap
+     */
+    private int capacity = 4096;
+
+    /**
+     * symbols beyond this are not recorded
+     */
+    private int maxSymbols = 512;
+
+    /**
+     * directory of the end of day spill files, no spill when empty
+     */
+    private String spillDir;
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getMaxSymbols() {
+        return maxSymbols;
+    }
+
+    public void setMaxSymbols(int maxSymbols) {
+        this.maxSymbols = maxSymbols;
+    }
+
+    public String getSpillDir() {
+        return spillDir;
+    }
+
+    public void setSpillDir(String spillDir) {
+        this.spillDir = spillDir;
+    }
+
+}
@@ -0,0 +1,137 @@
+package vip.linhs.stock.tick;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * fixed size off-heap ring of quote ticks stored as packed longs, one
+ * writer thread, any number of readers that never lock. a slot is stamped
+ * with its sequence after the payload is written and cleared before it is
+ * overwritten, readers drop slots whose stamp changed under them
+ */
+public class TickRingBuffer {
+
+    // stamp, time, price, volume, value
+    static final int TICK_SIZE = 40;
+
+    private static final int STAMP_OFFSET = 0;
+    private static final int TIME_OFFSET = 8;
+    private static final int PRICE_OFFSET = 16;
+    private static final int VOLUME_OFFSET = 24;
+    private static final int VALUE_OFFSET = 32;
+
+    private static final long EMPTY_STAMP = -1;
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+
+    /**
+     * sequence of the next tick, everything below it is readable
+     */
+    private final AtomicLong published = new AtomicLong();
+
+    private long lastPrice = Long.MIN_VALUE;
+    private long lastVolume = Long.MIN_VALUE;
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public TickRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 24)) {
+            throw new IllegalArgumentException("capacity " + capacity);
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = this.capacity - 1;
+        this.buffer = ByteBuffer.allocateDirect(this.capacity * TickRingBuffer.TICK_SIZE).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < this.capacity; i++) {
+            buffer.putLong(i * TickRingBuffer.TICK_SIZE + TickRingBuffer.STAMP_OFFSET, TickRingBuffer.EMPTY_STAMP);
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * sequence the next append gets
+     */
+    public long getNextSequence() {
+        return published.get();
+    }
+
+    /**
+     * oldest sequence still held
+     */
+    public long getFirstSequence() {
+        return Math.max(0, published.get() - capacity);
+    }
+
+    /**
+     * writer thread only
+     *
+     * @param price in 1/1000 yuan
+     * @return the sequence of the tick, -1 when price and volume did not
+     * change since the last one
+     */
+    public long append(long time, long price, long volume, double value) {
+        if (price == lastPrice && volume == lastVolume) {
+            return -1;
+        }
+        lastPrice = price;
+        lastVolume = volume;
+
+        long sequence = published.get();
+        int offset = (int) (sequence & mask) * TickRingBuffer.TICK_SIZE;
+        buffer.putLong(offset + TickRingBuffer.STAMP_OFFSET, TickRingBuffer.EMPTY_STAMP);
+        Fences.storeFence();
+        buffer.putLong(offset + TickRingBuffer.TIME_OFFSET, time);
+        buffer.putLong(offset + TickRingBuffer.PRICE_OFFSET, price);
+        buffer.putLong(offset + TickRingBuffer.VOLUME_OFFSET, volume);
+        buffer.putLong(offset + TickRingBuffer.VALUE_OFFSET, Double.doubleToRawLongBits(value));
+        Fences.storeFence();
+        buffer.putLong(offset + TickRingBuffer.STAMP_OFFSET, sequence);
+        published.set(sequence + 1);
+        return sequence;
+    }
+
+    /**
+     * visits ticks from the sequence on, starting at the oldest one held
+     * when it was already overwritten
+     *
+     * @return the sequence to read from next time
+     */
+    public long read(long fromSequence, TickVisitor visitor) {
+        return read(fromSequence, Integer.MAX_VALUE, visitor);
+    }
+
+    public long read(long fromSequence, int limit, TickVisitor visitor) {
+        long end = published.get();
+        long sequence = Math.max(fromSequence, end - capacity);
+        int count = 0;
+        for (; sequence < end && count < limit; sequence++) {
+            int offset = (int) (sequence & mask) * TickRingBuffer.TICK_SIZE;
+            long stamp = buffer.getLong(offset + TickRingBuffer.STAMP_OFFSET);
+            Fences.loadFence();
+            long time = buffer.getLong(offset + TickRingBuffer.TIME_OFFSET);
+            long price = buffer.getLong(offset + TickRingBuffer.PRICE_OFFSET);
+            long volume = buffer.getLong(offset + TickRingBuffer.VOLUME_OFFSET);
+            long value = buffer.getLong(offset + TickRingBuffer.VALUE_OFFSET);
+            Fences.loadFence();
+            if (stamp != sequence || buffer.getLong(offset + TickRingBuffer.STAMP_OFFSET) != sequence) {
+                // lapped by the writer, the slot is lost, carry on with the oldest held
+                sequence = Math.max(sequence + 1, published.get() - capacity) - 1;
+                continue;
+            }
+            visitor.visit(sequence, time, price, volume, Double.longBitsToDouble(value));
+            count++;
+        }
+        return sequence;
+    }
+
+}
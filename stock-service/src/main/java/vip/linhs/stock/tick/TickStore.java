@@ -0,0 +1,277 @@
+package vip.linhs.stock.tick;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.DateFormatUtils;
+import org.apache.commons.lang3.time.DateUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.exception.ServiceException;
+import vip.linhs.stock.model.po.DailyIndex;
+
+/**
+ * intraday quote ticks of the subscribed symbols, one {@link TickRingBuffer}
+ * each. writes to a symbol are serialized, reads never lock
+ */
+@Component
+public class TickStore {
+
+    private final Logger logger = LoggerFactory.getLogger(TickStore.class);
+
+    private static final int SPILL_MAGIC = 0x54494b31;
+
+    @Autowired
+    private TickProperties tickProperties;
+
+    private final Map<String, TickRingBuffer> bufferMap = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> subscriptionMap = new ConcurrentHashMap<>();
+    private volatile Set<String> subscribedSet = Collections.emptySet();
+
+    /**
+     * replaces the symbols of the subscriber, full codes
+     */
+    public void subscribe(String subscriber, Collection<String> codeList) {
+        synchronized (subscriptionMap) {
+            subscriptionMap.put(subscriber, new HashSet<>(codeList));
+            Set<String> set = new HashSet<>();
+            subscriptionMap.values().forEach(set::addAll);
+            subscribedSet = set;
+        }
+    }
+
+    public boolean isSubscribed(String code) {
+        return subscribedSet.contains(code);
+    }
+
+    /**
+     * keeps the quotes of subscribed symbols, others are ignored
+     */
+    public void record(List<DailyIndex> dailyIndexList) {
+        Set<String> set = subscribedSet;
+        if (set.isEmpty()) {
+            return;
+        }
+        for (DailyIndex dailyIndex : dailyIndexList) {
+            if (!set.contains(dailyIndex.getCode()) || dailyIndex.getClosingPrice() == null) {
+                continue;
+            }
+            TickRingBuffer buffer = getOrCreateBuffer(dailyIndex.getCode());
+            if (buffer == null) {
+                continue;
+            }
+            long time = dailyIndex.getQuoteTime() != null ? dailyIndex.getQuoteTime().getTime() : System.currentTimeMillis();
+            long price = dailyIndex.getClosingPrice().movePointRight(3).longValue();
+            double value = dailyIndex.getTradingValue() != null ? dailyIndex.getTradingValue().doubleValue() : 0;
+            synchronized (buffer) {
+                buffer.append(time, price, dailyIndex.getTradingVolume(), value);
+            }
+        }
+    }
+
+    /**
+     * @return the sequence to read from next time, fromSequence when the
+     * symbol has no ticks
+     */
+    public long read(String code, long fromSequence, int limit, TickVisitor visitor) {
+        TickRingBuffer buffer = bufferMap.get(code);
+        return buffer == null ? fromSequence : buffer.read(fromSequence, limit, visitor);
+    }
+
+    public TickRingBuffer getBuffer(String code) {
+        return bufferMap.get(code);
+    }
+
+    public List<String> getCodeList() {
+        return new ArrayList<>(bufferMap.keySet());
+    }
+
+    public static BigDecimal toPrice(long price) {
+        return BigDecimal.valueOf(price, 3);
+    }
+
+    /**
+     * writes today's ticks of every symbol to spill-dir/ticks-yyyyMMdd.bin.gz,
+     * running it again the same day rewrites the file
+     */
+    public void spill() {
+        if (StringUtils.isEmpty(tickProperties.getSpillDir())) {
+            return;
+        }
+        Date date = new Date();
+        long startTime = DateUtils.truncate(date, Calendar.DATE).getTime();
+        File dir = new File(tickProperties.getSpillDir());
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new ServiceException("create tick spill dir error " + dir);
+        }
+        File file = new File(dir, "ticks-" + DateFormatUtils.format(date, "yyyyMMdd") + ".bin.gz");
+        File tmpFile = new File(dir, file.getName() + ".tmp");
+
+        int symbolCount = 0;
+        long tickCount = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(tmpFile))))) {
+            out.writeInt(TickStore.SPILL_MAGIC);
+            for (Map.Entry<String, TickRingBuffer> entry : bufferMap.entrySet()) {
+                SpillWriter writer = new SpillWriter(startTime);
+                entry.getValue().read(0, writer);
+                if (writer.count == 0) {
+                    continue;
+                }
+                out.writeBoolean(true);
+                out.writeUTF(entry.getKey());
+                TickStore.writeVarLong(out, writer.count);
+                writer.body.writeTo(out);
+                symbolCount++;
+                tickCount += writer.count;
+            }
+            out.writeBoolean(false);
+        } catch (IOException e) {
+            throw new ServiceException("spill ticks error", e);
+        }
+        if (file.exists() && !file.delete() || !tmpFile.renameTo(file)) {
+            throw new ServiceException("replace tick spill file error " + file);
+        }
+        logger.info("spill {} ticks of {} symbols to {}", tickCount, symbolCount, file);
+    }
+
+    /**
+     * visits the spilled ticks of one symbol, the sequence is the position
+     * in the file
+     *
+     * @return number of ticks visited
+     */
+    public static long readSpill(File file, String code, TickVisitor visitor) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != TickStore.SPILL_MAGIC) {
+                throw new ServiceException("not a tick spill file " + file);
+            }
+            while (in.readBoolean()) {
+                String spilledCode = in.readUTF();
+                long count = TickStore.readVarLong(in);
+                boolean match = spilledCode.equals(code);
+                long time = 0;
+                long price = 0;
+                long volume = 0;
+                for (long i = 0; i < count; i++) {
+                    time += TickStore.readVarLong(in);
+                    price += TickStore.readVarLong(in);
+                    volume += TickStore.readVarLong(in);
+                    double value = in.readDouble();
+                    if (match) {
+                        visitor.visit(i, time, price, volume, value);
+                    }
+                }
+                if (match) {
+                    return count;
+                }
+            }
+            return 0;
+        } catch (EOFException e) {
+            throw new ServiceException("truncated tick spill file " + file, e);
+        } catch (IOException e) {
+            throw new ServiceException("read tick spill file error " + file, e);
+        }
+    }
+
+    private TickRingBuffer getOrCreateBuffer(String code) {
+        TickRingBuffer buffer = bufferMap.get(code);
+        if (buffer != null) {
+            return buffer;
+        }
+        synchronized (bufferMap) {
+            buffer = bufferMap.get(code);
+            if (buffer == null) {
+                if (bufferMap.size() >= tickProperties.getMaxSymbols()) {
+                    logger.warn("tick store full, {} not recorded", code);
+                    return null;
+                }
+                buffer = new TickRingBuffer(tickProperties.getCapacity());
+                bufferMap.put(code, buffer);
+            }
+            return buffer;
+        }
+    }
+
+    // zigzag varint, the deltas between ticks are mostly one or two bytes
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (v >>> 1) ^ -(v & 1);
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    private static class SpillWriter implements TickVisitor {
+
+        private final long startTime;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(body);
+        private long count;
+        private long lastTime;
+        private long lastPrice;
+        private long lastVolume;
+
+        private SpillWriter(long startTime) {
+            this.startTime = startTime;
+        }
+
+        @Override
+        public void visit(long sequence, long time, long price, long volume, double value) {
+            if (time < startTime) {
+                return;
+            }
+            try {
+                TickStore.writeVarLong(out, time - lastTime);
+                TickStore.writeVarLong(out, price - lastPrice);
+                TickStore.writeVarLong(out, volume - lastVolume);
+                out.writeDouble(value);
+            } catch (IOException e) {
+                throw new ServiceException("spill ticks error", e);
+            }
+            lastTime = time;
+            lastPrice = price;
+            lastVolume = volume;
+            count++;
+        }
+
+    }
+
+}
@@ -0,0 +1,14 @@
+package vip.linhs.stock.tick;
+
+/**
+ * takes the fields of a tick one by one so reading allocates nothing
+ */
+@FunctionalInterface
+public interface TickVisitor {
+
+    /**
+     * @param price in 1/1000 yuan
+     */
+    void visit(long sequence, long time, long price, long volume, double value);
+
+}
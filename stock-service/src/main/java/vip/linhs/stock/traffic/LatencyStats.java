@@ -0,0 +1,43 @@
+package vip.linhs.stock.traffic;
+
+import java.util.Arrays;
+
+/**
+ * latency samples in milliseconds, thread safe
+ */
+public class LatencyStats {
+
+    private long[] samples = new long[256];
+    private int size;
+
+    public synchronized void add(long millis) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = millis;
+    }
+
+    public synchronized int count() {
+        return size;
+    }
+
+    /**
+     * nearest rank, p in (0, 100]
+     */
+    public synchronized long percentile(double p) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(p / 100 * size);
+        return sorted[Math.max(0, Math.min(size, rank) - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d p50=%dms p90=%dms p99=%dms max=%dms",
+                count(), percentile(50), percentile(90), percentile(99), percentile(100));
+    }
+
+}
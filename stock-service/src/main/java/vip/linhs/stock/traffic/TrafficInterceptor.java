@@ -0,0 +1,30 @@
+package vip.linhs.stock.traffic;
+
+/**
+ * hook of HttpUtil, see HttpUtil.setTrafficInterceptor
+ */
+public interface TrafficInterceptor {
+
+    /**
+     * @return the url actually requested
+     */
+    default String rewrite(String url) {
+        return url;
+    }
+
+    /**
+     * called after every request sent by HttpUtil
+     *
+     * @param requestBody null for get
+     * @param elapsed milliseconds
+     */
+    default void onExchange(String method, String url, String requestBody, int status, String responseBody, long elapsed) {
+    }
+
+    /**
+     * called after a streamed get, e.g. a captcha image
+     */
+    default void onBinaryExchange(String method, String url, int status, byte[] responseBody, long elapsed) {
+    }
+
+}
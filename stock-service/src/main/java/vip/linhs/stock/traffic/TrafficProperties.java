@@ -0,0 +1,63 @@
+package vip.linhs.stock.traffic;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "traffic")
+public class TrafficProperties {
+
+    public static final String MODE_CAPTURE = "capture";
+    public static final String MODE_REPLAY = "replay";
+
+    /**
+     * capture or replay, off when empty
+     */
+    private String mode;
+
+    /**
+     * one json record per line, gzip when the name ends with .gz
+     */
+    private String file;
+
+    /**
+     * replay speed, 2 answers twice as fast as recorded, 0 answers at once
+     */
+    private double speed = 1;
+
+    /**
+     * port of the replay server, 0 picks a free one
+     */
+    private int port = 0;
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(double speed) {
+        this.speed = speed;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+}
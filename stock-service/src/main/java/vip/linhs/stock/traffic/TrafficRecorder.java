@@ -0,0 +1,139 @@
+package vip.linhs.stock.traffic;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Base64;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.alibaba.fastjson.JSON;
+
+import vip.linhs.stock.exception.ServiceException;
+import vip.linhs.stock.util.HttpUtil;
+
+/**
+ * writes every HttpUtil exchange to traffic.file when traffic.mode=capture
+ */
+@Component
+@ConditionalOnProperty(prefix = "traffic", name = "mode", havingValue = TrafficProperties.MODE_CAPTURE)
+public class TrafficRecorder implements TrafficInterceptor {
+
+    private final Logger logger = LoggerFactory.getLogger(TrafficRecorder.class);
+
+    @Autowired
+    private TrafficProperties trafficProperties;
+
+    private static final String MASK = "***";
+    private static final String SECRET_NAMES = "password|identifyCode|randNumber|authCode|cookie|validatekey";
+    private static final Pattern FORM_PATTERN = Pattern.compile("(?i)(^|[?&])(" + TrafficRecorder.SECRET_NAMES + ")=[^&]*");
+    private static final Pattern JSON_PATTERN = Pattern.compile("(?i)(\"(?:" + TrafficRecorder.SECRET_NAMES + ")\"\\s*:\\s*)\"[^\"]*\"");
+    private static final Pattern VALIDATE_KEY_PATTERN = Pattern.compile("(id=\"em_validatekey\" type=\"hidden\" value=\")[^\"]*");
+
+    private Writer writer;
+
+    private long startTime;
+
+    private long count;
+
+    @PostConstruct
+    public void init() {
+        Path path = Paths.get(trafficProperties.getFile());
+        try {
+            OutputStream outputStream = Files.newOutputStream(path);
+            if (path.toString().endsWith(".gz")) {
+                outputStream = new GZIPOutputStream(outputStream, true);
+            }
+            writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new ServiceException("open traffic file " + path + " error", e);
+        }
+        startTime = System.currentTimeMillis();
+        HttpUtil.setTrafficInterceptor(this);
+        logger.warn("traffic capture to {}", path);
+    }
+
+    @Override
+    public void onExchange(String method, String url, String requestBody, int status, String responseBody, long elapsed) {
+        TrafficRecord record = new TrafficRecord();
+        record.setMethod(method);
+        record.setUrl(TrafficRecorder.redact(url));
+        record.setRequestBody(TrafficRecorder.redact(requestBody));
+        record.setStatus(status);
+        record.setResponseBody(TrafficRecorder.redact(responseBody));
+        record.setElapsed(elapsed);
+        write(record);
+    }
+
+    @Override
+    public void onBinaryExchange(String method, String url, int status, byte[] responseBody, long elapsed) {
+        TrafficRecord record = new TrafficRecord();
+        record.setMethod(method);
+        record.setUrl(TrafficRecorder.redact(url));
+        record.setStatus(status);
+        record.setResponseBody(Base64.getEncoder().encodeToString(responseBody));
+        record.setBinary(true);
+        record.setElapsed(elapsed);
+        write(record);
+    }
+
+    /**
+     * masks passwords, captcha answers, cookies and the validate key in form
+     * params, json fields and the login page, replay applies the same to
+     * request bodies so exact matches still work
+     */
+    public static String redact(String text) {
+        if (text == null) {
+            return null;
+        }
+        text = TrafficRecorder.FORM_PATTERN.matcher(text).replaceAll("$1$2=" + TrafficRecorder.MASK);
+        text = TrafficRecorder.JSON_PATTERN.matcher(text).replaceAll("$1\"" + TrafficRecorder.MASK + "\"");
+        return TrafficRecorder.VALIDATE_KEY_PATTERN.matcher(text).replaceAll("$1" + TrafficRecorder.MASK);
+    }
+
+    private void write(TrafficRecord record) {
+        long elapsed = record.getElapsed();
+        synchronized (this) {
+            if (writer == null) {
+                return;
+            }
+            record.setOffset(System.currentTimeMillis() - elapsed - startTime);
+            try {
+                writer.write(JSON.toJSONString(record));
+                writer.write('\n');
+                writer.flush();
+                count++;
+            } catch (IOException e) {
+                logger.error("write traffic record error", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        HttpUtil.setTrafficInterceptor(null);
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.error("close traffic file error", e);
+        }
+        writer = null;
+        logger.info("traffic capture closed, {} records", count);
+    }
+
+}
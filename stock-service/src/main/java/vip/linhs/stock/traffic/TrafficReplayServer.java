@@ -0,0 +1,193 @@
+package vip.linhs.stock.traffic;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import com.alibaba.fastjson.JSON;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import vip.linhs.stock.exception.ServiceException;
+import vip.linhs.stock.util.HttpUtil;
+
+/**
+ * local http stand-in serving a captured traffic file when
+ * traffic.mode=replay, HttpUtil requests are rewritten to
+ * http://127.0.0.1:port/scheme/host/path?query
+ *
+ * a request gets the next record with the same method, url and body, or
+ * else the next record with the same method and path, answered after the
+ * recorded elapsed time divided by traffic.speed
+ */
+@Component
+@ConditionalOnProperty(prefix = "traffic", name = "mode", havingValue = TrafficProperties.MODE_REPLAY)
+public class TrafficReplayServer implements TrafficInterceptor {
+
+    private final Logger logger = LoggerFactory.getLogger(TrafficReplayServer.class);
+
+    @Autowired
+    private TrafficProperties trafficProperties;
+
+    private final Map<String, RecordList> exactMap = new HashMap<>();
+    private final Map<String, RecordList> routeMap = new HashMap<>();
+
+    private HttpServer httpServer;
+    private ExecutorService executorService;
+    private String baseUrl;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path path = Paths.get(trafficProperties.getFile());
+        List<TrafficRecord> list = TrafficReplayServer.read(path);
+        for (TrafficRecord record : list) {
+            exactMap.computeIfAbsent(TrafficReplayServer.getExactKey(record.getMethod(), record.getUrl(), record.getRequestBody()),
+                    k -> new RecordList()).list.add(record);
+            routeMap.computeIfAbsent(TrafficReplayServer.getRouteKey(record.getMethod(), record.getUrl()),
+                    k -> new RecordList()).list.add(record);
+        }
+
+        executorService = Executors.newCachedThreadPool();
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", trafficProperties.getPort()), 0);
+        httpServer.createContext("/", this::handle);
+        httpServer.setExecutor(executorService);
+        httpServer.start();
+        baseUrl = "http://127.0.0.1:" + httpServer.getAddress().getPort();
+        HttpUtil.setTrafficInterceptor(this);
+        logger.warn("traffic replay of {} records from {} at {}", list.size(), path, baseUrl);
+    }
+
+    @PreDestroy
+    public void close() {
+        HttpUtil.setTrafficInterceptor(null);
+        httpServer.stop(0);
+        executorService.shutdownNow();
+    }
+
+    @Override
+    public String rewrite(String url) {
+        URI uri = URI.create(url);
+        StringBuilder sb = new StringBuilder(baseUrl).append('/').append(uri.getScheme()).append('/').append(uri.getRawAuthority());
+        if (uri.getRawPath() != null) {
+            sb.append(uri.getRawPath());
+        }
+        if (uri.getRawQuery() != null) {
+            sb.append('?').append(uri.getRawQuery());
+        }
+        return sb.toString();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            URI uri = exchange.getRequestURI();
+            String[] parts = uri.getRawPath().split("/", 4);
+            String url = parts[1] + "://" + parts[2] + "/" + (parts.length > 3 ? parts[3] : "")
+                    + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+            String method = exchange.getRequestMethod();
+            String body = null;
+            if (!"GET".equals(method)) {
+                body = TrafficRecorder.redact(StreamUtils.copyToString(exchange.getRequestBody(), StandardCharsets.UTF_8));
+            }
+            url = TrafficRecorder.redact(url);
+
+            TrafficRecord record = next(exactMap.get(TrafficReplayServer.getExactKey(method, url, body)));
+            if (record == null) {
+                record = next(routeMap.get(TrafficReplayServer.getRouteKey(method, url)));
+            }
+            if (record == null) {
+                logger.warn("no traffic record of {} {}", method, url);
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            if (trafficProperties.getSpeed() > 0 && record.getElapsed() > 0) {
+                Thread.sleep((long) (record.getElapsed() / trafficProperties.getSpeed()));
+            }
+            byte[] bytes;
+            if (record.getResponseBody() == null) {
+                bytes = new byte[0];
+            } else if (record.isBinary()) {
+                bytes = Base64.getDecoder().decode(record.getResponseBody());
+            } else {
+                bytes = record.getResponseBody().getBytes(StandardCharsets.UTF_8);
+            }
+            exchange.getResponseHeaders().add("Content-Type", record.isBinary() ? "application/octet-stream" : "text/plain; charset=UTF-8");
+            exchange.sendResponseHeaders(record.getStatus() > 0 ? record.getStatus() : 200, bytes.length > 0 ? bytes.length : -1);
+            if (bytes.length > 0) {
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(bytes);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    public static List<TrafficRecord> read(Path path) {
+        List<TrafficRecord> list = new ArrayList<>();
+        try (InputStream inputStream = path.toString().endsWith(".gz") ? new GZIPInputStream(Files.newInputStream(path)) : Files.newInputStream(path);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    list.add(JSON.parseObject(line, TrafficRecord.class));
+                }
+            }
+        } catch (IOException e) {
+            throw new ServiceException("read traffic file " + path + " error", e);
+        }
+        return list;
+    }
+
+    private static TrafficRecord next(RecordList recordList) {
+        if (recordList == null) {
+            return null;
+        }
+        int index = recordList.cursor.getAndIncrement();
+        return recordList.list.get(Math.floorMod(index, recordList.list.size()));
+    }
+
+    private static String getExactKey(String method, String url, String body) {
+        return method + ' ' + url + ' ' + (body == null ? "" : body);
+    }
+
+    private static String getRouteKey(String method, String url) {
+        int index = url.indexOf('?');
+        return method + ' ' + (index < 0 ? url : url.substring(0, index));
+    }
+
+    private static class RecordList {
+        private final List<TrafficRecord> list = new ArrayList<>();
+        private final AtomicInteger cursor = new AtomicInteger();
+    }
+
+}
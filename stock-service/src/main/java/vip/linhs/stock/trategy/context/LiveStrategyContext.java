@@ -0,0 +1,74 @@
+package vip.linhs.stock.trategy.context;
+
+import java.util.Date;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import vip.linhs.stock.model.po.TradeOrder;
+import vip.linhs.stock.service.MessageService;
+import vip.linhs.stock.service.StockService;
+import vip.linhs.stock.service.TradeApiService;
+import vip.linhs.stock.service.TradeService;
+import vip.linhs.stock.util.StockUtil;
+
+@Component
+public class LiveStrategyContext implements StrategyContext {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveStrategyContext.class);
+
+    @Autowired
+    private TradeApiService tradeApiService;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private MessageService messageServicve;
+
+    @Override
+    public TradeApiService getTradeApiService() {
+        return tradeApiService;
+    }
+
+    @Override
+    public List<TradeOrder> getLastTradeOrderList(int ruleId, int userId) {
+        return tradeService.getLastTradeOrderListByRuleId(ruleId, userId);
+    }
+
+    @Override
+    public void saveTradeOrderList(List<TradeOrder> tradeOrderList) {
+        tradeService.saveTradeOrderList(tradeOrderList);
+    }
+
+    @Override
+    public String getStockName(String stockCode) {
+        return stockService.getStockByFullCode(StockUtil.getFullCode(stockCode)).getName();
+    }
+
+    @Override
+    public void sendMessage(String message) {
+        try {
+            messageServicve.send(message);
+        } catch (Exception e) {
+            logger.error("send message error", e);
+        }
+    }
+
+    @Override
+    public Date now() {
+        return new Date();
+    }
+
+    @Override
+    public boolean isLive() {
+        return true;
+    }
+
+}
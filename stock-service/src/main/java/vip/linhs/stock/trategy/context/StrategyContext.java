@@ -0,0 +1,34 @@
+package vip.linhs.stock.trategy.context;
+
+import java.util.Date;
+import java.util.List;
+
+import vip.linhs.stock.model.po.TradeOrder;
+import vip.linhs.stock.service.TradeApiService;
+
+/**
+ * everything a strategy handler reads from or writes to the outside world
+ */
+public interface StrategyContext {
+
+    TradeApiService getTradeApiService();
+
+    /**
+     * 60 day, yibao yicheng, latest first
+     */
+    List<TradeOrder> getLastTradeOrderList(int ruleId, int userId);
+
+    void saveTradeOrderList(List<TradeOrder> tradeOrderList);
+
+    String getStockName(String stockCode);
+
+    void sendMessage(String message);
+
+    Date now();
+
+    /**
+     * false when simulating, handlers keep quiet then
+     */
+    boolean isLive();
+
+}
@@ -0,0 +1,26 @@
+package vip.linhs.stock.trategy.context;
+
+/**
+ * binds a non-live context to the current thread, handlers fall back to
+ * the live context when nothing is bound
+ */
+public class StrategyContextHolder {
+
+    private static final ThreadLocal<StrategyContext> CONTEXT = new ThreadLocal<>();
+
+    private StrategyContextHolder() {
+    }
+
+    public static StrategyContext get() {
+        return CONTEXT.get();
+    }
+
+    public static void set(StrategyContext context) {
+        CONTEXT.set(context);
+    }
+
+    public static void clear() {
+        CONTEXT.remove();
+    }
+
+}
@@ -1,40 +1,53 @@
 package vip.linhs.stock.trategy.handle;
 
+import java.util.Date;
+import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import vip.linhs.stock.api.TradeResultVo;
 import vip.linhs.stock.api.request.CrGetDealDataRequest;
 import vip.linhs.stock.api.request.CrGetOrdersDataRequest;
-import vip.linhs.stock.api.request.CrRevokeRequest;
 import vip.linhs.stock.api.request.CrSubmitRequest;
 import vip.linhs.stock.api.request.SubmitRequest;
 import vip.linhs.stock.api.response.CrGetDealDataResponse;
 import vip.linhs.stock.api.response.CrGetOrdersDataResponse;
-import vip.linhs.stock.api.response.CrRevokeResponse;
 import vip.linhs.stock.api.response.CrSubmitResponse;
 import vip.linhs.stock.api.response.GetDealDataResponse;
 import vip.linhs.stock.api.response.GetOrdersDataResponse;
 import vip.linhs.stock.api.response.RevokeResponse;
 import vip.linhs.stock.api.response.SubmitResponse;
+import vip.linhs.stock.risk.MarginRiskMonitor;
 
 @Component("crGridStrategyHandler")
 public class CrGridStrategyHandler extends GridStrategyHandler {
 
+    @Autowired
+    private MarginRiskMonitor marginRiskMonitor;
+
     @Override
     public TradeResultVo<GetOrdersDataResponse> getOrderData(int userId) {
-         TradeResultVo<CrGetOrdersDataResponse> tradeResultVo = tradeApiService.crGetOrdersData(new CrGetOrdersDataRequest(userId));
+         TradeResultVo<CrGetOrdersDataResponse> tradeResultVo = getTradeApiService().crGetOrdersData(new CrGetOrdersDataRequest(userId));
          return buildResult(tradeResultVo);
     }
 
     @Override
     public TradeResultVo<GetDealDataResponse> getDealData(int userId) {
-        TradeResultVo<CrGetDealDataResponse> tradeResultVo =  tradeApiService.crGetDealData(new CrGetDealDataRequest(userId));
+        TradeResultVo<CrGetDealDataResponse> tradeResultVo =  getTradeApiService().crGetDealData(new CrGetDealDataRequest(userId));
          return buildResult(tradeResultVo);
     }
 
+    @Override
+    protected String checkSubmit(SubmitRequest request) {
+        if (SubmitRequest.B.equals(request.getTradeType()) && marginRiskMonitor.isBuyPaused(request.getUserId())) {
+            return "financed buy paused by margin risk";
+        }
+        return null;
+    }
+
     @Override
     protected TradeResultVo<SubmitResponse> submit(SubmitRequest request) {
         CrSubmitRequest crRequest = new CrSubmitRequest(request.getUserId());
@@ -46,17 +59,13 @@ public class CrGridStrategyHandler extends GridStrategyHandler {
             crRequest.setTradeInfo(CrSubmitRequest.xyjylx_hk_s);
         }
 
-        TradeResultVo<CrSubmitResponse> tradeResultVo = tradeApiService.crSubmit(crRequest);
+        TradeResultVo<CrSubmitResponse> tradeResultVo = getTradeApiService().crSubmit(crRequest);
         return buildResult(tradeResultVo);
     }
 
     @Override
-    protected TradeResultVo<RevokeResponse> revoke(int userId, String revokes) {
-        CrRevokeRequest request = new CrRevokeRequest(userId);
-        request.setRevokes(revokes);
-
-        TradeResultVo<CrRevokeResponse> tradeResultVo = tradeApiService.crRevoke(request);
-        return buildResult(tradeResultVo);
+    protected TradeResultVo<RevokeResponse> revoke(int userId, Date date, List<String> entrustCodeList) {
+        return getTradeApiService().crRevokeBatch(userId, date, entrustCodeList);
     }
 
     @Override
@@ -64,6 +73,11 @@ public class CrGridStrategyHandler extends GridStrategyHandler {
         return "cr";
     }
 
+    @Override
+    protected boolean isCr() {
+        return true;
+    }
+
     private <T> TradeResultVo<T> buildResult(TradeResultVo<? extends T> tradeResultVo) {
         TradeResultVo<T> resultVo =  new TradeResultVo<>();
          resultVo.setStatus(tradeResultVo.getStatus());
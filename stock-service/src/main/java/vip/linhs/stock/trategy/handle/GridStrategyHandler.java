@@ -8,7 +8,6 @@ import java.util.Optional;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
-import org.apache.commons.lang3.time.DateFormatUtils;
 import org.apache.commons.lang3.time.DateUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,10 +26,11 @@ import vip.linhs.stock.api.response.SubmitResponse;
 import vip.linhs.stock.exception.ServiceException;
 import vip.linhs.stock.model.po.TradeOrder;
 import vip.linhs.stock.model.vo.trade.TradeRuleVo;
-import vip.linhs.stock.service.MessageService;
-import vip.linhs.stock.service.StockService;
+import vip.linhs.stock.risk.PreTradeRiskEngine;
 import vip.linhs.stock.service.TradeApiService;
-import vip.linhs.stock.service.TradeService;
+import vip.linhs.stock.trategy.context.LiveStrategyContext;
+import vip.linhs.stock.trategy.context.StrategyContext;
+import vip.linhs.stock.trategy.context.StrategyContextHolder;
 import vip.linhs.stock.trategy.model.GridStrategyInput;
 import vip.linhs.stock.trategy.model.GridStrategyResult;
 import vip.linhs.stock.trategy.model.StrategySubmitResult;
@@ -46,16 +46,10 @@ public class GridStrategyHandler extends BaseStrategyHandler<GridStrategyInput,
     private static final Logger logger = LoggerFactory.getLogger(GridStrategyHandler.class);
 
     @Autowired
-    private MessageService messageServicve;
+    private LiveStrategyContext liveStrategyContext;
 
     @Autowired
-    protected TradeApiService tradeApiService;
-
-    @Autowired
-    private TradeService tradeService;
-
-    @Autowired
-    private StockService stockService;
+    private PreTradeRiskEngine preTradeRiskEngine;
 
     @Override
     public GridStrategyInput queryInput(TradeRuleVo tradeRuleVo) {
@@ -73,7 +67,7 @@ public class GridStrategyHandler extends BaseStrategyHandler<GridStrategyInput,
                 .stream().filter(v -> v.getZqdm().equals(tradeRuleVo.getStockCode())).collect(Collectors.toList()));
 
         // 30 day, yibao yicheng
-        List<TradeOrder> tradeOrderList = tradeService.getLastTradeOrderListByRuleId(tradeRuleVo.getId(), tradeRuleVo.getUserId());
+        List<TradeOrder> tradeOrderList = getContext().getLastTradeOrderList(tradeRuleVo.getId(), tradeRuleVo.getUserId());
 
         updateTradeState(tradeOrderList, dealDataList, orderData.getData());
 
@@ -85,7 +79,8 @@ public class GridStrategyHandler extends BaseStrategyHandler<GridStrategyInput,
     }
 
     private void updateTradeState(List<TradeOrder> tradeOrderList, List<GetDealDataResponse> dealDataList, List<GetOrdersDataResponse> orderDataList) {
-        long last5MinTime = DateUtils.addMinutes(new Date(), -1).getTime();
+        Date now = getContext().now();
+        long last5MinTime = DateUtils.addMinutes(now, -1).getTime();
         for (TradeOrder tradeOrder : tradeOrderList) {
             GetDealDataResponse dealData = getByCondition(dealDataList, v -> tradeOrder.getEntrustCode().equals(v.getWtbh()));
             if (dealData != null) {
@@ -105,7 +100,7 @@ public class GridStrategyHandler extends BaseStrategyHandler<GridStrategyInput,
             }
 
             if (!tradeOrder.isDealed()) {
-                if (!DateUtils.isSameDay(tradeOrder.getTradeTime(), new Date())) {
+                if (!DateUtils.isSameDay(tradeOrder.getTradeTime(), now)) {
                     tradeOrder.setTradeState(GetOrdersDataResponse.YICHE);
                 } else {
                     GetOrdersDataResponse orderData = getByCondition(orderDataList, v -> tradeOrder.getEntrustCode().equals(v.getWtbh()));
@@ -156,7 +151,7 @@ public class GridStrategyHandler extends BaseStrategyHandler<GridStrategyInput,
         }
 
         if (!isHandle) {
-            String dealCode = "m" + System.currentTimeMillis();
+            String dealCode = "m" + getContext().now().getTime();
             if (tradeOrderList.stream().noneMatch(v -> GetOrdersDataResponse.YIBAO.equals(v.getTradeState()) && v.isManual() && SubmitRequest.B.equals(v.getTradeType()))) {
                 setNeedSubmit(tradeRuleVo.getOpenPrice().doubleValue(), dealCode, submitList, tradeRuleVo, SubmitRequest.B);
             }
@@ -202,23 +197,28 @@ public class GridStrategyHandler extends BaseStrategyHandler<GridStrategyInput,
     public void handleResult(GridStrategyInput input, GridStrategyResult result) {
         List<String> revokeList = result.getRevokeList();
         List<StrategySubmitResult> submitList = result.getSubmitList();
-
-        revokeList.forEach(entrustCode -> {
-            String revokes = String.format("%s_%s", DateFormatUtils.format(new Date(), "yyyyMMdd"), entrustCode);
-            logger.info("revoke request: {}", revokes);
-            TradeResultVo<RevokeResponse> resultVo = revoke(input.getUserId(), revokes);
-            logger.info("revoke response: {}", resultVo);
-            if (resultVo.success()) {
+        StrategyContext context = getContext();
+
+        if (!revokeList.isEmpty()) {
+            log("revoke request: {}", revokeList);
+            TradeResultVo<RevokeResponse> resultVo = revoke(input.getUserId(), context.now(), revokeList);
+            log("revoke response: {}", resultVo);
+            resultVo.getData().forEach(revoked -> {
+                String entrustCode = revoked.getWtbh();
+                if (context.isLive()) {
+                    preTradeRiskEngine.onRevoked(input.getUserId(), isCr(), entrustCode);
+                }
                 input.getTradeOrderList().forEach(v -> {
                     if (v.getEntrustCode().equals(entrustCode)) {
                         v.setTradeState(GetOrdersDataResponse.YICHE);
                     }
                 });
-            } else {
+            });
+            if (!resultVo.success()) {
                 logger.error(resultVo.getMessage());
-                messageServicve.send(String.format("revoke error. request: %s, response: %s", revokes, resultVo.getMessage()));
+                context.sendMessage(String.format("revoke error. request: %s, response: %s", revokeList, resultVo.getMessage()));
             }
-        });
+        }
 
         ArrayList<TradeOrder> tradeOrderList = new ArrayList<>();
 
@@ -228,76 +228,124 @@ public class GridStrategyHandler extends BaseStrategyHandler<GridStrategyInput,
         submitList.forEach(request -> {
             BigDecimal bPrice = BigDecimal.valueOf(request.getPrice());
             if (DecimalUtil.ls(bPrice, lowestPrice)) {
-                messageServicve.send(String.format("code %s, lowestPrice %.03f, price %.03f", request.getStockCode(), lowestPrice.doubleValue(), request.getPrice()));
+                context.sendMessage(String.format("code %s, lowestPrice %.03f, price %.03f", request.getStockCode(), lowestPrice.doubleValue(), request.getPrice()));
                 return;
             }
             if (DecimalUtil.bg(bPrice, highestPrice)) {
-                messageServicve.send(String.format("code %s, highestPrice %.03f, price %.03f", request.getStockCode(), highestPrice.doubleValue(), request.getPrice()));
+                context.sendMessage(String.format("code %s, highestPrice %.03f, price %.03f", request.getStockCode(), highestPrice.doubleValue(), request.getPrice()));
                 return;
             }
 
             TradeResultVo<SubmitResponse> saleResultVo = trade(request);
             if (saleResultVo.success()) {
+                // normalized to the tick by the pre-trade checks
+                BigDecimal tradePrice = BigDecimal.valueOf(request.getPrice());
                 TradeOrder tradeOrder = new TradeOrder();
                 tradeOrder.setRuleId(input.getTradeRuleVo().getId());
                 tradeOrder.setDealCode("");
                 tradeOrder.setEntrustCode(saleResultVo.getData().get(0).getWtbh());
                 tradeOrder.setRelatedDealCode(request.getRelatedDealCode());
                 tradeOrder.setStockCode(request.getStockCode());
-                tradeOrder.setPrice(bPrice);
+                tradeOrder.setPrice(tradePrice);
                 tradeOrder.setVolume(request.getAmount());
                 tradeOrder.setTradeType(request.getTradeType());
                 tradeOrder.setTradeState(GetOrdersDataResponse.YIBAO);
-                tradeOrder.setTradeTime(new Date());
+                tradeOrder.setTradeTime(context.now());
                 tradeOrder.setState(StockConsts.TradeState.Valid.value());
                 tradeOrderList.add(tradeOrder);
             }
         });
         tradeOrderList.addAll(input.getTradeOrderList());
 
-        tradeService.saveTradeOrderList(tradeOrderList);
+        context.saveTradeOrderList(tradeOrderList);
     }
 
     private TradeResultVo<SubmitResponse> trade(SubmitRequest request) {
-        logger.info("submit request: {}", request);
+        StrategyContext context = getContext();
+        if (context.isLive()) {
+            String error = checkSubmit(request);
+            if (error == null) {
+                error = preTradeRiskEngine.check(request, isCr());
+            }
+            if (error != null) {
+                // the same order comes again next pass, so no message for it
+                logger.warn("{} submit {} {} {} {} rejected: {}", getFlag(), request.getTradeType(), request.getStockCode(),
+                        request.getAmount(), request.getPrice(), error);
+                TradeResultVo<SubmitResponse> resultVo = new TradeResultVo<>();
+                resultVo.setStatus(-1);
+                resultVo.setMessage(error);
+                return resultVo;
+            }
+        }
+        log("submit request: {}", request);
         TradeResultVo<SubmitResponse> tradeResultVo = submit(request);
-        logger.info("submit response: {}", tradeResultVo);
-        String name = stockService.getStockByFullCode(StockUtil.getFullCode(request.getStockCode())).getName();
+        log("submit response: {}", tradeResultVo);
+        if (!context.isLive()) {
+            return tradeResultVo;
+        }
+        if (tradeResultVo.success()) {
+            preTradeRiskEngine.onSubmitted(request, isCr(), tradeResultVo.getData().get(0).getWtbh());
+        }
+        String name = context.getStockName(request.getStockCode());
         if (!tradeResultVo.success()) {
             logger.error(tradeResultVo.getMessage());
         }
         String body = String.format("%s submit %s %s %d %.03f %s", getFlag(), request.getTradeType(), name, request.getAmount(), request.getPrice(), tradeResultVo.getMessage() == null ? "" : tradeResultVo.getMessage());
-        try {
-            messageServicve.send(body);
-        } catch (Exception e) {
-            logger.error("send message error", e);
-        }
+        context.sendMessage(body);
         return tradeResultVo;
     }
 
     protected TradeResultVo<GetOrdersDataResponse> getOrderData(int userId) {
-        return tradeApiService.getOrdersData(new GetOrdersDataRequest(userId));
+        return getTradeApiService().getOrdersData(new GetOrdersDataRequest(userId));
     }
 
     protected TradeResultVo<GetDealDataResponse> getDealData(int userId) {
-        return tradeApiService.getDealData(new GetDealDataRequest(userId));
+        return getTradeApiService().getDealData(new GetDealDataRequest(userId));
     }
 
     protected TradeResultVo<SubmitResponse> submit(SubmitRequest request) {
-        return tradeApiService.submit(request);
+        return getTradeApiService().submit(request);
+    }
+
+    /**
+     * live only, ahead of the pre-trade checks
+     *
+     * @return the reason the order is held back, null if it may go
+     */
+    protected String checkSubmit(SubmitRequest request) {
+        return null;
+    }
+
+    /**
+     * one call for up to {@link RevokeRequest#BATCH_SIZE} orders
+     */
+    protected TradeResultVo<RevokeResponse> revoke(int userId, Date date, List<String> entrustCodeList) {
+        return getTradeApiService().revokeBatch(userId, date, entrustCodeList);
+    }
+
+    protected TradeApiService getTradeApiService() {
+        return getContext().getTradeApiService();
+    }
+
+    protected StrategyContext getContext() {
+        StrategyContext context = StrategyContextHolder.get();
+        return context != null ? context : liveStrategyContext;
     }
 
-    protected TradeResultVo<RevokeResponse> revoke(int userId, String revokes) {
-        RevokeRequest request = new RevokeRequest(userId);
-        request.setRevokes(revokes);
-        TradeResultVo<RevokeResponse> resultVo = tradeApiService.revoke(request);
-        return resultVo;
+    private void log(String format, Object arg) {
+        if (getContext().isLive()) {
+            logger.info(format, arg);
+        }
     }
 
     protected String getFlag() {
         return "normal";
     }
 
+    protected boolean isCr() {
+        return false;
+    }
+
     private <T> T getByCondition(List<T> list, Predicate<T> predicate) {
         Optional<T> optional = list.stream().filter(predicate).findAny();
         return optional.orElse(null);
@@ -2,14 +2,19 @@ package vip.linhs.stock.util;
 
 import com.alibaba.fastjson.JSON;
 import org.apache.http.Consts;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.*;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 import org.springframework.web.client.ResourceAccessException;
+import vip.linhs.stock.traffic.TrafficInterceptor;
 
 import java.io.IOException;
 import java.util.List;
@@ -18,11 +23,39 @@ import java.util.stream.Collectors;
 
 public class HttpUtil {
 
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; WOW64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/86.0.4240.198 Safari/537.36";
+
+    private static volatile TrafficInterceptor trafficInterceptor;
+
     private HttpUtil() {
     }
 
+    /**
+     * capture or replay hook, null to remove
+     */
+    public static void setTrafficInterceptor(TrafficInterceptor interceptor) {
+        trafficInterceptor = interceptor;
+    }
+
+    /**
+     * the entity is buffered when a traffic hook is set so the raw bytes
+     * can be recorded
+     */
     public static CloseableHttpResponse sendGetResponse(CloseableHttpClient httpClient, String url) throws IOException {
-        return httpClient.execute(new HttpGet(url));
+        HttpGet httpGet = new HttpGet(HttpUtil.rewrite(url));
+        TrafficInterceptor interceptor = trafficInterceptor;
+        long startTime = System.currentTimeMillis();
+        CloseableHttpResponse response = httpClient.execute(httpGet);
+        if (interceptor != null) {
+            HttpEntity entity = response.getEntity();
+            byte[] content = entity == null ? new byte[0] : EntityUtils.toByteArray(entity);
+            if (entity != null) {
+                response.setEntity(new ByteArrayEntity(content, ContentType.get(entity)));
+            }
+            interceptor.onBinaryExchange(httpGet.getMethod(), httpGet.getURI().toString(),
+                    response.getStatusLine().getStatusCode(), content, System.currentTimeMillis() - startTime);
+        }
+        return response;
     }
 
     public static String sendGet(CloseableHttpClient httpClient, String url) {
@@ -45,6 +78,69 @@ public class HttpUtil {
         return HttpUtil.sendRequest(httpClient, httpGet, charset);
     }
 
+    /**
+     * raw response body for callers that parse bytes themselves, a non 2xx
+     * status throws, charset is only used to decode the body for the traffic
+     * hook
+     */
+    public static byte[] sendGetBytes(CloseableHttpClient httpClient, String url, Map<String, String> header, String charset) {
+        HttpGet httpGet = HttpUtil.getHttpGet(url, header);
+        httpGet.addHeader("User-Agent", HttpUtil.USER_AGENT);
+        TrafficInterceptor interceptor = trafficInterceptor;
+        long startTime = System.currentTimeMillis();
+        try (CloseableHttpResponse response = httpClient.execute(httpGet)) {
+            byte[] content = response.getEntity() == null ? new byte[0] : EntityUtils.toByteArray(response.getEntity());
+            if (interceptor != null) {
+                interceptor.onExchange(httpGet.getMethod(), httpGet.getURI().toString(), null,
+                        response.getStatusLine().getStatusCode(), new String(content, charset), System.currentTimeMillis() - startTime);
+            }
+            int status = response.getStatusLine().getStatusCode();
+            if (status < 200 || status >= 300) {
+                throw new ResourceAccessException("status " + status + " on GET request for \"" + httpGet.getURI() + "\"");
+            }
+            return content;
+        } catch (IOException ex) {
+            throw new ResourceAccessException("I/O error on " + httpGet.getMethod() + " request for \""
+                    + httpGet.getURI() + "\": " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * GET with If-None-Match / If-Modified-Since from a previous response,
+     * content is null on 304
+     */
+    public static ConditionalResponse sendConditionalGet(CloseableHttpClient httpClient, String url, String etag, String lastModified) {
+        HttpGet httpGet = HttpUtil.getHttpGet(url, null);
+        httpGet.addHeader("User-Agent", HttpUtil.USER_AGENT);
+        if (etag != null) {
+            httpGet.addHeader("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            httpGet.addHeader("If-Modified-Since", lastModified);
+        }
+        TrafficInterceptor interceptor = trafficInterceptor;
+        long startTime = System.currentTimeMillis();
+        try (CloseableHttpResponse response = httpClient.execute(httpGet)) {
+            ConditionalResponse conditionalResponse = new ConditionalResponse();
+            conditionalResponse.status = response.getStatusLine().getStatusCode();
+            Header etagHeader = response.getFirstHeader("ETag");
+            Header lastModifiedHeader = response.getFirstHeader("Last-Modified");
+            conditionalResponse.etag = etagHeader != null ? etagHeader.getValue() : null;
+            conditionalResponse.lastModified = lastModifiedHeader != null ? lastModifiedHeader.getValue() : null;
+            if (response.getEntity() != null && !conditionalResponse.isNotModified()) {
+                conditionalResponse.content = EntityUtils.toString(response.getEntity(), Consts.UTF_8);
+            }
+            if (interceptor != null) {
+                interceptor.onExchange(httpGet.getMethod(), httpGet.getURI().toString(), null,
+                        conditionalResponse.status, conditionalResponse.content, System.currentTimeMillis() - startTime);
+            }
+            return conditionalResponse;
+        } catch (IOException ex) {
+            throw new ResourceAccessException("I/O error on " + httpGet.getMethod() + " request for \""
+                    + httpGet.getURI() + "\": " + ex.getMessage(), ex);
+        }
+    }
+
     public static String sendPost(CloseableHttpClient httpClient, String url, Map<String, Object> params) {
         return HttpUtil.sendPost(httpClient, url, params, null);
     }
@@ -70,6 +166,25 @@ public class HttpUtil {
         return sendPostJsonIn(httpClient, url, params, header);
     }
 
+    /**
+     * post an already encoded application/x-www-form-urlencoded body
+     */
+    public static String sendPostForm(CloseableHttpClient httpClient, String url, String body, Map<String, String> header) {
+        HttpPost httpPost = HttpUtil.getHttpPost(url, header);
+        httpPost.setEntity(new StringEntity(body, ContentType.APPLICATION_FORM_URLENCODED.withCharset(Consts.UTF_8)));
+        return HttpUtil.sendRequest(httpClient, httpPost, Consts.UTF_8.name());
+    }
+
+    /**
+     * post an already serialized json body
+     */
+    public static String sendPostJsonBody(CloseableHttpClient httpClient, String url, String json, Map<String, String> header) {
+        HttpPost httpPost = HttpUtil.getHttpPost(url, header);
+        httpPost.addHeader("Content-type", "application/json; charset=utf-8");
+        httpPost.setEntity(new StringEntity(json, Consts.UTF_8));
+        return HttpUtil.sendRequest(httpClient, httpPost, Consts.UTF_8.name());
+    }
+
     private static String sendPostJsonIn(CloseableHttpClient httpClient, String url, Object params, Map<String, String> header) {
         HttpPost httpPost = HttpUtil.getHttpPost(url, header);
         httpPost.addHeader("Content-type", "application/json; charset=utf-8");
@@ -98,17 +213,33 @@ public class HttpUtil {
     }
 
     private static String sendRequest(CloseableHttpClient httpClient, HttpUriRequest request, String charset) {
-        request.addHeader("User-Agent", "Mozilla/5.0 (Windows NT 10.0; WOW64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/86.0.4240.198 Safari/537.36");
+        request.addHeader("User-Agent", HttpUtil.USER_AGENT);
+        TrafficInterceptor interceptor = trafficInterceptor;
+        long startTime = System.currentTimeMillis();
         try (CloseableHttpResponse response = httpClient.execute(request)) {
-            return EntityUtils.toString(response.getEntity(), charset);
+            String content = EntityUtils.toString(response.getEntity(), charset);
+            if (interceptor != null) {
+                String requestBody = null;
+                if (request instanceof HttpEntityEnclosingRequestBase && ((HttpEntityEnclosingRequestBase) request).getEntity() != null) {
+                    requestBody = EntityUtils.toString(((HttpEntityEnclosingRequestBase) request).getEntity(), Consts.UTF_8);
+                }
+                interceptor.onExchange(request.getMethod(), request.getURI().toString(), requestBody,
+                        response.getStatusLine().getStatusCode(), content, System.currentTimeMillis() - startTime);
+            }
+            return content;
         } catch (IOException ex) {
             throw new ResourceAccessException("I/O error on " + request.getMethod() + " request for \""
                     + request.getURI() + "\": " + ex.getMessage(), ex);
         }
     }
 
+    private static String rewrite(String url) {
+        TrafficInterceptor interceptor = trafficInterceptor;
+        return interceptor != null ? interceptor.rewrite(url) : url;
+    }
+
     private static HttpGet getHttpGet(String url, Map<String, String> header) {
-        HttpGet httpGet = new HttpGet(url);
+        HttpGet httpGet = new HttpGet(HttpUtil.rewrite(url));
         if (header != null) {
             header.forEach(httpGet::addHeader);
         }
@@ -118,7 +249,7 @@ public class HttpUtil {
     }
 
     private static HttpPost getHttpPost(String url, Map<String, String> header) {
-        HttpPost httpPost = new HttpPost(url);
+        HttpPost httpPost = new HttpPost(HttpUtil.rewrite(url));
         if (header != null) {
             header.forEach(httpPost::addHeader);
         }
@@ -127,4 +258,33 @@ public class HttpUtil {
         return httpPost;
     }
 
+    public static class ConditionalResponse {
+
+        private int status;
+        private String content;
+        private String etag;
+        private String lastModified;
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public boolean isNotModified() {
+            return status == 304;
+        }
+
+    }
+
 }
@@ -12,7 +12,6 @@ public class StockConsts {
 
     private static final String CACHE_KEY_DATA_PREFIX = CACHE_KEY_PREFIX + "data:";
     public static final String CACHE_KEY_DATA_STOCK = StockConsts.CACHE_KEY_DATA_PREFIX + "stock";
-    public static final String CACHE_KEY_DATA_BUSINESS_DATE = StockConsts.CACHE_KEY_DATA_PREFIX + "businessDate";
 
     private static final String CACHE_KEY_CONFIG_PREFIX = CACHE_KEY_PREFIX + "config:";
     public static final String CACHE_KEY_CONFIG_ROBOT = StockConsts.CACHE_KEY_CONFIG_PREFIX + "robot";
@@ -33,6 +33,8 @@ public class StockUtil {
     private static final List<String> CODES_BJ_ETF = Collections.emptyList();
     private static final List<String> CODES_BJ_CB = Collections.emptyList();
 
+    private static final List<String> CODES_LIMIT_20 = Arrays.asList("300", "301", "688", "689");
+
     private StockUtil() {
     }
 
@@ -129,6 +131,22 @@ public class StockUtil {
         return sb.toString();
     }
 
+    /**
+     * daily price limit as a fraction of the previous close
+     */
+    public static double getLimitRate(String code, String name) {
+        if (Exchange.BJ.getName().equals(StockUtil.getExchange(code))) {
+            return 0.3;
+        }
+        if (isCodeStart(code, CODES_LIMIT_20)) {
+            return 0.2;
+        }
+        if (name != null && name.contains("ST")) {
+            return 0.05;
+        }
+        return 0.1;
+    }
+
     public static BigDecimal calcIncreaseRate(BigDecimal a, BigDecimal b) {
         return DecimalUtil.div(DecimalUtil.sub(a, b), b);
     }
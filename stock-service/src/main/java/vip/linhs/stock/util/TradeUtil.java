@@ -1,13 +1,24 @@
 package vip.linhs.stock.util;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.time.DateFormatUtils;
 import org.springframework.beans.BeanUtils;
 
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.request.RevokeRequest;
 import vip.linhs.stock.api.response.CrGetDealDataResponse;
 import vip.linhs.stock.api.response.GetDealDataResponse;
+import vip.linhs.stock.api.response.GetOrdersDataResponse;
+import vip.linhs.stock.api.response.RevokeResponse;
 
 public class TradeUtil {
 
@@ -51,4 +62,83 @@ public class TradeUtil {
         return response;
     }
 
+    /**
+     * revokes the orders of the date RevokeRequest.BATCH_SIZE at a call, a
+     * batch the broker turns down is revoked one by one
+     *
+     * the reply is plain text that always decodes as success, so it is not
+     * taken as a result, the orders are read again afterwards and only the
+     * ones shown 已撤 or 部撤 count as revoked
+     *
+     * @param revoker sends the yyyyMMdd_entrustCode list, comma separated
+     * @param orderReader the orders of the day
+     * @return the revoked orders, success only if all are
+     */
+    public static TradeResultVo<RevokeResponse> revokeBatch(Date date, List<String> entrustCodeList,
+            Function<String, TradeResultVo<? extends RevokeResponse>> revoker,
+            Supplier<TradeResultVo<? extends GetOrdersDataResponse>> orderReader) {
+        String prefix = DateFormatUtils.format(date, "yyyyMMdd") + "_";
+        List<String> sentList = new ArrayList<>();
+        List<String> errorList = new ArrayList<>();
+        String message = null;
+        for (int i = 0; i < entrustCodeList.size(); i += RevokeRequest.BATCH_SIZE) {
+            List<String> batchList = entrustCodeList.subList(i, Math.min(i + RevokeRequest.BATCH_SIZE, entrustCodeList.size()));
+            TradeResultVo<? extends RevokeResponse> resultVo = revoker.apply(batchList.stream().map(v -> prefix + v).collect(Collectors.joining(",")));
+            if (resultVo.success()) {
+                sentList.addAll(batchList);
+                message = resultVo.getMessage();
+                continue;
+            }
+            if (batchList.size() == 1) {
+                errorList.add(batchList.get(0) + ": " + resultVo.getMessage());
+                continue;
+            }
+            for (String entrustCode : batchList) {
+                resultVo = revoker.apply(prefix + entrustCode);
+                if (resultVo.success()) {
+                    sentList.add(entrustCode);
+                    message = resultVo.getMessage();
+                } else {
+                    errorList.add(entrustCode + ": " + resultVo.getMessage());
+                }
+            }
+        }
+
+        List<RevokeResponse> revokedList = new ArrayList<>();
+        if (!sentList.isEmpty()) {
+            TradeResultVo<? extends GetOrdersDataResponse> orderResultVo = orderReader.get();
+            if (orderResultVo.success()) {
+                Map<String, String> stateMap = new HashMap<>();
+                orderResultVo.getData().forEach(v -> stateMap.putIfAbsent(v.getWtbh(), v.getWtzt()));
+                for (String entrustCode : sentList) {
+                    String state = stateMap.get(entrustCode);
+                    if (GetOrdersDataResponse.YICHE.equals(state) || GetOrdersDataResponse.BUCHE.equals(state)) {
+                        revokedList.add(TradeUtil.newRevokeResponse(entrustCode));
+                    } else {
+                        errorList.add(entrustCode + ": " + (state != null ? state : "not in the order list"));
+                    }
+                }
+            } else {
+                sentList.forEach(v -> errorList.add(v + ": not confirmed, " + orderResultVo.getMessage()));
+            }
+        }
+
+        TradeResultVo<RevokeResponse> resultVo = new TradeResultVo<>();
+        resultVo.setData(revokedList);
+        if (errorList.isEmpty()) {
+            resultVo.setStatus(TradeResultVo.STATUS_SUCCESS);
+            resultVo.setMessage(message);
+        } else {
+            resultVo.setStatus(-1);
+            resultVo.setMessage(String.join(", ", errorList));
+        }
+        return resultVo;
+    }
+
+    private static RevokeResponse newRevokeResponse(String entrustCode) {
+        RevokeResponse response = new RevokeResponse();
+        response.setWtbh(entrustCode);
+        return response;
+    }
+
 }
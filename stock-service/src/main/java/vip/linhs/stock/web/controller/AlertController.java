@@ -0,0 +1,77 @@
+package vip.linhs.stock.web.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import vip.linhs.stock.alert.AlertEngine;
+import vip.linhs.stock.alert.AlertRule;
+import vip.linhs.stock.alert.AlertType;
+import vip.linhs.stock.exception.FieldInputException;
+import vip.linhs.stock.model.vo.CommonResponse;
+import vip.linhs.stock.model.vo.PageParam;
+import vip.linhs.stock.model.vo.PageVo;
+import vip.linhs.stock.service.StockService;
+import vip.linhs.stock.util.StockUtil;
+
+@RestController
+@RequestMapping("alert")
+public class AlertController extends BaseController {
+
+    @Autowired
+    private AlertEngine alertEngine;
+
+    @Autowired
+    private StockService stockService;
+
+    @RequestMapping("ruleList")
+    public PageVo<AlertRule> getRuleList(PageParam pageParam) {
+        List<AlertRule> list = alertEngine.getRuleList();
+        return new PageVo<>(subList(list, pageParam), list.size());
+    }
+
+    @PostMapping("addRule")
+    public CommonResponse addRule(AlertRule alertRule) {
+        FieldInputException e = new FieldInputException();
+        if (!StringUtils.hasLength(alertRule.getCode())
+                || stockService.getStockByFullCode(StockUtil.getFullCode(alertRule.getCode())) == null) {
+            e.addError("code", "code invalid");
+        }
+        if (alertRule.getType() == null || alertRule.getType() == AlertType.Move) {
+            e.addError("type", "type invalid");
+        }
+        // changes may be negative, prices and ratios not
+        if (Double.isNaN(alertRule.getValue()) || Double.isInfinite(alertRule.getValue())
+                || alertRule.getType() != null && alertRule.getType().getMetric().isRelative() && alertRule.getValue() <= 0) {
+            e.addError("value", "value invalid");
+        }
+        if (alertRule.getHysteresis() != null && !(alertRule.getHysteresis() >= 0)) {
+            e.addError("hysteresis", "hysteresis invalid");
+        }
+        if (alertRule.getCoolDown() != null && alertRule.getCoolDown() < 0) {
+            e.addError("coolDown", "coolDown invalid");
+        }
+        if (e.hasErrors()) {
+            throw e;
+        }
+        alertRule.setCode(StockUtil.getFullCode(alertRule.getCode()));
+        alertEngine.addRule(alertRule);
+        return CommonResponse.buildResponse("success");
+    }
+
+    @PostMapping("deleteRule")
+    public CommonResponse deleteRule(long id) {
+        if (id <= 0) {
+            FieldInputException e = new FieldInputException();
+            e.addError("id", "id invalid");
+            throw e;
+        }
+        alertEngine.deleteRule(id);
+        return CommonResponse.buildResponse("success");
+    }
+
+}
@@ -1,14 +1,20 @@
 package vip.linhs.stock.web.controller;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import vip.linhs.stock.exception.FieldInputException;
 import vip.linhs.stock.model.vo.PageParam;
+import vip.linhs.stock.model.vo.PageVo;
+import vip.linhs.stock.model.vo.trade.StockVo;
+import vip.linhs.stock.portfolio.Portfolio;
 import vip.linhs.stock.util.StockConsts;
 
 public abstract class BaseController {
@@ -28,6 +34,20 @@ public abstract class BaseController {
         return tradeUserId != null ? tradeUserId : 1;
     }
 
+    /**
+     * comma separated entrust codes, blanks and repeats dropped
+     */
+    protected List<String> getEntrustCodeList(String entrustCodes) {
+        List<String> entrustCodeList = entrustCodes == null ? Collections.emptyList()
+                : Arrays.stream(entrustCodes.split(",")).map(String::trim).filter(v -> !v.isEmpty()).distinct().collect(Collectors.toList());
+        if (entrustCodeList.isEmpty()) {
+            FieldInputException e = new FieldInputException();
+            e.addError("entrustCodes", "entrustCodes invalid");
+            throw e;
+        }
+        return entrustCodeList;
+    }
+
     protected <T> List<T> subList(List<T> list, PageParam pageParam) {
         if (list.isEmpty()) {
             return list;
@@ -43,4 +63,12 @@ public abstract class BaseController {
         return list.subList(start, end);
     }
 
+    protected PageVo<StockVo> newStockPageVo(List<StockVo> list, PageParam pageParam, Portfolio portfolio) {
+        PageVo<StockVo> pageVo = new PageVo<>(subList(list, pageParam), list.size());
+        pageVo.putExtraData("marketValue", portfolio.getMarketValue());
+        pageVo.putExtraData("profit", portfolio.getUnrealizedProfit());
+        pageVo.putExtraData("realizedProfit", portfolio.getRealizedProfit());
+        return pageVo;
+    }
+
 }
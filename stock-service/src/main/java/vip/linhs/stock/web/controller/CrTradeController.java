@@ -17,7 +17,6 @@ import vip.linhs.stock.api.request.CrGetDealDataRequest;
 import vip.linhs.stock.api.request.CrGetHisDealDataRequest;
 import vip.linhs.stock.api.request.CrGetOrdersDataRequest;
 import vip.linhs.stock.api.request.CrGetRzrqAssertsRequest;
-import vip.linhs.stock.api.request.CrQueryCollateralRequest;
 import vip.linhs.stock.api.request.CrRevokeRequest;
 import vip.linhs.stock.api.request.CrSubmitRequest;
 import vip.linhs.stock.api.request.SubmitRequest;
@@ -25,17 +24,22 @@ import vip.linhs.stock.api.response.CrGetDealDataResponse;
 import vip.linhs.stock.api.response.CrGetHisDealDataResponse;
 import vip.linhs.stock.api.response.CrGetOrdersDataResponse;
 import vip.linhs.stock.api.response.CrGetRzrqAssertsResponse;
-import vip.linhs.stock.api.response.CrQueryCollateralResponse;
 import vip.linhs.stock.api.response.CrRevokeResponse;
 import vip.linhs.stock.api.response.CrSubmitResponse;
 import vip.linhs.stock.api.response.GetOrdersDataResponse;
+import vip.linhs.stock.api.response.RevokeResponse;
 import vip.linhs.stock.model.vo.AccountVo;
 import vip.linhs.stock.model.vo.CommonResponse;
 import vip.linhs.stock.model.vo.PageParam;
 import vip.linhs.stock.model.vo.PageVo;
 import vip.linhs.stock.model.vo.trade.DealVo;
+import vip.linhs.stock.model.vo.trade.MarginRiskVo;
 import vip.linhs.stock.model.vo.trade.OrderVo;
 import vip.linhs.stock.model.vo.trade.StockVo;
+import vip.linhs.stock.portfolio.PortfolioEngine;
+import vip.linhs.stock.risk.MarginRiskMonitor;
+import vip.linhs.stock.risk.PreTradeRiskEngine;
+import vip.linhs.stock.scheduled.OrderPoller;
 import vip.linhs.stock.service.TradeApiService;
 import vip.linhs.stock.service.TradeService;
 import vip.linhs.stock.util.StockUtil;
@@ -50,6 +54,18 @@ public class CrTradeController extends BaseController {
     @Autowired
     private TradeService tradeService;
 
+    @Autowired
+    private PortfolioEngine portfolioEngine;
+
+    @Autowired
+    private MarginRiskMonitor marginRiskMonitor;
+
+    @Autowired
+    private PreTradeRiskEngine preTradeRiskEngine;
+
+    @Autowired
+    private OrderPoller orderPoller;
+
     @RequestMapping("dealList")
     public PageVo<DealVo> getDealList(PageParam pageParam) {
         CrGetDealDataRequest request = new CrGetDealDataRequest(getTradeUserId(pageParam.getTradeUserId()));
@@ -87,10 +103,16 @@ public class CrTradeController extends BaseController {
         request.setTradeType(SubmitRequest.B);
         request.setMarket(StockUtil.getStockMarket(request.getStockCode()));
         request.setTradeInfo(CrSubmitRequest.xyjylx_rz_b);
+        String error = preTradeRiskEngine.check(request, true);
+        if (error != null) {
+            return CommonResponse.buildResponse(error);
+        }
         TradeResultVo<CrSubmitResponse> response = tradeApiService.crSubmit(request);
         String message = response.getMessage();
         if (response.success()) {
             message = response.getData().get(0).getWtbh();
+            preTradeRiskEngine.onSubmitted(request, true, message);
+            orderPoller.wake(request.getUserId());
         }
 
         return CommonResponse.buildResponse(message);
@@ -106,10 +128,16 @@ public class CrTradeController extends BaseController {
         request.setTradeType(SubmitRequest.S);
         request.setMarket(StockUtil.getStockMarket(request.getStockCode()));
         request.setTradeInfo(CrSubmitRequest.xyjylx_hk_s);
+        String error = preTradeRiskEngine.check(request, true);
+        if (error != null) {
+            return CommonResponse.buildResponse(error);
+        }
         TradeResultVo<CrSubmitResponse> response = tradeApiService.crSubmit(request);
 		String message = response.getMessage();
         if (response.success()) {
             message = response.getData().get(0).getWtbh();
+            preTradeRiskEngine.onSubmitted(request, true, message);
+            orderPoller.wake(request.getUserId());
         }
 
         return CommonResponse.buildResponse(message);
@@ -117,14 +145,10 @@ public class CrTradeController extends BaseController {
 
     @RequestMapping("stockList")
     public PageVo<StockVo> getStockList(PageParam pageParam) {
-        CrQueryCollateralRequest request = new CrQueryCollateralRequest(getTradeUserId(pageParam.getTradeUserId()));
-        TradeResultVo<CrQueryCollateralResponse> response = tradeApiService.crQueryCollateral(request);
-        ArrayList<StockVo> list = new ArrayList<>();
-        if (response.success()) {
-            list.addAll(tradeService.getCrTradeStockList(response.getData()));
-        }
+        int tradeUserId = getTradeUserId(pageParam.getTradeUserId());
+        ArrayList<StockVo> list = new ArrayList<>(portfolioEngine.getStockList(tradeUserId, true));
         list.sort((a, b) -> Integer.compare(b.getTotalVolume(), a.getTotalVolume()));
-        return new PageVo<>(subList(list, pageParam), list.size());
+        return newStockPageVo(list, pageParam, portfolioEngine.getPortfolio(tradeUserId, true));
     }
 
     @RequestMapping("orderList")
@@ -145,6 +169,21 @@ public class CrTradeController extends BaseController {
         String revokes = String.format("%s_%s", DateFormatUtils.format(new Date(), "yyyyMMdd"), entrustCode);
         request.setRevokes(revokes);
         TradeResultVo<CrRevokeResponse> response = tradeApiService.crRevoke(request);
+        if (response.success()) {
+            preTradeRiskEngine.onRevoked(request.getUserId(), true, entrustCode);
+        }
+        return CommonResponse.buildResponse(response.getMessage());
+    }
+
+    /**
+     * entrust codes comma separated, revoked in as few calls as the broker takes
+     */
+    @RequestMapping("revokeBatch")
+    public CommonResponse revokeBatch(String entrustCodes, Integer tradeUserId) {
+        List<String> entrustCodeList = getEntrustCodeList(entrustCodes);
+        int userId = getTradeUserId(tradeUserId);
+        TradeResultVo<RevokeResponse> response = tradeApiService.crRevokeBatch(userId, new Date(), entrustCodeList);
+        response.getData().forEach(v -> preTradeRiskEngine.onRevoked(userId, true, v.getWtbh()));
         return CommonResponse.buildResponse(response.getMessage());
     }
 
@@ -178,4 +217,9 @@ public class CrTradeController extends BaseController {
         return accountVo;
     }
 
+    @RequestMapping("marginRisk")
+    public MarginRiskVo getMarginRisk(Integer tradeUserId) {
+        return marginRiskMonitor.getMarginRisk(getTradeUserId(tradeUserId));
+    }
+
 }
@@ -1,14 +1,26 @@
 package vip.linhs.stock.web.controller;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import vip.linhs.stock.indicator.IndicatorEngine;
 import vip.linhs.stock.model.po.StockInfo;
 import vip.linhs.stock.model.vo.DailyIndexVo;
+import vip.linhs.stock.model.vo.IndicatorVo;
 import vip.linhs.stock.model.vo.PageParam;
 import vip.linhs.stock.model.vo.PageVo;
+import vip.linhs.stock.model.vo.ScreenerVo;
+import vip.linhs.stock.model.vo.TickVo;
+import vip.linhs.stock.screener.StockScreener;
 import vip.linhs.stock.service.StockService;
+import vip.linhs.stock.tick.TickStore;
+import vip.linhs.stock.util.StockUtil;
 
 @RestController
 @RequestMapping("report")
@@ -17,6 +29,15 @@ public class ReportController extends BaseController {
     @Autowired
     private StockService stockService;
 
+    @Autowired
+    private TickStore tickStore;
+
+    @Autowired
+    private IndicatorEngine indicatorEngine;
+
+    @Autowired
+    private StockScreener stockScreener;
+
     @RequestMapping("stockList")
     public PageVo<StockInfo> getStockList(PageParam pageParam) {
         return stockService.getStockList(pageParam);
@@ -27,4 +48,42 @@ public class ReportController extends BaseController {
         return stockService.getDailyIndexList(pageParam);
     }
 
+    /**
+     * e.g. turnover &gt; 5% and close &gt; ma20 and amount rank top 100, see
+     * {@link vip.linhs.stock.screener.ScreenerExpression}
+     */
+    @RequestMapping("screen")
+    public PageVo<ScreenerVo> screen(String expression) {
+        return stockScreener.screen(expression);
+    }
+
+    /**
+     * daily indicators, or the one minute ones of a polled symbol with
+     * intraday=true
+     */
+    @RequestMapping("indicator")
+    public IndicatorVo getIndicator(String code, boolean intraday) {
+        String fullCode = StockUtil.getFullCode(code);
+        return intraday ? indicatorEngine.getIntraday(fullCode) : indicatorEngine.getDaily(fullCode);
+    }
+
+    /**
+     * recent ticks of a subscribed symbol, pass the last sequence plus one
+     * as from to only get newer ones
+     */
+    @RequestMapping("tickList")
+    public List<TickVo> getTickList(String code, Long from, Integer limit) {
+        List<TickVo> list = new ArrayList<>();
+        tickStore.read(StockUtil.getFullCode(code), from != null ? from : 0, limit != null ? limit : 1000, (sequence, time, price, volume, value) -> {
+            TickVo tickVo = new TickVo();
+            tickVo.setSequence(sequence);
+            tickVo.setTime(new Date(time));
+            tickVo.setPrice(TickStore.toPrice(price));
+            tickVo.setVolume(volume);
+            tickVo.setValue(BigDecimal.valueOf(value));
+            list.add(tickVo);
+        });
+        return list;
+    }
+
 }
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import vip.linhs.stock.client.TradeRequestGovernor;
 import vip.linhs.stock.exception.FieldInputException;
 import vip.linhs.stock.model.po.ExecuteInfo;
 import vip.linhs.stock.model.po.SystemConfig;
@@ -17,6 +18,7 @@ import vip.linhs.stock.model.vo.CommonResponse;
 import vip.linhs.stock.model.vo.PageParam;
 import vip.linhs.stock.model.vo.PageVo;
 import vip.linhs.stock.model.vo.TaskVo;
+import vip.linhs.stock.model.vo.TradeBudgetVo;
 import vip.linhs.stock.service.CacheClient;
 import vip.linhs.stock.service.SystemConfigService;
 import vip.linhs.stock.service.TaskService;
@@ -35,6 +37,9 @@ public class SystemController extends BaseController {
     @Autowired
     private SystemConfigService systemConfigService;
 
+    @Autowired
+    private TradeRequestGovernor tradeRequestGovernor;
+
     @RequestMapping("taskList")
     public PageVo<TaskVo> getTaskList(PageParam pageParam) {
         return taskService.getAllTask(pageParam);
@@ -92,10 +97,33 @@ public class SystemController extends BaseController {
         return CommonResponse.buildResponse("success");
     }
 
+    @PostMapping("clearCache")
+    public CommonResponse clearCache(String name) {
+        if (!StringUtils.hasLength(name) || StockConsts.CACHE_KEY_TOKEN.equals(name)) {
+            FieldInputException e = new FieldInputException();
+            e.addError("name", "name invalid");
+            throw e;
+        }
+        redisClient.clear(name);
+        return CommonResponse.buildResponse("success");
+    }
+
+    @RequestMapping("tradeBudgetList")
+    public PageVo<TradeBudgetVo> getTradeBudgetList(PageParam pageParam) {
+        List<TradeBudgetVo> list = tradeRequestGovernor.getBudgetList();
+        return new PageVo<>(subList(list, pageParam), list.size());
+    }
+
     @RequestMapping("configList")
     public PageVo<SystemConfig> getSystemConfigList(PageParam pageParam) {
         List<SystemConfig> list = systemConfigService.getAll();
         return new PageVo<>(subList(list, pageParam), list.size());
     }
 
+    @PostMapping("refreshConfig")
+    public CommonResponse refreshConfig() {
+        systemConfigService.refresh();
+        return CommonResponse.buildResponse("success");
+    }
+
 }
@@ -20,7 +20,6 @@ import vip.linhs.stock.api.request.GetAssetsRequest;
 import vip.linhs.stock.api.request.GetDealDataRequest;
 import vip.linhs.stock.api.request.GetHisDealDataRequest;
 import vip.linhs.stock.api.request.GetOrdersDataRequest;
-import vip.linhs.stock.api.request.GetStockListRequest;
 import vip.linhs.stock.api.request.RevokeRequest;
 import vip.linhs.stock.api.request.SubmitRequest;
 import vip.linhs.stock.api.response.AuthenticationResponse;
@@ -28,9 +27,11 @@ import vip.linhs.stock.api.response.GetAssetsResponse;
 import vip.linhs.stock.api.response.GetDealDataResponse;
 import vip.linhs.stock.api.response.GetHisDealDataResponse;
 import vip.linhs.stock.api.response.GetOrdersDataResponse;
-import vip.linhs.stock.api.response.GetStockListResponse;
 import vip.linhs.stock.api.response.RevokeResponse;
 import vip.linhs.stock.api.response.SubmitResponse;
+import vip.linhs.stock.backtest.BacktestOptimizer;
+import vip.linhs.stock.backtest.model.BacktestResult;
+import vip.linhs.stock.backtest.model.OptimizeRequest;
 import vip.linhs.stock.exception.FieldInputException;
 import vip.linhs.stock.model.po.StockSelected;
 import vip.linhs.stock.model.po.TradeMethod;
@@ -43,6 +44,9 @@ import vip.linhs.stock.model.vo.trade.DealVo;
 import vip.linhs.stock.model.vo.trade.OrderVo;
 import vip.linhs.stock.model.vo.trade.StockVo;
 import vip.linhs.stock.model.vo.trade.TradeRuleVo;
+import vip.linhs.stock.portfolio.PortfolioEngine;
+import vip.linhs.stock.risk.PreTradeRiskEngine;
+import vip.linhs.stock.scheduled.OrderPoller;
 import vip.linhs.stock.service.StockSelectedService;
 import vip.linhs.stock.service.TradeApiService;
 import vip.linhs.stock.service.TradeService;
@@ -61,6 +65,18 @@ public class TradeController extends BaseController {
     @Autowired
     private StockSelectedService stockSelectedService;
 
+    @Autowired
+    private BacktestOptimizer backtestOptimizer;
+
+    @Autowired
+    private PortfolioEngine portfolioEngine;
+
+    @Autowired
+    private PreTradeRiskEngine preTradeRiskEngine;
+
+    @Autowired
+    private OrderPoller orderPoller;
+
     @RequestMapping("queryVerifyCodeUrl")
     public CommonResponse queryVerifyCodeUrl() {
         TradeMethod tradeMethod = tradeService.getTradeMethodByName(BaseTradeRequest.TradeRequestMethod.YZM.value());
@@ -93,6 +109,26 @@ public class TradeController extends BaseController {
         return tradeService.getTradeRuleList(pageParam);
     }
 
+    @PostMapping("optimizeRule")
+    public PageVo<BacktestResult> optimizeRule(OptimizeRequest request) {
+        FieldInputException e = null;
+        if (request.getRuleId() <= 0) {
+            e = new FieldInputException();
+            e.addError("ruleId", "ruleId invalid");
+        }
+        if (request.getStartDate() == null || request.getEndDate() == null
+                || request.getStartDate().after(request.getEndDate())) {
+            if (e == null) {
+                e = new FieldInputException();
+            }
+            e.addError("startDate", "date range invalid");
+        }
+        if (e != null && e.hasErrors()) {
+            throw e;
+        }
+        return backtestOptimizer.optimize(request);
+    }
+
     @PostMapping("changeRuleState")
     public CommonResponse changeRuleState(int id, int state) {
         FieldInputException e = null;
@@ -163,10 +199,16 @@ public class TradeController extends BaseController {
         request.setZqmc(stockName);
         request.setTradeType(SubmitRequest.B);
         request.setMarket(StockUtil.getStockMarket(request.getStockCode()));
+        String error = preTradeRiskEngine.check(request, false);
+        if (error != null) {
+            return CommonResponse.buildResponse(error);
+        }
         TradeResultVo<SubmitResponse> response = tradeApiService.submit(request);
         String message = response.getMessage();
         if (response.success()) {
             message = response.getData().get(0).getWtbh();
+            preTradeRiskEngine.onSubmitted(request, false, message);
+            orderPoller.wake(request.getUserId());
         }
 
         return CommonResponse.buildResponse(message);
@@ -181,10 +223,16 @@ public class TradeController extends BaseController {
         request.setZqmc(stockName);
         request.setTradeType(SubmitRequest.S);
 		request.setMarket(StockUtil.getStockMarket(request.getStockCode()));
+        String error = preTradeRiskEngine.check(request, false);
+        if (error != null) {
+            return CommonResponse.buildResponse(error);
+        }
         TradeResultVo<SubmitResponse> response = tradeApiService.submit(request);
         String message = response.getMessage();
         if (response.success()) {
             message = response.getData().get(0).getWtbh();
+            preTradeRiskEngine.onSubmitted(request, false, message);
+            orderPoller.wake(request.getUserId());
         }
 
         return CommonResponse.buildResponse(message);
@@ -192,17 +240,13 @@ public class TradeController extends BaseController {
 
     @RequestMapping("stockList")
     public PageVo<StockVo> getStockList(PageParam pageParam) {
-        GetStockListRequest request = new GetStockListRequest(getTradeUserId(pageParam.getTradeUserId()));
-        TradeResultVo<GetStockListResponse> response = tradeApiService.getStockList(request);
-        ArrayList<StockVo> list = new ArrayList<>();
-        if (response.success()) {
-            list.addAll(tradeService.getTradeStockList(response.getData()));
-        }
+        int tradeUserId = getTradeUserId(pageParam.getTradeUserId());
+        ArrayList<StockVo> list = new ArrayList<>(portfolioEngine.getStockList(tradeUserId, false));
         List<StockSelected> selectList = stockSelectedService.getList();
         selectList = selectList.stream().filter(v -> list.stream().noneMatch(vo -> vo.getStockCode().equals(v.getCode()))).collect(Collectors.toList());
-        list.addAll(tradeService.getTradeStockListBySelected(selectList));
+        list.addAll(portfolioEngine.getStockListBySelected(selectList));
         list.sort((a, b) -> Integer.compare(b.getTotalVolume(), a.getTotalVolume()));
-        return new PageVo<>(subList(list, pageParam), list.size());
+        return newStockPageVo(list, pageParam, portfolioEngine.getPortfolio(tradeUserId, false));
     }
 
     @RequestMapping("orderList")
@@ -223,6 +267,21 @@ public class TradeController extends BaseController {
         String revokes = String.format("%s_%s", DateFormatUtils.format(new Date(), "yyyyMMdd"), entrustCode);
         request.setRevokes(revokes);
         TradeResultVo<RevokeResponse> response = tradeApiService.revoke(request);
+        if (response.success()) {
+            preTradeRiskEngine.onRevoked(request.getUserId(), false, entrustCode);
+        }
+        return CommonResponse.buildResponse(response.getMessage());
+    }
+
+    /**
+     * entrust codes comma separated, revoked in as few calls as the broker takes
+     */
+    @RequestMapping("revokeBatch")
+    public CommonResponse revokeBatch(String entrustCodes, Integer tradeUserId) {
+        List<String> entrustCodeList = getEntrustCodeList(entrustCodes);
+        int userId = getTradeUserId(tradeUserId);
+        TradeResultVo<RevokeResponse> response = tradeApiService.revokeBatch(userId, new Date(), entrustCodeList);
+        response.getData().forEach(v -> preTradeRiskEngine.onRevoked(userId, false, v.getWtbh()));
         return CommonResponse.buildResponse(response.getMessage());
     }
 
@@ -0,0 +1,202 @@
+package vip.linhs.stock.alert;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import vip.linhs.stock.dao.DailyIndexDao;
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.model.po.StockInfo;
+import vip.linhs.stock.model.po.StockSelected;
+import vip.linhs.stock.service.StockService;
+
+public class AlertEngineTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testCrossAndHysteresis() {
+        String ruleFile = tempDir.resolve("alert-rules.json").toString();
+        AlertEngine engine = AlertEngineTest.newEngine(ruleFile, Duration.ZERO);
+        AlertRule rule = AlertEngineTest.newRule("sh600000", AlertType.PriceAbove, 10);
+        rule.setHysteresis(0.01);
+        engine.addRule(rule);
+        Assertions.assertEquals(Collections.singletonList("sh600000"), engine.getCodeList());
+
+        Assertions.assertEquals(0, AlertEngineTest.quote(engine, "sh600000", 9.5, 9.5));
+        Assertions.assertEquals(1, AlertEngineTest.quote(engine, "sh600000", 10.1, 9.5));
+        // not back under the rearm level of 9.9
+        Assertions.assertEquals(0, AlertEngineTest.quote(engine, "sh600000", 9.95, 9.5));
+        Assertions.assertEquals(0, AlertEngineTest.quote(engine, "sh600000", 10.2, 9.5));
+        Assertions.assertEquals(0, AlertEngineTest.quote(engine, "sh600000", 9.8, 9.5));
+        Assertions.assertEquals(1, AlertEngineTest.quote(engine, "sh600000", 10.05, 9.5));
+
+        AlertEngine reloaded = AlertEngineTest.newEngine(ruleFile, Duration.ZERO);
+        Assertions.assertEquals(1, reloaded.getRuleList().size());
+        Assertions.assertEquals(AlertType.PriceAbove, reloaded.getRuleList().get(0).getType());
+        reloaded.deleteRule(rule.getId());
+        Assertions.assertTrue(reloaded.getCodeList().isEmpty());
+    }
+
+    @Test
+    public void testCoolDown() {
+        AlertEngine engine = AlertEngineTest.newEngine("", Duration.ofMinutes(5));
+        AlertRule rule = AlertEngineTest.newRule("sz000001", AlertType.PriceBelow, 10);
+        rule.setHysteresis(0d);
+        engine.addRule(rule);
+
+        Assertions.assertEquals(0, AlertEngineTest.quote(engine, "sz000001", 10.5, 10.5));
+        Assertions.assertEquals(1, AlertEngineTest.quote(engine, "sz000001", 9.9, 10.5));
+        Assertions.assertEquals(0, AlertEngineTest.quote(engine, "sz000001", 10.1, 10.5));
+        // crossed again within the cool-down
+        Assertions.assertEquals(0, AlertEngineTest.quote(engine, "sz000001", 9.9, 10.5));
+
+        rule = AlertEngineTest.newRule("sz000002", AlertType.ChangeBelow, -0.03);
+        rule.setCoolDown(0);
+        engine.addRule(rule);
+        Assertions.assertEquals(1, AlertEngineTest.quote(engine, "sz000002", 9.6, 10));
+        Assertions.assertEquals(0, AlertEngineTest.quote(engine, "sz000002", 9.9, 10));
+        Assertions.assertEquals(1, AlertEngineTest.quote(engine, "sz000002", 9.5, 10));
+    }
+
+    @Test
+    public void testSelected() {
+        AlertEngine engine = AlertEngineTest.newEngine("", Duration.ofMinutes(5));
+        StockSelected stockSelected = new StockSelected();
+        stockSelected.setId(3);
+        stockSelected.setCode("600000");
+        stockSelected.setRate(new BigDecimal("0.05"));
+        engine.syncSelected(Collections.singletonList(stockSelected));
+        Assertions.assertEquals(-3, engine.getRuleList().get(0).getId());
+
+        engine.onQuote(Collections.singletonList(AlertEngineTest.newQuote("sh600000", 10.2, 10)));
+        Assertions.assertEquals(Collections.singletonList("name600000:当前价格:10.200"), engine.drainMessages());
+        Assertions.assertEquals(0, AlertEngineTest.quote(engine, "sh600000", 10.4, 10));
+        engine.onQuote(Collections.singletonList(AlertEngineTest.newQuote("sh600000", 10.5, 10)));
+        Assertions.assertEquals(Collections.singletonList("name600000:当前价格:10.500, 涨幅5.00%"), engine.drainMessages());
+        // taken from 10.5 now, moves within the cool-down are still told
+        Assertions.assertEquals(0, AlertEngineTest.quote(engine, "sh600000", 10.0, 10));
+        Assertions.assertEquals(1, AlertEngineTest.quote(engine, "sh600000", 9.9, 10));
+
+        engine.beginOfDay();
+        Assertions.assertEquals(1, AlertEngineTest.quote(engine, "sh600000", 9.9, 9.9));
+
+        engine.syncSelected(Collections.emptyList());
+        Assertions.assertTrue(engine.getCodeList().isEmpty());
+    }
+
+    @Test
+    public void testLimit() {
+        AlertEngine engine = AlertEngineTest.newEngine("", Duration.ZERO);
+        engine.addRule(AlertEngineTest.newRule("sz300001", AlertType.LimitUp, 0.02));
+        engine.addRule(AlertEngineTest.newRule("sh600001", AlertType.LimitDown, 0.01));
+
+        // limit up at 12.00 on the growth board
+        Assertions.assertEquals(0, AlertEngineTest.quote(engine, "sz300001", 11.7, 10));
+        Assertions.assertEquals(1, AlertEngineTest.quote(engine, "sz300001", 11.85, 10));
+        // limit down at 9.00
+        Assertions.assertEquals(0, AlertEngineTest.quote(engine, "sh600001", 9.2, 10));
+        Assertions.assertEquals(1, AlertEngineTest.quote(engine, "sh600001", 9.05, 10));
+    }
+
+    @Test
+    public void testManyRules() {
+        AlertEngine engine = AlertEngineTest.newEngine("", Duration.ZERO);
+        ReflectionTestUtils.setField(engine, "batchSize", 20);
+        for (int i = 0; i < 5000; i++) {
+            engine.addRule(AlertEngineTest.newRule("sh600000", AlertType.PriceAbove, 10 + i * 0.001));
+        }
+
+        Assertions.assertEquals(0, AlertEngineTest.quote(engine, "sh600000", 9.99, 10));
+        engine.onQuote(Collections.singletonList(AlertEngineTest.newQuote("sh600000", 10.4995, 10)));
+        List<String> messageList = engine.drainMessages();
+        Assertions.assertEquals(25, messageList.size());
+        Assertions.assertTrue(messageList.stream().allMatch(v -> v.split("\n").length == 20));
+        Assertions.assertEquals(0, AlertEngineTest.quote(engine, "sh600000", 10.4995, 10));
+    }
+
+    @Test
+    public void testVolumeSpike() throws Exception {
+        AlertBook book = new AlertBook("sh600000");
+        AlertRule rule = AlertEngineTest.newRule("sh600000", AlertType.VolumeSpike, 2);
+        rule.setId(1L);
+        book.add(rule, 0);
+        book.setMinuteVolume(100);
+
+        // half an hour in, 1.5 and then 2.5 times the usual volume
+        DailyIndex dailyIndex = AlertEngineTest.newQuote("sh600000", 10, 10);
+        dailyIndex.setDate(DateUtils.parseDate("2023-03-24", "yyyy-MM-dd"));
+        dailyIndex.setQuoteTime(DateUtils.parseDate("2023-03-24 10:00:00", "yyyy-MM-dd HH:mm:ss"));
+        dailyIndex.setTradingVolume(4500);
+        Assertions.assertEquals(0, book.update(dailyIndex, System.currentTimeMillis(), 0).size());
+        dailyIndex.setTradingVolume(7500);
+        Assertions.assertEquals(1, book.update(dailyIndex, System.currentTimeMillis(), 0).size());
+
+        Assertions.assertEquals(30, AlertBook.getSessionMinutes(dailyIndex.getQuoteTime()));
+        Assertions.assertEquals(1, AlertBook.getSessionMinutes(dailyIndex.getDate()));
+    }
+
+    private static int quote(AlertEngine engine, String code, double price, double preClose) {
+        engine.onQuote(Arrays.asList(AlertEngineTest.newQuote(code, price, preClose)));
+        return engine.drainMessages().stream().mapToInt(v -> v.split("\n").length).sum();
+    }
+
+    private static AlertEngine newEngine(String ruleFile, Duration coolDown) {
+        StockService stockService = AlertEngineTest.fake(StockService.class, (proxy, method, args) -> {
+            StockInfo stockInfo = new StockInfo();
+            stockInfo.setCode(args[0].toString().substring(2));
+            stockInfo.setExchange(args[0].toString().substring(0, 2));
+            stockInfo.setName("name" + stockInfo.getCode());
+            return stockInfo;
+        });
+        DailyIndexDao dailyIndexDao = AlertEngineTest.fake(DailyIndexDao.class, (proxy, method, args) -> Collections.emptyList());
+
+        AlertEngine engine = new AlertEngine();
+        ReflectionTestUtils.setField(engine, "ruleFile", ruleFile);
+        ReflectionTestUtils.setField(engine, "hysteresis", 0.005);
+        ReflectionTestUtils.setField(engine, "coolDown", coolDown);
+        ReflectionTestUtils.setField(engine, "batchSize", 20);
+        ReflectionTestUtils.setField(engine, "stockService", stockService);
+        ReflectionTestUtils.setField(engine, "dailyIndexDao", dailyIndexDao);
+        return engine;
+    }
+
+    private static AlertRule newRule(String code, AlertType type, double value) {
+        AlertRule rule = new AlertRule();
+        rule.setCode(code);
+        rule.setType(type);
+        rule.setValue(value);
+        return rule;
+    }
+
+    private static DailyIndex newQuote(String code, double price, double preClose) {
+        DailyIndex dailyIndex = new DailyIndex();
+        dailyIndex.setCode(code);
+        dailyIndex.setClosingPrice(BigDecimal.valueOf(price));
+        dailyIndex.setPreClosingPrice(BigDecimal.valueOf(preClose));
+        return dailyIndex;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> clazz, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(clazz.getClassLoader(), new Class<?>[] { clazz }, (proxy, method, args) -> {
+            if ("toString".equals(method.getName())) {
+                return clazz.getSimpleName();
+            }
+            return handler.invoke(proxy, method, args);
+        });
+    }
+
+}
@@ -0,0 +1,71 @@
+package vip.linhs.stock.backtest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import vip.linhs.stock.backtest.model.BacktestRequest;
+import vip.linhs.stock.backtest.model.BacktestResult;
+import vip.linhs.stock.backtest.model.Bar;
+import vip.linhs.stock.model.po.TradeRule;
+import vip.linhs.stock.model.vo.trade.TradeRuleVo;
+
+@SpringBootTest
+public class BacktestEngineTest {
+
+    @Autowired
+    private BacktestEngine backtestEngine;
+
+    @Test
+    public void testRun() {
+        BacktestRequest request = new BacktestRequest();
+        request.setStrategyBeanName("gridStrategyHandler");
+        request.setTradeRuleVo(buildTradeRuleVo());
+        request.setBarList(buildBarList());
+        request.setInitialCash(100000);
+        request.setInitialVolume(5000);
+        request.setRecordTrades(true);
+
+        BacktestResult result = backtestEngine.run(request);
+        Assertions.assertTrue(result.success(), result.getError());
+        Assertions.assertTrue(result.getBuyCount() > 0 && result.getSellCount() > 0);
+        Assertions.assertEquals(result.getBuyCount() + result.getSellCount(), result.getTradeList().size());
+        Assertions.assertEquals(5000 + (result.getBuyCount() - result.getSellCount()) * 1000, result.getFinalVolume());
+    }
+
+    private TradeRuleVo buildTradeRuleVo() {
+        TradeRuleVo tradeRuleVo = new TradeRuleVo();
+        tradeRuleVo.setId(1);
+        tradeRuleVo.setUserId(1);
+        tradeRuleVo.setStockCode("510300");
+        tradeRuleVo.setStockName("300ETF");
+        tradeRuleVo.setType(TradeRule.CalcType.PROPORTION.value());
+        tradeRuleVo.setValue(new BigDecimal("0.02"));
+        tradeRuleVo.setVolume(1000);
+        tradeRuleVo.setOpenPrice(new BigDecimal("4"));
+        tradeRuleVo.setHighestPrice(new BigDecimal("5"));
+        tradeRuleVo.setLowestPrice(new BigDecimal("3"));
+        return tradeRuleVo;
+    }
+
+    private List<Bar> buildBarList() {
+        ArrayList<Bar> list = new ArrayList<>();
+        Date date = DateUtils.addMinutes(DateUtils.addHours(new Date(1641139200000L), 1), 30);
+        for (int i = 0; i < 60; i++) {
+            double open = 4 + 0.2 * Math.sin(i / 3.0);
+            double close = 4 + 0.2 * Math.sin((i + 1) / 3.0);
+            Date start = DateUtils.addDays(date, i);
+            list.add(new Bar("sh510300", start, DateUtils.addMinutes(start, 330),
+                    open, Math.max(open, close) + 0.02, Math.min(open, close) - 0.02, close, 100000));
+        }
+        return list;
+    }
+
+}
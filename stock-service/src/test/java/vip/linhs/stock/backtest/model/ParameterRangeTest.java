@@ -0,0 +1,25 @@
+package vip.linhs.stock.backtest.model;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ParameterRangeTest {
+
+    @Test
+    public void testSize() {
+        Assertions.assertEquals(0, new ParameterRange().size());
+        Assertions.assertEquals(1, new ParameterRange(BigDecimal.ONE, null, null).size());
+        Assertions.assertEquals(0, new ParameterRange(BigDecimal.ONE, BigDecimal.ZERO, new BigDecimal("0.1")).size());
+
+        ParameterRange range = new ParameterRange(new BigDecimal("0.01"), new BigDecimal("0.05"), new BigDecimal("0.015"));
+        Assertions.assertEquals(3, range.size());
+        Assertions.assertEquals(range.values().size(), range.size());
+
+        // not built to be counted
+        range = new ParameterRange(BigDecimal.ZERO, new BigDecimal("1000"), new BigDecimal("1e-12"));
+        Assertions.assertEquals(1000000000000001L, range.size());
+    }
+
+}
@@ -0,0 +1,117 @@
+package vip.linhs.stock.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.request.GetDealDataRequest;
+import vip.linhs.stock.api.request.GetOrdersDataRequest;
+import vip.linhs.stock.api.request.RevokeRequest;
+import vip.linhs.stock.api.response.GetDealDataResponse;
+
+public class TradeReadCacheTest {
+
+    private final AtomicInteger callCount = new AtomicInteger();
+
+    private TradeReadCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new TradeReadCache();
+        ReflectionTestUtils.setField(cache, "readTtl", Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void testCoalesce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<TradeResultVo<GetDealDataResponse>>> futureList = new ArrayList<>();
+            futureList.add(executor.submit(() -> cache.send(new GetDealDataRequest(1), () -> {
+                started.countDown();
+                TradeReadCacheTest.await(release);
+                return newResult(0);
+            })));
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                futureList.add(executor.submit(() -> cache.send(new GetDealDataRequest(1), () -> newResult(0))));
+            }
+            // the others wait on the call in flight
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<TradeResultVo<GetDealDataResponse>> future : futureList) {
+                Assertions.assertEquals(1, future.get(5, TimeUnit.SECONDS).getData().size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, callCount.get());
+
+        // kept for the ttl, other users and methods apart
+        cache.send(new GetDealDataRequest(1), () -> newResult(0));
+        Assertions.assertEquals(1, callCount.get());
+        cache.send(new GetDealDataRequest(2), () -> newResult(0));
+        cache.send(new GetOrdersDataRequest(1), () -> newResult(0));
+        Assertions.assertEquals(3, callCount.get());
+
+        ReflectionTestUtils.setField(cache, "readTtl", Duration.ofMillis(1));
+        Thread.sleep(5);
+        cache.send(new GetDealDataRequest(1), () -> newResult(0));
+        Assertions.assertEquals(4, callCount.get());
+    }
+
+    @Test
+    public void testInvalidate() {
+        cache.send(new GetDealDataRequest(1), () -> newResult(0));
+        TradeResultVo<GetDealDataResponse> resultVo = cache.send(new GetDealDataRequest(1), () -> newResult(0));
+        resultVo.getData().clear();
+        Assertions.assertEquals(1, cache.send(new GetDealDataRequest(1), () -> newResult(0)).getData().size());
+        Assertions.assertEquals(1, callCount.get());
+
+        cache.send(new RevokeRequest(2), () -> newResult(0));
+        cache.send(new GetDealDataRequest(1), () -> newResult(0));
+        Assertions.assertEquals(2, callCount.get());
+        cache.send(new RevokeRequest(1), () -> newResult(0));
+        cache.send(new GetDealDataRequest(1), () -> newResult(0));
+        Assertions.assertEquals(4, callCount.get());
+
+        // failures go to the broker every time
+        callCount.set(0);
+        cache.send(new GetOrdersDataRequest(1), () -> newResult(-1));
+        cache.send(new GetOrdersDataRequest(1), () -> newResult(-1));
+        Assertions.assertEquals(2, callCount.get());
+    }
+
+    private <T> TradeResultVo<T> newResult(int status) {
+        callCount.incrementAndGet();
+        TradeResultVo<T> resultVo = new TradeResultVo<>();
+        resultVo.setStatus(status);
+        List<T> list = new ArrayList<>();
+        list.add(null);
+        resultVo.setData(status == 0 ? list : Collections.emptyList());
+        return resultVo;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
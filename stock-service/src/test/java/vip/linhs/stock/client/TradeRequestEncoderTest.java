@@ -0,0 +1,90 @@
+package vip.linhs.stock.client;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.commons.beanutils.BeanMap;
+import org.apache.http.Consts;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import vip.linhs.stock.api.TradeRequestEncoder;
+import vip.linhs.stock.api.request.CrSubmitRequest;
+import vip.linhs.stock.api.request.RevokeRequest;
+import vip.linhs.stock.api.request.SubmitRequest;
+
+public class TradeRequestEncoderTest {
+
+    @Test
+    public void testSubmit() throws IOException {
+        SubmitRequest request = new SubmitRequest(1);
+        request.setStockCode("600000");
+        request.setPrice(9.5);
+        request.setAmount(100);
+        request.setZqmc("浦发银行");
+        request.setMarket("HA");
+        request.setTradeType(SubmitRequest.B);
+
+        String body = TradeRequestEncoder.encodeForm(request);
+        Assertions.assertEquals("amount=100&market=HA&price=9.5&stockCode=600000&tradeType=B"
+                + "&zqmc=%E6%B5%A6%E5%8F%91%E9%93%B6%E8%A1%8C", body);
+        Assertions.assertEquals(oldEncodeForm(request), body);
+    }
+
+    @Test
+    public void testRevoke() throws IOException {
+        RevokeRequest request = new RevokeRequest(1);
+        request.setRevokes("20240102_123,20240102_456");
+
+        String body = TradeRequestEncoder.encodeForm(request);
+        Assertions.assertEquals("revokes=20240102_123%2C20240102_456", body);
+        Assertions.assertEquals(oldEncodeForm(request), body);
+    }
+
+    @Test
+    public void testCrSubmit() throws IOException {
+        CrSubmitRequest request = new CrSubmitRequest(1);
+        request.setStockCode("113050");
+        request.setPrice(101.234);
+        request.setAmount(10);
+        request.setTradeInfo(CrSubmitRequest.xyjylx_rz_b);
+        request.setStockName("转债 A&B=1+1/2%");
+        request.setZqmc("工行*转债");
+
+        String body = TradeRequestEncoder.encodeForm(request);
+        Assertions.assertEquals("amount=10&market=null&price=101.234&stockCode=113050"
+                + "&stockName=%E8%BD%AC%E5%80%BA+A%26B%3D1%2B1%2F2%25&tradeType=B&xyjylx=a"
+                + "&zqmc=%E5%B7%A5%E8%A1%8C*%E8%BD%AC%E5%80%BA", body);
+        Assertions.assertEquals(oldEncodeForm(request), body);
+    }
+
+    @Test
+    public void testAppendFormParam() {
+        StringBuilder sb = new StringBuilder("revokes=1");
+        TradeRequestEncoder.appendFormParam(sb, "userId", "a b&c");
+        Assertions.assertEquals("revokes=1&userId=a+b%26c", sb.toString());
+    }
+
+    /**
+     * the BeanMap and UrlEncodedFormEntity encoding sent before, with the
+     * params in name order instead of HashMap order
+     */
+    private static String oldEncodeForm(Object request) throws IOException {
+        Map<Object, Object> beanMap = new BeanMap(request);
+        HashMap<String, Object> params = new HashMap<>();
+        beanMap.entrySet().stream().filter(entry -> !"class".equals(entry.getKey())
+                && !"userId".equals(entry.getKey()) && !"method".equals(entry.getKey()))
+                .forEach(entry -> params.put(String.valueOf(entry.getKey()), entry.getValue()));
+        List<BasicNameValuePair> parameters = params.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .map(entry -> new BasicNameValuePair(entry.getKey(), String.valueOf(entry.getValue())))
+                .collect(Collectors.toList());
+        return EntityUtils.toString(new UrlEncodedFormEntity(parameters, Consts.UTF_8));
+    }
+
+}
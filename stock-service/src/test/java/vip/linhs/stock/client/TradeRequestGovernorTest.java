@@ -0,0 +1,83 @@
+package vip.linhs.stock.client;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import vip.linhs.stock.api.request.CrRevokeRequest;
+import vip.linhs.stock.api.request.GetDealDataRequest;
+import vip.linhs.stock.api.request.SubmitRequest;
+import vip.linhs.stock.model.vo.TradeBudgetVo;
+import vip.linhs.stock.scheduled.TaskRuntime;
+import vip.linhs.stock.scheduled.TaskRuntime.TaskGroup;
+
+public class TradeRequestGovernorTest {
+
+    private TradeBudgetProperties tradeBudgetProperties;
+    private TradeRequestGovernor governor;
+
+    @BeforeEach
+    public void setUp() {
+        tradeBudgetProperties = new TradeBudgetProperties();
+        tradeBudgetProperties.setRate(0);
+        tradeBudgetProperties.setBurst(4);
+        tradeBudgetProperties.setMaxWait(Duration.ofMillis(100));
+        governor = new TradeRequestGovernor();
+        ReflectionTestUtils.setField(governor, "tradeBudgetProperties", tradeBudgetProperties);
+    }
+
+    @Test
+    public void testPriority() {
+        Assertions.assertEquals(TradePriority.Order, TradeRequestGovernor.getPriority(new SubmitRequest(1)));
+        Assertions.assertEquals(TradePriority.Order, TradeRequestGovernor.getPriority(new CrRevokeRequest(1)));
+        Assertions.assertEquals(TradePriority.Ui, TradeRequestGovernor.getPriority(new GetDealDataRequest(1)));
+
+        @SuppressWarnings("unchecked")
+        ThreadLocal<TaskGroup> group = (ThreadLocal<TaskGroup>) ReflectionTestUtils.getField(TaskRuntime.class, "GROUP");
+        try {
+            group.set(TaskGroup.Trade);
+            Assertions.assertEquals(TradePriority.Strategy, TradeRequestGovernor.getPriority(new GetDealDataRequest(1)));
+            Assertions.assertEquals(TradePriority.Order, TradeRequestGovernor.getPriority(new SubmitRequest(1)));
+            group.set(TaskGroup.Session);
+            Assertions.assertEquals(TradePriority.Heartbeat, TradeRequestGovernor.getPriority(new GetDealDataRequest(1)));
+        } finally {
+            group.remove();
+        }
+    }
+
+    @Test
+    public void testBudget() {
+        // ui reads keep half of the burst for the others
+        Assertions.assertTrue(governor.acquire(1, TradePriority.Ui));
+        Assertions.assertTrue(governor.acquire(1, TradePriority.Ui));
+        Assertions.assertFalse(governor.acquire(1, TradePriority.Ui));
+        Assertions.assertTrue(governor.acquire(2, TradePriority.Ui));
+
+        Assertions.assertTrue(governor.acquire(1, TradePriority.Heartbeat));
+        // late but never shed
+        long time = System.nanoTime();
+        Assertions.assertTrue(governor.acquire(1, TradePriority.Heartbeat));
+        Assertions.assertTrue(System.nanoTime() - time >= Duration.ofMillis(100).toNanos());
+
+        Assertions.assertFalse(governor.acquire(1, TradePriority.Strategy));
+        Assertions.assertTrue(governor.acquire(1, TradePriority.Order));
+        Assertions.assertTrue(governor.acquire(1, TradePriority.Order));
+        Assertions.assertEquals(-2, governor.getBudgetList().stream().filter(v -> v.getUserId() == 1).findAny().get().getTokens(), 1e-9);
+
+        // three tokens short, earned back within the wait
+        tradeBudgetProperties.setRate(50);
+        Assertions.assertTrue(governor.acquire(1, TradePriority.Strategy));
+
+        TradeBudgetVo budgetVo = governor.getBudgetList().stream().filter(v -> v.getUserId() == 1).findAny().get();
+        Assertions.assertEquals(2, budgetVo.getOrderCount());
+        Assertions.assertEquals(1, budgetVo.getStrategyCount());
+        Assertions.assertEquals(2, budgetVo.getHeartbeatCount());
+        Assertions.assertEquals(2, budgetVo.getUiCount());
+        Assertions.assertEquals(2, budgetVo.getDelayedCount());
+        Assertions.assertEquals(2, budgetVo.getShedCount());
+    }
+
+}
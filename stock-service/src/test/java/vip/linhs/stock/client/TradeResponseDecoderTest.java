@@ -0,0 +1,102 @@
+package vip.linhs.stock.client;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import vip.linhs.stock.api.TradeResponseDecoder;
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.request.BaseTradeRequest;
+import vip.linhs.stock.api.response.CrGetRzrqAssertsResponse;
+import vip.linhs.stock.api.response.GetCanBuyNewStockListV3Response;
+import vip.linhs.stock.api.response.GetOrdersDataResponse;
+
+public class TradeResponseDecoderTest {
+
+    @Test
+    public void testDataList() {
+        String content = "{\"Message\":null,\"Status\":0,\"Count\":2,\"Errcode\":0,\"Data\":["
+                + "{\"Zqdm\":\"600000\",\"Zqmc\":\"浦发银行\",\"Wtbh\":\"123\",\"Wtzt\":\"已报\",\"Wtsl\":\"100\",\"Wtjg\":\"9.50\"},"
+                + "{\"Zqdm\":\"510300\",\"Zqmc\":\"300ETF\",\"Wtbh\":\"456\",\"Wtzt\":\"已撤\",\"Wtsl\":\"200\",\"Wtjg\":\"3.912\"}]}";
+        TradeResultVo<GetOrdersDataResponse> resultVo = TradeResponseDecoder.decode(content,
+                BaseTradeRequest.VERSION_DATA_LIST, GetOrdersDataResponse.class);
+        Assertions.assertTrue(resultVo.success());
+        Assertions.assertEquals(2, resultVo.getCount());
+        List<GetOrdersDataResponse> list = resultVo.getData();
+        Assertions.assertEquals(2, list.size());
+        Assertions.assertEquals("600000", list.get(0).getZqdm());
+        Assertions.assertEquals("浦发银行", list.get(0).getZqmc());
+        Assertions.assertEquals("123", list.get(0).getWtbh());
+        Assertions.assertEquals("已报", list.get(0).getWtzt());
+        Assertions.assertEquals("9.50", list.get(0).getWtjg());
+        Assertions.assertEquals("456", list.get(1).getWtbh());
+        Assertions.assertEquals("已撤", list.get(1).getWtzt());
+    }
+
+    @Test
+    public void testEmptyData() {
+        TradeResultVo<GetOrdersDataResponse> resultVo = TradeResponseDecoder.decode("{\"Status\":0,\"Data\":[]}",
+                BaseTradeRequest.VERSION_DATA_LIST, GetOrdersDataResponse.class);
+        Assertions.assertTrue(resultVo.success());
+        Assertions.assertTrue(resultVo.getData().isEmpty());
+
+        resultVo = TradeResponseDecoder.decode("{\"Status\":0}",
+                BaseTradeRequest.VERSION_DATA_LIST, GetOrdersDataResponse.class);
+        Assertions.assertTrue(resultVo.success());
+        Assertions.assertNotNull(resultVo.getData());
+        Assertions.assertTrue(resultVo.getData().isEmpty());
+    }
+
+    @Test
+    public void testError() {
+        String content = "{\"Message\":\"会话已超时，请重新登录!\",\"Status\":-2,\"Errcode\":-2,\"Data\":[{\"Zqdm\":\"600000\"}]}";
+        TradeResultVo<GetOrdersDataResponse> resultVo = TradeResponseDecoder.decode(content,
+                BaseTradeRequest.VERSION_DATA_LIST, GetOrdersDataResponse.class);
+        Assertions.assertFalse(resultVo.success());
+        Assertions.assertEquals(-2, resultVo.getStatus());
+        Assertions.assertEquals("会话已超时，请重新登录!", resultVo.getMessage());
+        Assertions.assertTrue(resultVo.getData().isEmpty());
+
+        TradeResultVo<CrGetRzrqAssertsResponse> objResultVo = TradeResponseDecoder.decode(
+                "{\"Message\":\"查询失败\",\"Status\":-1,\"Data\":null}",
+                BaseTradeRequest.VERSION_DATA_OBJ, CrGetRzrqAssertsResponse.class);
+        Assertions.assertFalse(objResultVo.success());
+        Assertions.assertEquals("查询失败", objResultVo.getMessage());
+        Assertions.assertTrue(objResultVo.getData().isEmpty());
+    }
+
+    @Test
+    public void testMsg() {
+        String content = "20240102_123: 撤单失败;20240102_456: 撤单成功";
+        TradeResultVo<Object> resultVo = TradeResponseDecoder.decode(content, BaseTradeRequest.VERSION_MSG, Object.class);
+        Assertions.assertTrue(resultVo.success());
+        Assertions.assertEquals(content, resultVo.getMessage());
+        Assertions.assertTrue(resultVo.getData().isEmpty());
+    }
+
+    @Test
+    public void testDataObj() {
+        String content = "{\"Message\":null,\"Status\":0,\"Data\":{\"Zzc\":\"100000.00\",\"Rzkyed\":\"50000.00\"}}";
+        TradeResultVo<CrGetRzrqAssertsResponse> resultVo = TradeResponseDecoder.decode(content,
+                BaseTradeRequest.VERSION_DATA_OBJ, CrGetRzrqAssertsResponse.class);
+        Assertions.assertTrue(resultVo.success());
+        Assertions.assertEquals(1, resultVo.getData().size());
+        Assertions.assertEquals("100000.00", resultVo.getData().get(0).getZzc());
+        Assertions.assertEquals("50000.00", resultVo.getData().get(0).getRzkyed());
+    }
+
+    @Test
+    public void testObj() {
+        String content = "{\"NewStockList\":[{\"Zqdm\":\"787001\",\"Market\":\"HA\"}],\"NewQuota\":[]}";
+        TradeResultVo<GetCanBuyNewStockListV3Response> resultVo = TradeResponseDecoder.decode(content,
+                BaseTradeRequest.VERSION_OBJ, GetCanBuyNewStockListV3Response.class);
+        Assertions.assertTrue(resultVo.success());
+        Assertions.assertEquals(1, resultVo.getData().size());
+        GetCanBuyNewStockListV3Response response = resultVo.getData().get(0);
+        Assertions.assertEquals(1, response.getNewStockList().size());
+        Assertions.assertEquals("787001", response.getNewStockList().get(0).getZqdm());
+        Assertions.assertTrue(response.getNewQuota().isEmpty());
+    }
+
+}
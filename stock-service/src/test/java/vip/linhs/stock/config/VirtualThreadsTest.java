@@ -0,0 +1,26 @@
+package vip.linhs.stock.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class VirtualThreadsTest {
+
+    @Test
+    public void testRuntimeGate() throws Exception {
+        boolean java21 = Integer.parseInt(System.getProperty("java.specification.version").replaceFirst("^1\\.", "")) >= 21;
+        Assertions.assertEquals(java21, VirtualThreads.isSupported());
+        if (!java21) {
+            Assertions.assertThrows(IllegalStateException.class, () -> VirtualThreads.newExecutor("test-"));
+            return;
+        }
+        ExecutorService executorService = VirtualThreads.newExecutor("test-");
+        String[] name = new String[1];
+        executorService.submit(() -> name[0] = Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+        executorService.shutdown();
+        Assertions.assertEquals("test-0", name[0]);
+    }
+
+}
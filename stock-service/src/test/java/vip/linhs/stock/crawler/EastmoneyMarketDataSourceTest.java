@@ -0,0 +1,16 @@
+package vip.linhs.stock.crawler;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EastmoneyMarketDataSourceTest {
+
+    @Test
+    public void testGetSecid() {
+        Assertions.assertEquals("1.600000", EastmoneyMarketDataSource.getSecid("sh600000"));
+        Assertions.assertEquals("1.000001", EastmoneyMarketDataSource.getSecid("sh000001"));
+        Assertions.assertEquals("0.000001", EastmoneyMarketDataSource.getSecid("sz000001"));
+        Assertions.assertEquals("0.830799", EastmoneyMarketDataSource.getSecid("bj830799"));
+    }
+
+}
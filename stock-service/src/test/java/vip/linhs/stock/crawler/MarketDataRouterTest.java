@@ -0,0 +1,168 @@
+package vip.linhs.stock.crawler;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import vip.linhs.stock.exception.ServiceException;
+import vip.linhs.stock.model.po.DailyIndex;
+
+public class MarketDataRouterTest {
+
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+    @AfterEach
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testFailover() {
+        FakeSource broken = new FakeSource("broken", 0, true, null);
+        FakeSource backup = new FakeSource("backup", 0, false, null);
+        MarketDataRouter router = newRouter(broken, backup);
+
+        List<DailyIndex> list = router.getDailyIndex(Arrays.asList("sh600000", "sz000001"));
+        Assertions.assertEquals(2, list.size());
+        Assertions.assertEquals(1, broken.calls.get());
+        Assertions.assertEquals(1, backup.calls.get());
+
+        for (int i = 0; i < 5; i++) {
+            router.getDailyIndex(Collections.singletonList("sh600000"));
+        }
+        // tripped, no longer asked first
+        int brokenCalls = broken.calls.get();
+        router.getDailyIndex(Collections.singletonList("sh600000"));
+        Assertions.assertEquals(brokenCalls, broken.calls.get());
+    }
+
+    @Test
+    public void testAllFailed() {
+        MarketDataRouter router = newRouter(new FakeSource("a", 0, true, null), new FakeSource("b", 0, true, null));
+        Assertions.assertThrows(ServiceException.class, () -> router.getDailyIndex(Collections.singletonList("sh600000")));
+    }
+
+    @Test
+    public void testHedge() {
+        FakeSource slow = new FakeSource("slow", 3000, false, null);
+        FakeSource fast = new FakeSource("fast", 0, false, null);
+        MarketDataRouter router = newRouter(slow, fast);
+
+        long startTime = System.currentTimeMillis();
+        List<DailyIndex> list = router.getDailyIndex(Collections.singletonList("sh600000"));
+        long elapsed = System.currentTimeMillis() - startTime;
+        Assertions.assertEquals(1, list.size());
+        Assertions.assertEquals(1, fast.calls.get());
+        Assertions.assertTrue(elapsed < 2500, "elapsed " + elapsed);
+    }
+
+    @Test
+    public void testFillMissing() {
+        FakeSource stocks = new FakeSource("stocks", 0, false, "sh6");
+        FakeSource all = new FakeSource("all", 0, false, null);
+        MarketDataRouter router = newRouter(stocks, all);
+
+        List<DailyIndex> list = router.getDailyIndex(Arrays.asList("sh600000", "sh000001", "sh600036"));
+        Assertions.assertEquals(3, list.size());
+        Assertions.assertEquals(Collections.singletonList("sh000001"), all.lastCodeList);
+    }
+
+    @Test
+    public void testCapability() {
+        FakeSource quote = new FakeSource("quote", 0, true, null);
+        AtomicInteger historyCalls = new AtomicInteger();
+        MarketDataSource history = new MarketDataSource() {
+            @Override
+            public String getName() {
+                return "history";
+            }
+
+            @Override
+            public Set<Capability> getCapabilities() {
+                return EnumSet.of(Capability.History);
+            }
+
+            @Override
+            public List<DailyIndex> getDailyIndex(List<String> codeList) {
+                historyCalls.incrementAndGet();
+                return Collections.emptyList();
+            }
+        };
+        MarketDataRouter router = newRouter(history, quote);
+
+        Assertions.assertFalse(history.supports(MarketDataSource.Capability.Quote));
+        Assertions.assertThrows(ServiceException.class, () -> router.getDailyIndex(Collections.singletonList("sh600000")));
+        Assertions.assertEquals(1, quote.calls.get());
+        Assertions.assertEquals(0, historyCalls.get());
+        Assertions.assertThrows(ServiceException.class, router::getStockList);
+    }
+
+    private MarketDataRouter newRouter(MarketDataSource... sources) {
+        MarketDataRouter router = new MarketDataRouter();
+        ReflectionTestUtils.setField(router, "sources", Arrays.asList(sources));
+        ReflectionTestUtils.setField(router, "threadPoolTaskExecutor", executorService);
+        router.init();
+        return router;
+    }
+
+    private static class FakeSource implements MarketDataSource {
+
+        private final String name;
+        private final long delay;
+        private final boolean broken;
+        private final String prefix;
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile List<String> lastCodeList;
+
+        private FakeSource(String name, long delay, boolean broken, String prefix) {
+            this.name = name;
+            this.delay = delay;
+            this.broken = broken;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Set<Capability> getCapabilities() {
+            return EnumSet.of(Capability.Quote);
+        }
+
+        @Override
+        public List<DailyIndex> getDailyIndex(List<String> codeList) {
+            calls.incrementAndGet();
+            lastCodeList = codeList;
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (broken) {
+                throw new ServiceException(name + " down");
+            }
+            return codeList.stream().filter(code -> prefix == null || code.startsWith(prefix)).map(code -> {
+                DailyIndex dailyIndex = new DailyIndex();
+                dailyIndex.setCode(code);
+                return dailyIndex;
+            }).collect(Collectors.toList());
+        }
+
+    }
+
+}
@@ -0,0 +1,45 @@
+package vip.linhs.stock.crawler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SinaQuoteFetcherTest {
+
+    @Test
+    public void testSplit() {
+        List<String> codeList = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            codeList.add(String.format("sh%06d", i));
+        }
+        List<List<String>> batches = SinaQuoteFetcher.split(codeList, 800);
+        int count = 0;
+        for (List<String> batch : batches) {
+            Assertions.assertTrue(batch.size() <= 800);
+            Assertions.assertTrue(("https://hq.sinajs.cn/list=" + String.join(",", batch)).length() <= 8000);
+            count += batch.size();
+        }
+        Assertions.assertEquals(codeList.size(), count);
+        Assertions.assertEquals(7, batches.size());
+
+        Assertions.assertEquals(1, SinaQuoteFetcher.split(codeList.subList(0, 1), 800).size());
+    }
+
+    @Test
+    public void testAdaptiveBatchSize() {
+        AdaptiveBatchSize batchSize = new AdaptiveBatchSize(50, 800, 400, 50, 800);
+        batchSize.onSuccess(100);
+        Assertions.assertEquals(450, batchSize.get());
+        batchSize.onSuccess(1000);
+        Assertions.assertEquals(450, batchSize.get());
+        batchSize.onSuccess(2000);
+        Assertions.assertEquals(225, batchSize.get());
+        for (int i = 0; i < 10; i++) {
+            batchSize.onError();
+        }
+        Assertions.assertEquals(50, batchSize.get());
+    }
+
+}
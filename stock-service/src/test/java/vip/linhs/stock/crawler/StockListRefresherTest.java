@@ -0,0 +1,100 @@
+package vip.linhs.stock.crawler;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import vip.linhs.stock.model.po.StockInfo;
+import vip.linhs.stock.parser.impl.EastmoneyStockInfoParserImpl;
+import vip.linhs.stock.util.HttpUtil.ConditionalResponse;
+
+public class StockListRefresherTest {
+
+    private FakeSource source;
+    private StockListRefresher refresher;
+
+    @BeforeEach
+    public void setUp() {
+        source = new FakeSource();
+        refresher = new StockListRefresher();
+        ReflectionTestUtils.setField(refresher, "eastmoneyMarketDataSource", source);
+        ReflectionTestUtils.setField(refresher, "eastmoneyStockInfoParser", new EastmoneyStockInfoParserImpl());
+    }
+
+    @Test
+    public void testDelta() {
+        StockInfo saved = new StockInfo();
+        saved.setCode("600000");
+        saved.setExchange("sh");
+        saved.setName("浦发银行");
+        source.respond(200, "\"W/1\"", row("600000", 1, "浦发银行"), row("000001", 0, "平安银行"));
+
+        StockListDelta delta = refresher.fetchDelta(Collections.singletonList(saved));
+        Assertions.assertFalse(delta.isNotModified());
+        Assertions.assertEquals(2, delta.getTotal());
+        Assertions.assertEquals(1, delta.getChangedList().size());
+        Assertions.assertEquals("000001", delta.getChangedList().get(0).getCode());
+        Assertions.assertEquals("payh", delta.getChangedList().get(0).getAbbreviation());
+        Assertions.assertNull(source.lastEtag);
+
+        // not committed, the same rows come back
+        delta = refresher.fetchDelta(Collections.singletonList(saved));
+        Assertions.assertEquals(1, delta.getChangedList().size());
+        refresher.commit(delta);
+
+        source.respond(200, "\"W/2\"", row("600000", 1, "浦发银行"), row("000001", 0, "ST平安"));
+        delta = refresher.fetchDelta(Collections.emptyList());
+        Assertions.assertEquals("\"W/1\"", source.lastEtag);
+        Assertions.assertEquals(1, delta.getChangedList().size());
+        Assertions.assertEquals("ST平安", delta.getChangedList().get(0).getName());
+    }
+
+    @Test
+    public void testNotModified() {
+        source.respond(200, "\"W/1\"", row("600000", 1, "浦发银行"));
+        refresher.commit(refresher.fetchDelta(Collections.emptyList()));
+
+        source.respond(304, "\"W/1\"");
+        StockListDelta delta = refresher.fetchDelta(Collections.emptyList());
+        Assertions.assertTrue(delta.isNotModified());
+        Assertions.assertTrue(delta.getChangedList().isEmpty());
+        refresher.commit(delta);
+
+        source.respond(200, "\"W/1\"", row("600000", 1, "浦发银行"));
+        Assertions.assertTrue(refresher.fetchDelta(Collections.emptyList()).getChangedList().isEmpty());
+    }
+
+    private static String row(String code, int market, String name) {
+        return String.format("{\"f12\":\"%s\",\"f13\":%d,\"f14\":\"%s\"}", code, market, name);
+    }
+
+    private static class FakeSource extends EastmoneyMarketDataSource {
+
+        private ConditionalResponse response;
+        private String lastEtag;
+
+        private void respond(int status, String etag, String... rows) {
+            response = new ConditionalResponse();
+            ReflectionTestUtils.setField(response, "status", status);
+            ReflectionTestUtils.setField(response, "etag", etag);
+            if (status == 200) {
+                List<String> rowList = Arrays.asList(rows);
+                ReflectionTestUtils.setField(response, "content",
+                        "{\"data\":{\"diff\":[" + String.join(",", rowList) + "]}}");
+            }
+        }
+
+        @Override
+        public ConditionalResponse getStockListResponse(String etag, String lastModified) {
+            lastEtag = etag;
+            return response;
+        }
+
+    }
+
+}
@@ -0,0 +1,257 @@
+package vip.linhs.stock.indicator;
+
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import vip.linhs.stock.dao.DailyIndexDao;
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.model.vo.DailyIndexVo;
+import vip.linhs.stock.model.vo.IndicatorVo;
+import vip.linhs.stock.model.vo.PageParam;
+import vip.linhs.stock.model.vo.PageVo;
+import vip.linhs.stock.parser.DailyIndexParser;
+
+public class IndicatorEngineTest {
+
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void testAgainstFullRecompute() {
+        Random random = new Random(7);
+        int n = 300;
+        double[] high = new double[n];
+        double[] low = new double[n];
+        double[] close = new double[n];
+        long[] volume = new long[n];
+        double[] value = new double[n];
+        IndicatorState state = IndicatorState.newDaily();
+        double price = 10;
+        for (int i = 0; i < n; i++) {
+            price = Math.max(1, price + random.nextGaussian() * 0.2);
+            close[i] = price;
+            high[i] = price + random.nextDouble() * 0.3;
+            low[i] = price - random.nextDouble() * 0.3;
+            volume[i] = 1000 + random.nextInt(10000);
+            value[i] = volume[i] * price;
+            state.update(i, high[i], low[i], close[i], volume[i], value[i]);
+        }
+        IndicatorVo vo = state.toVo("sh600000");
+
+        Assertions.assertEquals(IndicatorEngineTest.average(close, n - 5, n), vo.getMa5(), DELTA);
+        Assertions.assertEquals(IndicatorEngineTest.average(close, n - 60, n), vo.getMa60(), DELTA);
+
+        double emaShort = close[0];
+        double emaLong = close[0];
+        double dea = 0;
+        for (int i = 1; i < n; i++) {
+            emaShort = emaShort * 11 / 13 + close[i] * 2 / 13;
+            emaLong = emaLong * 25 / 27 + close[i] * 2 / 27;
+            dea = dea * 8 / 10 + (emaShort - emaLong) * 2 / 10;
+        }
+        Assertions.assertEquals(emaShort - emaLong, vo.getDif(), DELTA);
+        Assertions.assertEquals(2 * (emaShort - emaLong - dea), vo.getMacd(), DELTA);
+
+        double avgGain = 0;
+        double avgLoss = 0;
+        for (int i = 1; i <= 14; i++) {
+            avgGain += Math.max(close[i] - close[i - 1], 0) / 14;
+            avgLoss += Math.max(close[i - 1] - close[i], 0) / 14;
+        }
+        for (int i = 15; i < n; i++) {
+            avgGain = (avgGain * 13 + Math.max(close[i] - close[i - 1], 0)) / 14;
+            avgLoss = (avgLoss * 13 + Math.max(close[i - 1] - close[i], 0)) / 14;
+        }
+        Assertions.assertEquals(100 - 100 / (1 + avgGain / avgLoss), vo.getRsi(), DELTA);
+
+        double atr = high[0] - low[0];
+        for (int i = 1; i < 14; i++) {
+            atr += IndicatorEngineTest.tr(high, low, close, i);
+        }
+        atr /= 14;
+        for (int i = 14; i < n; i++) {
+            atr = (atr * 13 + IndicatorEngineTest.tr(high, low, close, i)) / 14;
+        }
+        Assertions.assertEquals(atr, vo.getAtr(), DELTA);
+
+        double mid = IndicatorEngineTest.average(close, n - 20, n);
+        double variance = 0;
+        double valueSum = 0;
+        double volumeSum = 0;
+        for (int i = n - 20; i < n; i++) {
+            variance += (close[i] - mid) * (close[i] - mid) / 20;
+            valueSum += value[i];
+            volumeSum += volume[i];
+        }
+        Assertions.assertEquals(mid + 2 * Math.sqrt(variance), vo.getBollUpper(), DELTA);
+        Assertions.assertEquals(valueSum / volumeSum, vo.getVwap(), DELTA);
+    }
+
+    @Test
+    public void testWarmUp() {
+        IndicatorState state = IndicatorState.newDaily();
+        for (int i = 0; i < 14; i++) {
+            state.update(i, 11, 9, 10, 100, 1000);
+        }
+        IndicatorVo vo = state.toVo("sh600000");
+        Assertions.assertEquals(10, vo.getMa10(), DELTA);
+        Assertions.assertNull(vo.getMa20());
+        Assertions.assertNull(vo.getBollMid());
+        Assertions.assertNull(vo.getRsi());
+        Assertions.assertEquals(2, vo.getAtr(), DELTA);
+    }
+
+    @Test
+    public void testIntradayBars() {
+        IndicatorEngine engine = new IndicatorEngine();
+        long start = DateUtils.truncate(new Date(), Calendar.DATE).getTime() + 10 * DateUtils.MILLIS_PER_HOUR;
+        for (int i = 0; i < 8; i++) {
+            // four quotes a minute, running volume and value of the day
+            engine.onQuote(IndicatorEngineTest.newList("sh600000", start + i * 15000L, 10 + i * 0.1, 100 * (i + 1)));
+        }
+        IndicatorVo vo = engine.getIntraday("sh600000");
+        Assertions.assertEquals(1, vo.getCount());
+        Assertions.assertEquals(10.3, vo.getEma12(), DELTA);
+        Assertions.assertEquals(10.3, vo.getVwap(), DELTA);
+    }
+
+    @Test
+    public void testIntradayBarsFromSina() {
+        DailyIndexParser dailyIndexParser = new DailyIndexParser();
+        IndicatorEngine engine = new IndicatorEngine();
+        for (int i = 0; i < 8; i++) {
+            String time = String.format("10:%02d:%02d", i / 4, i % 4 * 15);
+            String content = "var hq_str_sh600000=\"浦发银行,10.000,9.900," + (10 + i * 0.1) + ",11.000,9.800,10.000,10.010,"
+                    + 100 * (i + 1) + "," + 1000 * (i + 1) + ",100,10.000,100,9.990,100,9.980,100,9.970,100,9.960,"
+                    + "100,10.010,100,10.020,100,10.030,100,10.040,100,10.050,2023-03-24," + time + ",00,\";\n";
+            engine.onQuote(dailyIndexParser.parseDailyIndexList(content.getBytes(Charset.forName("gbk"))));
+        }
+        IndicatorVo vo = engine.getIntraday("sh600000");
+        Assertions.assertEquals(1, vo.getCount());
+        Assertions.assertEquals(10.3, vo.getEma12(), DELTA);
+    }
+
+    @Test
+    public void testBulkInitialize() {
+        int symbols = 5000;
+        int days = 120;
+        IndicatorEngine engine = new IndicatorEngine();
+        ReflectionTestUtils.setField(engine, "dailyIndexDao", new FakeDailyIndexDao(symbols, days));
+        engine.initialize();
+        IndicatorVo vo = engine.getDaily("sz000010");
+        Assertions.assertEquals(days, vo.getCount());
+        Assertions.assertNotNull(vo.getMa60());
+
+        List<DailyIndex> list = new ArrayList<>(symbols);
+        Date date = DateUtils.addDays(new Date(), 1);
+        for (int i = 0; i < symbols; i++) {
+            list.add(IndicatorEngineTest.newDailyIndex(FakeDailyIndexDao.code(i), date, 10));
+        }
+        long startTime = System.currentTimeMillis();
+        engine.onDailyIndex(list);
+        long elapsed = System.currentTimeMillis() - startTime;
+        Assertions.assertTrue(elapsed < 500, "elapsed " + elapsed);
+        Assertions.assertEquals(days + 1, engine.getDaily("sz000010").getCount());
+
+        // the same day again is skipped
+        engine.onDailyIndex(list);
+        Assertions.assertEquals(days + 1, engine.getDaily("sz000010").getCount());
+    }
+
+    private static double average(double[] values, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum / (to - from);
+    }
+
+    private static double tr(double[] high, double[] low, double[] close, int i) {
+        return Math.max(high[i] - low[i], Math.max(Math.abs(high[i] - close[i - 1]), Math.abs(low[i] - close[i - 1])));
+    }
+
+    private static List<DailyIndex> newList(String code, long time, double price, long volume) {
+        List<DailyIndex> list = new ArrayList<>();
+        DailyIndex dailyIndex = IndicatorEngineTest.newDailyIndex(code, DateUtils.truncate(new Date(time), Calendar.DATE), price);
+        dailyIndex.setQuoteTime(new Date(time));
+        dailyIndex.setTradingVolume(volume);
+        dailyIndex.setTradingValue(BigDecimal.valueOf(volume * price));
+        list.add(dailyIndex);
+        return list;
+    }
+
+    private static DailyIndex newDailyIndex(String code, Date date, double price) {
+        DailyIndex dailyIndex = new DailyIndex();
+        dailyIndex.setCode(code);
+        dailyIndex.setDate(date);
+        dailyIndex.setClosingPrice(BigDecimal.valueOf(price));
+        dailyIndex.setHighestPrice(BigDecimal.valueOf(price * 1.02));
+        dailyIndex.setLowestPrice(BigDecimal.valueOf(price * 0.98));
+        dailyIndex.setOpeningPrice(BigDecimal.valueOf(price));
+        dailyIndex.setTradingVolume(1000);
+        dailyIndex.setTradingValue(BigDecimal.valueOf(price * 1000));
+        return dailyIndex;
+    }
+
+    private static class FakeDailyIndexDao implements DailyIndexDao {
+
+        private final int symbols;
+        private final int days;
+
+        private FakeDailyIndexDao(int symbols, int days) {
+            this.symbols = symbols;
+            this.days = days;
+        }
+
+        private static String code(int i) {
+            return String.format("sz%06d", i);
+        }
+
+        @Override
+        public void forEachDailyIndex(Date startDate, Date endDate, Consumer<DailyIndex> consumer) {
+            Random random = new Random(1);
+            Date[] dates = new Date[days];
+            for (int j = 0; j < days; j++) {
+                dates[j] = DateUtils.addDays(endDate, j - days);
+            }
+            for (int i = 0; i < symbols; i++) {
+                double price = 10;
+                for (int j = 0; j < days; j++) {
+                    price = Math.max(1, price + random.nextGaussian() * 0.1);
+                    consumer.accept(IndicatorEngineTest.newDailyIndex(FakeDailyIndexDao.code(i), dates[j], price));
+                }
+            }
+        }
+
+        @Override
+        public void save(List<DailyIndex> list) {
+        }
+
+        @Override
+        public PageVo<DailyIndexVo> getDailyIndexList(PageParam pageParam) {
+            return null;
+        }
+
+        @Override
+        public List<DailyIndex> getDailyIndexListByDate(Date date) {
+            return null;
+        }
+
+        @Override
+        public List<DailyIndex> getDailyIndexListByCode(String code, Date startDate, Date endDate) {
+            return null;
+        }
+
+    }
+
+}
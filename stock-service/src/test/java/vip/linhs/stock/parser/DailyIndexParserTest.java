@@ -0,0 +1,47 @@
+package vip.linhs.stock.parser;
+
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import vip.linhs.stock.model.po.DailyIndex;
+
+public class DailyIndexParserTest {
+
+    private static final String CONTENT = "var hq_str_sh600000=\"浦发银行,7.100,7.090,7.150,7.180,7.060,7.140,7.150,25384371,181526738.000,"
+            + "134600,7.140,386300,7.130,363400,7.120,194200,7.110,263300,7.100,129300,7.150,407700,7.160,381300,7.170,316800,7.180,342700,7.190,"
+            + "2023-03-24,15:00:00,00,\";\n"
+            + "var hq_str_sh000000=\"\";\n"
+            + "var hq_str_sz000001=\"平安银行,12.650,12.640,12.530,12.690,12.470,12.520,12.530,61209519,768393566.160,"
+            + "61500,12.520,45600,12.510,70500,12.500,37200,12.490,24000,12.480,3500,12.530,63500,12.540,80800,12.550,50700,12.560,40100,12.570,"
+            + "2023-03-24,15:00:00,00\";\n";
+
+    private final DailyIndexParser dailyIndexParser = new DailyIndexParser();
+
+    @Test
+    public void testParseBytes() throws Exception {
+        List<DailyIndex> expected = dailyIndexParser.parseDailyIndexList(DailyIndexParserTest.CONTENT);
+        List<DailyIndex> actual = dailyIndexParser.parseDailyIndexList(DailyIndexParserTest.CONTENT.getBytes(Charset.forName("gbk")));
+        Assertions.assertEquals(2, expected.size());
+        Assertions.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            DailyIndex e = expected.get(i);
+            DailyIndex a = actual.get(i);
+            Assertions.assertEquals(e.getCode(), a.getCode());
+            Assertions.assertEquals(e.getDate(), a.getDate());
+            Assertions.assertEquals(e.getQuoteTime(), a.getQuoteTime());
+            Assertions.assertEquals(e.getOpeningPrice(), a.getOpeningPrice());
+            Assertions.assertEquals(e.getPreClosingPrice(), a.getPreClosingPrice());
+            Assertions.assertEquals(e.getClosingPrice(), a.getClosingPrice());
+            Assertions.assertEquals(e.getHighestPrice(), a.getHighestPrice());
+            Assertions.assertEquals(e.getLowestPrice(), a.getLowestPrice());
+            Assertions.assertEquals(e.getTradingVolume(), a.getTradingVolume());
+            Assertions.assertEquals(e.getTradingValue(), a.getTradingValue());
+            Assertions.assertEquals(DateUtils.parseDate("2023-03-24 15:00:00", "yyyy-MM-dd HH:mm:ss"), a.getQuoteTime());
+        }
+    }
+
+}
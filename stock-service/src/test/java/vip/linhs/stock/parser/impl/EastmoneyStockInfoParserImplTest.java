@@ -0,0 +1,45 @@
+package vip.linhs.stock.parser.impl;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.parser.StockInfoParser.EmStock;
+
+public class EastmoneyStockInfoParserImplTest {
+
+    private static final String CONTENT = "{\"rc\":0,\"rt\":11,\"data\":{\"total\":3,\"diff\":["
+            + "{\"f1\":2,\"f2\":715,\"f5\":253843,\"f6\":181526738.0,\"f8\":9,\"f12\":\"600000\",\"f13\":1,\"f15\":718,\"f16\":706,\"f17\":710,\"f18\":709},"
+            + "{\"f1\":3,\"f2\":3912,\"f5\":5732100,\"f6\":2241826000.0,\"f8\":65,\"f12\":\"510300\",\"f13\":1,\"f15\":3925,\"f16\":3890,\"f17\":3901,\"f18\":3898},"
+            + "{\"f1\":3,\"f2\":128456,\"f5\":10230,\"f6\":13140000.0,\"f8\":112,\"f12\":\"128136\",\"f13\":0,\"f15\":129000,\"f16\":127800,\"f17\":128000,\"f18\":127950}"
+            + "]}}";
+
+    @Test
+    public void testPriceScale() {
+        List<EmStock> list = new EastmoneyStockInfoParserImpl().parseStockInfoList(EastmoneyStockInfoParserImplTest.CONTENT);
+        Assertions.assertEquals(3, list.size());
+
+        DailyIndex stock = list.get(0).getDailyIndex();
+        Assertions.assertEquals("sh600000", stock.getCode());
+        Assertions.assertEquals(0, new BigDecimal("7.15").compareTo(stock.getClosingPrice()));
+        Assertions.assertEquals(0, new BigDecimal("7.09").compareTo(stock.getPreClosingPrice()));
+        Assertions.assertEquals(0, new BigDecimal("0.09").compareTo(stock.getRurnoverRate()));
+
+        DailyIndex etf = list.get(1).getDailyIndex();
+        Assertions.assertEquals("sh510300", etf.getCode());
+        Assertions.assertEquals(0, new BigDecimal("3.912").compareTo(etf.getClosingPrice()));
+        Assertions.assertEquals(0, new BigDecimal("3.925").compareTo(etf.getHighestPrice()));
+        Assertions.assertEquals(0, new BigDecimal("3.890").compareTo(etf.getLowestPrice()));
+        Assertions.assertEquals(0, new BigDecimal("3.901").compareTo(etf.getOpeningPrice()));
+        Assertions.assertEquals(0, new BigDecimal("0.65").compareTo(etf.getRurnoverRate()));
+
+        DailyIndex bond = list.get(2).getDailyIndex();
+        Assertions.assertEquals("sz128136", bond.getCode());
+        Assertions.assertEquals(0, new BigDecimal("128.456").compareTo(bond.getClosingPrice()));
+        Assertions.assertEquals(0, new BigDecimal("127.95").compareTo(bond.getPreClosingPrice()));
+    }
+
+}
@@ -0,0 +1,180 @@
+package vip.linhs.stock.portfolio;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.response.GetDealDataResponse;
+import vip.linhs.stock.api.response.GetStockListResponse;
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.model.po.StockInfo;
+import vip.linhs.stock.model.vo.trade.StockVo;
+import vip.linhs.stock.service.StockService;
+import vip.linhs.stock.service.SystemConfigService;
+import vip.linhs.stock.service.TradeApiService;
+
+public class PortfolioEngineTest {
+
+    private static final double DELTA = 1e-6;
+
+    private final AtomicInteger brokerCount = new AtomicInteger();
+    private final List<GetStockListResponse> stockList = new ArrayList<>();
+    private final List<GetDealDataResponse> dealList = new ArrayList<>();
+
+    private PortfolioEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        stockList.add(PortfolioEngineTest.newStock("600000", 1000, 800, 10));
+        stockList.add(PortfolioEngineTest.newStock("000001", 500, 500, 20));
+        dealList.add(PortfolioEngineTest.newDeal("1", "600000", GetDealDataResponse.B, 10, 200));
+
+        TradeApiService tradeApiService = PortfolioEngineTest.fake(TradeApiService.class, (proxy, method, args) -> {
+            TradeResultVo<Object> resultVo = new TradeResultVo<>();
+            if ("getStockList".equals(method.getName())) {
+                brokerCount.incrementAndGet();
+                resultVo.setData(new ArrayList<>(stockList));
+            } else if ("getDealData".equals(method.getName())) {
+                resultVo.setData(new ArrayList<>(dealList));
+            } else {
+                resultVo.setData(Collections.emptyList());
+            }
+            return resultVo;
+        });
+        StockService stockService = PortfolioEngineTest.fake(StockService.class, (proxy, method, args) -> {
+            StockInfo stockInfo = new StockInfo();
+            stockInfo.setCode(args[0].toString().substring(2));
+            stockInfo.setExchange(args[0].toString().substring(0, 2));
+            return stockInfo;
+        });
+        SystemConfigService systemConfigService = PortfolioEngineTest.fake(SystemConfigService.class, (proxy, method, args) -> false);
+
+        engine = new PortfolioEngine();
+        ReflectionTestUtils.setField(engine, "reconcileInterval", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(engine, "tradeApiService", tradeApiService);
+        ReflectionTestUtils.setField(engine, "stockService", stockService);
+        ReflectionTestUtils.setField(engine, "systemConfigService", systemConfigService);
+    }
+
+    @Test
+    public void testMarkToMarket() {
+        Portfolio portfolio = engine.getPortfolio(1, false);
+        Assertions.assertEquals(1000 * 10 + 500 * 20, portfolio.getCost(), DELTA);
+        Assertions.assertEquals(Arrays.asList("sh600000", "sz000001"), engine.getCodeList());
+
+        engine.onQuote(Arrays.asList(PortfolioEngineTest.newQuote("sh600000", 11, 10.5), PortfolioEngineTest.newQuote("sh600001", 5, 5)));
+        Assertions.assertEquals(1000, portfolio.getUnrealizedProfit(), DELTA);
+        engine.onQuote(Collections.singletonList(PortfolioEngineTest.newQuote("sz000001", 19, 19)));
+        Assertions.assertEquals(1000 * 11 + 500 * 19, portfolio.getMarketValue(), DELTA);
+        Assertions.assertEquals(500, portfolio.getUnrealizedProfit(), DELTA);
+
+        List<StockVo> list = engine.getStockList(1, false);
+        Assertions.assertEquals(1, brokerCount.get());
+        StockVo stockVo = list.get(0);
+        Assertions.assertEquals(new BigDecimal("11.000"), stockVo.getPrice());
+        Assertions.assertEquals(new BigDecimal("1000.00"), stockVo.getProfit());
+        Assertions.assertEquals(1.0 / 21, stockVo.getRate().doubleValue(), 1e-6);
+    }
+
+    @Test
+    public void testDeals() {
+        Portfolio portfolio = engine.getPortfolio(1, false);
+        engine.onQuote(Collections.singletonList(PortfolioEngineTest.newQuote("sh600000", 12, 12)));
+
+        // deal 1 is part of the positions, bought shares are not available today
+        dealList.add(PortfolioEngineTest.newDeal("2", "600000", GetDealDataResponse.B, 11, 1000));
+        dealList.add(PortfolioEngineTest.newDeal("3", "600000", GetDealDataResponse.S, 12, 500));
+        engine.onDeal(1, false, dealList);
+        engine.onDeal(1, false, dealList);
+
+        StockVo stockVo = engine.getStockList(1, false).get(0);
+        Assertions.assertEquals(1500, stockVo.getTotalVolume());
+        Assertions.assertEquals(300, stockVo.getAvailableVolume());
+        Assertions.assertEquals(new BigDecimal("10.500"), stockVo.getCostPrice());
+        Assertions.assertEquals(750, portfolio.getRealizedProfit(), DELTA);
+        Assertions.assertEquals(1500 * 1.5, portfolio.getUnrealizedProfit(), DELTA);
+
+        // selling it all drops the position, more than held asks for the broker again
+        engine.onDeal(1, false, Collections.singletonList(PortfolioEngineTest.newDeal("4", "000001", GetDealDataResponse.S, 21, 500)));
+        Assertions.assertEquals(Collections.singletonList("sh600000"), engine.getCodeList());
+        Assertions.assertEquals(1250, portfolio.getRealizedProfit(), DELTA);
+        engine.onDeal(1, false, Collections.singletonList(PortfolioEngineTest.newDeal("5", "000001", GetDealDataResponse.S, 21, 100)));
+        Assertions.assertEquals(0, portfolio.getReconcileTime());
+    }
+
+    @Test
+    public void testBeginOfDay() {
+        Portfolio portfolio = engine.getPortfolio(1, false);
+        dealList.add(PortfolioEngineTest.newDeal("2", "600000", GetDealDataResponse.S, 12, 100));
+        engine.onDeal(1, false, dealList);
+        Assertions.assertEquals(200, portfolio.getRealizedProfit(), DELTA);
+
+        engine.beginOfDay();
+        Assertions.assertEquals(0, portfolio.getRealizedProfit(), DELTA);
+        Assertions.assertEquals(900, engine.getStockList(1, false).get(0).getAvailableVolume());
+        Assertions.assertEquals(1, brokerCount.get());
+    }
+
+    @Test
+    public void testReconcile() {
+        Portfolio portfolio = engine.getPortfolio(1, false);
+        engine.onQuote(Collections.singletonList(PortfolioEngineTest.newQuote("sh600000", 12, 11)));
+        engine.reconcileIfStale(1);
+        Assertions.assertEquals(1, brokerCount.get());
+
+        stockList.remove(1);
+        ReflectionTestUtils.setField(portfolio, "reconcileTime", 1L);
+        engine.reconcileIfStale(1);
+        Assertions.assertEquals(2, brokerCount.get());
+        Assertions.assertEquals(1000 * 12, portfolio.getMarketValue(), DELTA);
+        Assertions.assertEquals(2000, portfolio.getUnrealizedProfit(), DELTA);
+    }
+
+    private static <T> T fake(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(PortfolioEngineTest.class.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> "toString".equals(method.getName()) ? type.getSimpleName() : handler.invoke(proxy, method, args)));
+    }
+
+    private static GetStockListResponse newStock(String code, int volume, int availableVolume, double price) {
+        GetStockListResponse response = new GetStockListResponse();
+        response.setZqdm(code);
+        response.setZqmc(code);
+        response.setZqsl(String.valueOf(volume));
+        response.setKysl(String.valueOf(availableVolume));
+        response.setCbjg(String.valueOf(price));
+        response.setZxjg(String.valueOf(price));
+        return response;
+    }
+
+    private static GetDealDataResponse newDeal(String dealCode, String code, String tradeType, double price, int volume) {
+        GetDealDataResponse response = new GetDealDataResponse();
+        response.setCjbh(dealCode);
+        response.setZqdm(code);
+        response.setZqmc(code);
+        response.setMmlb(tradeType);
+        response.setCjjg(String.valueOf(price));
+        response.setCjsl(String.valueOf(volume));
+        return response;
+    }
+
+    private static DailyIndex newQuote(String code, double price, double preClosePrice) {
+        DailyIndex dailyIndex = new DailyIndex();
+        dailyIndex.setCode(code);
+        dailyIndex.setClosingPrice(BigDecimal.valueOf(price));
+        dailyIndex.setPreClosingPrice(BigDecimal.valueOf(preClosePrice));
+        return dailyIndex;
+    }
+
+}
@@ -0,0 +1,162 @@
+package vip.linhs.stock.risk;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.response.CrGetDealDataResponse;
+import vip.linhs.stock.api.response.CrGetRzrqAssertsResponse;
+import vip.linhs.stock.api.response.CrQueryCollateralResponse;
+import vip.linhs.stock.api.response.GetDealDataResponse;
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.portfolio.PortfolioEngine;
+import vip.linhs.stock.service.MessageService;
+import vip.linhs.stock.service.SystemConfigService;
+import vip.linhs.stock.service.TradeApiService;
+
+public class MarginRiskMonitorTest {
+
+    private static final long MINUTE = 60_000;
+
+    private final AtomicInteger pollCount = new AtomicInteger();
+    private final List<String> messageList = new ArrayList<>();
+    private final CrGetRzrqAssertsResponse asserts = new CrGetRzrqAssertsResponse();
+
+    private PortfolioEngine portfolioEngine;
+    private MarginRiskMonitor monitor;
+
+    @BeforeEach
+    public void setUp() {
+        // 10000 shares at 20 and 50000 in cash against 150000 of debt
+        asserts.setZzc("250,000.00");
+        asserts.setZfz("150000");
+        asserts.setWcdbbl("1.6667");
+        CrQueryCollateralResponse collateral = new CrQueryCollateralResponse();
+        collateral.setZqdm("600000");
+        collateral.setZqmc("600000");
+        collateral.setZqsl("10000");
+        collateral.setGfky("10000");
+        collateral.setCbjg("20");
+        collateral.setZxjg("20");
+
+        TradeApiService tradeApiService = MarginRiskMonitorTest.fake(TradeApiService.class, (proxy, method, args) -> {
+            TradeResultVo<Object> resultVo = new TradeResultVo<>();
+            resultVo.setData(Collections.emptyList());
+            if ("crGetRzrqAsserts".equals(method.getName())) {
+                pollCount.incrementAndGet();
+                resultVo.setData(Collections.singletonList(asserts));
+            } else if ("crQueryCollateral".equals(method.getName())) {
+                resultVo.setData(Collections.singletonList(collateral));
+            }
+            return resultVo;
+        });
+        MessageService messageService = MarginRiskMonitorTest.fake(MessageService.class, (proxy, method, args) -> {
+            messageList.add(args[0].toString());
+            return null;
+        });
+        SystemConfigService systemConfigService = MarginRiskMonitorTest.fake(SystemConfigService.class, (proxy, method, args) -> true);
+
+        portfolioEngine = new PortfolioEngine();
+        ReflectionTestUtils.setField(portfolioEngine, "reconcileInterval", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(portfolioEngine, "tradeApiService", tradeApiService);
+        ReflectionTestUtils.setField(portfolioEngine, "systemConfigService", systemConfigService);
+
+        MarginRiskProperties properties = new MarginRiskProperties();
+        properties.setPauseBuy(true);
+        monitor = new MarginRiskMonitor();
+        ReflectionTestUtils.setField(monitor, "marginRiskProperties", properties);
+        ReflectionTestUtils.setField(monitor, "tradeApiService", tradeApiService);
+        ReflectionTestUtils.setField(monitor, "portfolioEngine", portfolioEngine);
+        ReflectionTestUtils.setField(monitor, "messageService", messageService);
+    }
+
+    @Test
+    public void testMarkedBetweenPolls() {
+        MarginAccount account = monitor.check(1, 0);
+        Assertions.assertEquals(250000.0 / 150000, account.getRatio(), 1e-9);
+        Assertions.assertEquals(MarginRiskMonitor.Level.Normal, account.getLevel());
+        Assertions.assertEquals(1, pollCount.get());
+
+        // 18 a share takes 20000 off the assets without asking the broker
+        portfolioEngine.onQuote(Collections.singletonList(MarginRiskMonitorTest.newQuote(18)));
+        monitor.check(1, MINUTE / 2);
+        Assertions.assertEquals(230000.0 / 150000, account.getRatio(), 1e-9);
+        Assertions.assertEquals(MarginRiskMonitor.Level.Warn, account.getLevel());
+        Assertions.assertEquals(1, pollCount.get());
+        Assertions.assertFalse(monitor.isBuyPaused(1));
+
+        portfolioEngine.onQuote(Collections.singletonList(MarginRiskMonitorTest.newQuote(16)));
+        monitor.check(1, MINUTE * 3 / 4);
+        Assertions.assertEquals(MarginRiskMonitor.Level.Alert, account.getLevel());
+        Assertions.assertTrue(monitor.isBuyPaused(1));
+        Assertions.assertEquals(2, messageList.size());
+        Assertions.assertTrue(messageList.get(1).startsWith("margin alert: user 1, maintenance ratio 140.00%"), messageList.get(1));
+
+        // a bounce just over the tier is not enough to leave it
+        portfolioEngine.onQuote(Collections.singletonList(MarginRiskMonitorTest.newQuote(17.6)));
+        monitor.check(1, MINUTE * 4 / 5);
+        Assertions.assertEquals(MarginRiskMonitor.Level.Alert, account.getLevel());
+        portfolioEngine.onQuote(Collections.singletonList(MarginRiskMonitorTest.newQuote(18.2)));
+        monitor.check(1, MINUTE * 5 / 6);
+        Assertions.assertEquals(MarginRiskMonitor.Level.Warn, account.getLevel());
+        Assertions.assertEquals(2, messageList.size());
+    }
+
+    @Test
+    public void testAdaptivePolling() {
+        Assertions.assertEquals(MINUTE, monitor.getInterval(1.5));
+        Assertions.assertEquals(MINUTE, monitor.getInterval(1.6));
+        Assertions.assertEquals(MINUTE * 11 / 2, monitor.getInterval(1.8));
+        Assertions.assertEquals(10 * MINUTE, monitor.getInterval(Double.POSITIVE_INFINITY));
+
+        MarginAccount account = monitor.check(1, 0);
+        long nextPollTime = account.getNextPollTime();
+        Assertions.assertTrue(nextPollTime > MINUTE && nextPollTime < 10 * MINUTE, String.valueOf(nextPollTime));
+        monitor.check(1, nextPollTime - 1);
+        Assertions.assertEquals(1, pollCount.get());
+        monitor.check(1, nextPollTime);
+        Assertions.assertEquals(2, pollCount.get());
+
+        // a drop near the warn ratio brings the next poll forward
+        portfolioEngine.onQuote(Collections.singletonList(MarginRiskMonitorTest.newQuote(18.5)));
+        monitor.check(1, nextPollTime + 1);
+        Assertions.assertEquals(nextPollTime + MINUTE, account.getNextPollTime());
+
+        // a deal moves the debt, the broker is asked at once
+        CrGetDealDataResponse deal = new CrGetDealDataResponse();
+        deal.setCjbh("1");
+        deal.setZqdm("600000");
+        deal.setMmsm("融资买入");
+        deal.setCjjg("18.5");
+        deal.setCjsl("1000");
+        portfolioEngine.onDeal(1, true, Collections.singletonList(deal));
+        Assertions.assertEquals(GetDealDataResponse.B, deal.getMmlb());
+        monitor.check(1, nextPollTime + 2);
+        Assertions.assertEquals(3, pollCount.get());
+    }
+
+    private static DailyIndex newQuote(double price) {
+        DailyIndex dailyIndex = new DailyIndex();
+        dailyIndex.setCode("sh600000");
+        dailyIndex.setClosingPrice(BigDecimal.valueOf(price));
+        dailyIndex.setPreClosingPrice(BigDecimal.valueOf(20));
+        return dailyIndex;
+    }
+
+    private static <T> T fake(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(MarginRiskMonitorTest.class.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> "toString".equals(method.getName()) ? type.getSimpleName() : handler.invoke(proxy, method, args)));
+    }
+
+}
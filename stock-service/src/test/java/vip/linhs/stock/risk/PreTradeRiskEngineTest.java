@@ -0,0 +1,190 @@
+package vip.linhs.stock.risk;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.request.SubmitRequest;
+import vip.linhs.stock.api.response.GetAssetsResponse;
+import vip.linhs.stock.api.response.GetDealDataResponse;
+import vip.linhs.stock.api.response.GetStockListResponse;
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.model.po.StockInfo;
+import vip.linhs.stock.portfolio.PortfolioEngine;
+import vip.linhs.stock.service.StockService;
+import vip.linhs.stock.service.SystemConfigService;
+import vip.linhs.stock.service.TradeApiService;
+
+public class PreTradeRiskEngineTest {
+
+    private static final double DELTA = 1e-9;
+
+    private PortfolioEngine portfolioEngine;
+    private PreTradeRiskEngine engine;
+
+    @BeforeEach
+    public void setUp() {
+        GetAssetsResponse assets = new GetAssetsResponse();
+        assets.setKyzj("10000.00");
+        TradeApiService tradeApiService = PreTradeRiskEngineTest.fake(TradeApiService.class, (proxy, method, args) -> {
+            TradeResultVo<Object> resultVo = new TradeResultVo<>();
+            resultVo.setData(Collections.emptyList());
+            if ("getStockList".equals(method.getName())) {
+                resultVo.setData(Arrays.asList(PreTradeRiskEngineTest.newStock("600000", 1000, 800),
+                        PreTradeRiskEngineTest.newStock("000001", 550, 550)));
+            } else if ("getAsserts".equals(method.getName())) {
+                resultVo.setData(Collections.singletonList(assets));
+            }
+            return resultVo;
+        });
+        StockService stockService = PreTradeRiskEngineTest.fake(StockService.class, (proxy, method, args) -> {
+            StockInfo stockInfo = new StockInfo();
+            stockInfo.setName(args[0].toString().startsWith("sz002") ? "ST" : "name");
+            return stockInfo;
+        });
+        SystemConfigService systemConfigService = PreTradeRiskEngineTest.fake(SystemConfigService.class, (proxy, method, args) -> false);
+
+        portfolioEngine = new PortfolioEngine();
+        ReflectionTestUtils.setField(portfolioEngine, "reconcileInterval", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(portfolioEngine, "tradeApiService", tradeApiService);
+        ReflectionTestUtils.setField(portfolioEngine, "systemConfigService", systemConfigService);
+
+        engine = new PreTradeRiskEngine();
+        ReflectionTestUtils.setField(engine, "preTradeRiskProperties", new PreTradeRiskProperties());
+        ReflectionTestUtils.setField(engine, "portfolioEngine", portfolioEngine);
+        ReflectionTestUtils.setField(engine, "tradeApiService", tradeApiService);
+        ReflectionTestUtils.setField(engine, "stockService", stockService);
+
+        engine.onQuote(Arrays.asList(PreTradeRiskEngineTest.newQuote("sh600000", 10), PreTradeRiskEngineTest.newQuote("sh510300", 4),
+                PreTradeRiskEngineTest.newQuote("sz300750", 200.05), PreTradeRiskEngineTest.newQuote("sz002001", 3.33),
+                PreTradeRiskEngineTest.newQuote("sh688001", 50)));
+    }
+
+    @Test
+    public void testBandTickAndLot() {
+        Assertions.assertEquals("price 11.010 above limit up 11.000", engine.check(PreTradeRiskEngineTest.newRequest("600000", SubmitRequest.B, 11.01, 100), false));
+        Assertions.assertEquals("price 8.980 below limit down 9.000", engine.check(PreTradeRiskEngineTest.newRequest("600000", SubmitRequest.S, 8.98, 100), false));
+
+        SubmitRequest request = PreTradeRiskEngineTest.newRequest("600000", SubmitRequest.B, 10.0049, 150);
+        Assertions.assertNull(engine.check(request, false));
+        Assertions.assertEquals(10.0, request.getPrice(), DELTA);
+        Assertions.assertEquals(100, request.getAmount());
+
+        // sells are never taken under the price asked
+        request = PreTradeRiskEngineTest.newRequest("600000", SubmitRequest.S, 8.991, 250);
+        Assertions.assertNull(engine.check(request, false));
+        Assertions.assertEquals(9.0, request.getPrice(), DELTA);
+        Assertions.assertEquals(200, request.getAmount());
+
+        request = PreTradeRiskEngineTest.newRequest("510300", SubmitRequest.B, 4.1234, 100);
+        Assertions.assertNull(engine.check(request, false));
+        Assertions.assertEquals(4.123, request.getPrice(), DELTA);
+
+        // growth board at 20%, st at 5%
+        Assertions.assertNull(engine.check(PreTradeRiskEngineTest.newRequest("300750", SubmitRequest.B, 240.06, 100), false));
+        Assertions.assertNotNull(engine.check(PreTradeRiskEngineTest.newRequest("300750", SubmitRequest.B, 240.07, 100), false));
+        Assertions.assertNull(engine.check(PreTradeRiskEngineTest.newRequest("002001", SubmitRequest.B, 3.50, 100), false));
+        Assertions.assertNotNull(engine.check(PreTradeRiskEngineTest.newRequest("002001", SubmitRequest.B, 3.51, 100), false));
+
+        Assertions.assertEquals("amount 150 under lot 200", engine.check(PreTradeRiskEngineTest.newRequest("688001", SubmitRequest.B, 50, 150), false));
+        request = PreTradeRiskEngineTest.newRequest("688001", SubmitRequest.B, 50, 201);
+        Assertions.assertNull(engine.check(request, false));
+        Assertions.assertEquals(201, request.getAmount());
+
+        // not quoted yet, no band
+        Assertions.assertNull(engine.check(PreTradeRiskEngineTest.newRequest("601398", SubmitRequest.B, 100, 100), false));
+    }
+
+    @Test
+    public void testVolumeAndCash() {
+        engine.refresh(1);
+        SubmitRequest request = PreTradeRiskEngineTest.newRequest("600000", SubmitRequest.B, 10, 1000);
+        Assertions.assertNull(engine.check(request, false));
+        engine.onSubmitted(request, false, "1");
+        Assertions.assertEquals("cash 0.00 not enough for 1000.00", engine.check(PreTradeRiskEngineTest.newRequest("600000", SubmitRequest.B, 10, 100), false));
+        engine.onRevoked(1, false, "1");
+        Assertions.assertNull(engine.check(PreTradeRiskEngineTest.newRequest("600000", SubmitRequest.B, 10, 100), false));
+        // financed buys are not held to the cash
+        Assertions.assertNull(engine.check(PreTradeRiskEngineTest.newRequest("600000", SubmitRequest.B, 10, 10000), true));
+
+        request = PreTradeRiskEngineTest.newRequest("600000", SubmitRequest.S, 10, 500);
+        Assertions.assertNull(engine.check(request, false));
+        engine.onSubmitted(request, false, "2");
+        Assertions.assertEquals("amount 400 above available 300", engine.check(PreTradeRiskEngineTest.newRequest("600000", SubmitRequest.S, 10, 400), false));
+
+        // dealt, off the positions instead of reserved
+        GetDealDataResponse deal = PreTradeRiskEngineTest.newDeal("2", "600000", 500);
+        portfolioEngine.onDeal(1, false, Collections.singletonList(deal));
+        engine.onDeal(1, false, Collections.singletonList(deal));
+        Assertions.assertNull(engine.check(PreTradeRiskEngineTest.newRequest("600000", SubmitRequest.S, 10, 300), false));
+        Assertions.assertNotNull(engine.check(PreTradeRiskEngineTest.newRequest("600000", SubmitRequest.S, 10, 350), false));
+
+        // odd lots go all at once
+        request = PreTradeRiskEngineTest.newRequest("000001", SubmitRequest.S, 10, 550);
+        Assertions.assertNull(engine.check(request, false));
+        Assertions.assertEquals(550, request.getAmount());
+        request = PreTradeRiskEngineTest.newRequest("000001", SubmitRequest.S, 10, 520);
+        Assertions.assertNull(engine.check(request, false));
+        Assertions.assertEquals(500, request.getAmount());
+    }
+
+    private static SubmitRequest newRequest(String code, String tradeType, double price, int amount) {
+        SubmitRequest request = new SubmitRequest(1);
+        request.setStockCode(code);
+        request.setTradeType(tradeType);
+        request.setPrice(price);
+        request.setAmount(amount);
+        return request;
+    }
+
+    private static GetStockListResponse newStock(String code, int volume, int availableVolume) {
+        GetStockListResponse response = new GetStockListResponse();
+        response.setZqdm(code);
+        response.setZqmc(code);
+        response.setZqsl(String.valueOf(volume));
+        response.setKysl(String.valueOf(availableVolume));
+        response.setCbjg("10");
+        response.setZxjg("10");
+        return response;
+    }
+
+    private static GetDealDataResponse newDeal(String entrustCode, String code, int volume) {
+        GetDealDataResponse response = new GetDealDataResponse();
+        response.setWtbh(entrustCode);
+        response.setCjbh("d" + entrustCode);
+        response.setZqdm(code);
+        response.setZqmc(code);
+        response.setMmlb(GetDealDataResponse.S);
+        response.setCjjg("10");
+        response.setCjsl(String.valueOf(volume));
+        return response;
+    }
+
+    private static DailyIndex newQuote(String code, double preClosePrice) {
+        DailyIndex dailyIndex = new DailyIndex();
+        dailyIndex.setCode(code);
+        dailyIndex.setClosingPrice(BigDecimal.valueOf(preClosePrice));
+        dailyIndex.setPreClosingPrice(BigDecimal.valueOf(preClosePrice));
+        return dailyIndex;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> clazz, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(clazz.getClassLoader(), new Class<?>[] { clazz }, (proxy, method, args) -> {
+            if ("toString".equals(method.getName())) {
+                return clazz.getSimpleName();
+            }
+            return handler.invoke(proxy, method, args);
+        });
+    }
+
+}
@@ -0,0 +1,95 @@
+package vip.linhs.stock.scheduled;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.response.GetOrdersDataResponse;
+import vip.linhs.stock.service.SystemConfigService;
+import vip.linhs.stock.service.TradeApiService;
+
+public class OrderPollerTest {
+
+    private final List<GetOrdersDataResponse> orderList = new ArrayList<>();
+
+    private OrderPoller poller;
+
+    @BeforeEach
+    public void setUp() {
+        TradeApiService tradeApiService = OrderPollerTest.fake(TradeApiService.class, (proxy, method, args) -> {
+            TradeResultVo<GetOrdersDataResponse> resultVo = new TradeResultVo<>();
+            resultVo.setData(new ArrayList<>(orderList));
+            return resultVo;
+        });
+        SystemConfigService systemConfigService = OrderPollerTest.fake(SystemConfigService.class, (proxy, method, args) -> false);
+        poller = new OrderPoller();
+        ReflectionTestUtils.setField(poller, "orderPollProperties", new OrderPollProperties());
+        ReflectionTestUtils.setField(poller, "tradeApiService", tradeApiService);
+        ReflectionTestUtils.setField(poller, "systemConfigService", systemConfigService);
+    }
+
+    @Test
+    public void testBackOff() {
+        Assertions.assertTrue(poller.hasDue(0));
+        Assertions.assertTrue(poller.take(1, 0));
+        Assertions.assertFalse(poller.take(1, 1000));
+        Assertions.assertFalse(poller.hasDue(1000));
+        Assertions.assertTrue(poller.hasDue(2000));
+
+        // flat, doubling up to the slow interval
+        long[] dueList = { 4000, 8000, 15000, 15000 };
+        for (long due : dueList) {
+            poller.onOrders(1, 0, 0);
+            Assertions.assertFalse(poller.hasDue(due - 1));
+            Assertions.assertTrue(poller.hasDue(due));
+        }
+
+        poller.onOrders(1, 2, 0);
+        Assertions.assertTrue(poller.hasDue(2000));
+        poller.beginOfDay();
+        Assertions.assertTrue(poller.take(1, 0));
+    }
+
+    @Test
+    public void testOpenOrders() {
+        orderList.add(OrderPollerTest.newOrder(GetOrdersDataResponse.YICHENG));
+        orderList.add(OrderPollerTest.newOrder(GetOrdersDataResponse.YICHE));
+        Assertions.assertEquals(0, poller.poll(1));
+        Assertions.assertEquals(0, poller.poll(1));
+        long time = System.currentTimeMillis();
+        Assertions.assertFalse(poller.hasDue(time + 3000));
+
+        // a submit brings it back to fast
+        poller.wake(1);
+        Assertions.assertTrue(poller.hasDue(time + 3000));
+
+        orderList.add(OrderPollerTest.newOrder(GetOrdersDataResponse.YIBAO));
+        orderList.add(OrderPollerTest.newOrder(GetOrdersDataResponse.BUCHENG));
+        Assertions.assertEquals(2, poller.poll(1));
+        Assertions.assertTrue(poller.hasDue(System.currentTimeMillis() + 2000));
+    }
+
+    private static GetOrdersDataResponse newOrder(String state) {
+        GetOrdersDataResponse response = new GetOrdersDataResponse();
+        response.setWtzt(state);
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> clazz, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(clazz.getClassLoader(), new Class<?>[] { clazz }, (proxy, method, args) -> {
+            if ("toString".equals(method.getName())) {
+                return clazz.getSimpleName();
+            }
+            return handler.invoke(proxy, method, args);
+        });
+    }
+
+}
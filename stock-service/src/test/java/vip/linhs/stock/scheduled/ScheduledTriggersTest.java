@@ -0,0 +1,67 @@
+package vip.linhs.stock.scheduled;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import vip.linhs.stock.service.HolidayCalendarService;
+
+public class ScheduledTriggersTest {
+
+    private final AtomicBoolean inSession = new AtomicBoolean();
+
+    private final AtomicInteger submitCount = new AtomicInteger();
+
+    private ScheduledTriggers triggers;
+
+    @BeforeEach
+    public void setUp() {
+        HolidayCalendarService holidayCalendarService = ScheduledTriggersTest.fake(HolidayCalendarService.class, (proxy, method, args) -> {
+            if ("isBusinessTime".equals(method.getName())) {
+                return inSession.get();
+            }
+            return true;
+        });
+        TaskRuntime taskRuntime = new TaskRuntime() {
+            @Override
+            public boolean submit(TaskGroup group, String name, Duration deadline, Runnable runnable) {
+                submitCount.incrementAndGet();
+                return true;
+            }
+        };
+        triggers = new ScheduledTriggers();
+        ReflectionTestUtils.setField(triggers, "holidayCalendarService", holidayCalendarService);
+        ReflectionTestUtils.setField(triggers, "taskRuntime", taskRuntime);
+        ReflectionTestUtils.setField(triggers, "scheduledTasks", new ScheduledTasks());
+        ReflectionTestUtils.setField(triggers, "orderPoller", new OrderPoller());
+    }
+
+    @Test
+    public void testTradeTickerOutOfSession() {
+        // lunch break, accounts never polled are due
+        triggers.runTradeTicker();
+        Assertions.assertEquals(0, submitCount.get());
+
+        inSession.set(true);
+        triggers.runTradeTicker();
+        Assertions.assertEquals(1, submitCount.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> clazz, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(clazz.getClassLoader(), new Class<?>[] { clazz }, (proxy, method, args) -> {
+            if ("toString".equals(method.getName())) {
+                return clazz.getSimpleName();
+            }
+            return handler.invoke(proxy, method, args);
+        });
+    }
+
+}
@@ -0,0 +1,94 @@
+package vip.linhs.stock.scheduled;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import vip.linhs.stock.scheduled.TaskRuntime.TaskGroup;
+
+public class TaskRuntimeTest {
+
+    private TaskRuntime taskRuntime;
+
+    @BeforeEach
+    public void setUp() {
+        taskRuntime = new TaskRuntime();
+        taskRuntime.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        taskRuntime.close();
+    }
+
+    @Test
+    public void testSkipIfRunning() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Assertions.assertTrue(taskRuntime.submit(TaskGroup.Trade, "tick", Duration.ofMinutes(1), () -> {
+            started.countDown();
+            await(release);
+            done.countDown();
+        }));
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        Assertions.assertFalse(taskRuntime.submit(TaskGroup.Trade, "tick", Duration.ofMinutes(1), () -> {}));
+
+        release.countDown();
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        CountDownLatch next = new CountDownLatch(1);
+        while (!taskRuntime.submit(TaskGroup.Trade, "tick", Duration.ofMinutes(1), next::countDown)) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(next.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDeadlineInterrupts() throws InterruptedException {
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+        taskRuntime.submit(TaskGroup.Daily, "slow", Duration.ofMillis(100), () -> {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+            done.countDown();
+        });
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(interrupted.get());
+    }
+
+    @Test
+    public void testGroupsDoNotBlockEachOther() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        taskRuntime.submit(TaskGroup.Daily, "daily", Duration.ofMinutes(1), () -> await(release));
+
+        CountDownLatch heartbeat = new CountDownLatch(1);
+        AtomicLong lag = new AtomicLong(-1);
+        taskRuntime.submit(TaskGroup.Session, "heartbeat", Duration.ofMinutes(1), () -> {
+            lag.set(TaskRuntime.currentLag());
+            heartbeat.countDown();
+        });
+        Assertions.assertTrue(heartbeat.await(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(lag.get() >= 0 && lag.get() < 1000);
+        Assertions.assertEquals(0, TaskRuntime.currentLag());
+        release.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
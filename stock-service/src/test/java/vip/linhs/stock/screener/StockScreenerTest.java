@@ -0,0 +1,154 @@
+package vip.linhs.stock.screener;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import vip.linhs.stock.dao.DailyIndexDao;
+import vip.linhs.stock.exception.ServiceException;
+import vip.linhs.stock.indicator.IndicatorEngine;
+import vip.linhs.stock.model.po.DailyIndex;
+import vip.linhs.stock.model.vo.PageVo;
+import vip.linhs.stock.model.vo.ScreenerVo;
+import vip.linhs.stock.service.StockService;
+
+public class StockScreenerTest {
+
+    private static final int SYMBOLS = 5000;
+    private static final int DAYS = 80;
+
+    private static StockScreener screener;
+
+    @BeforeAll
+    public static void setUp() {
+        DailyIndexDao dailyIndexDao = (DailyIndexDao) Proxy.newProxyInstance(StockScreenerTest.class.getClassLoader(),
+                new Class<?>[] { DailyIndexDao.class }, (proxy, method, args) -> {
+                    if ("forEachDailyIndex".equals(method.getName())) {
+                        @SuppressWarnings("unchecked")
+                        Consumer<DailyIndex> consumer = (Consumer<DailyIndex>) args[2];
+                        StockScreenerTest.generate((Date) args[1], consumer);
+                    }
+                    return "toString".equals(method.getName()) ? "dailyIndexDao" : null;
+                });
+        StockService stockService = (StockService) Proxy.newProxyInstance(StockScreenerTest.class.getClassLoader(),
+                new Class<?>[] { StockService.class },
+                (proxy, method, args) -> "getAll".equals(method.getName()) ? Collections.emptyList() : null);
+
+        IndicatorEngine indicatorEngine = new IndicatorEngine();
+        ReflectionTestUtils.setField(indicatorEngine, "dailyIndexDao", dailyIndexDao);
+        screener = new StockScreener();
+        ReflectionTestUtils.setField(screener, "days", 20);
+        ReflectionTestUtils.setField(screener, "dailyIndexDao", dailyIndexDao);
+        ReflectionTestUtils.setField(screener, "indicatorEngine", indicatorEngine);
+        ReflectionTestUtils.setField(screener, "stockService", stockService);
+        screener.refresh();
+    }
+
+    @Test
+    public void testScreen() {
+        // the last symbol stopped trading a day early
+        Assertions.assertEquals(SYMBOLS - 1, screener.getTable().size());
+
+        PageVo<ScreenerVo> pageVo = screener.screen("turnover > 5% and close > ma20 and amount rank top 100");
+        ScreenerTable table = screener.getTable();
+        double[] amount = table.column(ScreenerField.Amount, 0).clone();
+        Arrays.sort(amount);
+        double threshold = amount[amount.length - 100];
+        long expected = IntStream.range(0, table.size())
+                .filter(i -> table.get(ScreenerField.Turnover, i) > 0.05
+                        && table.get(ScreenerField.Close, i) > table.get(ScreenerField.Ma20, i)
+                        && table.get(ScreenerField.Amount, i) >= threshold)
+                .count();
+        Assertions.assertTrue(expected > 0);
+        Assertions.assertEquals(expected, pageVo.getTotalRecords());
+        List<Double> valueList = pageVo.getData().stream().map(ScreenerVo::getValue).collect(Collectors.toList());
+        for (int i = 1; i < valueList.size(); i++) {
+            Assertions.assertTrue(valueList.get(i - 1) >= valueList.get(i));
+        }
+    }
+
+    @Test
+    public void testOrderAndOffset() {
+        PageVo<ScreenerVo> pageVo = screener.screen("close > close[1] * 1.02 and not change < 0 order by close - close[1] asc limit 10");
+        Assertions.assertTrue(pageVo.getData().size() <= 10);
+        for (ScreenerVo vo : pageVo.getData()) {
+            Assertions.assertTrue(vo.getChange() >= 0);
+            Assertions.assertTrue(vo.getValue() > 0);
+        }
+        for (int i = 1; i < pageVo.getData().size(); i++) {
+            Assertions.assertTrue(pageVo.getData().get(i - 1).getValue() <= pageVo.getData().get(i).getValue());
+        }
+
+        Assertions.assertEquals(SYMBOLS - 1, screener.screen("limit 10000").getTotalRecords());
+        Assertions.assertEquals(0, screener.screen("(rsi > 100 or rsi < 0) and -close > 0").getTotalRecords());
+    }
+
+    @Test
+    public void testErrors() {
+        Assertions.assertThrows(ServiceException.class, () -> screener.screen("close >"));
+        Assertions.assertThrows(ServiceException.class, () -> screener.screen("price > 1"));
+        Assertions.assertThrows(ServiceException.class, () -> screener.screen("close + 1"));
+        Assertions.assertThrows(ServiceException.class, () -> screener.screen("close > 1 and 2"));
+        Assertions.assertThrows(ServiceException.class, () -> screener.screen("ma20[1] > 1"));
+        Assertions.assertThrows(ServiceException.class, () -> screener.screen("close[30] > 1"));
+        ServiceException e = Assertions.assertThrows(ServiceException.class, () -> screener.screen("close > 1 )"));
+        Assertions.assertTrue(e.getMessage().endsWith("at 10"), e.getMessage());
+    }
+
+    @Test
+    public void testSpeed() {
+        String expression = "turnover > 2% and close > ma20 and macd > 0 or amount rank top 300";
+        screener.screen(expression);
+        long startTime = System.nanoTime();
+        int runs = 20;
+        for (int i = 0; i < runs; i++) {
+            screener.screen(expression);
+        }
+        long micros = (System.nanoTime() - startTime) / 1000 / runs;
+        Assertions.assertTrue(micros < 50_000, "took " + micros + "us");
+    }
+
+    private static void generate(Date endDate, Consumer<DailyIndex> consumer) {
+        Random random = new Random(3);
+        Date[] dates = new Date[DAYS];
+        for (int j = 0; j < DAYS; j++) {
+            dates[j] = DateUtils.truncate(DateUtils.addDays(endDate, j - DAYS + 1), Calendar.DATE);
+        }
+        for (int i = 0; i < SYMBOLS; i++) {
+            double price = 5 + random.nextDouble() * 20;
+            int last = i == SYMBOLS - 1 ? DAYS - 1 : DAYS;
+            for (int j = 0; j < last; j++) {
+                double preClose = price;
+                price = Math.max(1, price * (1 + random.nextGaussian() * 0.03));
+                DailyIndex dailyIndex = new DailyIndex();
+                dailyIndex.setCode(String.format("sz%06d", i));
+                dailyIndex.setDate(dates[j]);
+                dailyIndex.setOpeningPrice(BigDecimal.valueOf(preClose));
+                dailyIndex.setPreClosingPrice(BigDecimal.valueOf(preClose));
+                dailyIndex.setClosingPrice(BigDecimal.valueOf(price));
+                dailyIndex.setHighestPrice(BigDecimal.valueOf(Math.max(price, preClose)));
+                dailyIndex.setLowestPrice(BigDecimal.valueOf(Math.min(price, preClose)));
+                long volume = 1000 + random.nextInt(1_000_000);
+                dailyIndex.setTradingVolume(volume);
+                dailyIndex.setTradingValue(BigDecimal.valueOf(volume * price));
+                dailyIndex.setRurnoverRate(BigDecimal.valueOf(random.nextDouble() * 10));
+                consumer.accept(dailyIndex);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package vip.linhs.stock.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class TradingCalendarTest {
+
+    @Autowired
+    private TradingCalendar tradingCalendar;
+
+    @Test
+    public void testIsBusinessDate() {
+        Assertions.assertFalse(tradingCalendar.isBusinessDate(LocalDate.of(2022, 10, 1)));
+        Assertions.assertFalse(tradingCalendar.isBusinessTime(LocalTime.of(12, 0)));
+        Assertions.assertTrue(tradingCalendar.isBusinessTime(LocalTime.of(14, 59)));
+    }
+
+    @Test
+    public void testAddTradingDays() {
+        LocalDate start = tradingCalendar.nextTradingDay(LocalDate.of(2021, 12, 25));
+        LocalDate end = tradingCalendar.addTradingDays(start, 250);
+        Assertions.assertEquals(start, tradingCalendar.addTradingDays(end, -250));
+        Assertions.assertEquals(251, tradingCalendar.countTradingDays(start, end));
+
+        List<LocalDate> list = tradingCalendar.getTradingDays(start, end);
+        Assertions.assertEquals(251, list.size());
+        Assertions.assertEquals(end, list.get(list.size() - 1));
+        Assertions.assertEquals(list.get(1), tradingCalendar.nextTradingDay(start));
+        Assertions.assertEquals(list.get(list.size() - 2), tradingCalendar.previousTradingDay(end));
+    }
+
+}
@@ -0,0 +1,137 @@
+package vip.linhs.stock.simulator;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.request.SubmitRequest;
+import vip.linhs.stock.api.response.GetOrdersDataResponse;
+import vip.linhs.stock.api.response.SubmitResponse;
+
+public class BrokerSimulatorTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2022-10-18T02:00:00Z"));
+
+    private final BrokerSimulator brokerSimulator = new BrokerSimulator(100000, 0, (stockCode, lastPrice) -> null, clock);
+
+    @Test
+    public void testPriceTimePriority() {
+        String first = submit(1, SubmitRequest.B, 10.00, 100);
+        String second = submit(2, SubmitRequest.B, 10.00, 100);
+        String better = submit(3, SubmitRequest.B, 10.01, 100);
+
+        brokerSimulator.onQuote(new Quote("600000", 10.00, 200));
+
+        Assertions.assertEquals(GetOrdersDataResponse.YICHENG, getOrder(3, better).getState());
+        Assertions.assertEquals(GetOrdersDataResponse.YICHENG, getOrder(1, first).getState());
+        Assertions.assertEquals(GetOrdersDataResponse.YIBAO, getOrder(2, second).getState());
+
+        brokerSimulator.onQuote(new Quote("600000", 9.99, 50));
+        SimulatorOrder order = getOrder(2, second);
+        Assertions.assertEquals(GetOrdersDataResponse.BUCHENG, order.getState());
+        Assertions.assertEquals(50, order.getDealAmount());
+        // at the quote, not the price asked
+        Assertions.assertEquals(9.99, order.getDealPrice(), 1e-9);
+    }
+
+    @Test
+    public void testTPlusOne() {
+        submit(1, SubmitRequest.B, 10.00, 1000);
+        brokerSimulator.onQuote(new Quote("600000", 10.00, 1000));
+
+        TradeResultVo<SubmitResponse> resultVo = brokerSimulator.submit(1, buildRequest(SubmitRequest.S, 10.10, 1000), "浦发银行", null, SubmitResponse::new);
+        Assertions.assertFalse(resultVo.success());
+
+        String open = submit(1, SubmitRequest.B, 9.00, 100);
+        Assertions.assertEquals(100000 - 10000 - 900, brokerSimulator.getAccountSnapshot(1).getAvailableCash(), 1e-6);
+
+        clock.plusDays(1);
+        Assertions.assertEquals(GetOrdersDataResponse.YICHE, brokerSimulator.getOrderList(1, LocalDate.of(2022, 10, 18), LocalDate.of(2022, 10, 18))
+                .stream().filter(v -> v.getEntrustCode().equals(open)).findAny().get().getState());
+        Assertions.assertEquals(90000, brokerSimulator.getAccountSnapshot(1).getAvailableCash(), 1e-6);
+
+        String sell = submit(1, SubmitRequest.S, 10.10, 1000);
+        String buy = submit(2, SubmitRequest.B, 10.20, 1000);
+        Assertions.assertEquals(GetOrdersDataResponse.YICHENG, getOrder(1, sell).getState());
+        Assertions.assertEquals(GetOrdersDataResponse.YICHENG, getOrder(2, buy).getState());
+        Assertions.assertEquals(100000 + 1000 * 0.10, brokerSimulator.getAccountSnapshot(1).getCash(), 1e-6);
+        Assertions.assertEquals(100000 - 1000 * 10.10, brokerSimulator.getAccountSnapshot(2).getCash(), 1e-6);
+    }
+
+    @Test
+    public void testRevoke() {
+        String entrustCode = submit(1, SubmitRequest.B, 10.00, 1000);
+        Assertions.assertTrue(brokerSimulator.revoke(1, "20221018_" + entrustCode).success());
+        Assertions.assertFalse(brokerSimulator.revoke(1, "20221018_" + entrustCode).success());
+        Assertions.assertEquals(100000, brokerSimulator.getAccountSnapshot(1).getAvailableCash(), 1e-6);
+    }
+
+    @Test
+    public void testRevokeBatch() {
+        String first = submit(1, SubmitRequest.B, 10.00, 1000);
+        String second = submit(1, SubmitRequest.B, 9.90, 1000);
+        // none revoked if one can not be
+        Assertions.assertFalse(brokerSimulator.revoke(1, "20221018_" + first + ",20221018_x").success());
+        Assertions.assertEquals(GetOrdersDataResponse.YIBAO, getOrder(1, first).getState());
+        Assertions.assertTrue(brokerSimulator.revoke(1, "20221018_" + first + ",20221018_" + second).success());
+        Assertions.assertEquals(100000, brokerSimulator.getAccountSnapshot(1).getAvailableCash(), 1e-6);
+    }
+
+    private String submit(int userId, String tradeType, double price, int amount) {
+        TradeResultVo<SubmitResponse> resultVo = brokerSimulator.submit(userId, buildRequest(tradeType, price, amount), "浦发银行", null, SubmitResponse::new);
+        Assertions.assertTrue(resultVo.success(), resultVo.getMessage());
+        return resultVo.getData().get(0).getWtbh();
+    }
+
+    private SimulatorOrder getOrder(int userId, String entrustCode) {
+        LocalDate today = brokerSimulator.getToday();
+        List<SimulatorOrder> list = brokerSimulator.getOrderList(userId, today, today);
+        return list.stream().filter(v -> v.getEntrustCode().equals(entrustCode)).findAny().orElse(null);
+    }
+
+    private SubmitRequest buildRequest(String tradeType, double price, int amount) {
+        SubmitRequest request = new SubmitRequest(0);
+        request.setStockCode("600000");
+        request.setTradeType(tradeType);
+        request.setPrice(price);
+        request.setAmount(amount);
+        return request;
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void plusDays(int days) {
+            instant = instant.plus(days, ChronoUnit.DAYS);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("Asia/Shanghai");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+    }
+
+}
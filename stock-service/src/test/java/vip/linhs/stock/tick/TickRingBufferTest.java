@@ -0,0 +1,119 @@
+package vip.linhs.stock.tick;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import vip.linhs.stock.model.po.DailyIndex;
+
+public class TickRingBufferTest {
+
+    @Test
+    public void testWrapAround() {
+        TickRingBuffer buffer = new TickRingBuffer(5);
+        Assertions.assertEquals(8, buffer.getCapacity());
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals(i, buffer.append(i, 1000 + i, i, i * 1.5));
+        }
+        // unchanged price and volume are not kept
+        Assertions.assertEquals(-1, buffer.append(20, 1019, 19, 0));
+
+        List<Long> list = new ArrayList<>();
+        long next = buffer.read(0, (sequence, time, price, volume, value) -> {
+            Assertions.assertEquals(sequence, time);
+            Assertions.assertEquals(1000 + sequence, price);
+            Assertions.assertEquals(sequence * 1.5, value);
+            list.add(sequence);
+        });
+        Assertions.assertEquals(Arrays.asList(12L, 13L, 14L, 15L, 16L, 17L, 18L, 19L), list);
+        Assertions.assertEquals(20, next);
+
+        list.clear();
+        next = buffer.read(17, 2, (sequence, time, price, volume, value) -> list.add(sequence));
+        Assertions.assertEquals(Arrays.asList(17L, 18L), list);
+        Assertions.assertEquals(19, next);
+    }
+
+    @Test
+    public void testConcurrentRead() throws InterruptedException {
+        TickRingBuffer buffer = new TickRingBuffer(64);
+        int total = 2_000_000;
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < total; i++) {
+                buffer.append(i, i * 3L, i * 7L, i);
+            }
+        });
+        AtomicReference<String> error = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            long next = 0;
+            long[] last = { -1 };
+            while (next < total && error.get() == null) {
+                next = buffer.read(next, (sequence, time, price, volume, value) -> {
+                    if (time != sequence || price != sequence * 3 || volume != sequence * 7 || value != sequence
+                            || sequence <= last[0]) {
+                        error.compareAndSet(null, "torn tick " + sequence + " " + time + " " + price + " " + volume);
+                    }
+                    last[0] = sequence;
+                });
+            }
+        });
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join(10000);
+        Assertions.assertNull(error.get());
+    }
+
+    @Test
+    public void testSpill() throws Exception {
+        File dir = Files.createTempDirectory("ticks").toFile();
+        TickProperties tickProperties = new TickProperties();
+        tickProperties.setCapacity(16);
+        tickProperties.setSpillDir(dir.getPath());
+        TickStore tickStore = new TickStore();
+        ReflectionTestUtils.setField(tickStore, "tickProperties", tickProperties);
+        tickStore.subscribe("selected", Collections.singletonList("sh600000"));
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            tickStore.record(Arrays.asList(newDailyIndex("sh600000", now + i * 15000, "10.01", 100 + i),
+                    newDailyIndex("sz000001", now, "12.00", 1)));
+        }
+        Assertions.assertEquals(Collections.singletonList("sh600000"), tickStore.getCodeList());
+
+        tickStore.spill();
+        File[] files = dir.listFiles();
+        Assertions.assertEquals(1, files.length);
+
+        List<long[]> list = new ArrayList<>();
+        long count = TickStore.readSpill(files[0], "sh600000",
+                (sequence, time, price, volume, value) -> list.add(new long[] { time, price, volume }));
+        Assertions.assertEquals(3, count);
+        Assertions.assertArrayEquals(new long[] { now + 30000, 10010, 102 }, list.get(2));
+        Assertions.assertEquals(0, TickStore.readSpill(files[0], "sz000001", (sequence, time, price, volume, value) -> { }));
+    }
+
+    private static DailyIndex newDailyIndex(String code, long time, String price, long volume) {
+        DailyIndex dailyIndex = new DailyIndex();
+        dailyIndex.setCode(code);
+        dailyIndex.setDate(DateUtils.truncate(new Date(time), Calendar.DATE));
+        dailyIndex.setQuoteTime(new Date(time));
+        dailyIndex.setClosingPrice(new BigDecimal(price));
+        dailyIndex.setTradingVolume(volume);
+        dailyIndex.setTradingValue(BigDecimal.valueOf(volume * 1000));
+        return dailyIndex;
+    }
+
+}
@@ -0,0 +1,21 @@
+package vip.linhs.stock.traffic;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TrafficRecorderTest {
+
+    @Test
+    public void testRedact() {
+        Assertions.assertNull(TrafficRecorder.redact(null));
+        Assertions.assertEquals("duration=1800&password=***&identifyCode=***&userId=5400",
+                TrafficRecorder.redact("duration=1800&password=abc%2B1&identifyCode=1234&userId=5400"));
+        Assertions.assertEquals("https://jywg.18.cn/Trade/SubmitTradeV2?validatekey=***",
+                TrafficRecorder.redact("https://jywg.18.cn/Trade/SubmitTradeV2?validatekey=0f1e-22"));
+        Assertions.assertEquals("{\"cookie\": \"***\",\"code\":\"600000\"}",
+                TrafficRecorder.redact("{\"cookie\": \"Uuid=1; Khmc=x\",\"code\":\"600000\"}"));
+        Assertions.assertEquals("<input id=\"em_validatekey\" type=\"hidden\" value=\"***\" />",
+                TrafficRecorder.redact("<input id=\"em_validatekey\" type=\"hidden\" value=\"0f1e-22\" />"));
+    }
+
+}
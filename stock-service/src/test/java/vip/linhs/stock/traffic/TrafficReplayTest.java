@@ -0,0 +1,54 @@
+package vip.linhs.stock.traffic;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import vip.linhs.stock.scheduled.ScheduledTasks;
+
+/**
+ * replays a captured market open, run with
+ * -Dtraffic.file=./logs/traffic.jsonl.gz [-Dtraffic.speed=10], turn on
+ * trade_mock outside trading hours
+ */
+@SpringBootTest(properties = "traffic.mode=replay")
+@EnabledIfSystemProperty(named = "traffic.file", matches = ".+")
+public class TrafficReplayTest {
+
+    private final Logger logger = LoggerFactory.getLogger(TrafficReplayTest.class);
+
+    private static final int ROUNDS = 50;
+
+    @Autowired
+    private ScheduledTasks scheduledTasks;
+
+    @Test
+    public void testReplay() {
+        LatencyStats tickerStats = new LatencyStats();
+        for (int i = 0; i < TrafficReplayTest.ROUNDS; i++) {
+            long start = System.currentTimeMillis();
+            scheduledTasks.runTicker();
+            tickerStats.add(System.currentTimeMillis() - start);
+        }
+
+        LatencyStats applyStats = new LatencyStats();
+        long start = System.currentTimeMillis();
+        scheduledTasks.applyNewStock();
+        applyStats.add(System.currentTimeMillis() - start);
+
+        LatencyStats dailyIndexStats = new LatencyStats();
+        start = System.currentTimeMillis();
+        scheduledTasks.runUpdateOfDailyIndex();
+        dailyIndexStats.add(System.currentTimeMillis() - start);
+
+        logger.info("runTicker {}", tickerStats);
+        logger.info("applyNewStock {}", applyStats);
+        logger.info("runUpdateOfDailyIndex {}", dailyIndexStats);
+        Assertions.assertEquals(TrafficReplayTest.ROUNDS, tickerStats.count());
+    }
+
+}
@@ -0,0 +1,108 @@
+package vip.linhs.stock.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import vip.linhs.stock.api.TradeResultVo;
+import vip.linhs.stock.api.response.GetOrdersDataResponse;
+import vip.linhs.stock.api.response.RevokeResponse;
+
+public class TradeUtilTest {
+
+    @Test
+    public void testRevokeBatch() throws Exception {
+        Date date = DateUtils.parseDate("20221018", "yyyyMMdd");
+        List<String> entrustCodeList = IntStream.range(0, 45).mapToObj(String::valueOf).collect(Collectors.toList());
+        Map<String, String> stateMap = new HashMap<>();
+        entrustCodeList.forEach(v -> stateMap.put(v, GetOrdersDataResponse.YICHE));
+        stateMap.put("5", GetOrdersDataResponse.BUCHE);
+        // filled before the revoke got there
+        stateMap.put("7", GetOrdersDataResponse.YICHENG);
+        stateMap.put("30", GetOrdersDataResponse.YIBAO);
+        List<String> revokesList = new ArrayList<>();
+        TradeResultVo<RevokeResponse> resultVo = TradeUtil.revokeBatch(date, entrustCodeList, revokes -> {
+            revokesList.add(revokes);
+            return TradeUtilTest.newResult(!Arrays.asList(revokes.split(",")).contains("20221018_30"));
+        }, () -> TradeUtilTest.newOrderResult(stateMap));
+
+        // 20 + 20 + 5, the second turned down and taken one by one
+        Assertions.assertEquals(3 + 20, revokesList.size());
+        Assertions.assertEquals(20, revokesList.get(0).split(",").length);
+        Assertions.assertTrue(revokesList.get(0).startsWith("20221018_0,20221018_1,"));
+        Assertions.assertEquals("20221018_20", revokesList.get(2));
+        Assertions.assertEquals(5, revokesList.get(revokesList.size() - 1).split(",").length);
+
+        Assertions.assertFalse(resultVo.success());
+        Assertions.assertEquals("30: fail, 7: 已成", resultVo.getMessage());
+        Assertions.assertEquals(43, resultVo.getData().size());
+        Assertions.assertTrue(resultVo.getData().stream().anyMatch(v -> "5".equals(v.getWtbh())));
+
+        resultVo = TradeUtil.revokeBatch(date, Arrays.asList("1", "2"), revokes -> TradeUtilTest.newResult(true),
+                () -> TradeUtilTest.newOrderResult(stateMap));
+        Assertions.assertTrue(resultVo.success());
+        Assertions.assertEquals(2, resultVo.getData().size());
+    }
+
+    @Test
+    public void testRevokeReplyText() throws Exception {
+        Date date = DateUtils.parseDate("20221018", "yyyyMMdd");
+        Map<String, String> stateMap = new HashMap<>();
+        stateMap.put("123", GetOrdersDataResponse.YIBAO);
+        stateMap.put("456", GetOrdersDataResponse.YICHE);
+        // the status ahead of the code, the reply text says nothing about the result
+        TradeResultVo<RevokeResponse> resultVo = TradeUtil.revokeBatch(date, Arrays.asList("123", "456"), revokes -> {
+            TradeResultVo<RevokeResponse> revokeResultVo = TradeUtilTest.newResult(true);
+            revokeResultVo.setMessage("撤单失败:123;撤单成功:456");
+            return revokeResultVo;
+        }, () -> TradeUtilTest.newOrderResult(stateMap));
+        Assertions.assertFalse(resultVo.success());
+        Assertions.assertEquals("123: 已报", resultVo.getMessage());
+        Assertions.assertEquals(Collections.singletonList("456"), resultVo.getData().stream().map(RevokeResponse::getWtbh).collect(Collectors.toList()));
+
+        // nothing is released while the orders can not be read
+        resultVo = TradeUtil.revokeBatch(date, Arrays.asList("123", "456"), revokes -> TradeUtilTest.newResult(true), () -> {
+            TradeResultVo<GetOrdersDataResponse> orderResultVo = new TradeResultVo<>();
+            orderResultVo.setStatus(-1);
+            orderResultVo.setMessage("busy");
+            return orderResultVo;
+        });
+        Assertions.assertFalse(resultVo.success());
+        Assertions.assertTrue(resultVo.getData().isEmpty());
+        Assertions.assertEquals("123: not confirmed, busy, 456: not confirmed, busy", resultVo.getMessage());
+
+        resultVo = TradeUtil.revokeBatch(date, Collections.singletonList("789"), revokes -> TradeUtilTest.newResult(true),
+                () -> TradeUtilTest.newOrderResult(stateMap));
+        Assertions.assertEquals("789: not in the order list", resultVo.getMessage());
+    }
+
+    private static TradeResultVo<RevokeResponse> newResult(boolean success) {
+        TradeResultVo<RevokeResponse> resultVo = new TradeResultVo<>();
+        resultVo.setStatus(success ? TradeResultVo.STATUS_SUCCESS : -1);
+        resultVo.setMessage(success ? "ok" : "fail");
+        return resultVo;
+    }
+
+    private static TradeResultVo<GetOrdersDataResponse> newOrderResult(Map<String, String> stateMap) {
+        TradeResultVo<GetOrdersDataResponse> resultVo = new TradeResultVo<>();
+        resultVo.setStatus(TradeResultVo.STATUS_SUCCESS);
+        resultVo.setData(stateMap.entrySet().stream().map(entry -> {
+            GetOrdersDataResponse response = new GetOrdersDataResponse();
+            response.setWtbh(entry.getKey());
+            response.setWtzt(entry.getValue());
+            return response;
+        }).collect(Collectors.toList()));
+        return resultVo;
+    }
+
+}